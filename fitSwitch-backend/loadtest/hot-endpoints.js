@@ -0,0 +1,87 @@
+// k6 load test for the hot read paths and login. Run it once per thread mode and compare
+// the http_req_duration p(99) and http_reqs rate per scenario; see README.md.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=user@example.com -e PASSWORD=secret \
+//          -e LAT=17.385 -e LNG=78.486 -e MODE=platform hot-endpoints.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.EMAIL;
+const PASSWORD = __ENV.PASSWORD;
+const LAT = __ENV.LAT || '17.385';
+const LNG = __ENV.LNG || '78.486';
+const VUS = parseInt(__ENV.VUS || '200', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    tags: { mode: __ENV.MODE || 'unspecified' },
+    scenarios: {
+        browse: {
+            executor: 'constant-vus',
+            exec: 'browse',
+            vus: VUS,
+            duration: DURATION,
+        },
+        dashboard: {
+            executor: 'constant-vus',
+            exec: 'dashboard',
+            vus: Math.max(1, Math.floor(VUS / 2)),
+            duration: DURATION,
+        },
+        login: {
+            executor: 'constant-arrival-rate',
+            exec: 'login',
+            rate: parseInt(__ENV.LOGIN_RATE || '20', 10),
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 50,
+        },
+    },
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{scenario:browse}': ['p(99)<500'],
+        'http_req_duration{scenario:dashboard}': ['p(99)<500'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function login() {
+    const res = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' }, tags: { endpoint: 'login' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    return res.status === 200 ? res.json('data.token') : null;
+}
+
+export function setup() {
+    if (!EMAIL || !PASSWORD) {
+        throw new Error('EMAIL and PASSWORD of an existing verified user are required');
+    }
+    const token = login();
+    if (!token) {
+        throw new Error('Login failed; check EMAIL and PASSWORD');
+    }
+    return { token };
+}
+
+function get(path, token, endpoint) {
+    const res = http.get(`${BASE_URL}${path}`,
+        { headers: { Authorization: `Bearer ${token}` }, tags: { endpoint } });
+    check(res, { [`${endpoint} 200`]: (r) => r.status === 200 });
+}
+
+export function browse(data) {
+    get('/gyms', data.token, 'gyms');
+    get(`/gyms/nearby?lat=${LAT}&lng=${LNG}&radiusKm=10`, data.token, 'nearby');
+    get('/search/gyms?q=fit&size=20', data.token, 'search');
+    get('/search/suggest?q=fi', data.token, 'suggest');
+}
+
+export function dashboard(data) {
+    get('/user/dashboard/stats', data.token, 'dashboard');
+    get('/api/wallet/balance', data.token, 'wallet');
+    get('/api/digital-card/data', data.token, 'card');
+}
+
+export { login };
@@ -0,0 +1,98 @@
+// k6 load test for the morning check-in rush: members arrive at a rising rate, check in
+// against their membership, look at the open session and check out again. See README.md.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e MEMBERS=members.json -e PEAK_RATE=100 morning-rush.js
+//
+// MEMBERS is a JSON array of { "email": ..., "password": ... } for verified users who each
+// hold an ACTIVE membership; the first active membership of each user is the one scanned.
+
+import http from 'k6/http';
+import exec from 'k6/execution';
+import { check, fail } from 'k6';
+import { SharedArray } from 'k6/data';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PEAK_RATE = parseInt(__ENV.PEAK_RATE || '100', 10);
+const RAMP = __ENV.RAMP || '1m';
+const HOLD = __ENV.HOLD || '3m';
+
+const credentials = new SharedArray('members', () => JSON.parse(open(__ENV.MEMBERS || 'members.json')));
+
+export const options = {
+    tags: { mode: __ENV.MODE || 'unspecified' },
+    scenarios: {
+        rush: {
+            executor: 'ramping-arrival-rate',
+            exec: 'rush',
+            startRate: 1,
+            timeUnit: '1s',
+            preAllocatedVUs: Math.max(50, PEAK_RATE),
+            maxVUs: PEAK_RATE * 4,
+            stages: [
+                { target: PEAK_RATE, duration: RAMP },
+                { target: PEAK_RATE, duration: HOLD },
+                { target: 0, duration: RAMP },
+            ],
+        },
+    },
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{endpoint:check-in}': ['p(99)<300'],
+        'http_req_duration{endpoint:check-out}': ['p(99)<300'],
+        'dropped_iterations': ['count<1'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    // setup logs every member in, which takes a while with BCrypt
+    setupTimeout: __ENV.SETUP_TIMEOUT || '5m',
+};
+
+function post(path, token, body, endpoint) {
+    return http.post(`${BASE_URL}${path}`, JSON.stringify(body), {
+        headers: { Authorization: `Bearer ${token}`, 'Content-Type': 'application/json' },
+        tags: { endpoint },
+    });
+}
+
+export function setup() {
+    if (credentials.length === 0) {
+        fail('MEMBERS must list at least one member');
+    }
+    const members = [];
+    for (const { email, password } of credentials) {
+        const login = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ email, password }),
+            { headers: { 'Content-Type': 'application/json' }, tags: { endpoint: 'login' } });
+        if (login.status !== 200) {
+            fail(`Login failed for ${email}`);
+        }
+        const token = login.json('data.token');
+        const memberships = http.get(`${BASE_URL}/user/memberships`,
+            { headers: { Authorization: `Bearer ${token}` }, tags: { endpoint: 'memberships' } });
+        const active = (memberships.json() || []).find((m) => m.status === 'ACTIVE');
+        if (!active) {
+            fail(`${email} has no active membership`);
+        }
+        members.push({ token, membershipId: active.id });
+    }
+    return { members };
+}
+
+// Each iteration is one member at the door. Members are taken round robin, so with fewer
+// members than PEAK_RATE x check-in latency the same membership is scanned twice at once
+// and the second check-in is (correctly) refused.
+export function rush(data) {
+    const member = data.members[exec.scenario.iterationInTest % data.members.length];
+    const body = { membershipId: member.membershipId };
+
+    const checkIn = post('/user/membership-session/check-in', member.token, body, 'check-in');
+    check(checkIn, { 'check-in 200': (r) => r.status === 200 });
+    if (checkIn.status !== 200) {
+        return;
+    }
+
+    const current = http.get(`${BASE_URL}/user/membership-session/current?membershipId=${member.membershipId}`,
+        { headers: { Authorization: `Bearer ${member.token}` }, tags: { endpoint: 'current' } });
+    check(current, { 'current 200': (r) => r.status === 200 });
+
+    const checkOut = post('/user/membership-session/check-out', member.token, body, 'check-out');
+    check(checkOut, { 'check-out 200': (r) => r.status === 200 });
+}
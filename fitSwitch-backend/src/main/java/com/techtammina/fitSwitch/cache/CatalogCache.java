@@ -0,0 +1,181 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the catalog tables used to resolve names in response mappers.
+ *
+ * The cache holds copies of the loaded rows, not the instances the loading transaction's
+ * persistence context manages. Copies carry the column values only; associations are left
+ * null. They are shared between threads and must only be read. Anything that modifies a
+ * gym, plan or facility loads it from its repository and calls the matching
+ * {@code invalidate*} method after saving.
+ */
+@Service
+public class CatalogCache {
+
+    // Lazy associations on the catalog entities; a copy never loads them
+    private static final String[] ASSOCIATIONS = {"owner", "gym", "plans", "facilities", "memberships"};
+
+    private final GymRepository gymRepository;
+    private final GymPlanRepository gymPlanRepository;
+    private final GymFacilityRepository gymFacilityRepository;
+    private final FacilityPlanRepository facilityPlanRepository;
+
+    private final ExpiringCache<Long, Gym> gyms;
+    private final ExpiringCache<Long, GymPlan> gymPlans;
+    private final ExpiringCache<Long, GymFacility> gymFacilities;
+    private final ExpiringCache<Long, FacilityPlan> facilityPlans;
+
+    public CatalogCache(GymRepository gymRepository,
+                        GymPlanRepository gymPlanRepository,
+                        GymFacilityRepository gymFacilityRepository,
+                        FacilityPlanRepository facilityPlanRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.catalog-cache.max-size:10000}") int maxSize,
+                        @Value("${app.catalog-cache.ttl-ms:600000}") long ttlMs) {
+        this.gymRepository = gymRepository;
+        this.gymPlanRepository = gymPlanRepository;
+        this.gymFacilityRepository = gymFacilityRepository;
+        this.facilityPlanRepository = facilityPlanRepository;
+
+        this.gyms = register(new ExpiringCache<>("catalog.gyms", maxSize, ttlMs), meterRegistry);
+        this.gymPlans = register(new ExpiringCache<>("catalog.gymPlans", maxSize, ttlMs), meterRegistry);
+        this.gymFacilities = register(new ExpiringCache<>("catalog.gymFacilities", maxSize, ttlMs), meterRegistry);
+        this.facilityPlans = register(new ExpiringCache<>("catalog.facilityPlans", maxSize, ttlMs), meterRegistry);
+    }
+
+    public Optional<Gym> findGym(Long gymId) {
+        return find(gyms, gymRepository, Gym.class, gymId);
+    }
+
+    public Optional<GymPlan> findGymPlan(Long planId) {
+        return find(gymPlans, gymPlanRepository, GymPlan.class, planId);
+    }
+
+    public Optional<GymFacility> findGymFacility(Long facilityId) {
+        return find(gymFacilities, gymFacilityRepository, GymFacility.class, facilityId);
+    }
+
+    public Optional<FacilityPlan> findFacilityPlan(Long planId) {
+        return find(facilityPlans, facilityPlanRepository, FacilityPlan.class, planId);
+    }
+
+    public Map<Long, Gym> getGyms(Collection<Long> gymIds) {
+        return getAll(gyms, gymRepository, Gym.class, gymIds, Gym::getId);
+    }
+
+    public Map<Long, GymPlan> getGymPlans(Collection<Long> planIds) {
+        return getAll(gymPlans, gymPlanRepository, GymPlan.class, planIds, GymPlan::getId);
+    }
+
+    public Map<Long, GymFacility> getGymFacilities(Collection<Long> facilityIds) {
+        return getAll(gymFacilities, gymFacilityRepository, GymFacility.class, facilityIds, GymFacility::getId);
+    }
+
+    public Map<Long, FacilityPlan> getFacilityPlans(Collection<Long> planIds) {
+        return getAll(facilityPlans, facilityPlanRepository, FacilityPlan.class, planIds, FacilityPlan::getId);
+    }
+
+    public void invalidateGym(Long gymId) {
+        invalidate(gyms, gymId);
+    }
+
+    public void invalidateGymPlan(Long planId) {
+        invalidate(gymPlans, planId);
+    }
+
+    public void invalidateGymFacility(Long facilityId) {
+        invalidate(gymFacilities, facilityId);
+    }
+
+    public void invalidateFacilityPlan(Long planId) {
+        invalidate(facilityPlans, planId);
+    }
+
+    private <T> Optional<T> find(ExpiringCache<Long, T> cache, JpaRepository<T, Long> repository,
+                                 Class<T> type, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(id, key -> repository.findById(key)
+                .map(entity -> detachedCopy(entity, type))
+                .orElse(null)));
+    }
+
+    private <T> Map<Long, T> getAll(ExpiringCache<Long, T> cache, JpaRepository<T, Long> repository,
+                                    Class<T> type, Collection<Long> ids, Function<T, Long> idOf) {
+        return cache.getAll(ids, missing -> {
+            List<T> loaded = repository.findAllById(missing);
+            Map<Long, T> byId = new HashMap<>();
+            for (T entity : loaded) {
+                byId.put(idOf.apply(entity), detachedCopy(entity, type));
+            }
+            return byId;
+        });
+    }
+
+    private static <T> T detachedCopy(T entity, Class<T> type) {
+        T copy = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(Hibernate.unproxy(entity), copy, ASSOCIATIONS);
+        return copy;
+    }
+
+    private <T> void invalidate(ExpiringCache<Long, T> cache, Long id) {
+        if (id == null) {
+            return;
+        }
+        cache.invalidate(id);
+        // Evict again on commit so a concurrent reader cannot re-cache the pre-update row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private static <T> ExpiringCache<Long, T> register(ExpiringCache<Long, T> cache, MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::hitCount)
+                .tag("cache", cache.getName())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::missCount)
+                .tag("cache", cache.getName())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::evictionCount)
+                .tag("cache", cache.getName())
+                .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+                .tag("cache", cache.getName())
+                .register(registry);
+        return cache;
+    }
+}
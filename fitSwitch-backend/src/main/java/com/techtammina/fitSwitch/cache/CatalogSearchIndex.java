@@ -0,0 +1,400 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.enums.PassType;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
+import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over active gyms and their facilities and plans, for search and typeahead.
+ *
+ * Every gym is one document. Its tokens point at it with the weight of the most important
+ * field they appear in, and the sorted term dictionary answers prefix lookups for the word
+ * being typed. Gyms are reindexed one at a time when a {@link CatalogChangedEvent} is
+ * committed; queries read the concurrent maps without locking and may briefly see a gym
+ * half way through a reindex. Indexed gyms are shared and must only be read.
+ */
+@Service
+public class CatalogSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 5f;
+    private static final float LOCATION_WEIGHT = 3f;
+    private static final float FACILITY_WEIGHT = 2f;
+    private static final float PLAN_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 0.5f;
+    // A word matched only by a prefix counts for less than the whole word
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final int SUGGESTION_SCAN_LIMIT = 500;
+
+    public static final String SUGGEST_GYM = "GYM";
+    public static final String SUGGEST_CITY = "CITY";
+    public static final String SUGGEST_FACILITY = "FACILITY";
+    public static final String SUGGEST_PLAN = "PLAN";
+    private static final List<String> SUGGESTION_ORDER = List.of(SUGGEST_GYM, SUGGEST_CITY, SUGGEST_FACILITY, SUGGEST_PLAN);
+
+    private final GymRepository gymRepository;
+    private final GymFacilityRepository facilityRepository;
+    private final GymPlanRepository gymPlanRepository;
+    private final FacilityPlanRepository facilityPlanRepository;
+
+    private final Map<Long, IndexedGym> gyms = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Map<Suggestion, Integer>> suggestions = new ConcurrentSkipListMap<>();
+    // Serialises reindexing; held across database reads, so not a monitor (see GymGeoIndex)
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public CatalogSearchIndex(GymRepository gymRepository,
+                              GymFacilityRepository facilityRepository,
+                              GymPlanRepository gymPlanRepository,
+                              FacilityPlanRepository facilityPlanRepository) {
+        this.gymRepository = gymRepository;
+        this.facilityRepository = facilityRepository;
+        this.gymPlanRepository = gymPlanRepository;
+        this.facilityPlanRepository = facilityPlanRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Long, List<GymFacility>> facilities = facilityRepository.findByActiveTrue().stream()
+                .collect(Collectors.groupingBy(GymFacility::getGymId));
+        Map<Long, List<GymPlan>> plans = gymPlanRepository.findByActiveTrue().stream()
+                .collect(Collectors.groupingBy(GymPlan::getGymId));
+        Map<Long, List<FacilityPlan>> facilityPlans = facilityPlanRepository.findByActiveTrue().stream()
+                .collect(Collectors.groupingBy(FacilityPlan::getGymId));
+        for (Gym gym : gymRepository.findByActiveTrue()) {
+            put(gym, facilities.getOrDefault(gym.getId(), List.of()), plans.getOrDefault(gym.getId(), List.of()),
+                    facilityPlans.getOrDefault(gym.getId(), List.of()));
+        }
+        log.info("Indexed {} gyms for search ({} terms)", gyms.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        refresh(event.getGymId());
+    }
+
+    public void refresh(Long gymId) {
+        refreshLock.lock();
+        try {
+            Gym gym = gymRepository.findById(gymId).orElse(null);
+            if (gym == null || !gym.isActive()) {
+                remove(gymId);
+                return;
+            }
+            put(gym, facilityRepository.findByGymIdAndActiveTrue(gymId), gymPlanRepository.findByGymIdAndActiveTrue(gymId),
+                    facilityPlanRepository.findByGymIdAndActiveTrue(gymId));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Gyms matching every word of the query (the last word may be a prefix) and every given
+     * filter, best match first. A blank query matches all gyms, ordered by name.
+     */
+    public List<Match> search(String query, String city, PassType passType, String facility,
+                              BigDecimal minPrice, BigDecimal maxPrice) {
+        List<String> tokens = tokenize(query);
+        Map<Long, Double> scores = tokens.isEmpty() ? allGyms() : score(tokens);
+
+        String cityKey = normalize(city);
+        String facilityKey = normalize(facility);
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            IndexedGym gym = gyms.get(entry.getKey());
+            if (gym != null && gym.matches(cityKey, passType, facilityKey, minPrice, maxPrice)) {
+                matches.add(new Match(gym, entry.getValue()));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getScore).reversed()
+                .thenComparing(match -> match.getGym().getGym().getGymName(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(match -> match.getGym().getGym().getId()));
+        return matches;
+    }
+
+    /**
+     * Gym names, cities, facilities and plans containing a word that starts with the typed
+     * text, gyms first and the most common values before rarer ones.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Map<Suggestion, Integer> found = new LinkedHashMap<>();
+        int scanned = 0;
+        for (Map.Entry<String, Map<Suggestion, Integer>> entry : suggestions.tailMap(key, true).entrySet()) {
+            if (!entry.getKey().startsWith(key) || ++scanned > SUGGESTION_SCAN_LIMIT) {
+                break;
+            }
+            entry.getValue().forEach((suggestion, count) -> found.merge(suggestion, count, Math::max));
+        }
+        return found.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Suggestion, Integer>>comparingInt(e -> SUGGESTION_ORDER.indexOf(e.getKey().getType()))
+                        .thenComparing(Map.Entry.<Suggestion, Integer>comparingByValue().reversed())
+                        .thenComparing(e -> e.getKey().getText(), String.CASE_INSENSITIVE_ORDER))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Double> allGyms() {
+        Map<Long, Double> scores = new HashMap<>();
+        gyms.keySet().forEach(gymId -> scores.put(gymId, 0d));
+        return scores;
+    }
+
+    private Map<Long, Double> score(List<String> tokens) {
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Map<Long, Double> tokenScores = new HashMap<>();
+            Map<Long, Float> exact = postings.get(token);
+            if (exact != null) {
+                exact.forEach((gymId, weight) -> tokenScores.merge(gymId, (double) weight, Math::max));
+            }
+            if (i == tokens.size() - 1) {
+                for (Map.Entry<String, Map<Long, Float>> entry : postings.tailMap(token, false).entrySet()) {
+                    if (!entry.getKey().startsWith(token)) {
+                        break;
+                    }
+                    entry.getValue().forEach((gymId, weight) ->
+                            tokenScores.merge(gymId, (double) (weight * PREFIX_FACTOR), Math::max));
+                }
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((gymId, score) -> score + tokenScores.get(gymId));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void put(Gym gym, List<GymFacility> facilities, List<GymPlan> plans, List<FacilityPlan> facilityPlans) {
+        remove(gym.getId());
+
+        Map<String, Float> terms = new HashMap<>();
+        Set<Suggestion> gymSuggestions = new HashSet<>();
+        addTerms(terms, gym.getGymName(), NAME_WEIGHT);
+        addTerms(terms, gym.getCity(), LOCATION_WEIGHT);
+        addTerms(terms, gym.getState(), LOCATION_WEIGHT);
+        addTerms(terms, gym.getPincode(), LOCATION_WEIGHT);
+        addSuggestion(gymSuggestions, gym.getGymName(), SUGGEST_GYM, gym.getId());
+        addSuggestion(gymSuggestions, gym.getCity(), SUGGEST_CITY, null);
+
+        Set<Long> activeFacilityIds = new HashSet<>();
+        Set<String> facilityNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (GymFacility facility : facilities) {
+            activeFacilityIds.add(facility.getId());
+            facilityNames.add(facility.getFacilityName().trim());
+            addTerms(terms, facility.getFacilityName(), FACILITY_WEIGHT);
+            addTerms(terms, facility.getDescription(), DESCRIPTION_WEIGHT);
+            addSuggestion(gymSuggestions, facility.getFacilityName(), SUGGEST_FACILITY, null);
+        }
+
+        Set<PassType> passTypes = EnumSet.noneOf(PassType.class);
+        List<BigDecimal> prices = new ArrayList<>();
+        for (GymPlan plan : plans) {
+            passTypes.add(plan.getPassType());
+            prices.add(plan.getPrice());
+            addTerms(terms, plan.getPlanName(), PLAN_WEIGHT);
+            addSuggestion(gymSuggestions, plan.getPlanName(), SUGGEST_PLAN, null);
+        }
+        for (FacilityPlan plan : facilityPlans) {
+            if (!activeFacilityIds.contains(plan.getFacilityId())) {
+                continue;
+            }
+            prices.add(plan.getPrice());
+            addTerms(terms, plan.getPlanName(), PLAN_WEIGHT);
+            addSuggestion(gymSuggestions, plan.getPlanName(), SUGGEST_PLAN, null);
+        }
+        prices.removeIf(Objects::isNull);
+        prices.sort(null);
+
+        IndexedGym indexed = new IndexedGym(gym, List.copyOf(facilityNames), Set.copyOf(passTypes), List.copyOf(prices),
+                Map.copyOf(terms), Set.copyOf(gymSuggestions));
+        gyms.put(gym.getId(), indexed);
+        indexed.terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(gym.getId(), weight));
+        for (Suggestion suggestion : indexed.suggestions) {
+            for (String key : suggestionKeys(suggestion.getText())) {
+                suggestions.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).merge(suggestion, 1, Integer::sum);
+            }
+        }
+    }
+
+    private void remove(Long gymId) {
+        IndexedGym existing = gyms.remove(gymId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms.keySet()) {
+            postings.computeIfPresent(term, (key, gymWeights) -> {
+                gymWeights.remove(gymId);
+                return gymWeights.isEmpty() ? null : gymWeights;
+            });
+        }
+        for (Suggestion suggestion : existing.suggestions) {
+            for (String key : suggestionKeys(suggestion.getText())) {
+                suggestions.computeIfPresent(key, (k, counts) -> {
+                    counts.computeIfPresent(suggestion, (s, count) -> count > 1 ? count - 1 : null);
+                    return counts.isEmpty() ? null : counts;
+                });
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    private static void addSuggestion(Set<Suggestion> suggestions, String text, String type, Long gymId) {
+        if (text != null && !text.isBlank()) {
+            suggestions.add(new Suggestion(text.trim(), type, gymId));
+        }
+    }
+
+    // "Gold Fitness Club" is found from "gold", "fitness" and "club"
+    private static List<String> suggestionKeys(String text) {
+        List<String> tokens = tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class IndexedGym {
+        private final Gym gym;
+        private final List<String> facilityNames;
+        private final Set<PassType> passTypes;
+        private final List<BigDecimal> prices;
+        private final Map<String, Float> terms;
+        private final Set<Suggestion> suggestions;
+
+        IndexedGym(Gym gym, List<String> facilityNames, Set<PassType> passTypes, List<BigDecimal> prices,
+                   Map<String, Float> terms, Set<Suggestion> suggestions) {
+            this.gym = gym;
+            this.facilityNames = facilityNames;
+            this.passTypes = passTypes;
+            this.prices = prices;
+            this.terms = terms;
+            this.suggestions = suggestions;
+        }
+
+        boolean matches(String cityKey, PassType passType, String facilityKey, BigDecimal minPrice, BigDecimal maxPrice) {
+            if (cityKey != null && !cityKey.equals(normalize(gym.getCity()))) {
+                return false;
+            }
+            if (passType != null && !passTypes.contains(passType)) {
+                return false;
+            }
+            if (facilityKey != null && facilityNames.stream().noneMatch(name -> name.equalsIgnoreCase(facilityKey))) {
+                return false;
+            }
+            if (minPrice == null && maxPrice == null) {
+                return true;
+            }
+            return prices.stream().anyMatch(price ->
+                    (minPrice == null || price.compareTo(minPrice) >= 0) && (maxPrice == null || price.compareTo(maxPrice) <= 0));
+        }
+
+        public Gym getGym() { return gym; }
+        public List<String> getFacilityNames() { return facilityNames; }
+        public Set<PassType> getPassTypes() { return passTypes; }
+        public BigDecimal getMinPrice() { return prices.isEmpty() ? null : prices.get(0); }
+    }
+
+    public static final class Match {
+        private final IndexedGym gym;
+        private final double score;
+
+        Match(IndexedGym gym, double score) {
+            this.gym = gym;
+            this.score = score;
+        }
+
+        public IndexedGym getGym() { return gym; }
+        public double getScore() { return score; }
+    }
+
+    public static final class Suggestion {
+        private final String text;
+        private final String type;
+        private final Long gymId;
+
+        Suggestion(String text, String type, Long gymId) {
+            this.text = text;
+            this.type = type;
+            this.gymId = gymId;
+        }
+
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public Long getGymId() { return gymId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Suggestion other)) return false;
+            return text.equalsIgnoreCase(other.text) && type.equals(other.type) && Objects.equals(gymId, other.gymId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text.toLowerCase(Locale.ROOT), type, gymId);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Active gyms bucketed into a fixed latitude/longitude grid, for "gyms near me" lookups.
+ *
+ * A query only visits the cells overlapping its radius, so its cost depends on how many gyms
+ * are nearby rather than on the size of the catalog. Each cell holds an immutable list that
+ * is replaced on change, so queries never lock. Gyms are reloaded one at a time when a
+ * {@link CatalogChangedEvent} is committed. Cached gyms are shared and must only be read.
+ */
+@Service
+public class GymGeoIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(GymGeoIndex.class);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+    // About 11 km north to south; a 5 km search touches at most a few cells
+    private static final double CELL_DEGREES = 0.1;
+    private static final int LNG_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    // Opening hours are free text entered by owners, e.g. "06:00", "6:00 AM" or "6am"
+    private static final List<DateTimeFormatter> TIME_FORMATS = List.of(
+            formatter("H:mm"), formatter("H:mm:ss"), formatter("h:mm a"), formatter("h:mma"),
+            formatter("h a"), formatter("ha"));
+
+    private final GymRepository gymRepository;
+    private final GymFacilityRepository facilityRepository;
+
+    private final Map<Long, List<Entry>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byGymId = new ConcurrentHashMap<>();
+    // Held across database reads, so not a monitor: that would pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public GymGeoIndex(GymRepository gymRepository, GymFacilityRepository facilityRepository) {
+        this.gymRepository = gymRepository;
+        this.facilityRepository = facilityRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Long, List<GymFacility>> facilities = facilityRepository.findByActiveTrue().stream()
+                .collect(Collectors.groupingBy(GymFacility::getGymId));
+        List<Gym> gyms = gymRepository.findByActiveTrue();
+        for (Gym gym : gyms) {
+            put(gym, facilities.getOrDefault(gym.getId(), List.of()));
+        }
+        log.info("Indexed {} of {} active gyms by location", byGymId.size(), gyms.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Plans carry nothing the geo search filters on
+        if (event.getType() == CatalogChangedEvent.Type.GYM || event.getType() == CatalogChangedEvent.Type.GYM_FACILITY) {
+            refresh(event.getGymId());
+        }
+    }
+
+    public void refresh(Long gymId) {
+        refreshLock.lock();
+        try {
+            Gym gym = gymRepository.findById(gymId).orElse(null);
+            if (gym == null || !gym.isActive()) {
+                remove(gymId);
+                return;
+            }
+            put(gym, facilityRepository.findByGymIdAndActiveTrue(gymId));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Active gyms within radiusKm of the point, nearest first. openAt and facilities are
+     * optional; a gym matches the facility filter when every term appears in the name of one
+     * of its active facilities.
+     */
+    public List<Hit> findNearby(double latitude, double longitude, double radiusKm, int limit,
+                                LocalTime openAt, Collection<String> facilities) {
+        List<String> terms = facilities == null ? List.of() : facilities.stream()
+                .map(term -> term.trim().toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty())
+                .toList();
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lngSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        int minLat = latCell(Math.max(latitude - latSpan, -90));
+        int maxLat = latCell(Math.min(latitude + latSpan, 90));
+        int minLng = lngCell(longitude - Math.min(lngSpan, 180));
+        int lngCount = Math.min(lngCell(longitude + Math.min(lngSpan, 180)) - minLng, LNG_CELLS - 1) + 1;
+
+        List<Hit> hits = new ArrayList<>();
+        for (int latIndex = minLat; latIndex <= maxLat; latIndex++) {
+            for (int offset = 0; offset < lngCount; offset++) {
+                List<Entry> cell = cells.get(cellKey(latIndex, Math.floorMod(minLng + offset, LNG_CELLS)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell) {
+                    double distance = distanceKm(latitude, longitude, entry.gym.getLatitude(), entry.gym.getLongitude());
+                    if (distance <= radiusKm && entry.isOpenAt(openAt) && entry.hasFacilities(terms)) {
+                        hits.add(new Hit(entry.gym, distance));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    public int size() {
+        return byGymId.size();
+    }
+
+    private void put(Gym gym, List<GymFacility> facilities) {
+        remove(gym.getId());
+        // 0,0 is what createGym stores when no location was given
+        if (gym.getLatitude() == 0 && gym.getLongitude() == 0) {
+            return;
+        }
+        Set<String> facilityNames = facilities.stream()
+                .map(facility -> facility.getFacilityName().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        Entry entry = new Entry(gym, parseTime(gym.getOpenTime()), parseTime(gym.getCloseTime()), facilityNames);
+        byGymId.put(gym.getId(), entry);
+        cells.compute(cellOf(gym), (key, cell) -> {
+            List<Entry> updated = cell == null ? new ArrayList<>() : new ArrayList<>(cell);
+            updated.add(entry);
+            return List.copyOf(updated);
+        });
+    }
+
+    private void remove(Long gymId) {
+        Entry existing = byGymId.remove(gymId);
+        if (existing == null) {
+            return;
+        }
+        cells.computeIfPresent(cellOf(existing.gym), (key, cell) -> {
+            List<Entry> updated = cell.stream().filter(entry -> entry != existing).toList();
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    private static long cellOf(Gym gym) {
+        return cellKey(latCell(gym.getLatitude()), Math.floorMod(lngCell(gym.getLongitude()), LNG_CELLS));
+    }
+
+    private static long cellKey(int latIndex, int lngIndex) {
+        return (long) latIndex * LNG_CELLS + lngIndex;
+    }
+
+    private static int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int lngCell(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+
+    private static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static LocalTime parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (DateTimeFormatter format : TIME_FORMATS) {
+            try {
+                return LocalTime.parse(value.trim(), format);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    private static DateTimeFormatter formatter(String pattern) {
+        return new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern).toFormatter(Locale.ENGLISH);
+    }
+
+    public static final class Hit {
+        private final Gym gym;
+        private final double distanceKm;
+
+        Hit(Gym gym, double distanceKm) {
+            this.gym = gym;
+            this.distanceKm = distanceKm;
+        }
+
+        public Gym getGym() { return gym; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+
+    private static final class Entry {
+        private final Gym gym;
+        private final LocalTime openTime;
+        private final LocalTime closeTime;
+        private final Set<String> facilityNames;
+
+        Entry(Gym gym, LocalTime openTime, LocalTime closeTime, Set<String> facilityNames) {
+            this.gym = gym;
+            this.openTime = openTime;
+            this.closeTime = closeTime;
+            this.facilityNames = facilityNames;
+        }
+
+        boolean isOpenAt(LocalTime time) {
+            if (time == null) {
+                return true;
+            }
+            if (openTime == null || closeTime == null) {
+                return false;
+            }
+            if (openTime.equals(closeTime)) {
+                return true;
+            }
+            if (openTime.isBefore(closeTime)) {
+                return !time.isBefore(openTime) && time.isBefore(closeTime);
+            }
+            // Closes after midnight
+            return !time.isBefore(openTime) || time.isBefore(closeTime);
+        }
+
+        boolean hasFacilities(List<String> terms) {
+            for (String term : terms) {
+                if (facilityNames.stream().noneMatch(name -> name.contains(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.dto.GymOccupancyResponse;
+import com.techtammina.fitSwitch.dto.OccupancyDeltaResponse;
+import com.techtammina.fitSwitch.dto.OccupantResponse;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is checked in at each gym right now, mirrored in memory from the session tables.
+ *
+ * Each gym keeps an immutable snapshot that is replaced on every change, so reads never lock
+ * and return in constant time. Snapshots and occupants are shared between threads and must
+ * only be read. The registry is per instance; it is filled by OccupancyService.
+ */
+@Service
+public class OccupancyRegistry {
+
+    public static final String CHECK_IN = "CHECK_IN";
+    public static final String CHECK_OUT = "CHECK_OUT";
+
+    private final Map<Long, GymOccupancy> gyms = new ConcurrentHashMap<>();
+
+    public GymOccupancyResponse get(Long gymId) {
+        GymOccupancy occupancy = gyms.get(gymId);
+        return occupancy != null ? occupancy.snapshot : new GymOccupancyResponse(gymId, 0, List.of());
+    }
+
+    /**
+     * Returns the delta to push, or null if the session was already present.
+     */
+    public OccupancyDeltaResponse checkIn(OccupantResponse occupant) {
+        return gyms.computeIfAbsent(occupant.getGymId(), GymOccupancy::new).add(occupant);
+    }
+
+    /**
+     * Returns the delta to push, or null if the session was not present.
+     */
+    public OccupancyDeltaResponse checkOut(Long gymId, String sessionType, Long sessionId) {
+        GymOccupancy occupancy = gyms.get(gymId);
+        return occupancy != null ? occupancy.remove(key(sessionType, sessionId)) : null;
+    }
+
+    /**
+     * Drops sessions from days before the given one, which were never checked out.
+     */
+    public List<OccupancyDeltaResponse> dropVisitsBefore(LocalDate day) {
+        List<OccupancyDeltaResponse> deltas = new ArrayList<>();
+        for (GymOccupancy occupancy : gyms.values()) {
+            deltas.addAll(occupancy.removeVisitsBefore(day));
+        }
+        return deltas;
+    }
+
+    /**
+     * Replaces the whole registry. Only for startup, before sessions can change.
+     */
+    public void load(List<OccupantResponse> occupants) {
+        gyms.clear();
+        for (OccupantResponse occupant : occupants) {
+            checkIn(occupant);
+        }
+    }
+
+    private static String key(String sessionType, Long sessionId) {
+        return sessionType + ":" + sessionId;
+    }
+
+    private static final class GymOccupancy {
+
+        private final Long gymId;
+        private final Map<String, OccupantResponse> occupants = new LinkedHashMap<>();
+        // A user can hold a membership and a facility session at once but is one head
+        private final Map<Long, Integer> sessionsPerUser = new HashMap<>();
+        private volatile GymOccupancyResponse snapshot;
+
+        GymOccupancy(Long gymId) {
+            this.gymId = gymId;
+            this.snapshot = new GymOccupancyResponse(gymId, 0, List.of());
+        }
+
+        synchronized OccupancyDeltaResponse add(OccupantResponse occupant) {
+            if (occupants.putIfAbsent(key(occupant.getSessionType(), occupant.getSessionId()), occupant) != null) {
+                return null;
+            }
+            sessionsPerUser.merge(occupant.getUserId(), 1, Integer::sum);
+            publish();
+            return new OccupancyDeltaResponse(CHECK_IN, gymId, sessionsPerUser.size(), occupant);
+        }
+
+        synchronized OccupancyDeltaResponse remove(String key) {
+            OccupantResponse occupant = occupants.remove(key);
+            if (occupant == null) {
+                return null;
+            }
+            sessionsPerUser.computeIfPresent(occupant.getUserId(), (userId, count) -> count > 1 ? count - 1 : null);
+            publish();
+            return new OccupancyDeltaResponse(CHECK_OUT, gymId, sessionsPerUser.size(), occupant);
+        }
+
+        synchronized List<OccupancyDeltaResponse> removeVisitsBefore(LocalDate day) {
+            List<String> stale = new ArrayList<>();
+            occupants.forEach((key, occupant) -> {
+                if (occupant.getVisitDate().isBefore(day)) {
+                    stale.add(key);
+                }
+            });
+            List<OccupancyDeltaResponse> deltas = new ArrayList<>();
+            for (String key : stale) {
+                deltas.add(remove(key));
+            }
+            return deltas;
+        }
+
+        private void publish() {
+            snapshot = new GymOccupancyResponse(gymId, sessionsPerUser.size(), List.copyOf(occupants.values()));
+        }
+    }
+}
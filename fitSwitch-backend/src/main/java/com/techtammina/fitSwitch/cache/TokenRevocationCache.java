@@ -0,0 +1,45 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks that a token's user is still enabled and that the token version has not been bumped
+ * (by a password, role or disable change) since it was issued. The user's state is read at
+ * most once per TTL, so such an account is locked out within
+ * {@code app.jwt.revocation-check.ttl-ms} even if its token is in the verified-token cache.
+ */
+@Component
+public class TokenRevocationCache {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final ExpiringCache<Long, UserRepository.TokenState> states;
+
+    public TokenRevocationCache(UserRepository userRepository,
+                                @Value("${app.jwt.revocation-check.enabled:true}") boolean enabled,
+                                @Value("${app.jwt.revocation-check.ttl-ms:30000}") long ttlMs,
+                                @Value("${app.jwt.revocation-check.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.states = new ExpiringCache<>("jwt.revocation", maxSize, ttlMs);
+    }
+
+    public boolean isRevoked(AuthenticatedUser principal) {
+        if (!enabled) {
+            return false;
+        }
+        UserRepository.TokenState state = states.get(principal.getId(),
+                userId -> userRepository.findTokenStateById(userId).orElse(null));
+        return state == null
+                || !Boolean.TRUE.equals(state.getEnabled())
+                || state.getTokenVersion() == null
+                || state.getTokenVersion() != principal.getTokenVersion();
+    }
+
+    public void evict(Long userId) {
+        states.invalidate(userId);
+    }
+}
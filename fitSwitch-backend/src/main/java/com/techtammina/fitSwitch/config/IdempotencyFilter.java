@@ -0,0 +1,163 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.dto.ApiResponse;
+import com.techtammina.fitSwitch.entity.IdempotencyRecord;
+import com.techtammina.fitSwitch.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Makes the money-moving POST endpoints safe to retry. A request carrying an Idempotency-Key
+ * header runs at most once per user and key; repeats get the stored response back without
+ * touching the wallet tables, and concurrent repeats wait for the first execution.
+ *
+ * Runs after the security chain so the key is scoped to the authenticated user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Wallet and subscription bodies are a few fields; larger ones are not hashed or run
+    static final int MAX_BODY = 64 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<String> paths;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${app.idempotency.enabled:true}") boolean enabled,
+                             @Value("${app.idempotency.paths}") String[] paths) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.paths = Set.of(paths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header");
+            return;
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
+            // Let security reject the request as usual
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Long userId = principal.getId();
+
+        CachedBodyRequest cachedRequest = CachedBodyRequest.readAtMost(request, MAX_BODY);
+        if (cachedRequest == null) {
+            writeError(response, HttpStatus.CONTENT_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        String requestHash = hash(request, cachedRequest.getBody());
+
+        IdempotencyService.Claim claim = idempotencyService.claim(userId, key, requestHash);
+        IdempotencyRecord existing = claim.getExisting();
+        if (existing != null) {
+            if (!existing.getRequestHash().equals(requestHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_CONTENT,
+                        "Idempotency-Key was already used for a different request");
+            } else if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                replay(response, existing);
+            } else {
+                response.setHeader("Retry-After", "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyService.release(claim);
+            throw e;
+        }
+        try {
+            // Server errors roll back, so the key is released and a retry runs the request again.
+            // Anything else has committed: the key is kept even if storing the response fails,
+            // and a retry waits out the claim's lease rather than running the request again now.
+            if (cachedResponse.getStatus() >= 500) {
+                idempotencyService.release(claim);
+            } else {
+                idempotencyService.complete(claim, cachedResponse.getStatus(), cachedResponse.getContentType(),
+                        new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not record the response for Idempotency-Key {} of user {}", key, userId, e);
+        } finally {
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyRecord record) throws IOException {
+        response.setStatus(record.getResponseStatus());
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() != null) {
+            response.getOutputStream().write(record.getResponseBody().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    static String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
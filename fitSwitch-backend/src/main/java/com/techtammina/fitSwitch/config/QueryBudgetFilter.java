@@ -0,0 +1,105 @@
+package com.techtammina.fitSwitch.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link QueryMetricsContext} around every request, ahead of the security chain so
+ * statements issued during authentication are counted too. Once the handler has run, the
+ * totals are published as metrics and a warning is logged when the route exceeds its budget
+ * or repeats the same statement often enough to look like an N+1 loop.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryMetricsContext context = QueryMetricsContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryMetricsContext.end();
+            report(request, response, context);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, QueryMetricsContext context) {
+        String route = resolveRoute(request);
+        long count = context.getStatementCount();
+
+        // Headers are normally written by QueryMetricsResponseAdvice; this covers bodiless responses
+        if (properties.isExposeHeaders() && !response.isCommitted()) {
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(count));
+            response.setHeader(QUERY_TIME_HEADER, String.valueOf(context.getJdbcTimeMillis()));
+        }
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(count);
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time spent in JDBC per request")
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(context.getJdbcTimeNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = properties.budgetFor(route);
+        if (count > budget) {
+            Counter.builder("http.server.requests.sql.budget.exceeded")
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Query budget exceeded for {} {}: {} statements (budget {}), {} ms in JDBC",
+                    request.getMethod(), route, count, budget, context.getJdbcTimeMillis());
+        }
+
+        Map<String, Integer> repeated = context.getRepeatedStatements(properties.getRepeatedStatementThreshold());
+        repeated.forEach((sql, times) ->
+                log.warn("Possible N+1 on {} {}: statement executed {} times: {}",
+                        request.getMethod(), route, times, sql));
+    }
+
+    private String resolveRoute(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Fall back to a fixed tag for unmatched requests to keep metric cardinality bounded
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,46 @@
+package com.techtammina.fitSwitch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled = true;
+
+    // Add X-Query-Count / X-Query-Time-Ms to responses
+    private boolean exposeHeaders = true;
+
+    // Statement budget for routes without an explicit entry
+    private int defaultBudget = 25;
+
+    // Same SQL executed this many times in one request is reported as a likely N+1
+    private int repeatedStatementThreshold = 10;
+
+    // Per-route budgets keyed by handler pattern, e.g. routes[/owner/gyms/{gymId}/users]=3
+    private Map<String, Integer> routes = new HashMap<>();
+
+    public int budgetFor(String route) {
+        return routes.getOrDefault(route, defaultBudget);
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public boolean isExposeHeaders() { return exposeHeaders; }
+    public void setExposeHeaders(boolean exposeHeaders) { this.exposeHeaders = exposeHeaders; }
+
+    public int getDefaultBudget() { return defaultBudget; }
+    public void setDefaultBudget(int defaultBudget) { this.defaultBudget = defaultBudget; }
+
+    public int getRepeatedStatementThreshold() { return repeatedStatementThreshold; }
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) { this.repeatedStatementThreshold = repeatedStatementThreshold; }
+
+    public Map<String, Integer> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Integer> routes) { this.routes = routes; }
+}
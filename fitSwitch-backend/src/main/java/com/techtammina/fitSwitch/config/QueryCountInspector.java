@@ -0,0 +1,16 @@
+package com.techtammina.fitSwitch.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares against the current request.
+ * Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryMetricsContext.recordStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,90 @@
+package com.techtammina.fitSwitch.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-thread accumulator for the SQL statements issued while serving one request.
+ * Fed by {@link QueryCountInspector} and {@link QueryTimingListener}; opened and
+ * closed by {@link QueryBudgetFilter}, or directly by tests pinning a query count.
+ */
+public final class QueryMetricsContext {
+
+    private static final ThreadLocal<QueryMetricsContext> CURRENT = new ThreadLocal<>();
+
+    private long statementCount;
+    private long jdbcNanos;
+    private final Map<String, Integer> statementRepeats = new HashMap<>();
+    private final List<String> statements = new ArrayList<>();
+
+    private QueryMetricsContext() {}
+
+    public static QueryMetricsContext begin() {
+        QueryMetricsContext context = new QueryMetricsContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static QueryMetricsContext current() {
+        return CURRENT.get();
+    }
+
+    public static QueryMetricsContext end() {
+        QueryMetricsContext context = CURRENT.get();
+        CURRENT.remove();
+        return context;
+    }
+
+    static void recordStatement(String sql) {
+        QueryMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.statementCount++;
+            context.statementRepeats.merge(sql, 1, Integer::sum);
+            context.statements.add(sql);
+        }
+    }
+
+    static void recordJdbcTime(long nanos) {
+        QueryMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.jdbcNanos += nanos;
+        }
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public long getJdbcTimeMillis() {
+        return jdbcNanos / 1_000_000;
+    }
+
+    public long getJdbcTimeNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * The SQL text of every statement, in the order it was issued, as Hibernate sent it with
+     * ? placeholders.
+     */
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns the statements executed at least {@code threshold} times, keyed by SQL text.
+     * Hibernate emits parameterised SQL, so a repeat means the same statement shape ran
+     * again with different bind values - the usual signature of an N+1 loop.
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        statementRepeats.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
@@ -0,0 +1,40 @@
+package com.techtammina.fitSwitch.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the running query totals as response headers just before the body is written,
+ * which is the last point the headers can still be changed.
+ */
+@ControllerAdvice
+public class QueryMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final QueryBudgetProperties properties;
+
+    public QueryMetricsResponseAdvice(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled() && properties.isExposeHeaders();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryMetricsContext context = QueryMetricsContext.current();
+        if (context != null) {
+            response.getHeaders().set(QueryBudgetFilter.QUERY_COUNT_HEADER, String.valueOf(context.getStatementCount()));
+            response.getHeaders().set(QueryBudgetFilter.QUERY_TIME_HEADER, String.valueOf(context.getJdbcTimeMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,33 @@
+package com.techtammina.fitSwitch.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Measures time spent inside JDBC statement execution for the current request.
+ * Hibernate creates one instance per session through {@code hibernate.session.events.auto}.
+ */
+public class QueryTimingListener implements SessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryMetricsContext.recordJdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryMetricsContext.recordJdbcTime(System.nanoTime() - batchStart);
+    }
+}
@@ -0,0 +1,218 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.dto.ApiResponse;
+import com.techtammina.fitSwitch.utils.EmailKeys;
+import com.techtammina.fitSwitch.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the routes in app.rate-limit.routes, run in the security chain ahead
+ * of JwtAuthenticationFilter so rejected requests cost no BCrypt, SMTP or database work.
+ *
+ * Each route policy keeps a token bucket per client IP, submitted email and/or user id; a
+ * request needs a token from every one of its buckets and otherwise gets 429 with
+ * Retry-After, without taking a token from any of them. Routes marked expensive also share one semaphore, so however many of them
+ * arrive at once they cannot take every request thread away from cheap routes; a request that
+ * cannot get a slot within expensive-wait-ms gets 503. On email-keyed routes the body is read
+ * up to MAX_INSPECTED_BODY bytes to find the email, and a longer body gets 413 rather than
+ * skipping the email bucket.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Login and registration bodies are small; larger bodies on email-keyed routes get 413
+    static final int MAX_INSPECTED_BODY = 8 * 1024;
+
+    private final RateLimitProperties properties;
+    private final JwtUtils jwtUtils;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore expensiveSlots;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, JwtUtils jwtUtils, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jwtUtils = jwtUtils;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.expensiveSlots = new Semaphore(properties.getExpensiveConcurrency());
+        Gauge.builder("http.server.requests.rate_limit.buckets", buckets, Map::size)
+                .description("Token buckets currently tracked")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.rate_limit.expensive.in_flight", expensiveSlots,
+                        slots -> properties.getExpensiveConcurrency() - slots.availablePermits())
+                .description("Expensive requests currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || policyFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String route = path(request);
+        RateLimitProperties.Policy policy = properties.getRoutes().get(route);
+
+        HttpServletRequest forwarded = request;
+        if (policy.getKeys().contains(RateLimitProperties.KeyType.EMAIL) && request.getParameter("email") == null) {
+            // Chunked bodies report no length, so the limit is enforced on the bytes read
+            CachedBodyRequest cached = request.getContentLengthLong() > MAX_INSPECTED_BODY
+                    ? null : CachedBodyRequest.readAtMost(request, MAX_INSPECTED_BODY);
+            if (cached == null) {
+                reject(response, route, "BODY_TOO_LARGE", HttpStatus.CONTENT_TOO_LARGE, 0,
+                        "Request body is too large.");
+                return;
+            }
+            forwarded = cached;
+        }
+        List<TokenBucket> requestBuckets = new ArrayList<>();
+        List<RateLimitProperties.KeyType> requestKeyTypes = new ArrayList<>();
+        for (RateLimitProperties.KeyType keyType : policy.getKeys()) {
+            String key = switch (keyType) {
+                case IP -> request.getRemoteAddr();
+                case USER -> userKey(request);
+                case EMAIL -> emailKey(forwarded);
+            };
+            if (key == null) {
+                continue;
+            }
+            requestBuckets.add(buckets.computeIfAbsent(route + "|" + keyType + "|" + key,
+                    k -> new TokenBucket(policy.getCapacity(), policy.getRefillPerMinute())));
+            requestKeyTypes.add(keyType);
+        }
+        // Checked before any is consumed, so a request the email bucket rejects leaves the
+        // IP bucket alone
+        for (int i = 0; i < requestBuckets.size(); i++) {
+            long waitNanos = requestBuckets.get(i).waitNanos();
+            if (waitNanos > 0) {
+                rejectTooMany(response, route, requestKeyTypes.get(i), waitNanos);
+                return;
+            }
+        }
+        for (int i = 0; i < requestBuckets.size(); i++) {
+            long waitNanos = requestBuckets.get(i).tryConsume();
+            if (waitNanos > 0) {
+                // Emptied by a concurrent request since the check; give back what was taken
+                for (int taken = 0; taken < i; taken++) {
+                    requestBuckets.get(taken).refund();
+                }
+                rejectTooMany(response, route, requestKeyTypes.get(i), waitNanos);
+                return;
+            }
+        }
+
+        if (!policy.isExpensive()) {
+            filterChain.doFilter(forwarded, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = expensiveSlots.tryAcquire(properties.getExpensiveWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, route, "CONCURRENCY", HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Server is busy. Please try again shortly.");
+            return;
+        }
+        try {
+            filterChain.doFilter(forwarded, response);
+        } finally {
+            expensiveSlots.release();
+        }
+    }
+
+    // Full buckets are indistinguishable from new ones, so idle keys do not accumulate
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictFullBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private RateLimitProperties.Policy policyFor(HttpServletRequest request) {
+        return properties.getRoutes().get(path(request));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Requests without a valid token are keyed by IP, so they are still limited
+    private String userKey(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            Claims claims = jwtUtils.parseAndValidate(header.substring(7));
+            Number userId = claims != null ? claims.get(JwtUtils.CLAIM_USER_ID, Number.class) : null;
+            if (userId != null) {
+                return String.valueOf(userId.longValue());
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private String emailKey(HttpServletRequest request) {
+        String email = request.getParameter("email");
+        if (email == null && request instanceof CachedBodyRequest cached) {
+            try {
+                Object value = objectMapper.readValue(cached.getBody(), Map.class).get("email");
+                email = value instanceof String text ? text : null;
+            } catch (RuntimeException e) {
+                // Not a JSON object; the controller reports the bad request
+                return null;
+            }
+        }
+        return EmailKeys.normalize(email);
+    }
+
+    private void rejectTooMany(HttpServletResponse response, String route, RateLimitProperties.KeyType keyType,
+                               long waitNanos) throws IOException {
+        reject(response, route, keyType.name(), HttpStatus.TOO_MANY_REQUESTS,
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1),
+                "Too many requests. Please try again later.");
+    }
+
+    // A retryAfterSeconds of 0 leaves out Retry-After, for rejections a retry will not fix
+    private void reject(HttpServletResponse response, String route, String reason, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        Counter.builder("http.server.requests.rate_limited")
+                .description("Requests rejected by admission control")
+                .tag("uri", route)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(status.value());
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+}
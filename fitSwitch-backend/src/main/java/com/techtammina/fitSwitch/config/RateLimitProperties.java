@@ -0,0 +1,78 @@
+package com.techtammina.fitSwitch.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Validated
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    public enum KeyType {
+        IP, EMAIL, USER
+    }
+
+    private boolean enabled = true;
+
+    // Requests to expensive routes allowed in flight at once, across all of them
+    @Positive
+    private int expensiveConcurrency = 16;
+
+    // How long an expensive request waits for a slot before getting 503
+    private long expensiveWaitMs = 100;
+
+    // Per-route policies keyed by request path, e.g. routes[/auth/login].capacity=10
+    @Valid
+    private Map<String, Policy> routes = new HashMap<>();
+
+    public static class Policy {
+
+        // Each key gets its own bucket and a request needs a token from all of them
+        private List<KeyType> keys = new ArrayList<>(List.of(KeyType.IP));
+
+        // Burst size
+        @Positive
+        private int capacity = 10;
+
+        // Sustained rate per key; zero would make the wait for the next token infinite
+        @Positive
+        private int refillPerMinute = 10;
+
+        // Counts against expensive-concurrency
+        private boolean expensive = false;
+
+        // Getters and Setters
+        public List<KeyType> getKeys() { return keys; }
+        public void setKeys(List<KeyType> keys) { this.keys = keys; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public int getRefillPerMinute() { return refillPerMinute; }
+        public void setRefillPerMinute(int refillPerMinute) { this.refillPerMinute = refillPerMinute; }
+
+        public boolean isExpensive() { return expensive; }
+        public void setExpensive(boolean expensive) { this.expensive = expensive; }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getExpensiveConcurrency() { return expensiveConcurrency; }
+    public void setExpensiveConcurrency(int expensiveConcurrency) { this.expensiveConcurrency = expensiveConcurrency; }
+
+    public long getExpensiveWaitMs() { return expensiveWaitMs; }
+    public void setExpensiveWaitMs(long expensiveWaitMs) { this.expensiveWaitMs = expensiveWaitMs; }
+
+    public Map<String, Policy> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Policy> routes) { this.routes = routes; }
+}
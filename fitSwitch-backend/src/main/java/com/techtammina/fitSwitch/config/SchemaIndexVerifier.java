@@ -0,0 +1,74 @@
+package com.techtammina.fitSwitch.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fails startup when an index declared in an entity's {@code @Table(indexes = ...)} is missing
+ * from the database, so a skipped or failed migration is caught before the hot queries fall
+ * back to full table scans.
+ */
+@Component
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public SchemaIndexVerifier(EntityManagerFactory entityManagerFactory,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.schema.verify-indexes:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT LOWER(CONCAT(table_name, '.', index_name)) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE()", String.class));
+
+        List<String> missing = new ArrayList<>();
+        int expected = 0;
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table == null) {
+                continue;
+            }
+            for (Index index : table.indexes()) {
+                expected++;
+                String qualified = (table.name() + "." + index.name()).toLowerCase();
+                if (!existing.contains(qualified)) {
+                    missing.add(qualified);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes: " + String.join(", ", missing)
+                    + ". Run the Flyway migrations before starting the application.");
+        }
+        log.info("Verified {} declared database indexes", expected);
+    }
+}
@@ -0,0 +1,81 @@
+package com.techtammina.fitSwitch.config;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket updated with compare-and-set, so concurrent requests on the same key never
+ * block each other. Tokens are refilled lazily from the time elapsed since the last update.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, int refillPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Takes one token. Returns 0 when a token was taken, otherwise the nanoseconds until one
+     * becomes available.
+     */
+    long tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = refilled(current, now);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Like tryConsume without taking the token: 0 when one is available now.
+     */
+    long waitNanos() {
+        double tokens = refilled(state.get(), System.nanoTime());
+        return tokens < 1 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : 0;
+    }
+
+    /**
+     * Gives back a token taken by tryConsume, up to capacity.
+     */
+    void refund() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            if (state.compareAndSet(current, new State(Math.min(capacity, refilled(current, now) + 1), now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A full bucket behaves exactly like a new one, so it can be dropped.
+     */
+    boolean isFull() {
+        State current = state.get();
+        return refilled(current, System.nanoTime()) >= capacity;
+    }
+
+    private double refilled(State current, long now) {
+        return Math.min(capacity, current.tokens + (now - current.updatedAt) * tokensPerNano);
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long updatedAt;
+
+        State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
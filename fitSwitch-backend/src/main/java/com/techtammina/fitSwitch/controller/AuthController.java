@@ -21,8 +21,9 @@ public class AuthController {
     private JwtUtils jwtUtils;
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<String>> register(@Valid @RequestBody RegisterRequest request) {
-        ApiResponse<String> response = authService.register(request);
+    public ResponseEntity<ApiResponse<String>> register(@Valid @RequestBody RegisterRequest request,
+                                                        HttpServletRequest httpRequest) {
+        ApiResponse<String> response = authService.register(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -39,8 +40,9 @@ public class AuthController {
     }
 
     @PostMapping("/resend-otp")
-    public ResponseEntity<ApiResponse<String>> resendOtp(@RequestParam String email) {
-        ApiResponse<String> response = authService.resendOtp(email);
+    public ResponseEntity<ApiResponse<String>> resendOtp(@RequestParam String email,
+                                                         HttpServletRequest httpRequest) {
+        ApiResponse<String> response = authService.resendOtp(email, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.FacilitySessionRequest;
 import com.techtammina.fitSwitch.dto.FacilitySessionResponse;
 import com.techtammina.fitSwitch.dto.ActiveFacilitySessionResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.FacilitySessionService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -18,18 +17,13 @@ import java.util.List;
 public class FacilitySessionController {
 
     private final FacilitySessionService sessionService;
-    private final UserRepository userRepository;
 
-    public FacilitySessionController(FacilitySessionService sessionService, UserRepository userRepository) {
+    public FacilitySessionController(FacilitySessionService sessionService) {
         this.sessionService = sessionService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping("/check-in")
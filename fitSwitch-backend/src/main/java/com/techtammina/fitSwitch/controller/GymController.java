@@ -1,12 +1,21 @@
 package com.techtammina.fitSwitch.controller;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.techtammina.fitSwitch.dto.GymResponse;
+import com.techtammina.fitSwitch.dto.NearbyGymResponse;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService.View;
 import com.techtammina.fitSwitch.service.GymService;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -14,19 +23,43 @@ import java.util.List;
 public class GymController {
 
     private final GymService gymService;
+    private final CatalogSnapshotService snapshotService;
     
-    public GymController(GymService gymService) {
+    public GymController(GymService gymService, CatalogSnapshotService snapshotService) {
         this.gymService = gymService;
+        this.snapshotService = snapshotService;
     }
 
     @GetMapping
-    public List<GymResponse> getAllGyms() {
-        return gymService.getAllActiveGyms();
+    public ResponseEntity<byte[]> getAllGyms(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SnapshotResponses.of(snapshotService.getGymList(), snapshotService.getMaxAgeSeconds(),
+                ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/nearby")
+    public List<NearbyGymResponse> getNearbyGyms(@RequestParam double lat,
+                                                 @RequestParam double lng,
+                                                 @RequestParam(defaultValue = "5") double radiusKm,
+                                                 @RequestParam(defaultValue = "20") int limit,
+                                                 @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime openAt,
+                                                 @RequestParam(defaultValue = "false") boolean openNow,
+                                                 @RequestParam(required = false) List<String> facilities) {
+        LocalTime openFilter = openNow ? LocalTime.now() : openAt;
+        return gymService.getNearbyGyms(lat, lng, radiusKm, limit, openFilter, facilities);
     }
 
     @GetMapping("/{gymId}")
     public GymResponse getGymById(@PathVariable Long gymId) {
         return gymService.getGymById(gymId);
     }
+
+    @GetMapping("/{gymId}/detail")
+    public ResponseEntity<byte[]> getGymDetail(@PathVariable Long gymId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SnapshotResponses.of(snapshotService.getGymView(gymId, View.DETAIL), snapshotService.getMaxAgeSeconds(),
+                ifNoneMatch, acceptEncoding);
+    }
     
 }
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.MembershipSessionRequest;
 import com.techtammina.fitSwitch.dto.MembershipSessionResponse;
 import com.techtammina.fitSwitch.dto.ActiveMembershipSessionResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.MembershipSessionService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -18,18 +17,13 @@ import java.util.List;
 public class MembershipSessionController {
 
     private final MembershipSessionService sessionService;
-    private final UserRepository userRepository;
 
-    public MembershipSessionController(MembershipSessionService sessionService, UserRepository userRepository) {
+    public MembershipSessionController(MembershipSessionService sessionService) {
         this.sessionService = sessionService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping("/check-in")
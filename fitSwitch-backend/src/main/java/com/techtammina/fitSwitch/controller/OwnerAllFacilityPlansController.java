@@ -1,8 +1,7 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.FacilityPlanService;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -14,18 +13,13 @@ import java.util.List;
 public class OwnerAllFacilityPlansController {
 
     private final FacilityPlanService facilityPlanService;
-    private final UserRepository userRepository;
 
-    public OwnerAllFacilityPlansController(FacilityPlanService facilityPlanService, UserRepository userRepository) {
+    public OwnerAllFacilityPlansController(FacilityPlanService facilityPlanService) {
         this.facilityPlanService = facilityPlanService;
-        this.userRepository = userRepository;
     }
 
     private Long getOwnerId(Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Owner not found"));
-        return owner.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @GetMapping
@@ -1,12 +1,21 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.dto.CursorPage;
+import com.techtammina.fitSwitch.dto.EarningsBreakdownResponse;
+import com.techtammina.fitSwitch.dto.EarningsBucketResponse;
+import com.techtammina.fitSwitch.dto.OwnerEarningResponse;
+import com.techtammina.fitSwitch.service.NdjsonExporter;
 import com.techtammina.fitSwitch.service.OwnerEarningsService;
 import com.techtammina.fitSwitch.utils.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,21 +32,54 @@ public class OwnerEarningsController {
     }
 
     @GetMapping
-    public ResponseEntity<List<OwnerEarningsService.OwnerEarningResponse>> getOwnerEarnings(HttpServletRequest request) {
+    public ResponseEntity<List<OwnerEarningResponse>> getOwnerEarnings(HttpServletRequest request) {
         Long ownerId = jwtUtils.getUserIdFromRequest(request);
-        List<OwnerEarningsService.OwnerEarningResponse> earnings = ownerEarningsService.getOwnerEarnings(ownerId);
+        List<OwnerEarningResponse> earnings = ownerEarningsService.getOwnerEarnings(ownerId);
         return ResponseEntity.ok(earnings);
     }
 
     @GetMapping("/gym/{gymId}")
-    public ResponseEntity<List<OwnerEarningsService.OwnerEarningResponse>> getGymEarnings(
+    public ResponseEntity<List<OwnerEarningResponse>> getGymEarnings(
             @PathVariable Long gymId,
             HttpServletRequest request) {
         Long ownerId = jwtUtils.getUserIdFromRequest(request);
-        List<OwnerEarningsService.OwnerEarningResponse> earnings = ownerEarningsService.getGymEarnings(ownerId, gymId);
+        List<OwnerEarningResponse> earnings = ownerEarningsService.getGymEarnings(ownerId, gymId);
         return ResponseEntity.ok(earnings);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<OwnerEarningResponse>> getOwnerEarningsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok(ownerEarningsService.getOwnerEarningsPage(ownerId, cursor, size));
+    }
+
+    @GetMapping("/gym/{gymId}/page")
+    public ResponseEntity<CursorPage<OwnerEarningResponse>> getGymEarningsPage(
+            @PathVariable Long gymId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok(ownerEarningsService.getGymEarningsPage(ownerId, gymId, cursor, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerEarnings(HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ndjson(ownerEarningsService.exportOwnerEarnings(ownerId));
+    }
+
+    @GetMapping("/gym/{gymId}/export")
+    public ResponseEntity<StreamingResponseBody> exportGymEarnings(
+            @PathVariable Long gymId,
+            HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ndjson(ownerEarningsService.exportGymEarnings(ownerId, gymId));
+    }
+
     @GetMapping("/total")
     public ResponseEntity<BigDecimal> getTotalEarnings(HttpServletRequest request) {
         Long ownerId = jwtUtils.getUserIdFromRequest(request);
@@ -53,4 +95,31 @@ public class OwnerEarningsController {
         BigDecimal total = ownerEarningsService.getGymTotalEarnings(ownerId, gymId);
         return ResponseEntity.ok(total);
     }
+
+    @GetMapping("/series")
+    public ResponseEntity<List<EarningsBucketResponse>> getEarningsSeries(
+            @RequestParam(defaultValue = "day") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long gymId,
+            HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok(ownerEarningsService.getEarningsSeries(ownerId, gymId, from, to, period));
+    }
+
+    @GetMapping("/breakdown")
+    public ResponseEntity<List<EarningsBreakdownResponse>> getEarningsBreakdown(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long gymId,
+            HttpServletRequest request) {
+        Long ownerId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok(ownerEarningsService.getEarningsBreakdown(ownerId, gymId, from, to));
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonExporter.CONTENT_TYPE))
+                .body(body);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,8 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.FacilityPlanCreateRequest;
 import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.FacilityPlanService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -16,18 +15,13 @@ import java.util.List;
 public class OwnerFacilityPlanController {
 
     private final FacilityPlanService facilityPlanService;
-    private final UserRepository userRepository;
 
-    public OwnerFacilityPlanController(FacilityPlanService facilityPlanService, UserRepository userRepository) {
+    public OwnerFacilityPlanController(FacilityPlanService facilityPlanService) {
         this.facilityPlanService = facilityPlanService;
-        this.userRepository = userRepository;
     }
 
     private Long getOwnerId(Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Owner not found"));
-        return owner.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping
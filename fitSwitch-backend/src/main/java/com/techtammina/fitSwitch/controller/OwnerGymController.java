@@ -2,13 +2,11 @@ package com.techtammina.fitSwitch.controller;
 
 import java.util.List;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.GymCreateRequest;
 import com.techtammina.fitSwitch.dto.GymResponse;
 import com.techtammina.fitSwitch.dto.GymUpdateRequest;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.GymService;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,9 +17,6 @@ import jakarta.validation.Valid;
 public class OwnerGymController {
    
     private final GymService gymService;
-    
-    @Autowired
-    private UserRepository userRepository;
 
     public OwnerGymController(GymService gymService) {
         this.gymService = gymService;
@@ -29,10 +24,7 @@ public class OwnerGymController {
 
     @PostMapping
     public GymResponse createGym(@Valid @RequestBody GymCreateRequest request, Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        Long ownerId = user.getId();
+        Long ownerId = AuthenticatedUser.from(auth).getId();
         return gymService.createGym(ownerId, request);
     }
 
@@ -40,19 +32,13 @@ public class OwnerGymController {
     public GymResponse updateGym(@PathVariable Long gymId,
                                  @RequestBody GymUpdateRequest request,
                                  Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        Long ownerId = user.getId();
+        Long ownerId = AuthenticatedUser.from(auth).getId();
         return gymService.updateGym(ownerId, gymId, request);
     }
 
     @GetMapping
     public List<GymResponse> ownerGyms(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        Long ownerId = user.getId();
+        Long ownerId = AuthenticatedUser.from(auth).getId();
         return gymService.getOwnerGyms(ownerId);
     }
     
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.GymFacilityCreateRequest;
 import com.techtammina.fitSwitch.dto.GymFacilityResponse;
 import com.techtammina.fitSwitch.dto.GymFacilityUpdateRequest;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.GymFacilityService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -16,18 +15,13 @@ import java.util.List;
 public class OwnerGymFacilityController {
 
     private final GymFacilityService facilityService;
-    private final UserRepository userRepository;
 
-    public OwnerGymFacilityController(GymFacilityService facilityService, UserRepository userRepository) {
+    public OwnerGymFacilityController(GymFacilityService facilityService) {
         this.facilityService = facilityService;
-        this.userRepository = userRepository;
     }
 
     private Long getOwnerId(Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Owner not found"));
-        return owner.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.GymPlanCreateRequest;
 import com.techtammina.fitSwitch.dto.GymPlanResponse;
 import com.techtammina.fitSwitch.dto.GymPlanUpdateRequest;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.GymPlanService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -17,18 +16,13 @@ import java.util.List;
 public class OwnerGymPlanController {
 
     private final GymPlanService planService;
-    private final UserRepository userRepository;
 
-    public OwnerGymPlanController(GymPlanService planService, UserRepository userRepository) {
+    public OwnerGymPlanController(GymPlanService planService) {
         this.planService = planService;
-        this.userRepository = userRepository;
     }
 
     private Long getOwnerId(Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Owner not found"));
-        return owner.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping
@@ -0,0 +1,54 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.dto.CursorPage;
+import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
+import com.techtammina.fitSwitch.dto.GymEarningsTotalResponse;
+import com.techtammina.fitSwitch.dto.GymFacilityResponse;
+import com.techtammina.fitSwitch.dto.GymPlanResponse;
+import com.techtammina.fitSwitch.service.OwnerPortfolioService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/owner/portfolio")
+public class OwnerPortfolioController {
+
+    private final OwnerPortfolioService portfolioService;
+
+    public OwnerPortfolioController(OwnerPortfolioService portfolioService) {
+        this.portfolioService = portfolioService;
+    }
+
+    private Long getOwnerId(Authentication auth) {
+        return AuthenticatedUser.from(auth).getId();
+    }
+
+    @GetMapping("/plans")
+    public CursorPage<GymPlanResponse> getGymPlans(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+                                                   Authentication auth) {
+        return portfolioService.getGymPlans(getOwnerId(auth), cursor, size);
+    }
+
+    @GetMapping("/facilities")
+    public CursorPage<GymFacilityResponse> getFacilities(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+                                                         Authentication auth) {
+        return portfolioService.getFacilities(getOwnerId(auth), cursor, size);
+    }
+
+    @GetMapping("/facility-plans")
+    public CursorPage<FacilityPlanResponse> getFacilityPlans(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+                                                             Authentication auth) {
+        return portfolioService.getFacilityPlans(getOwnerId(auth), cursor, size);
+    }
+
+    @GetMapping("/earnings")
+    public CursorPage<GymEarningsTotalResponse> getEarningsTotals(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+                                                                  Authentication auth) {
+        return portfolioService.getEarningsTotals(getOwnerId(auth), cursor, size);
+    }
+}
@@ -1,11 +1,15 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.*;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
+import com.techtammina.fitSwitch.service.OccupancyService;
 import com.techtammina.fitSwitch.service.OwnerStatsService;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -14,23 +18,28 @@ import java.util.List;
 public class OwnerStatsController {
 
     private final OwnerStatsService ownerStatsService;
-    private final UserRepository userRepository;
+    private final OccupancyService occupancyService;
 
-    public OwnerStatsController(OwnerStatsService ownerStatsService, UserRepository userRepository) {
+    public OwnerStatsController(OwnerStatsService ownerStatsService, OccupancyService occupancyService) {
         this.ownerStatsService = ownerStatsService;
-        this.userRepository = userRepository;
+        this.occupancyService = occupancyService;
     }
 
     private Long getOwnerId(Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Owner not found"));
-        return owner.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @GetMapping("/users")
-    public List<GymUserResponse> getGymUsers(@PathVariable Long gymId, Authentication auth) {
-        return ownerStatsService.getGymUsers(getOwnerId(auth), gymId);
+    public ResponseEntity<List<GymUserResponse>> getGymUsers(@PathVariable Long gymId,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(defaultValue = "userName") String sort,
+                                                             @RequestParam(defaultValue = "asc") String direction,
+                                                             Authentication auth) {
+        Page<GymUserResponse> users = ownerStatsService.getGymUsers(getOwnerId(auth), gymId, page, size, sort, direction);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(users.getTotalElements()))
+                .body(users.getContent());
     }
 
     @GetMapping("/users/{userId}/stats")
@@ -61,6 +70,16 @@ public class OwnerStatsController {
         return ownerStatsService.getTodayVisits(getOwnerId(auth), gymId);
     }
 
+    @GetMapping("/occupancy")
+    public GymOccupancyResponse getOccupancy(@PathVariable Long gymId, Authentication auth) {
+        return occupancyService.getOccupancy(getOwnerId(auth), gymId);
+    }
+
+    @GetMapping(value = "/occupancy/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOccupancy(@PathVariable Long gymId, Authentication auth) {
+        return occupancyService.subscribe(getOwnerId(auth), gymId);
+    }
+
     @GetMapping("/members")
     public List<OwnerGymMemberResponse> getGymMembers(@PathVariable Long gymId, Authentication auth) {
         return ownerStatsService.getGymMembers(getOwnerId(auth), gymId);
@@ -0,0 +1,32 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.dto.TurnstileBatchRequest;
+import com.techtammina.fitSwitch.dto.TurnstileBatchResponse;
+import com.techtammina.fitSwitch.service.TurnstileService;
+import jakarta.validation.Valid;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+// Door devices post with the gym owner's token
+@RestController
+@RequestMapping("/owner/gyms/{gymId}/turnstile")
+public class OwnerTurnstileController {
+
+    private final TurnstileService turnstileService;
+
+    public OwnerTurnstileController(TurnstileService turnstileService) {
+        this.turnstileService = turnstileService;
+    }
+
+    private Long getOwnerId(Authentication auth) {
+        return AuthenticatedUser.from(auth).getId();
+    }
+
+    @PostMapping("/events")
+    public TurnstileBatchResponse ingestEvents(@PathVariable Long gymId,
+                                               @Valid @RequestBody TurnstileBatchRequest request,
+                                               Authentication auth) {
+        return turnstileService.ingest(getOwnerId(auth), gymId, request);
+    }
+}
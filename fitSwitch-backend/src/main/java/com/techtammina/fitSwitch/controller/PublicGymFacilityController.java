@@ -1,22 +1,26 @@
 package com.techtammina.fitSwitch.controller;
 
-import com.techtammina.fitSwitch.dto.GymFacilityResponse;
-import com.techtammina.fitSwitch.service.GymFacilityService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService.View;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/gyms")
 public class PublicGymFacilityController {
 
-    private final GymFacilityService facilityService;
+    private final CatalogSnapshotService snapshotService;
 
-    public PublicGymFacilityController(GymFacilityService facilityService) {
-        this.facilityService = facilityService;
+    public PublicGymFacilityController(CatalogSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
     }
 
     @GetMapping("/{gymId}/facilities")
-    public List<GymFacilityResponse> getGymFacilitiesPublic(@PathVariable Long gymId) {
-        return facilityService.getFacilitiesForGymPublic(gymId);
+    public ResponseEntity<byte[]> getGymFacilitiesPublic(@PathVariable Long gymId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SnapshotResponses.of(snapshotService.getGymView(gymId, View.FACILITIES), snapshotService.getMaxAgeSeconds(),
+                ifNoneMatch, acceptEncoding);
     }
 }
\ No newline at end of file
@@ -1,23 +1,26 @@
 package com.techtammina.fitSwitch.controller;
 
-import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
-import com.techtammina.fitSwitch.service.FacilityPlanService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService.View;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/gyms/{gymId}/facility-plans")
 public class PublicGymFacilityPlansController {
 
-    private final FacilityPlanService facilityPlanService;
+    private final CatalogSnapshotService snapshotService;
 
-    public PublicGymFacilityPlansController(FacilityPlanService facilityPlanService) {
-        this.facilityPlanService = facilityPlanService;
+    public PublicGymFacilityPlansController(CatalogSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
     }
 
     @GetMapping
-    public List<FacilityPlanResponse> getGymFacilityPlans(@PathVariable Long gymId) {
-        return facilityPlanService.getGymFacilityPlansGrouped(gymId);
+    public ResponseEntity<byte[]> getGymFacilityPlans(@PathVariable Long gymId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SnapshotResponses.of(snapshotService.getGymView(gymId, View.FACILITY_PLANS), snapshotService.getMaxAgeSeconds(),
+                ifNoneMatch, acceptEncoding);
     }
 }
\ No newline at end of file
@@ -1,23 +1,26 @@
 package com.techtammina.fitSwitch.controller;
 
-import com.techtammina.fitSwitch.dto.GymPlanResponse;
-import com.techtammina.fitSwitch.service.GymPlanService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService;
+import com.techtammina.fitSwitch.service.CatalogSnapshotService.View;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/gyms")
 public class PublicGymPlanController {
 
-    private final GymPlanService planService;
+    private final CatalogSnapshotService snapshotService;
 
-    public PublicGymPlanController(GymPlanService planService) {
-        this.planService = planService;
+    public PublicGymPlanController(CatalogSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
     }
 
     @GetMapping("/{gymId}/plans")
-    public List<GymPlanResponse> getPublicGymPlans(@PathVariable Long gymId) {
-        return planService.getPublicGymPlans(gymId);
+    public ResponseEntity<byte[]> getPublicGymPlans(@PathVariable Long gymId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SnapshotResponses.of(snapshotService.getGymView(gymId, View.PLANS), snapshotService.getMaxAgeSeconds(),
+                ifNoneMatch, acceptEncoding);
     }
 }
@@ -0,0 +1,41 @@
+package com.techtammina.fitSwitch.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.techtammina.fitSwitch.dto.GymSearchPageResponse;
+import com.techtammina.fitSwitch.dto.SearchSuggestionResponse;
+import com.techtammina.fitSwitch.service.SearchService;
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/gyms")
+    public GymSearchPageResponse searchGyms(@RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String city,
+                                            @RequestParam(required = false) String passType,
+                                            @RequestParam(required = false) String facility,
+                                            @RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        return searchService.searchGyms(q, city, passType, facility, minPrice, maxPrice, page, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<SearchSuggestionResponse> suggest(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return searchService.suggest(q, limit);
+    }
+}
@@ -1,8 +1,7 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.UserDashboardStatsResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.UserDashboardStatsService;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -12,18 +11,13 @@ import org.springframework.web.bind.annotation.*;
 public class UserDashboardStatsController {
 
     private final UserDashboardStatsService userDashboardStatsService;
-    private final UserRepository userRepository;
 
-    public UserDashboardStatsController(UserDashboardStatsService userDashboardStatsService, UserRepository userRepository) {
+    public UserDashboardStatsController(UserDashboardStatsService userDashboardStatsService) {
         this.userDashboardStatsService = userDashboardStatsService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @GetMapping("/stats")
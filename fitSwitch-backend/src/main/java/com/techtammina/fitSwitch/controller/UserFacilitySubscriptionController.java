@@ -1,9 +1,8 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.FacilitySubscribeRequest;
 import com.techtammina.fitSwitch.dto.UserFacilitySubscriptionResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.UserFacilitySubscriptionService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -16,19 +15,13 @@ import java.util.List;
 public class UserFacilitySubscriptionController {
 
     private final UserFacilitySubscriptionService subscriptionService;
-    private final UserRepository userRepository;
 
-    public UserFacilitySubscriptionController(UserFacilitySubscriptionService subscriptionService,
-                                             UserRepository userRepository) {
+    public UserFacilitySubscriptionController(UserFacilitySubscriptionService subscriptionService) {
         this.subscriptionService = subscriptionService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping("/subscribe")
@@ -1,9 +1,8 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.CheckInRequest;
 import com.techtammina.fitSwitch.dto.GymVisitResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.GymVisitService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -14,18 +13,13 @@ import org.springframework.web.bind.annotation.*;
 public class UserGymVisitController {
 
     private final GymVisitService gymVisitService;
-    private final UserRepository userRepository;
 
-    public UserGymVisitController(GymVisitService gymVisitService, UserRepository userRepository) {
+    public UserGymVisitController(GymVisitService gymVisitService) {
         this.gymVisitService = gymVisitService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping("/check-in")
@@ -1,16 +1,19 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.dto.CursorPage;
 import com.techtammina.fitSwitch.dto.UserMembershipHistoryResponse;
 import com.techtammina.fitSwitch.dto.UserFacilityHistoryResponse;
 import com.techtammina.fitSwitch.dto.UserSessionHistoryResponse;
 import com.techtammina.fitSwitch.dto.FacilitySessionHistoryResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
+import com.techtammina.fitSwitch.service.NdjsonExporter;
 import com.techtammina.fitSwitch.service.UserHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,14 +24,8 @@ public class UserHistoryController {
     @Autowired
     private UserHistoryService userHistoryService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @GetMapping("/memberships")
@@ -58,4 +55,66 @@ public class UserHistoryController {
         List<FacilitySessionHistoryResponse> history = userHistoryService.getFacilitySessionHistory(userId);
         return ResponseEntity.ok(history);
     }
-}
+
+    // Cursor-paginated variants: pass the returned nextCursor back as ?cursor= until it is null
+
+    @GetMapping("/memberships/page")
+    public ResponseEntity<CursorPage<UserMembershipHistoryResponse>> getMembershipHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            Authentication auth) {
+        return ResponseEntity.ok(userHistoryService.getMembershipHistoryPage(getUserId(auth), cursor, size));
+    }
+
+    @GetMapping("/facilities/page")
+    public ResponseEntity<CursorPage<UserFacilityHistoryResponse>> getFacilityHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            Authentication auth) {
+        return ResponseEntity.ok(userHistoryService.getFacilityHistoryPage(getUserId(auth), cursor, size));
+    }
+
+    @GetMapping("/sessions/page")
+    public ResponseEntity<CursorPage<UserSessionHistoryResponse>> getSessionHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            Authentication auth) {
+        return ResponseEntity.ok(userHistoryService.getSessionHistoryPage(getUserId(auth), cursor, size));
+    }
+
+    @GetMapping("/facility-sessions/page")
+    public ResponseEntity<CursorPage<FacilitySessionHistoryResponse>> getFacilitySessionHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            Authentication auth) {
+        return ResponseEntity.ok(userHistoryService.getFacilitySessionHistoryPage(getUserId(auth), cursor, size));
+    }
+
+    // Full history as newline-delimited JSON, written one keyset page at a time
+
+    @GetMapping("/memberships/export")
+    public ResponseEntity<StreamingResponseBody> exportMembershipHistory(Authentication auth) {
+        return ndjson(userHistoryService.exportMembershipHistory(getUserId(auth)));
+    }
+
+    @GetMapping("/facilities/export")
+    public ResponseEntity<StreamingResponseBody> exportFacilityHistory(Authentication auth) {
+        return ndjson(userHistoryService.exportFacilityHistory(getUserId(auth)));
+    }
+
+    @GetMapping("/sessions/export")
+    public ResponseEntity<StreamingResponseBody> exportSessionHistory(Authentication auth) {
+        return ndjson(userHistoryService.exportSessionHistory(getUserId(auth)));
+    }
+
+    @GetMapping("/facility-sessions/export")
+    public ResponseEntity<StreamingResponseBody> exportFacilitySessionHistory(Authentication auth) {
+        return ndjson(userHistoryService.exportFacilitySessionHistory(getUserId(auth)));
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonExporter.CONTENT_TYPE))
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.controller;
 
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.dto.MembershipCreateRequest;
 import com.techtammina.fitSwitch.dto.MembershipResponse;
 import com.techtammina.fitSwitch.dto.UserMembershipResponse;
-import com.techtammina.fitSwitch.entity.User;
-import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.service.MembershipService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
@@ -17,18 +16,13 @@ import java.util.List;
 public class UserMembershipController {
 
     private final MembershipService membershipService;
-    private final UserRepository userRepository;
 
-    public UserMembershipController(MembershipService membershipService, UserRepository userRepository) {
+    public UserMembershipController(MembershipService membershipService) {
         this.membershipService = membershipService;
-        this.userRepository = userRepository;
     }
 
     private Long getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return AuthenticatedUser.from(auth).getId();
     }
 
     @PostMapping
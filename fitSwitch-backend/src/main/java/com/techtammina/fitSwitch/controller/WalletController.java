@@ -1,12 +1,15 @@
 package com.techtammina.fitSwitch.controller;
 
 import com.techtammina.fitSwitch.dto.*;
+import com.techtammina.fitSwitch.service.NdjsonExporter;
 import com.techtammina.fitSwitch.service.WalletService;
 import com.techtammina.fitSwitch.utils.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -54,4 +57,21 @@ public class WalletController {
         List<WalletTransactionResponse> transactions = walletService.getTransactionHistory(userId);
         return ResponseEntity.ok(transactions);
     }
+
+    @GetMapping("/transactions/page")
+    public ResponseEntity<CursorPage<WalletTransactionResponse>> getTransactionHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            HttpServletRequest request) {
+        Long userId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok(walletService.getTransactionHistoryPage(userId, cursor, size));
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(HttpServletRequest request) {
+        Long userId = jwtUtils.getUserIdFromRequest(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonExporter.CONTENT_TYPE))
+                .body(walletService.exportTransactionHistory(userId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.techtammina.fitSwitch.dto;
+
+import com.techtammina.fitSwitch.entity.OwnerEarning;
+import java.math.BigDecimal;
+
+public class EarningsBreakdownResponse {
+    private OwnerEarning.EarningType type;
+    private BigDecimal totalAmount;
+    private long earningCount;
+
+    // Constructors
+    public EarningsBreakdownResponse() {}
+
+    public EarningsBreakdownResponse(OwnerEarning.EarningType type, BigDecimal totalAmount, Long earningCount) {
+        this.type = type;
+        this.totalAmount = totalAmount;
+        this.earningCount = earningCount != null ? earningCount : 0;
+    }
+
+    // Getters and Setters
+    public OwnerEarning.EarningType getType() { return type; }
+    public void setType(OwnerEarning.EarningType type) { this.type = type; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getEarningCount() { return earningCount; }
+    public void setEarningCount(long earningCount) { this.earningCount = earningCount; }
+}
@@ -0,0 +1,29 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class EarningsBucketResponse {
+    private LocalDate periodStart;
+    private BigDecimal totalAmount;
+    private long earningCount;
+
+    // Constructors
+    public EarningsBucketResponse() {}
+
+    public EarningsBucketResponse(LocalDate periodStart, BigDecimal totalAmount, Long earningCount) {
+        this.periodStart = periodStart;
+        this.totalAmount = totalAmount;
+        this.earningCount = earningCount != null ? earningCount : 0;
+    }
+
+    // Getters and Setters
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getEarningCount() { return earningCount; }
+    public void setEarningCount(long earningCount) { this.earningCount = earningCount; }
+}
@@ -0,0 +1,32 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.util.List;
+
+/**
+ * Everything a gym page shows: the gym, its active plans and its active facilities with
+ * their active plans.
+ */
+public class GymDetailResponse {
+    private GymResponse gym;
+    private List<GymPlanResponse> plans;
+    private List<GymFacilityDetailResponse> facilities;
+
+    // Constructors
+    public GymDetailResponse() {}
+
+    public GymDetailResponse(GymResponse gym, List<GymPlanResponse> plans, List<GymFacilityDetailResponse> facilities) {
+        this.gym = gym;
+        this.plans = plans;
+        this.facilities = facilities;
+    }
+
+    // Getters and Setters
+    public GymResponse getGym() { return gym; }
+    public void setGym(GymResponse gym) { this.gym = gym; }
+
+    public List<GymPlanResponse> getPlans() { return plans; }
+    public void setPlans(List<GymPlanResponse> plans) { this.plans = plans; }
+
+    public List<GymFacilityDetailResponse> getFacilities() { return facilities; }
+    public void setFacilities(List<GymFacilityDetailResponse> facilities) { this.facilities = facilities; }
+}
@@ -0,0 +1,32 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.math.BigDecimal;
+
+public class GymEarningsTotalResponse {
+    private Long gymId;
+    private String gymName;
+    private BigDecimal totalAmount;
+    private long earningCount;
+
+    // Constructors
+    public GymEarningsTotalResponse() {}
+
+    public GymEarningsTotalResponse(Long gymId, BigDecimal totalAmount, Long earningCount) {
+        this.gymId = gymId;
+        this.totalAmount = totalAmount;
+        this.earningCount = earningCount != null ? earningCount : 0;
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public String getGymName() { return gymName; }
+    public void setGymName(String gymName) { this.gymName = gymName; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getEarningCount() { return earningCount; }
+    public void setEarningCount(long earningCount) { this.earningCount = earningCount; }
+}
@@ -0,0 +1,23 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.util.List;
+
+public class GymFacilityDetailResponse {
+    private GymFacilityResponse facility;
+    private List<FacilityPlanResponse> plans;
+
+    // Constructors
+    public GymFacilityDetailResponse() {}
+
+    public GymFacilityDetailResponse(GymFacilityResponse facility, List<FacilityPlanResponse> plans) {
+        this.facility = facility;
+        this.plans = plans;
+    }
+
+    // Getters and Setters
+    public GymFacilityResponse getFacility() { return facility; }
+    public void setFacility(GymFacilityResponse facility) { this.facility = facility; }
+
+    public List<FacilityPlanResponse> getPlans() { return plans; }
+    public void setPlans(List<FacilityPlanResponse> plans) { this.plans = plans; }
+}
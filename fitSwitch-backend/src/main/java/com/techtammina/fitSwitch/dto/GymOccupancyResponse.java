@@ -0,0 +1,28 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.util.List;
+
+public class GymOccupancyResponse {
+    private Long gymId;
+    private int headcount;
+    private List<OccupantResponse> occupants;
+
+    // Constructors
+    public GymOccupancyResponse() {}
+
+    public GymOccupancyResponse(Long gymId, int headcount, List<OccupantResponse> occupants) {
+        this.gymId = gymId;
+        this.headcount = headcount;
+        this.occupants = occupants;
+    }
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public int getHeadcount() { return headcount; }
+    public void setHeadcount(int headcount) { this.headcount = headcount; }
+
+    public List<OccupantResponse> getOccupants() { return occupants; }
+    public void setOccupants(List<OccupantResponse> occupants) { this.occupants = occupants; }
+}
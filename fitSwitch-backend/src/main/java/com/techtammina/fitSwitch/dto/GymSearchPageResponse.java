@@ -0,0 +1,41 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class GymSearchPageResponse {
+    private List<GymSearchResultResponse> items;
+    private int total;
+    private int page;
+    private int size;
+    // Facet name ("city", "passType", "facility") to value counts over all matching gyms
+    private Map<String, Map<String, Integer>> facets;
+
+    // Constructors
+    public GymSearchPageResponse() {}
+
+    public GymSearchPageResponse(List<GymSearchResultResponse> items, int total, int page, int size,
+                                 Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<GymSearchResultResponse> getItems() { return items; }
+    public void setItems(List<GymSearchResultResponse> items) { this.items = items; }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+}
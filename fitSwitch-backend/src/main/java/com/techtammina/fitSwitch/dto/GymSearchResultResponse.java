@@ -0,0 +1,55 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class GymSearchResultResponse {
+    private Long gymId;
+    private String gymName;
+    private String city;
+    private String state;
+    private String pincode;
+    private String openTime;
+    private String closeTime;
+    private BigDecimal minPrice;
+    private List<String> passTypes;
+    private List<String> facilities;
+    private double score;
+
+    // Constructors
+    public GymSearchResultResponse() {}
+
+    // Getters and Setters
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public String getGymName() { return gymName; }
+    public void setGymName(String gymName) { this.gymName = gymName; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public String getPincode() { return pincode; }
+    public void setPincode(String pincode) { this.pincode = pincode; }
+
+    public String getOpenTime() { return openTime; }
+    public void setOpenTime(String openTime) { this.openTime = openTime; }
+
+    public String getCloseTime() { return closeTime; }
+    public void setCloseTime(String closeTime) { this.closeTime = closeTime; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public List<String> getPassTypes() { return passTypes; }
+    public void setPassTypes(List<String> passTypes) { this.passTypes = passTypes; }
+
+    public List<String> getFacilities() { return facilities; }
+    public void setFacilities(List<String> facilities) { this.facilities = facilities; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
@@ -12,6 +12,21 @@ public class GymUserResponse {
     private LocalDate lastVisitDate;
     private int totalVisits;
 
+    // Constructors
+    public GymUserResponse() {}
+
+    public GymUserResponse(Long userId, String userName, String email,
+                           String membershipStatus, String facilitySubscriptionStatus,
+                           LocalDate lastVisitDate, Long totalVisits) {
+        this.userId = userId;
+        this.userName = userName;
+        this.email = email;
+        this.membershipStatus = membershipStatus;
+        this.facilitySubscriptionStatus = facilitySubscriptionStatus;
+        this.lastVisitDate = lastVisitDate;
+        this.totalVisits = totalVisits != null ? totalVisits.intValue() : 0;
+    }
+
     // Getters and Setters
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
@@ -0,0 +1,21 @@
+package com.techtammina.fitSwitch.dto;
+
+public class NearbyGymResponse {
+    private GymResponse gym;
+    private double distanceKm;
+
+    // Constructors
+    public NearbyGymResponse() {}
+
+    public NearbyGymResponse(GymResponse gym, double distanceKm) {
+        this.gym = gym;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters and Setters
+    public GymResponse getGym() { return gym; }
+    public void setGym(GymResponse gym) { this.gym = gym; }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+}
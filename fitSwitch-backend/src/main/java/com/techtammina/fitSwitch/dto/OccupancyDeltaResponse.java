@@ -0,0 +1,31 @@
+package com.techtammina.fitSwitch.dto;
+
+public class OccupancyDeltaResponse {
+    private String type; // "CHECK_IN" or "CHECK_OUT"
+    private Long gymId;
+    private int headcount;
+    private OccupantResponse occupant;
+
+    // Constructors
+    public OccupancyDeltaResponse() {}
+
+    public OccupancyDeltaResponse(String type, Long gymId, int headcount, OccupantResponse occupant) {
+        this.type = type;
+        this.gymId = gymId;
+        this.headcount = headcount;
+        this.occupant = occupant;
+    }
+
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public int getHeadcount() { return headcount; }
+    public void setHeadcount(int headcount) { this.headcount = headcount; }
+
+    public OccupantResponse getOccupant() { return occupant; }
+    public void setOccupant(OccupantResponse occupant) { this.occupant = occupant; }
+}
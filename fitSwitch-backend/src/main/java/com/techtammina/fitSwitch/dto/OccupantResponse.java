@@ -0,0 +1,60 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class OccupantResponse {
+    private String sessionType; // "MEMBERSHIP", "FACILITY" or "GYM"
+    private Long sessionId;
+    private Long gymId;
+    private Long userId;
+    private String userName;
+    private String facilityName;
+    private LocalDateTime checkInTime;
+    private LocalDate visitDate;
+
+    // Constructors
+    public OccupantResponse() {}
+
+    public OccupantResponse(String sessionType, Long sessionId, Long gymId, Long userId, String userName,
+                            LocalDateTime checkInTime, LocalDate visitDate) {
+        this(sessionType, sessionId, gymId, userId, userName, null, checkInTime, visitDate);
+    }
+
+    public OccupantResponse(String sessionType, Long sessionId, Long gymId, Long userId, String userName,
+                            String facilityName, LocalDateTime checkInTime, LocalDate visitDate) {
+        this.sessionType = sessionType;
+        this.sessionId = sessionId;
+        this.gymId = gymId;
+        this.userId = userId;
+        this.userName = userName;
+        this.facilityName = facilityName;
+        this.checkInTime = checkInTime;
+        this.visitDate = visitDate;
+    }
+
+    // Getters and Setters
+    public String getSessionType() { return sessionType; }
+    public void setSessionType(String sessionType) { this.sessionType = sessionType; }
+
+    public Long getSessionId() { return sessionId; }
+    public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public String getFacilityName() { return facilityName; }
+    public void setFacilityName(String facilityName) { this.facilityName = facilityName; }
+
+    public LocalDateTime getCheckInTime() { return checkInTime; }
+    public void setCheckInTime(LocalDateTime checkInTime) { this.checkInTime = checkInTime; }
+
+    public LocalDate getVisitDate() { return visitDate; }
+    public void setVisitDate(LocalDate visitDate) { this.visitDate = visitDate; }
+}
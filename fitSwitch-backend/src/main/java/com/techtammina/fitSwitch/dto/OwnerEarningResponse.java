@@ -0,0 +1,44 @@
+package com.techtammina.fitSwitch.dto;
+
+import com.techtammina.fitSwitch.entity.OwnerEarning;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OwnerEarningResponse {
+    private Long id;
+    private OwnerEarning.EarningType type;
+    private BigDecimal amount;
+    private String description;
+    private String gymName;
+    private String facilityName;
+    private String userName;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OwnerEarningResponse() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public OwnerEarning.EarningType getType() { return type; }
+    public void setType(OwnerEarning.EarningType type) { this.type = type; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getGymName() { return gymName; }
+    public void setGymName(String gymName) { this.gymName = gymName; }
+
+    public String getFacilityName() { return facilityName; }
+    public void setFacilityName(String facilityName) { this.facilityName = facilityName; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,26 @@
+package com.techtammina.fitSwitch.dto;
+
+public class SearchSuggestionResponse {
+    private String text;
+    private String type; // "GYM", "CITY", "FACILITY" or "PLAN"
+    private Long gymId;  // only for GYM suggestions
+
+    // Constructors
+    public SearchSuggestionResponse() {}
+
+    public SearchSuggestionResponse(String text, String type, Long gymId) {
+        this.text = text;
+        this.type = type;
+        this.gymId = gymId;
+    }
+
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+}
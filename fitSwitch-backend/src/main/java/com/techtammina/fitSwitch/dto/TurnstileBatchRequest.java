@@ -0,0 +1,19 @@
+package com.techtammina.fitSwitch.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class TurnstileBatchRequest {
+
+    @NotEmpty(message = "At least one event is required")
+    private List<@Valid TurnstileEventRequest> events;
+
+    // Constructors
+    public TurnstileBatchRequest() {}
+
+    // Getters and Setters
+    public List<TurnstileEventRequest> getEvents() { return events; }
+    public void setEvents(List<TurnstileEventRequest> events) { this.events = events; }
+}
@@ -0,0 +1,33 @@
+package com.techtammina.fitSwitch.dto;
+
+import java.util.List;
+
+public class TurnstileBatchResponse {
+    private int applied;
+    private int rejected;
+    private int duplicates;
+    private List<TurnstileEventResult> results; // in request order
+
+    // Constructors
+    public TurnstileBatchResponse() {}
+
+    public TurnstileBatchResponse(int applied, int rejected, int duplicates, List<TurnstileEventResult> results) {
+        this.applied = applied;
+        this.rejected = rejected;
+        this.duplicates = duplicates;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public int getApplied() { return applied; }
+    public void setApplied(int applied) { this.applied = applied; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public int getDuplicates() { return duplicates; }
+    public void setDuplicates(int duplicates) { this.duplicates = duplicates; }
+
+    public List<TurnstileEventResult> getResults() { return results; }
+    public void setResults(List<TurnstileEventResult> results) { this.results = results; }
+}
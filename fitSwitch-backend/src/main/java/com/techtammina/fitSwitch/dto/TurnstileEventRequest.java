@@ -0,0 +1,43 @@
+package com.techtammina.fitSwitch.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+public class TurnstileEventRequest {
+
+    // Unique per gym; a replayed event id returns the first outcome
+    @NotBlank(message = "Event ID is required")
+    @Size(max = 100, message = "Event ID must be at most 100 characters")
+    private String eventId;
+
+    private String direction; // "IN" or "OUT"
+
+    // Exactly one of membershipId and facilitySubscriptionId identifies the pass scanned
+    private Long membershipId;
+    private Long facilitySubscriptionId;
+
+    @NotNull(message = "Scan time is required")
+    private LocalDateTime scannedAt;
+
+    // Constructors
+    public TurnstileEventRequest() {}
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+
+    public Long getMembershipId() { return membershipId; }
+    public void setMembershipId(Long membershipId) { this.membershipId = membershipId; }
+
+    public Long getFacilitySubscriptionId() { return facilitySubscriptionId; }
+    public void setFacilitySubscriptionId(Long facilitySubscriptionId) { this.facilitySubscriptionId = facilitySubscriptionId; }
+
+    public LocalDateTime getScannedAt() { return scannedAt; }
+    public void setScannedAt(LocalDateTime scannedAt) { this.scannedAt = scannedAt; }
+}
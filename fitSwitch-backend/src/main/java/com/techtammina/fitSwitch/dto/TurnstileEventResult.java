@@ -0,0 +1,36 @@
+package com.techtammina.fitSwitch.dto;
+
+public class TurnstileEventResult {
+    private String eventId;
+    private String outcome;   // "APPLIED", "REJECTED" or "DUPLICATE"
+    private String action;    // "CHECKED_IN" or "CHECKED_OUT" when applied
+    private Long sessionId;
+    private String message;
+
+    // Constructors
+    public TurnstileEventResult() {}
+
+    public TurnstileEventResult(String eventId, String outcome, String action, Long sessionId, String message) {
+        this.eventId = eventId;
+        this.outcome = outcome;
+        this.action = action;
+        this.sessionId = sessionId;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getOutcome() { return outcome; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public Long getSessionId() { return sessionId; }
+    public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -8,6 +8,7 @@ public class UserDashboardStatsResponse {
     
     private int totalVisitDays;
     private LocalDate lastVisitDate;
+    private int currentStreak;
     private List<ActiveMembershipDto> activeMemberships;
     private List<ActiveFacilitySubscriptionDto> activeFacilitySubscriptions;
     private List<SubscriptionExpiryDto> subscriptionExpiryDates;
@@ -21,6 +22,9 @@ public class UserDashboardStatsResponse {
     public LocalDate getLastVisitDate() { return lastVisitDate; }
     public void setLastVisitDate(LocalDate lastVisitDate) { this.lastVisitDate = lastVisitDate; }
 
+    public int getCurrentStreak() { return currentStreak; }
+    public void setCurrentStreak(int currentStreak) { this.currentStreak = currentStreak; }
+
     public List<ActiveMembershipDto> getActiveMemberships() { return activeMemberships; }
     public void setActiveMemberships(List<ActiveMembershipDto> activeMemberships) { this.activeMemberships = activeMemberships; }
 
@@ -1,8 +1,11 @@
 package com.techtammina.fitSwitch.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
+import com.techtammina.fitSwitch.entity.UserFacilitySubscription;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class UserFacilityHistoryResponse {
     private Long id;
@@ -16,12 +19,17 @@ public class UserFacilityHistoryResponse {
     private Double price;
     private Integer durationDays;
 
+    // Sort key for cursor pagination, not part of the response
+    @JsonIgnore
+    private LocalDateTime createdAt;
+
     // Constructors
     public UserFacilityHistoryResponse() {}
 
     public UserFacilityHistoryResponse(Long id, String gymName, String facilityName, 
                                      String planName, LocalDate startDate, LocalDate endDate, 
-                                     FacilitySubscriptionStatus status, BigDecimal price, Integer durationDays) {
+                                     FacilitySubscriptionStatus status, BigDecimal price, Integer durationDays,
+                                     LocalDateTime createdAt) {
         this.id = id;
         this.gymName = gymName;
         this.facilityName = facilityName;
@@ -29,9 +37,10 @@ public class UserFacilityHistoryResponse {
         this.purchaseDate = startDate;
         this.startDate = startDate;
         this.endDate = endDate;
-        this.status = status.toString();
+        this.status = UserFacilitySubscription.statusOn(status, endDate, LocalDate.now()).toString();
         this.price = price != null ? price.doubleValue() : null;
         this.durationDays = durationDays;
+        this.createdAt = createdAt;
     }
 
     // Getters and Setters
@@ -64,4 +73,7 @@ public class UserFacilityHistoryResponse {
     
     public Integer getDurationDays() { return durationDays; }
     public void setDurationDays(Integer durationDays) { this.durationDays = durationDays; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.techtammina.fitSwitch.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.techtammina.fitSwitch.entity.Membership;
 import com.techtammina.fitSwitch.entity.MembershipStatus;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class UserMembershipHistoryResponse {
     private Long id;
@@ -15,21 +18,27 @@ public class UserMembershipHistoryResponse {
     private Double price;
     private Integer durationDays;
 
+    // Sort key for cursor pagination, not part of the response
+    @JsonIgnore
+    private LocalDateTime createdAt;
+
     // Constructors
     public UserMembershipHistoryResponse() {}
 
     public UserMembershipHistoryResponse(Long id, String gymName, String planName, 
                                        LocalDate startDate, LocalDate endDate, 
-                                       MembershipStatus status, BigDecimal price, Integer durationDays) {
+                                       MembershipStatus status, BigDecimal price, Integer durationDays,
+                                       LocalDateTime createdAt) {
         this.id = id;
         this.gymName = gymName;
         this.planName = planName;
         this.purchaseDate = startDate;
         this.startDate = startDate;
         this.endDate = endDate;
-        this.status = status.toString();
+        this.status = Membership.statusOn(status, endDate, LocalDate.now()).toString();
         this.price = price != null ? price.doubleValue() : null;
         this.durationDays = durationDays;
+        this.createdAt = createdAt;
     }
 
     // Getters and Setters
@@ -59,4 +68,7 @@ public class UserMembershipHistoryResponse {
     
     public Integer getDurationDays() { return durationDays; }
     public void setDurationDays(Integer durationDays) { this.durationDays = durationDays; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
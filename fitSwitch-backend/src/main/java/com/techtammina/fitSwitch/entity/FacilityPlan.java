@@ -5,7 +5,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "facility_plans")
+@Table(name = "facility_plans", indexes = {
+    @Index(name = "idx_facility_plans_gym_active", columnList = "gym_id, active")
+})
 public class FacilityPlan {
 
     @Id
@@ -5,7 +5,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "facility_sessions")
+@Table(name = "facility_sessions", indexes = {
+    @Index(name = "idx_facility_sessions_user_visit", columnList = "user_id, visit_date"),
+    @Index(name = "idx_facility_sessions_subscription_visit", columnList = "facility_subscription_id, visit_date")
+})
 public class FacilitySession {
 
     @Id
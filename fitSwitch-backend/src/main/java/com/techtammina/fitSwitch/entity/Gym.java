@@ -11,7 +11,9 @@ import lombok.Builder;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "gym")
+@Table(name = "gym", indexes = {
+    @Index(name = "idx_gym_owner", columnList = "owner_id")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gym_facilities")
+@Table(name = "gym_facilities", indexes = {
+    @Index(name = "idx_gym_facilities_gym_active", columnList = "gym_id, active")
+})
 public class GymFacility {
 
     @Id
@@ -5,7 +5,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gym_membership_sessions")
+@Table(name = "gym_membership_sessions", indexes = {
+    @Index(name = "idx_gym_membership_sessions_gym_visit", columnList = "gym_id, visit_date, check_in_time"),
+    @Index(name = "idx_gym_membership_sessions_membership_visit", columnList = "membership_id, visit_date, status"),
+    @Index(name = "idx_gym_membership_sessions_user_status_visit", columnList = "user_id, status, visit_date"),
+    @Index(name = "idx_gym_membership_sessions_user_gym_status", columnList = "user_id, gym_id, status"),
+    @Index(name = "idx_gym_membership_sessions_user_visit", columnList = "user_id, visit_date")
+})
 public class GymMembershipSession {
 
     @Id
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "gym_plans")
+@Table(name = "gym_plans", indexes = {
+    @Index(name = "idx_gym_plans_gym_active", columnList = "gym_id, active")
+})
 @Getter
 @Setter
 public class GymPlan {
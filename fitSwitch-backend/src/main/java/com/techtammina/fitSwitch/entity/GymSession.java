@@ -5,7 +5,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gym_sessions")
+@Table(name = "gym_sessions", indexes = {
+    @Index(name = "idx_gym_sessions_user_gym_visit", columnList = "user_id, gym_id, visit_date, status"),
+    @Index(name = "idx_gym_sessions_user_status", columnList = "user_id, status")
+})
 public class GymSession {
 
     @Id
@@ -5,7 +5,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gym_visits")
+@Table(name = "gym_visits", indexes = {
+    @Index(name = "idx_gym_visits_user_gym_visit", columnList = "user_id, gym_id, visit_date, status"),
+    @Index(name = "idx_gym_visits_user_status", columnList = "user_id, status")
+})
 public class GymVisit {
 
     @Id
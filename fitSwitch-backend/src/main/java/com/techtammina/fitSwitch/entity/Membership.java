@@ -5,7 +5,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "memberships")
+@Table(name = "memberships", indexes = {
+    @Index(name = "idx_memberships_user_gym_status", columnList = "user_id, gym_id, status"),
+    @Index(name = "idx_memberships_user_status_end", columnList = "user_id, status, end_date"),
+    @Index(name = "idx_memberships_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_memberships_gym_status_end", columnList = "gym_id, status, end_date"),
+    @Index(name = "idx_memberships_status_end", columnList = "status, end_date")
+})
 public class Membership {
 
     @Id
@@ -115,6 +121,22 @@ public class Membership {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Status as of the given day. A plan past its end date reads as EXPIRED even before
+     * the expiry job has updated the row.
+     */
+    public MembershipStatus statusOn(LocalDate day) {
+        return statusOn(status, endDate, day);
+    }
+
+    /**
+     * The same rule for a status and end date read without the entity (DTO projections,
+     * native queries).
+     */
+    public static MembershipStatus statusOn(MembershipStatus status, LocalDate endDate, LocalDate day) {
+        return status == MembershipStatus.ACTIVE && endDate.isBefore(day) ? MembershipStatus.EXPIRED : status;
+    }
+
     // Relationship getters and setters
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "otp_verifications")
+@Table(name = "otp_verifications", indexes = {
+    @Index(name = "idx_otp_verifications_email", columnList = "email"),
+    @Index(name = "idx_otp_verifications_expires", columnList = "expires_at")
+})
 public class OtpVerification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +25,9 @@ public class OtpVerification {
     @Column(nullable = false)
     private boolean verified = false;
 
+    @Column(nullable = false)
+    private int attempts = 0;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -52,6 +58,9 @@ public class OtpVerification {
     public boolean isVerified() { return verified; }
     public void setVerified(boolean verified) { this.verified = verified; }
 
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -5,7 +5,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "owner_earnings")
+@Table(name = "owner_earnings", indexes = {
+    @Index(name = "idx_owner_earnings_owner_created", columnList = "owner_id, created_at"),
+    @Index(name = "idx_owner_earnings_gym_created", columnList = "gym_id, created_at")
+})
 public class OwnerEarning {
 
     @Id
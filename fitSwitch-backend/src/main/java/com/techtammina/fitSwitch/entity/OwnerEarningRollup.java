@@ -0,0 +1,68 @@
+package com.techtammina.fitSwitch.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running total of an owner's earnings for one gym, day and earning type. Kept in step
+ * with owner_earnings by OwnerEarningRecorder so dashboards read a handful of buckets
+ * instead of summing every earning.
+ */
+@Entity
+@Table(name = "owner_earning_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_owner_earning_rollups_bucket",
+                      columnNames = {"owner_id", "gym_id", "earning_date", "type"})
+}, indexes = {
+    @Index(name = "idx_owner_earning_rollups_gym_date", columnList = "gym_id, earning_date")
+})
+public class OwnerEarningRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private Long gymId;
+
+    @Column(nullable = false)
+    private LocalDate earningDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OwnerEarning.EarningType type;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private long earningCount;
+
+    // Constructors
+    public OwnerEarningRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public LocalDate getEarningDate() { return earningDate; }
+    public void setEarningDate(LocalDate earningDate) { this.earningDate = earningDate; }
+
+    public OwnerEarning.EarningType getType() { return type; }
+    public void setType(OwnerEarning.EarningType type) { this.type = type; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getEarningCount() { return earningCount; }
+    public void setEarningCount(long earningCount) { this.earningCount = earningCount; }
+}
@@ -0,0 +1,73 @@
+package com.techtammina.fitSwitch.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An owner wallet credit that has been paid for but not yet added to the owner's
+ * user_wallets row. Purchases only insert here, so they never wait on the owner's
+ * wallet row lock; OwnerCreditFolder moves the rows into the wallet in the background.
+ */
+@Entity
+@Table(name = "owner_wallet_credits", indexes = {
+    @Index(name = "idx_owner_wallet_credits_owner", columnList = "owner_id, id")
+})
+public class OwnerWalletCredit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WalletTransaction.TransactionType type;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 500)
+    private String description;
+
+    // References copied onto the wallet transaction when the credit is folded
+    private Long gymId;
+    private Long facilityId;
+    private Long membershipId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OwnerWalletCredit() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public WalletTransaction.TransactionType getType() { return type; }
+    public void setType(WalletTransaction.TransactionType type) { this.type = type; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public Long getFacilityId() { return facilityId; }
+    public void setFacilityId(Long facilityId) { this.facilityId = facilityId; }
+
+    public Long getMembershipId() { return membershipId; }
+    public void setMembershipId(Long membershipId) { this.membershipId = membershipId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,81 @@
+package com.techtammina.fitSwitch.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "turnstile_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_turnstile_events_gym_event", columnNames = {"gym_id", "event_id"})
+}, indexes = {
+    @Index(name = "idx_turnstile_events_received", columnList = "received_at")
+})
+public class TurnstileEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long gymId;
+
+    // Id assigned by the door device; unique per gym
+    @Column(nullable = false, length = 100)
+    private String eventId;
+
+    @Column(nullable = false)
+    private LocalDateTime scannedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Outcome outcome;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Action action;
+
+    private Long sessionId;
+
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+
+    public enum Outcome {
+        PENDING,   // claimed by a batch that has not committed yet
+        APPLIED,
+        REJECTED
+    }
+
+    public enum Action {
+        CHECKED_IN,
+        CHECKED_OUT
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public LocalDateTime getScannedAt() { return scannedAt; }
+    public void setScannedAt(LocalDateTime scannedAt) { this.scannedAt = scannedAt; }
+
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+    public Action getAction() { return action; }
+    public void setAction(Action action) { this.action = action; }
+
+    public Long getSessionId() { return sessionId; }
+    public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    public void setReceivedAt(LocalDateTime receivedAt) { this.receivedAt = receivedAt; }
+}
@@ -33,6 +33,10 @@ public class User {
     private boolean enabled;
     private LocalDateTime createdAt;
 
+    // Bumped by the password, role and disable setters to invalidate every token issued
+    // before the change; TokenRevocationCache rejects tokens carrying an older version
+    private int tokenVersion;
+
     // Relationships
     @JsonIgnore
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -86,18 +90,27 @@ public class User {
         return password;
     }
     public void setPassword(String password) {
+        if (this.password != null && !this.password.equals(password)) {
+            tokenVersion++;
+        }
         this.password = password;
     }
     public Role getRole() {
         return role;
     }
     public void setRole(Role role) {
+        if (this.role != null && this.role != role) {
+            tokenVersion++;
+        }
         this.role = role;
     }
     public boolean isEnabled() {
         return enabled;
     }
     public void setEnabled(boolean enabled) {
+        if (this.enabled && !enabled) {
+            tokenVersion++;
+        }
         this.enabled = enabled;
     }
     public LocalDateTime getCreatedAt() {
@@ -106,6 +119,12 @@ public class User {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
 
     // Relationship getters and setters
     public List<Gym> getOwnedGyms() { return ownedGyms; }
@@ -5,7 +5,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_facility_subscriptions")
+@Table(name = "user_facility_subscriptions", indexes = {
+    @Index(name = "idx_user_facility_subscriptions_user_facility_status", columnList = "user_id, facility_id, status"),
+    @Index(name = "idx_user_facility_subscriptions_user_status_end", columnList = "user_id, status, end_date"),
+    @Index(name = "idx_user_facility_subscriptions_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_user_facility_subscriptions_gym_status_end", columnList = "gym_id, status, end_date"),
+    @Index(name = "idx_user_facility_subscriptions_status_end", columnList = "status, end_date"),
+    @Index(name = "idx_user_facility_subscriptions_user_gym_status", columnList = "user_id, gym_id, status, end_date")
+})
 public class UserFacilitySubscription {
 
     @Id
@@ -112,4 +119,21 @@ public class UserFacilitySubscription {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    /**
+     * Status as of the given day. A plan past its end date reads as EXPIRED even before
+     * the expiry job has updated the row.
+     */
+    public FacilitySubscriptionStatus statusOn(LocalDate day) {
+        return statusOn(status, endDate, day);
+    }
+
+    /**
+     * The same rule for a status and end date read without the entity (DTO projections,
+     * native queries).
+     */
+    public static FacilitySubscriptionStatus statusOn(FacilitySubscriptionStatus status, LocalDate endDate,
+                                                      LocalDate day) {
+        return status == FacilitySubscriptionStatus.ACTIVE && endDate.isBefore(day) ? FacilitySubscriptionStatus.EXPIRED : status;
+    }
 }
\ No newline at end of file
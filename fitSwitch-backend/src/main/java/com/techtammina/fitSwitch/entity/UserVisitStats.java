@@ -0,0 +1,106 @@
+package com.techtammina.fitSwitch.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * A user's completed visits at one gym, kept up to date by UserVisitStatsService as sessions
+ * are checked out. The row with gymId {@link #ALL_GYMS} covers the user's visits at every gym,
+ * so distinct days are not double counted when a user trains at two gyms on the same day.
+ */
+@Entity
+@Table(name = "user_visit_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_visit_stats_user_gym", columnNames = {"user_id", "gym_id"})
+}, indexes = {
+    @Index(name = "idx_user_visit_stats_gym_visits", columnList = "gym_id, total_visits")
+})
+public class UserVisitStats {
+
+    public static final long ALL_GYMS = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long gymId;
+
+    @Column(nullable = false)
+    private long totalVisits;
+
+    @Column(nullable = false)
+    private long visitDays;
+
+    private LocalDate firstVisitDate;
+
+    private LocalDate lastVisitDate;
+
+    // Consecutive visit days ending at lastVisitDate
+    @Column(nullable = false)
+    private int currentStreak;
+
+    // Constructors
+    public UserVisitStats() {}
+
+    public UserVisitStats(Long userId, Long gymId) {
+        this.userId = userId;
+        this.gymId = gymId;
+    }
+
+    /**
+     * Counts one completed session on the given day. Days before lastVisitDate cannot be
+     * applied incrementally; callers rebuild the stats from the sessions instead.
+     */
+    public void addVisit(LocalDate visitDate) {
+        totalVisits++;
+        if (lastVisitDate == null) {
+            firstVisitDate = visitDate;
+            lastVisitDate = visitDate;
+            visitDays = 1;
+            currentStreak = 1;
+        } else if (visitDate.isAfter(lastVisitDate)) {
+            visitDays++;
+            currentStreak = visitDate.equals(lastVisitDate.plusDays(1)) ? currentStreak + 1 : 1;
+            lastVisitDate = visitDate;
+        }
+    }
+
+    /**
+     * The streak as seen on the given day: it is still running if the user visited today or
+     * yesterday, otherwise it has been broken.
+     */
+    public int streakOn(LocalDate today) {
+        if (lastVisitDate == null || lastVisitDate.isBefore(today.minusDays(1))) {
+            return 0;
+        }
+        return currentStreak;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getGymId() { return gymId; }
+    public void setGymId(Long gymId) { this.gymId = gymId; }
+
+    public long getTotalVisits() { return totalVisits; }
+    public void setTotalVisits(long totalVisits) { this.totalVisits = totalVisits; }
+
+    public long getVisitDays() { return visitDays; }
+    public void setVisitDays(long visitDays) { this.visitDays = visitDays; }
+
+    public LocalDate getFirstVisitDate() { return firstVisitDate; }
+    public void setFirstVisitDate(LocalDate firstVisitDate) { this.firstVisitDate = firstVisitDate; }
+
+    public LocalDate getLastVisitDate() { return lastVisitDate; }
+    public void setLastVisitDate(LocalDate lastVisitDate) { this.lastVisitDate = lastVisitDate; }
+
+    public int getCurrentStreak() { return currentStreak; }
+    public void setCurrentStreak(int currentStreak) { this.currentStreak = currentStreak; }
+}
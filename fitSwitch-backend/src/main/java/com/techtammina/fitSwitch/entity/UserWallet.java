@@ -15,7 +15,8 @@ public class UserWallet {
     @Column(nullable = false, unique = true)
     private Long userId;
 
-    @Column(nullable = false, precision = 10, scale = 2)
+    // Written only through WalletLedger's conditional updates, never by entity flushes
+    @Column(nullable = false, precision = 10, scale = 2, updatable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
     @Column(nullable = false)
@@ -47,10 +48,6 @@ public class UserWallet {
     public void setUserId(Long userId) { this.userId = userId; }
 
     public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { 
-        this.balance = balance;
-        this.updatedAt = LocalDateTime.now();
-    }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -5,7 +5,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallet_transactions")
+@Table(name = "wallet_transactions", indexes = {
+    @Index(name = "idx_wallet_transactions_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_wallet_transactions_wallet_created", columnList = "wallet_id, created_at")
+})
 public class WalletTransaction {
 
     @Id
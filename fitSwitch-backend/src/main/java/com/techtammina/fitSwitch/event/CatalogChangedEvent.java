@@ -0,0 +1,28 @@
+package com.techtammina.fitSwitch.event;
+
+/**
+ * Published when a gym or one of its catalog entries is created or updated. In-memory
+ * indexes over the catalog listen with {@code @TransactionalEventListener} and reload the
+ * gym once the change is committed.
+ */
+public class CatalogChangedEvent {
+
+    public enum Type {
+        GYM, GYM_FACILITY, GYM_PLAN, FACILITY_PLAN
+    }
+
+    private final Type type;
+    private final Long gymId;
+    private final Long entityId;
+
+    public CatalogChangedEvent(Type type, Long gymId, Long entityId) {
+        this.type = type;
+        this.gymId = gymId;
+        this.entityId = entityId;
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public Long getGymId() { return gymId; }
+    public Long getEntityId() { return entityId; }
+}
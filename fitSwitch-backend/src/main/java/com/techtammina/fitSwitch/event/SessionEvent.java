@@ -0,0 +1,51 @@
+package com.techtammina.fitSwitch.event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a membership, facility or gym session is checked in or out. Listeners that
+ * mirror sessions in memory should use {@code @TransactionalEventListener} so they only see
+ * sessions that were committed.
+ */
+public class SessionEvent {
+
+    public enum Kind {
+        CHECKED_IN, CHECKED_OUT
+    }
+
+    public static final String MEMBERSHIP = "MEMBERSHIP";
+    public static final String FACILITY = "FACILITY";
+    public static final String GYM = "GYM";
+
+    private final Kind kind;
+    private final String sessionType;
+    private final Long sessionId;
+    private final Long userId;
+    private final Long gymId;
+    private final Long facilityId;
+    private final LocalDateTime checkInTime;
+    private final LocalDate visitDate;
+
+    public SessionEvent(Kind kind, String sessionType, Long sessionId, Long userId, Long gymId,
+                        Long facilityId, LocalDateTime checkInTime, LocalDate visitDate) {
+        this.kind = kind;
+        this.sessionType = sessionType;
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.gymId = gymId;
+        this.facilityId = facilityId;
+        this.checkInTime = checkInTime;
+        this.visitDate = visitDate;
+    }
+
+    // Getters
+    public Kind getKind() { return kind; }
+    public String getSessionType() { return sessionType; }
+    public Long getSessionId() { return sessionId; }
+    public Long getUserId() { return userId; }
+    public Long getGymId() { return gymId; }
+    public Long getFacilityId() { return facilityId; }
+    public LocalDateTime getCheckInTime() { return checkInTime; }
+    public LocalDate getVisitDate() { return visitDate; }
+}
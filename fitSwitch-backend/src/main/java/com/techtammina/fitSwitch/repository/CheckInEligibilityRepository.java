@@ -0,0 +1,72 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.Membership;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * One round trip per check-in: the entitlement and any session already opened with it are
+ * read together. Each sub-select is a point lookup on an index from V8 (or V2 for
+ * memberships). Plan rows come back with their stored status and end date, and the resolver
+ * applies Membership.statusOn / UserFacilitySubscription.statusOn to them.
+ */
+@Repository
+public interface CheckInEligibilityRepository extends org.springframework.data.repository.Repository<Membership, Long> {
+
+    @Query(value = "SELECT " +
+            "(SELECT m.id FROM memberships m WHERE m.user_id = :userId AND m.gym_id = :gymId " +
+            "   AND m.status = 'ACTIVE' AND m.end_date >= :today ORDER BY m.end_date DESC LIMIT 1) AS membershipId, " +
+            "(SELECT s.id FROM user_facility_subscriptions s WHERE s.user_id = :userId AND s.gym_id = :gymId " +
+            "   AND s.status = 'ACTIVE' AND s.end_date >= :today ORDER BY s.end_date DESC LIMIT 1) AS facilitySubscriptionId, " +
+            "(SELECT gs.id FROM gym_sessions gs WHERE gs.user_id = :userId AND gs.gym_id = :gymId " +
+            "   AND gs.visit_date = :today AND gs.status = 'ACTIVE' LIMIT 1) AS openSessionId, " +
+            "(SELECT v.id FROM gym_visits v WHERE v.user_id = :userId AND v.gym_id = :gymId " +
+            "   AND v.visit_date = :today AND v.status = 'ACTIVE' LIMIT 1) AS openVisitId",
+           nativeQuery = true)
+    GymEntitlement findGymEntitlement(@Param("userId") Long userId, @Param("gymId") Long gymId,
+                                      @Param("today") LocalDate today);
+
+    @Query(value = "SELECT m.id AS id, m.user_id AS userId, m.gym_id AS gymId, " +
+            "NULL AS facilityId, NULL AS facilityPlanId, " +
+            "m.status AS status, m.end_date AS endDate, " +
+            "(SELECT gms.id FROM gym_membership_sessions gms WHERE gms.membership_id = m.id " +
+            "   AND gms.visit_date = :today AND gms.status = 'ACTIVE' LIMIT 1) AS todaySessionId " +
+            "FROM memberships m WHERE m.id = :membershipId",
+           nativeQuery = true)
+    Optional<PlanEntitlement> findMembershipEntitlement(@Param("membershipId") Long membershipId,
+                                                       @Param("today") LocalDate today);
+
+    // Any session today counts here, not just an open one: a facility pass is good for one visit a day
+    @Query(value = "SELECT s.id AS id, s.user_id AS userId, s.gym_id AS gymId, " +
+            "s.facility_id AS facilityId, s.facility_plan_id AS facilityPlanId, " +
+            "s.status AS status, s.end_date AS endDate, " +
+            "(SELECT fs.id FROM facility_sessions fs WHERE fs.facility_subscription_id = s.id " +
+            "   AND fs.visit_date = :today ORDER BY fs.check_in_time DESC LIMIT 1) AS todaySessionId " +
+            "FROM user_facility_subscriptions s WHERE s.id = :subscriptionId",
+           nativeQuery = true)
+    Optional<PlanEntitlement> findFacilitySubscriptionEntitlement(@Param("subscriptionId") Long subscriptionId,
+                                                                  @Param("today") LocalDate today);
+
+    interface GymEntitlement {
+        Long getMembershipId();
+        Long getFacilitySubscriptionId();
+        Long getOpenSessionId();
+        Long getOpenVisitId();
+    }
+
+    interface PlanEntitlement {
+        Long getId();
+        Long getUserId();
+        Long getGymId();
+        Long getFacilityId();
+        Long getFacilityPlanId();
+        // Stored status; the resolver applies the end date through statusOn
+        String getStatus();
+        LocalDate getEndDate();
+        Long getTodaySessionId();
+    }
+}
@@ -0,0 +1,54 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Lock timeout -2 renders as FOR UPDATE SKIP LOCKED, so parallel dispatchers claim disjoint rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutbox.Status status,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    // Expiring mail loses its body once delivered
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = null, " +
+           "e.body = CASE WHEN e.expiresAt IS NULL THEN e.body ELSE '" + EmailOutbox.REDACTED_BODY + "' END " +
+           "WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids,
+                 @Param("status") EmailOutbox.Status status,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :failed, e.body = '" + EmailOutbox.REDACTED_BODY + "', " +
+           "e.lastError = 'Expired before it could be sent' " +
+           "WHERE e.status = :pending AND e.expiresAt <= :now")
+    int expirePending(@Param("pending") EmailOutbox.Status pending,
+                      @Param("failed") EmailOutbox.Status failed,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.sentAt < :cutoffTime")
+    int deleteSentBefore(@Param("status") EmailOutbox.Status status, @Param("cutoffTime") LocalDateTime cutoffTime);
+
+    // A failed row is never claimed again, so next_attempt_at still holds its last attempt
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt < :cutoffTime")
+    int deleteFailedBefore(@Param("status") EmailOutbox.Status status, @Param("cutoffTime") LocalDateTime cutoffTime);
+}
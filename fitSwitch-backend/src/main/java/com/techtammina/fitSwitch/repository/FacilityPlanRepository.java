@@ -1,7 +1,10 @@
 package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.FacilityPlan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,20 @@ public interface FacilityPlanRepository extends JpaRepository<FacilityPlan, Long
     List<FacilityPlan> findByFacilityIdAndActiveTrue(Long facilityId);
 
     List<FacilityPlan> findByFacilityId(Long facilityId);
-}
\ No newline at end of file
+
+    List<FacilityPlan> findByGymIdAndActiveTrue(Long gymId);
+
+    List<FacilityPlan> findByActiveTrue();
+
+    // Every plan across the owner's gyms, grouped by gym and facility
+    @Query("SELECT p FROM FacilityPlan p WHERE p.gymId IN (SELECT g.id FROM Gym g WHERE g.ownerId = :ownerId) " +
+           "ORDER BY p.gymId, p.facilityId, p.id")
+    List<FacilityPlan> findByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Keyset page across all of the owner's gyms, newest first
+    @Query("SELECT p FROM FacilityPlan p WHERE p.gymId IN (SELECT g.id FROM Gym g WHERE g.ownerId = :ownerId) " +
+           "AND p.id < :beforeId ORDER BY p.id DESC")
+    List<FacilityPlan> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                         @Param("beforeId") long beforeId,
+                                         Pageable pageable);
+}
@@ -2,12 +2,16 @@ package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.FacilitySession;
 import com.techtammina.fitSwitch.dto.FacilitySessionHistoryResponse;
+import com.techtammina.fitSwitch.dto.OccupantResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -26,6 +30,12 @@ public interface FacilitySessionRepository extends JpaRepository<FacilitySession
 
     java.util.List<FacilitySession> findByUserIdAndStatus(Long userId, FacilitySession.SessionStatus status);
 
+    List<FacilitySession> findByFacilitySubscriptionIdInAndStatus(
+            Collection<Long> facilitySubscriptionIds, FacilitySession.SessionStatus status);
+
+    List<FacilitySession> findByFacilitySubscriptionIdInAndVisitDateBetween(
+            Collection<Long> facilitySubscriptionIds, LocalDate from, LocalDate to);
+
     @Query("SELECT new com.techtammina.fitSwitch.dto.FacilitySessionHistoryResponse(" +
            "fs.id, g.gymName, gf.facilityName, fs.visitDate, fs.checkInTime, fs.checkOutTime, CAST(fs.status AS string)) " +
            "FROM FacilitySession fs " +
@@ -33,4 +43,27 @@ public interface FacilitySessionRepository extends JpaRepository<FacilitySession
            "JOIN GymFacility gf ON fs.facilityId = gf.id " +
            "WHERE fs.userId = :userId ORDER BY fs.visitDate DESC")
     java.util.List<FacilitySessionHistoryResponse> findFacilitySessionHistoryByUserId(@Param("userId") Long userId);
+
+    // Keyset page: rows strictly after the (visitDate, id) of the last row the client saw
+    @Query("SELECT new com.techtammina.fitSwitch.dto.FacilitySessionHistoryResponse(" +
+           "fs.id, g.gymName, gf.facilityName, fs.visitDate, fs.checkInTime, fs.checkOutTime, CAST(fs.status AS string)) " +
+           "FROM FacilitySession fs " +
+           "JOIN Gym g ON fs.gymId = g.id " +
+           "JOIN GymFacility gf ON fs.facilityId = gf.id " +
+           "WHERE fs.userId = :userId " +
+           "AND (fs.visitDate < :visitDate OR (fs.visitDate = :visitDate AND fs.id < :id)) " +
+           "ORDER BY fs.visitDate DESC, fs.id DESC")
+    java.util.List<FacilitySessionHistoryResponse> findFacilitySessionHistoryPage(@Param("userId") Long userId,
+                                                                                  @Param("visitDate") LocalDate visitDate,
+                                                                                  @Param("id") Long id,
+                                                                                  Pageable pageable);
+
+    // Open sessions for rebuilding the occupancy registry
+    @Query("SELECT new com.techtammina.fitSwitch.dto.OccupantResponse(" +
+           "'FACILITY', f.id, f.gymId, u.id, u.fullName, gf.facilityName, f.checkInTime, f.visitDate) " +
+           "FROM FacilitySession f " +
+           "JOIN User u ON f.userId = u.id " +
+           "JOIN GymFacility gf ON f.facilityId = gf.id " +
+           "WHERE f.status = 'ACTIVE'")
+    List<OccupantResponse> findActiveOccupants();
 }
@@ -1,7 +1,10 @@
 package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.GymFacility;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,4 +14,13 @@ public interface GymFacilityRepository extends JpaRepository<GymFacility, Long>
     List<GymFacility> findByGymIdAndActiveTrue(Long gymId);
     
     List<GymFacility> findByGymId(Long gymId);
-}
\ No newline at end of file
+
+    List<GymFacility> findByActiveTrue();
+
+    // Keyset page across all of the owner's gyms, newest first
+    @Query("SELECT f FROM GymFacility f WHERE f.gymId IN (SELECT g.id FROM Gym g WHERE g.ownerId = :ownerId) " +
+           "AND f.id < :beforeId ORDER BY f.id DESC")
+    List<GymFacility> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                        @Param("beforeId") long beforeId,
+                                        Pageable pageable);
+}
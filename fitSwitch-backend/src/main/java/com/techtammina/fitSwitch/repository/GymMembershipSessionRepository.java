@@ -1,14 +1,17 @@
 package com.techtammina.fitSwitch.repository;
 
+import com.techtammina.fitSwitch.dto.OccupantResponse;
 import com.techtammina.fitSwitch.dto.OwnerTodayVisitResponse;
 import com.techtammina.fitSwitch.dto.UserSessionHistoryResponse;
 import com.techtammina.fitSwitch.entity.GymMembershipSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,14 +26,7 @@ public interface GymMembershipSessionRepository extends JpaRepository<GymMembers
 
     List<GymMembershipSession> findByUserIdAndStatus(Long userId, GymMembershipSession.SessionStatus status);
 
-    @Query("SELECT COUNT(DISTINCT g.visitDate) FROM GymMembershipSession g WHERE g.userId = :userId AND g.status = 'COMPLETED'")
-    int countCompletedVisitDaysByUserId(@Param("userId") Long userId);
-
-    @Query("SELECT MAX(g.visitDate) FROM GymMembershipSession g WHERE g.userId = :userId AND g.status = 'COMPLETED'")
-    Optional<LocalDate> findLastVisitDateByUserId(@Param("userId") Long userId);
-
-    @Query("SELECT COUNT(g) FROM GymMembershipSession g WHERE g.userId = :userId AND g.gymId = :gymId AND g.status = 'COMPLETED'")
-    int countCompletedSessionsByUserAndGym(@Param("userId") Long userId, @Param("gymId") Long gymId);
+    List<GymMembershipSession> findByMembershipIdInAndStatus(Collection<Long> membershipIds, GymMembershipSession.SessionStatus status);
 
     @Query("SELECT g FROM GymMembershipSession g WHERE g.userId = :userId AND g.gymId = :gymId ORDER BY g.checkInTime DESC")
     List<GymMembershipSession> findLatestSessionsByUserAndGym(@Param("userId") Long userId, @Param("gymId") Long gymId);
@@ -52,4 +48,25 @@ public interface GymMembershipSessionRepository extends JpaRepository<GymMembers
            "JOIN Gym gym ON g.gymId = gym.id " +
            "WHERE g.userId = :userId ORDER BY g.visitDate DESC")
     List<UserSessionHistoryResponse> findSessionHistoryByUserId(@Param("userId") Long userId);
+
+    // Keyset page: rows strictly after the (visitDate, id) of the last row the client saw
+    @Query("SELECT new com.techtammina.fitSwitch.dto.UserSessionHistoryResponse(" +
+           "g.id, gym.gymName, g.visitDate, g.checkInTime, g.checkOutTime, CAST(g.status AS string)) " +
+           "FROM GymMembershipSession g " +
+           "JOIN Gym gym ON g.gymId = gym.id " +
+           "WHERE g.userId = :userId " +
+           "AND (g.visitDate < :visitDate OR (g.visitDate = :visitDate AND g.id < :id)) " +
+           "ORDER BY g.visitDate DESC, g.id DESC")
+    List<UserSessionHistoryResponse> findSessionHistoryPage(@Param("userId") Long userId,
+                                                            @Param("visitDate") LocalDate visitDate,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // Open sessions for rebuilding the occupancy registry
+    @Query("SELECT new com.techtammina.fitSwitch.dto.OccupantResponse(" +
+           "'MEMBERSHIP', g.id, g.gymId, u.id, u.fullName, g.checkInTime, g.visitDate) " +
+           "FROM GymMembershipSession g " +
+           "JOIN User u ON g.userId = u.id " +
+           "WHERE g.status = 'ACTIVE'")
+    List<OccupantResponse> findActiveOccupants();
 }
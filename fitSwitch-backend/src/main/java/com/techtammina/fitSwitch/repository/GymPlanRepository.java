@@ -1,7 +1,10 @@
 package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.GymPlan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -10,4 +13,13 @@ public interface GymPlanRepository extends JpaRepository<GymPlan, Long> {
     List<GymPlan> findByGymId(Long gymId);
 
     List<GymPlan> findByGymIdAndActiveTrue(Long gymId);
+
+    List<GymPlan> findByActiveTrue();
+
+    // Keyset page across all of the owner's gyms, newest first
+    @Query("SELECT p FROM GymPlan p WHERE p.gymId IN (SELECT g.id FROM Gym g WHERE g.ownerId = :ownerId) " +
+           "AND p.id < :beforeId ORDER BY p.id DESC")
+    List<GymPlan> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                    @Param("beforeId") long beforeId,
+                                    Pageable pageable);
 }
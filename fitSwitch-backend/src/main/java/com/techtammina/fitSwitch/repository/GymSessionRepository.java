@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.repository;
 
+import com.techtammina.fitSwitch.dto.OccupantResponse;
 import com.techtammina.fitSwitch.dto.UserSessionHistoryResponse;
 import com.techtammina.fitSwitch.dto.OwnerTodayVisitResponse;
 import com.techtammina.fitSwitch.entity.GymSession;
@@ -49,4 +50,12 @@ public interface GymSessionRepository extends JpaRepository<GymSession, Long> {
            "JOIN Gym gym ON g.gymId = gym.id " +
            "WHERE g.userId = :userId ORDER BY g.visitDate DESC")
     List<UserSessionHistoryResponse> findSessionHistoryByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    // Open sessions for rebuilding the occupancy registry
+    @Query("SELECT new com.techtammina.fitSwitch.dto.OccupantResponse(" +
+           "'GYM', g.id, g.gymId, u.id, u.fullName, g.checkInTime, g.visitDate) " +
+           "FROM GymSession g " +
+           "JOIN User u ON g.userId = u.id " +
+           "WHERE g.status = 'ACTIVE'")
+    List<OccupantResponse> findActiveOccupants();
+}
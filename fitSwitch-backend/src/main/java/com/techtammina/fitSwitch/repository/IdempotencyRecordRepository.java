@@ -0,0 +1,56 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // The claimedAt condition makes these no-ops for an owner whose lease was taken over
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+           "r.responseContentType = :contentType, r.responseBody = :body " +
+           "WHERE r.id = :id AND r.claimedAt = :claimedAt AND r.status = 'IN_PROGRESS'")
+    int complete(@Param("id") Long id,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("body") String body);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r " +
+           "WHERE r.id = :id AND r.claimedAt = :claimedAt AND r.status = 'IN_PROGRESS'")
+    int release(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Takes over a claim whose lease ran out; only one of several racing retries gets 1 back
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.claimedAt = :claimedAt " +
+           "WHERE r.id = :id AND r.claimedAt = :previousClaimedAt AND r.status = 'IN_PROGRESS'")
+    int takeOver(@Param("id") Long id,
+                 @Param("previousClaimedAt") LocalDateTime previousClaimedAt,
+                 @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
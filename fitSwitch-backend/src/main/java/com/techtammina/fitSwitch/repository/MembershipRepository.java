@@ -4,14 +4,15 @@ import com.techtammina.fitSwitch.dto.UserMembershipHistoryResponse;
 import com.techtammina.fitSwitch.dto.OwnerGymMemberResponse;
 import com.techtammina.fitSwitch.entity.Membership;
 import com.techtammina.fitSwitch.entity.MembershipStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,8 @@ public interface MembershipRepository extends JpaRepository<Membership, Long> {
     List<Membership> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     Optional<Membership> findByUserIdAndGymIdAndStatus(Long userId, Long gymId, MembershipStatus status);
+    Optional<Membership> findFirstByUserIdAndGymIdAndStatusAndEndDateGreaterThanEqual(
+            Long userId, Long gymId, MembershipStatus status, LocalDate date);
     
     List<Membership> findByUserIdAndStatus(Long userId, MembershipStatus status);
     
@@ -30,43 +33,54 @@ public interface MembershipRepository extends JpaRepository<Membership, Long> {
     
     @Query("SELECT new com.techtammina.fitSwitch.dto.OwnerGymMemberResponse(" +
            "u.id, u.fullName, u.email, gp.planName, 'GYM', m.startDate, m.endDate, " +
-           "CAST(m.status AS string), " +
-           "(SELECT MAX(gs.visitDate) FROM GymMembershipSession gs WHERE gs.userId = u.id AND gs.gymId = :gymId AND gs.status = 'COMPLETED')) " +
+           "CAST(m.status AS string), vs.lastVisitDate) " +
            "FROM Membership m " +
            "JOIN User u ON m.userId = u.id " +
            "JOIN GymPlan gp ON m.planId = gp.id " +
-           "WHERE m.gymId = :gymId AND m.status = 'ACTIVE'")
-    List<OwnerGymMemberResponse> findActiveGymMembers(@Param("gymId") Long gymId);
+           "LEFT JOIN UserVisitStats vs ON vs.userId = u.id AND vs.gymId = :gymId " +
+           "WHERE m.gymId = :gymId AND m.status = 'ACTIVE' AND m.endDate >= :today")
+    List<OwnerGymMemberResponse> findActiveGymMembers(@Param("gymId") Long gymId, @Param("today") LocalDate today);
     
     @Query("SELECT new com.techtammina.fitSwitch.dto.OwnerGymMemberResponse(" +
            "u.id, u.fullName, u.email, gp.planName, 'GYM', m.startDate, m.endDate, " +
-           "CAST(m.status AS string), " +
-           "(SELECT MAX(gs.visitDate) FROM GymMembershipSession gs WHERE gs.userId = u.id AND gs.gymId = :gymId AND gs.status = 'COMPLETED')) " +
+           "CAST(m.status AS string), vs.lastVisitDate) " +
            "FROM Membership m " +
            "JOIN User u ON m.userId = u.id " +
            "JOIN GymPlan gp ON m.planId = gp.id " +
+           "LEFT JOIN UserVisitStats vs ON vs.userId = u.id AND vs.gymId = :gymId " +
            "WHERE m.gymId = :gymId AND m.status = 'ACTIVE' AND m.endDate BETWEEN :startDate AND :endDate")
     List<OwnerGymMemberResponse> findExpiringSoonMembers(@Param("gymId") Long gymId, 
                                                         @Param("startDate") LocalDate startDate, 
                                                         @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT m.id FROM Membership m WHERE m.gymId = :gymId AND m.status = 'ACTIVE' AND m.endDate < :today")
-    List<Long> findExpiredMembershipIdsByGym(@Param("gymId") Long gymId, @Param("today") LocalDate today);
+    // Keyset page of memberships past their end date that are still marked ACTIVE
+    @Query("SELECT m.id FROM Membership m WHERE m.status = 'ACTIVE' AND m.endDate < :today AND m.id > :afterId ORDER BY m.id")
+    List<Long> findExpiredIdsAfter(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
     
+    // Re-checks status and end date so a row changed since it was selected is left alone
     @Modifying
-    @Transactional
-    @Query("UPDATE Membership m SET m.status = :status WHERE m.id IN :membershipIds")
-    void updateMembershipsToExpired(@Param("membershipIds") List<Long> membershipIds, 
-                                   @Param("status") MembershipStatus status);
-    
-    @Query("SELECT m.id FROM Membership m WHERE m.userId = :userId AND m.status = 'ACTIVE' AND m.endDate < :today")
-    List<Long> findExpiredMembershipIds(@Param("userId") Long userId, @Param("today") LocalDate today);
+    @Query("UPDATE Membership m SET m.status = :expired WHERE m.id IN :ids AND m.status = 'ACTIVE' AND m.endDate < :today")
+    int expireDue(@Param("ids") List<Long> ids, @Param("today") LocalDate today, @Param("expired") MembershipStatus expired);
     
     @Query("SELECT new com.techtammina.fitSwitch.dto.UserMembershipHistoryResponse(" +
-           "m.id, g.gymName, gp.planName, m.startDate, m.endDate, m.status, gp.price, gp.durationDays) " +
+           "m.id, g.gymName, gp.planName, m.startDate, m.endDate, m.status, gp.price, gp.durationDays, m.createdAt) " +
            "FROM Membership m " +
            "JOIN Gym g ON m.gymId = g.id " +
            "JOIN GymPlan gp ON m.planId = gp.id " +
            "WHERE m.userId = :userId ORDER BY m.createdAt DESC")
     List<UserMembershipHistoryResponse> findMembershipHistoryByUserId(@Param("userId") Long userId);
+
+    // Keyset page: rows strictly after the (createdAt, id) of the last row the client saw
+    @Query("SELECT new com.techtammina.fitSwitch.dto.UserMembershipHistoryResponse(" +
+           "m.id, g.gymName, gp.planName, m.startDate, m.endDate, m.status, gp.price, gp.durationDays, m.createdAt) " +
+           "FROM Membership m " +
+           "JOIN Gym g ON m.gymId = g.id " +
+           "JOIN GymPlan gp ON m.planId = gp.id " +
+           "WHERE m.userId = :userId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<UserMembershipHistoryResponse> findMembershipHistoryPage(@Param("userId") Long userId,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") Long id,
+                                                                  Pageable pageable);
 }
@@ -1,7 +1,9 @@
 package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.OtpVerification;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -10,7 +12,8 @@ import java.util.Optional;
 
 @Repository
 public interface OtpVerificationRepository extends JpaRepository<OtpVerification, Long> {
-    Optional<OtpVerification> findByEmailAndOtpAndVerifiedFalse(String email, String otp);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OtpVerification> findFirstByEmailAndVerifiedFalseOrderByIdDesc(String email);
     
     @Modifying
     void deleteByEmail(String email);
@@ -1,22 +1,34 @@
 package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.OwnerEarning;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OwnerEarningRepository extends JpaRepository<OwnerEarning, Long> {
     List<OwnerEarning> findByOwnerIdOrderByCreatedAtDesc(Long ownerId);
     List<OwnerEarning> findByGymIdOrderByCreatedAtDesc(Long gymId);
-    
-    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM OwnerEarning e WHERE e.ownerId = :ownerId")
-    BigDecimal getTotalEarningsByOwnerId(@Param("ownerId") Long ownerId);
-    
-    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM OwnerEarning e WHERE e.gymId = :gymId")
-    BigDecimal getTotalEarningsByGymId(@Param("gymId") Long gymId);
-}
\ No newline at end of file
+
+    // Keyset pages: rows strictly after the (createdAt, id) of the last row the client saw
+    @Query("SELECT e FROM OwnerEarning e WHERE e.ownerId = :ownerId " +
+           "AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<OwnerEarning> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query("SELECT e FROM OwnerEarning e WHERE e.gymId = :gymId " +
+           "AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id)) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<OwnerEarning> findPageByGymId(@Param("gymId") Long gymId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+}
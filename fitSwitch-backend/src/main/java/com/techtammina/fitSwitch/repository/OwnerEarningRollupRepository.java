@@ -0,0 +1,108 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.dto.EarningsBreakdownResponse;
+import com.techtammina.fitSwitch.dto.EarningsBucketResponse;
+import com.techtammina.fitSwitch.dto.GymEarningsTotalResponse;
+import com.techtammina.fitSwitch.entity.OwnerEarningRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OwnerEarningRollupRepository extends JpaRepository<OwnerEarningRollup, Long> {
+
+    // Adds one earning to its bucket, creating the bucket on first use
+    @Modifying
+    @Query(value = "INSERT INTO owner_earning_rollups (owner_id, gym_id, earning_date, type, total_amount, earning_count) " +
+                   "VALUES (:ownerId, :gymId, :earningDate, :type, :amount, 1) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + :amount, earning_count = earning_count + 1",
+           nativeQuery = true)
+    void add(@Param("ownerId") Long ownerId,
+             @Param("gymId") Long gymId,
+             @Param("earningDate") LocalDate earningDate,
+             @Param("type") String type,
+             @Param("amount") BigDecimal amount);
+
+    // Share-locks the earnings a reconcile is about to rebuild from before it touches any
+    // bucket; recorders write the earning before its bucket too. Scanning the primary key
+    // also locks the gap new ids are inserted into, so new earnings wait for the reconcile
+    @Query(value = "SELECT COUNT(*) FROM owner_earnings FORCE INDEX (PRIMARY) " +
+                   "WHERE created_at >= :from LOCK IN SHARE MODE",
+           nativeQuery = true)
+    long lockEarningsFrom(@Param("from") LocalDateTime from);
+
+    @Modifying
+    @Query(value = "DELETE FROM owner_earning_rollups WHERE earning_date >= :from", nativeQuery = true)
+    int deleteFrom(@Param("from") LocalDate from);
+
+    // Recomputes the buckets from the source rows; pair with deleteFrom in one transaction
+    @Modifying
+    @Query(value = "INSERT INTO owner_earning_rollups (owner_id, gym_id, earning_date, type, total_amount, earning_count) " +
+                   "SELECT owner_id, gym_id, DATE(created_at), type, SUM(amount), COUNT(*) " +
+                   "FROM owner_earnings WHERE created_at >= :from " +
+                   "GROUP BY owner_id, gym_id, DATE(created_at), type",
+           nativeQuery = true)
+    int rebuildFrom(@Param("from") LocalDateTime from);
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM OwnerEarningRollup r WHERE r.ownerId = :ownerId")
+    BigDecimal sumByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM OwnerEarningRollup r WHERE r.gymId = :gymId")
+    BigDecimal sumByGymId(@Param("gymId") Long gymId);
+
+    // Per-gym totals across the owner's portfolio, keyset paged by gym id, highest first
+    @Query("SELECT new com.techtammina.fitSwitch.dto.GymEarningsTotalResponse(" +
+           "r.gymId, SUM(r.totalAmount), SUM(r.earningCount)) " +
+           "FROM OwnerEarningRollup r " +
+           "WHERE r.ownerId = :ownerId AND r.gymId < :beforeGymId " +
+           "GROUP BY r.gymId ORDER BY r.gymId DESC")
+    List<GymEarningsTotalResponse> findGymTotalsPage(@Param("ownerId") Long ownerId,
+                                                     @Param("beforeGymId") long beforeGymId,
+                                                     Pageable pageable);
+
+    // Owner-wide and per-gym variants are separate so each can use its own index; callers
+    // check that the gym belongs to the owner, as for sumByGymId
+    @Query("SELECT new com.techtammina.fitSwitch.dto.EarningsBucketResponse(" +
+           "r.earningDate, SUM(r.totalAmount), SUM(r.earningCount)) " +
+           "FROM OwnerEarningRollup r " +
+           "WHERE r.ownerId = :ownerId AND r.earningDate BETWEEN :from AND :to " +
+           "GROUP BY r.earningDate ORDER BY r.earningDate")
+    List<EarningsBucketResponse> findDailySeries(@Param("ownerId") Long ownerId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+
+    @Query("SELECT new com.techtammina.fitSwitch.dto.EarningsBucketResponse(" +
+           "r.earningDate, SUM(r.totalAmount), SUM(r.earningCount)) " +
+           "FROM OwnerEarningRollup r " +
+           "WHERE r.gymId = :gymId AND r.earningDate BETWEEN :from AND :to " +
+           "GROUP BY r.earningDate ORDER BY r.earningDate")
+    List<EarningsBucketResponse> findGymDailySeries(@Param("gymId") Long gymId,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to);
+
+    @Query("SELECT new com.techtammina.fitSwitch.dto.EarningsBreakdownResponse(" +
+           "r.type, SUM(r.totalAmount), SUM(r.earningCount)) " +
+           "FROM OwnerEarningRollup r " +
+           "WHERE r.ownerId = :ownerId AND r.earningDate BETWEEN :from AND :to " +
+           "GROUP BY r.type ORDER BY r.type")
+    List<EarningsBreakdownResponse> findTypeBreakdown(@Param("ownerId") Long ownerId,
+                                                      @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to);
+
+    @Query("SELECT new com.techtammina.fitSwitch.dto.EarningsBreakdownResponse(" +
+           "r.type, SUM(r.totalAmount), SUM(r.earningCount)) " +
+           "FROM OwnerEarningRollup r " +
+           "WHERE r.gymId = :gymId AND r.earningDate BETWEEN :from AND :to " +
+           "GROUP BY r.type ORDER BY r.type")
+    List<EarningsBreakdownResponse> findGymTypeBreakdown(@Param("gymId") Long gymId,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+}
@@ -0,0 +1,42 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.OwnerWalletCredit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface OwnerWalletCreditRepository extends JpaRepository<OwnerWalletCredit, Long> {
+
+    @Query("SELECT COALESCE(SUM(c.amount), 0) FROM OwnerWalletCredit c WHERE c.ownerId = :ownerId")
+    BigDecimal sumPendingByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Keyset page over owners, walked in owner id order by idx_owner_wallet_credits_owner
+    @Query("SELECT DISTINCT c.ownerId FROM OwnerWalletCredit c WHERE c.ownerId > :afterOwnerId ORDER BY c.ownerId")
+    List<Long> findOwnersWithPendingCredits(@Param("afterOwnerId") Long afterOwnerId, Pageable pageable);
+
+    // Lock timeout -2 renders as FOR UPDATE SKIP LOCKED, so a fold never waits on a concurrent one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM OwnerWalletCredit c WHERE c.ownerId = :ownerId ORDER BY c.id")
+    List<OwnerWalletCredit> findPendingForUpdate(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    // Waits for a concurrent fold instead of skipping its rows, for callers that need every credit counted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OwnerWalletCredit c WHERE c.ownerId = :ownerId ORDER BY c.id")
+    List<OwnerWalletCredit> findPendingForUpdateWaiting(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OwnerWalletCredit c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.TurnstileEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TurnstileEventRepository extends JpaRepository<TurnstileEvent, Long> {
+
+    // Locking read, so it sees the latest committed rows rather than the transaction's snapshot,
+    // which may predate a concurrent batch that claimEvents waited on
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT e FROM TurnstileEvent e WHERE e.gymId = :gymId AND e.eventId IN :eventIds")
+    List<TurnstileEvent> findClaimsForShare(@Param("gymId") Long gymId, @Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TurnstileEvent e WHERE e.receivedAt < :before")
+    int deleteReceivedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,177 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.FacilitySession;
+import com.techtammina.fitSwitch.entity.GymMembershipSession;
+import com.techtammina.fitSwitch.entity.TurnstileEvent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for turnstile ingestion. Session ids are IDENTITY generated, which turns
+ * off Hibernate's insert batching, so new sessions are written here with one batched
+ * statement per table instead of one INSERT each. Check-outs of sessions that already exist
+ * are ordinary entity updates, which Hibernate batches itself. Must run inside the caller's
+ * transaction; nothing here goes through the persistence context.
+ */
+@Repository
+public class TurnstileJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TurnstileJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts a PENDING row per event id, skipping ids the gym has already seen. A concurrent
+     * batch holding the same id makes this wait until that batch commits or rolls back.
+     */
+    public void claimEvents(Long gymId, List<TurnstileEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO turnstile_events (gym_id, event_id, scanned_at, outcome, received_at) " +
+                "VALUES (?, ?, ?, 'PENDING', ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TurnstileEvent event = events.get(i);
+                        ps.setLong(1, gymId);
+                        ps.setString(2, event.getEventId());
+                        ps.setTimestamp(3, Timestamp.valueOf(event.getScannedAt()));
+                        ps.setTimestamp(4, Timestamp.valueOf(event.getReceivedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                });
+    }
+
+    public void recordOutcomes(Long gymId, List<TurnstileEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE turnstile_events SET outcome = ?, action = ?, session_id = ?, message = ? " +
+                "WHERE gym_id = ? AND event_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TurnstileEvent event = events.get(i);
+                        ps.setString(1, event.getOutcome().name());
+                        ps.setString(2, event.getAction() != null ? event.getAction().name() : null);
+                        setNullableLong(ps, 3, event.getSessionId());
+                        ps.setString(4, event.getMessage());
+                        ps.setLong(5, gymId);
+                        ps.setString(6, event.getEventId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                });
+    }
+
+    /**
+     * Inserts the sessions and sets their generated ids.
+     */
+    public void insertMembershipSessions(List<GymMembershipSession> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO gym_membership_sessions " +
+                        "(user_id, gym_id, membership_id, check_in_time, check_out_time, visit_date, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        GymMembershipSession session = sessions.get(i);
+                        ps.setLong(1, session.getUserId());
+                        ps.setLong(2, session.getGymId());
+                        ps.setLong(3, session.getMembershipId());
+                        ps.setTimestamp(4, Timestamp.valueOf(session.getCheckInTime()));
+                        setNullableTimestamp(ps, 5, session.getCheckOutTime());
+                        ps.setObject(6, session.getVisitDate());
+                        ps.setString(7, session.getStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sessions.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).setId(generatedId(generated.get(i)));
+        }
+    }
+
+    public void insertFacilitySessions(List<FacilitySession> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO facility_sessions " +
+                        "(user_id, gym_id, facility_id, facility_plan_id, facility_subscription_id, " +
+                        "check_in_time, check_out_time, visit_date, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        FacilitySession session = sessions.get(i);
+                        ps.setLong(1, session.getUserId());
+                        ps.setLong(2, session.getGymId());
+                        ps.setLong(3, session.getFacilityId());
+                        ps.setLong(4, session.getFacilityPlanId());
+                        ps.setLong(5, session.getFacilitySubscriptionId());
+                        ps.setTimestamp(6, Timestamp.valueOf(session.getCheckInTime()));
+                        setNullableTimestamp(ps, 7, session.getCheckOutTime());
+                        ps.setObject(8, session.getVisitDate());
+                        ps.setString(9, session.getStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sessions.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).setId(generatedId(generated.get(i)));
+        }
+    }
+
+    private static Long generatedId(Map<String, Object> keys) {
+        // MySQL reports the key as GENERATED_KEY
+        return ((Number) keys.values().iterator().next()).longValue();
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setNullableTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+}
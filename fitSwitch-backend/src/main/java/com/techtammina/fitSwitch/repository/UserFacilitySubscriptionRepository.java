@@ -4,14 +4,15 @@ import com.techtammina.fitSwitch.dto.OwnerGymMemberResponse;
 import com.techtammina.fitSwitch.dto.UserFacilityHistoryResponse;
 import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
 import com.techtammina.fitSwitch.entity.UserFacilitySubscription;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +23,15 @@ public interface UserFacilitySubscriptionRepository extends JpaRepository<UserFa
 
     Optional<UserFacilitySubscription> findByUserIdAndFacilityIdAndStatus(
             Long userId, Long facilityId, FacilitySubscriptionStatus status);
+
+    Optional<UserFacilitySubscription> findFirstByUserIdAndFacilityIdAndStatusAndEndDateGreaterThanEqual(
+            Long userId, Long facilityId, FacilitySubscriptionStatus status, LocalDate date);
             
     Optional<UserFacilitySubscription> findByUserIdAndGymIdAndStatus(
             Long userId, Long gymId, FacilitySubscriptionStatus status);
+
+    Optional<UserFacilitySubscription> findFirstByUserIdAndGymIdAndStatusAndEndDateGreaterThanEqual(
+            Long userId, Long gymId, FacilitySubscriptionStatus status, LocalDate date);
             
     List<UserFacilitySubscription> findByUserIdAndStatus(Long userId, FacilitySubscriptionStatus status);
     
@@ -34,35 +41,48 @@ public interface UserFacilitySubscriptionRepository extends JpaRepository<UserFa
     
     @Query("SELECT new com.techtammina.fitSwitch.dto.OwnerGymMemberResponse(" +
            "u.id, u.fullName, u.email, fp.planName, 'FACILITY', ufs.startDate, ufs.endDate, " +
-           "CAST(ufs.status AS string), " +
-           "(SELECT MAX(gs.visitDate) FROM GymMembershipSession gs WHERE gs.userId = u.id AND gs.gymId = :gymId AND gs.status = 'COMPLETED')) " +
+           "CAST(ufs.status AS string), vs.lastVisitDate) " +
            "FROM UserFacilitySubscription ufs " +
            "JOIN User u ON ufs.userId = u.id " +
            "JOIN FacilityPlan fp ON ufs.facilityPlanId = fp.id " +
-           "WHERE ufs.gymId = :gymId AND ufs.status = 'ACTIVE'")
-    List<OwnerGymMemberResponse> findActiveFacilitySubscribers(@Param("gymId") Long gymId);
+           "LEFT JOIN UserVisitStats vs ON vs.userId = u.id AND vs.gymId = :gymId " +
+           "WHERE ufs.gymId = :gymId AND ufs.status = 'ACTIVE' AND ufs.endDate >= :today")
+    List<OwnerGymMemberResponse> findActiveFacilitySubscribers(@Param("gymId") Long gymId, @Param("today") LocalDate today);
     
-    @Query("SELECT ufs.id FROM UserFacilitySubscription ufs WHERE ufs.gymId = :gymId AND ufs.status = 'ACTIVE' AND ufs.endDate < :today")
-    List<Long> findExpiredSubscriptionIdsByGym(@Param("gymId") Long gymId, @Param("today") LocalDate today);
+    // Keyset page of subscriptions past their end date that are still marked ACTIVE
+    @Query("SELECT ufs.id FROM UserFacilitySubscription ufs WHERE ufs.status = 'ACTIVE' AND ufs.endDate < :today AND ufs.id > :afterId ORDER BY ufs.id")
+    List<Long> findExpiredIdsAfter(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
     
+    // Re-checks status and end date so a row changed since it was selected is left alone
     @Modifying
-    @Transactional
-    @Query("UPDATE UserFacilitySubscription ufs SET ufs.status = :status WHERE ufs.id IN :subscriptionIds")
-    void updateSubscriptionsToExpired(@Param("subscriptionIds") List<Long> subscriptionIds, 
-                                     @Param("status") FacilitySubscriptionStatus status);
+    @Query("UPDATE UserFacilitySubscription ufs SET ufs.status = :expired WHERE ufs.id IN :ids AND ufs.status = 'ACTIVE' AND ufs.endDate < :today")
+    int expireDue(@Param("ids") List<Long> ids, @Param("today") LocalDate today, @Param("expired") FacilitySubscriptionStatus expired);
     
     List<UserFacilitySubscription> findByGymIdAndStatusAndEndDateBetween(
             Long gymId, FacilitySubscriptionStatus status, LocalDate startDate, LocalDate endDate);
     
-    @Query("SELECT ufs.id FROM UserFacilitySubscription ufs WHERE ufs.userId = :userId AND ufs.status = 'ACTIVE' AND ufs.endDate < :today")
-    List<Long> findExpiredSubscriptionIds(@Param("userId") Long userId, @Param("today") LocalDate today);
     
     @Query("SELECT new com.techtammina.fitSwitch.dto.UserFacilityHistoryResponse(" +
-           "ufs.id, g.gymName, gf.facilityName, fp.planName, ufs.startDate, ufs.endDate, ufs.status, fp.price, fp.durationDays) " +
+           "ufs.id, g.gymName, gf.facilityName, fp.planName, ufs.startDate, ufs.endDate, ufs.status, fp.price, fp.durationDays, ufs.createdAt) " +
            "FROM UserFacilitySubscription ufs " +
            "JOIN Gym g ON ufs.gymId = g.id " +
            "JOIN GymFacility gf ON ufs.facilityId = gf.id " +
            "JOIN FacilityPlan fp ON ufs.facilityPlanId = fp.id " +
            "WHERE ufs.userId = :userId ORDER BY ufs.createdAt DESC")
     List<UserFacilityHistoryResponse> findFacilityHistoryByUserId(@Param("userId") Long userId);
+
+    // Keyset page: rows strictly after the (createdAt, id) of the last row the client saw
+    @Query("SELECT new com.techtammina.fitSwitch.dto.UserFacilityHistoryResponse(" +
+           "ufs.id, g.gymName, gf.facilityName, fp.planName, ufs.startDate, ufs.endDate, ufs.status, fp.price, fp.durationDays, ufs.createdAt) " +
+           "FROM UserFacilitySubscription ufs " +
+           "JOIN Gym g ON ufs.gymId = g.id " +
+           "JOIN GymFacility gf ON ufs.facilityId = gf.id " +
+           "JOIN FacilityPlan fp ON ufs.facilityPlanId = fp.id " +
+           "WHERE ufs.userId = :userId " +
+           "AND (ufs.createdAt < :createdAt OR (ufs.createdAt = :createdAt AND ufs.id < :id)) " +
+           "ORDER BY ufs.createdAt DESC, ufs.id DESC")
+    List<UserFacilityHistoryResponse> findFacilityHistoryPage(@Param("userId") Long userId,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("id") Long id,
+                                                              Pageable pageable);
 }
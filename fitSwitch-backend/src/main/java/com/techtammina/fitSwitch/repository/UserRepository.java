@@ -1,7 +1,11 @@
 package com.techtammina.fitSwitch.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.techtammina.fitSwitch.entity.User;
@@ -9,5 +13,15 @@ import com.techtammina.fitSwitch.entity.User;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-    
+
+    @Query("SELECT u.enabled AS enabled, u.tokenVersion AS tokenVersion FROM User u WHERE u.id = :userId")
+    Optional<TokenState> findTokenStateById(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    interface TokenState {
+        Boolean getEnabled();
+        Integer getTokenVersion();
+    }
 }
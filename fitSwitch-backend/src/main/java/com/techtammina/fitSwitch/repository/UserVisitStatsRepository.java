@@ -0,0 +1,86 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.dto.GymUserResponse;
+import com.techtammina.fitSwitch.entity.UserVisitStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserVisitStatsRepository extends JpaRepository<UserVisitStats, Long> {
+
+    Optional<UserVisitStats> findByUserIdAndGymId(Long userId, Long gymId);
+
+    List<UserVisitStats> findByUserId(Long userId);
+
+    List<UserVisitStats> findByGymIdAndUserIdIn(Long gymId, Collection<Long> userIds);
+
+    // Gym users are everyone with a membership, facility subscription, membership session or
+    // recorded visit at the gym; members who have not visited yet have no stats row
+    String GYM_USER_IDS =
+            "SELECT m.userId AS userId FROM Membership m WHERE m.gymId = :gymId " +
+            "UNION SELECT ufs.userId AS userId FROM UserFacilitySubscription ufs WHERE ufs.gymId = :gymId " +
+            "UNION SELECT gs.userId AS userId FROM GymMembershipSession gs WHERE gs.gymId = :gymId " +
+            "UNION SELECT vs.userId AS userId FROM UserVisitStats vs WHERE vs.gymId = :gymId";
+
+    @Query("SELECT new com.techtammina.fitSwitch.dto.GymUserResponse(" +
+           "u.id, u.fullName, u.email, " +
+           "CASE WHEN EXISTS (SELECT m.id FROM Membership m WHERE m.userId = u.id AND m.gymId = :gymId " +
+           "  AND m.status = 'ACTIVE' AND m.endDate >= :today) " +
+           "THEN 'ACTIVE' ELSE 'NONE' END, " +
+           "CASE WHEN EXISTS (SELECT ufs.id FROM UserFacilitySubscription ufs WHERE ufs.userId = u.id AND ufs.gymId = :gymId " +
+           "  AND ufs.status = 'ACTIVE' AND ufs.endDate >= :today) " +
+           "THEN 'ACTIVE' ELSE 'NONE' END, " +
+           "s.lastVisitDate, s.totalVisits) " +
+           "FROM (" + GYM_USER_IDS + ") ids " +
+           "JOIN User u ON u.id = ids.userId " +
+           "LEFT JOIN UserVisitStats s ON s.userId = u.id AND s.gymId = :gymId")
+    List<GymUserResponse> findGymUsers(@Param("gymId") Long gymId, @Param("today") LocalDate today, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM (" + GYM_USER_IDS + ") ids JOIN User u ON u.id = ids.userId")
+    long countGymUsers(@Param("gymId") Long gymId);
+
+    // Writes below are used only by UserVisitStatsService
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_visit_stats (user_id, gym_id, total_visits, visit_days, current_streak) " +
+                   "VALUES (:userId, :gymId, 0, 0, 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("gymId") Long gymId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserVisitStats s WHERE s.userId = :userId AND s.gymId = :gymId")
+    Optional<UserVisitStats> findForUpdate(@Param("userId") Long userId, @Param("gymId") Long gymId);
+
+    // Completed sessions per gym and day, the source the stats are rebuilt from
+
+    @Query("SELECT g.gymId AS gymId, g.visitDate AS visitDate, COUNT(g) AS visits " +
+           "FROM GymMembershipSession g WHERE g.userId = :userId AND g.status = 'COMPLETED' " +
+           "GROUP BY g.gymId, g.visitDate")
+    List<VisitDay> findMembershipVisitDays(@Param("userId") Long userId);
+
+    @Query("SELECT f.gymId AS gymId, f.visitDate AS visitDate, COUNT(f) AS visits " +
+           "FROM FacilitySession f WHERE f.userId = :userId AND f.status = 'COMPLETED' " +
+           "GROUP BY f.gymId, f.visitDate")
+    List<VisitDay> findFacilityVisitDays(@Param("userId") Long userId);
+
+    @Query("SELECT g.gymId AS gymId, g.visitDate AS visitDate, COUNT(g) AS visits " +
+           "FROM GymSession g WHERE g.userId = :userId AND g.status = 'COMPLETED' " +
+           "GROUP BY g.gymId, g.visitDate")
+    List<VisitDay> findGymSessionVisitDays(@Param("userId") Long userId);
+
+    interface VisitDay {
+        Long getGymId();
+        LocalDate getVisitDate();
+        Long getVisits();
+    }
+}
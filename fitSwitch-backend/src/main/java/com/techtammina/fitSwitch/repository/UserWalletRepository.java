@@ -2,12 +2,52 @@ package com.techtammina.fitSwitch.repository;
 
 import com.techtammina.fitSwitch.entity.UserWallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserWalletRepository extends JpaRepository<UserWallet, Long> {
     Optional<UserWallet> findByUserId(Long userId);
     boolean existsByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Balance writes below are used only by WalletLedger
+
+    @Query("SELECT w.id AS id, w.balance AS balance FROM UserWallet w WHERE w.userId = :userId")
+    Optional<BalanceView> findBalanceByUserId(@Param("userId") Long userId);
+
+    // One statement reads the wallet row and the unfolded owner credits from the same snapshot
+    @Query("SELECT w.balance + COALESCE((SELECT SUM(c.amount) FROM OwnerWalletCredit c WHERE c.ownerId = w.userId), 0) " +
+           "FROM UserWallet w WHERE w.userId = :userId")
+    Optional<BigDecimal> findVisibleBalanceByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO user_wallets (user_id, balance, created_at, updated_at) " +
+            "VALUES (:userId, 0, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserWallet w SET w.balance = w.balance + :amount, w.updatedAt = :now WHERE w.userId = :userId")
+    int credit(@Param("userId") Long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserWallet w SET w.balance = w.balance - :amount, w.updatedAt = :now " +
+           "WHERE w.userId = :userId AND w.balance >= :amount")
+    int debitIfSufficient(@Param("userId") Long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserWallet w SET w.balance = w.balance - :amount, w.updatedAt = :now WHERE w.userId = :userId")
+    int debit(@Param("userId") Long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    interface BalanceView {
+        Long getId();
+        BigDecimal getBalance();
+    }
+}
@@ -0,0 +1,86 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.entity.WalletTransaction;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for wallet ledger postings. Transaction ids are IDENTITY generated, which
+ * turns off Hibernate's insert batching, so a fold of hundreds of owner credits would be as
+ * many INSERTs. Here they go out as one batched statement. Must run inside the caller's
+ * transaction; nothing here goes through the persistence context.
+ */
+@Repository
+public class WalletTransactionJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalletTransactionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the transactions and sets their generated ids.
+     */
+    public void insertAll(List<WalletTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO wallet_transactions " +
+                        "(user_id, wallet_id, type, amount, balance_after, description, " +
+                        "gym_id, facility_id, membership_id, session_id, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        WalletTransaction transaction = transactions.get(i);
+                        ps.setLong(1, transaction.getUserId());
+                        ps.setLong(2, transaction.getWalletId());
+                        ps.setString(3, transaction.getType().name());
+                        ps.setBigDecimal(4, transaction.getAmount());
+                        ps.setBigDecimal(5, transaction.getBalanceAfter());
+                        ps.setString(6, transaction.getDescription());
+                        setNullableLong(ps, 7, transaction.getGymId());
+                        setNullableLong(ps, 8, transaction.getFacilityId());
+                        setNullableLong(ps, 9, transaction.getMembershipId());
+                        setNullableLong(ps, 10, transaction.getSessionId());
+                        ps.setTimestamp(11, Timestamp.valueOf(transaction.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return transactions.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < transactions.size(); i++) {
+            transactions.get(i).setId(generatedId(generated.get(i)));
+        }
+    }
+
+    private static Long generatedId(Map<String, Object> keys) {
+        // MySQL reports the key as GENERATED_KEY
+        return ((Number) keys.values().iterator().next()).longValue();
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.TokenRevocationCache;
 import com.techtammina.fitSwitch.dto.*;
-import com.techtammina.fitSwitch.entity.OtpVerification;
 import com.techtammina.fitSwitch.entity.User;
 import com.techtammina.fitSwitch.enums.Role;
-import com.techtammina.fitSwitch.repository.OtpVerificationRepository;
 import com.techtammina.fitSwitch.repository.UserRepository;
 import com.techtammina.fitSwitch.utils.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,7 +26,10 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private OtpVerificationRepository otpRepository;
+    private OtpStore otpStore;
+
+    @Autowired
+    private OtpSendLimiter otpSendLimiter;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -41,8 +43,15 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private TokenRevocationCache tokenRevocationCache;
+
     @Transactional
-    public ApiResponse<String> register(RegisterRequest request) {
+    public ApiResponse<String> register(RegisterRequest request, String clientIp) {
+        if (!otpSendLimiter.tryAcquire(request.getEmail(), clientIp)) {
+            return ApiResponse.error("Too many OTP requests. Please try again later.");
+        }
+
         User existingUser = userRepository.findByEmail(request.getEmail()).orElse(null);
         
         if (existingUser != null && existingUser.isEnabled()) {
@@ -51,9 +60,10 @@ public class AuthService {
         
         // If user exists but not verified, delete and allow re-registration
         if (existingUser != null && !existingUser.isEnabled()) {
-            otpRepository.deleteByEmail(request.getEmail());
+            otpStore.remove(request.getEmail());
             userRepository.delete(existingUser);
             userRepository.flush(); // Force immediate database update
+            tokenRevocationCache.evict(existingUser.getId());
         }
 
         User user = new User();
@@ -69,13 +79,7 @@ public class AuthService {
 
         // Generate and send OTP
         String otp = generateOtp();
-        OtpVerification otpVerification = new OtpVerification(
-            request.getEmail(), 
-            otp, 
-            LocalDateTime.now(ZoneId.of("Asia/Kolkata")).plusMinutes(10)
-        );
-        
-        otpRepository.save(otpVerification);
+        otpStore.issue(request.getEmail(), otp);
 
         try {
             emailService.sendOtpEmail(request.getEmail(), otp);
@@ -87,27 +91,23 @@ public class AuthService {
 
     @Transactional
     public ApiResponse<String> verifyOtp(VerifyOtpRequest request) {
-        OtpVerification otpVerification = otpRepository
-            .findByEmailAndOtpAndVerifiedFalse(request.getEmail(), request.getOtp())
-            .orElse(null);
-
-        if (otpVerification == null) {
-            return ApiResponse.error("Invalid OTP");
-        }
-
-        if (otpVerification.getExpiresAt().isBefore(LocalDateTime.now(ZoneId.of("Asia/Kolkata")))) {
-            return ApiResponse.error("OTP has expired");
+        switch (otpStore.verify(request.getEmail(), request.getOtp())) {
+            case INVALID:
+                return ApiResponse.error("Invalid OTP");
+            case EXPIRED:
+                return ApiResponse.error("OTP has expired");
+            case TOO_MANY_ATTEMPTS:
+                return ApiResponse.error("Too many incorrect attempts. Please request a new OTP.");
+            case VERIFIED:
+                break;
         }
 
-        // Mark OTP as verified
-        otpVerification.setVerified(true);
-        otpRepository.save(otpVerification);
-
         // Enable user
         User user = userRepository.findByEmail(request.getEmail())
             .orElseThrow(() -> new RuntimeException("User not found"));
         user.setEnabled(true);
         userRepository.save(user);
+        tokenRevocationCache.evict(user.getId());
 
         return ApiResponse.success("Email verified successfully. You can now login.");
     }
@@ -145,7 +145,11 @@ public class AuthService {
     }
 
     @Transactional
-    public ApiResponse<String> resendOtp(String email) {
+    public ApiResponse<String> resendOtp(String email, String clientIp) {
+        if (!otpSendLimiter.tryAcquire(email, clientIp)) {
+            return ApiResponse.error("Too many OTP requests. Please try again later.");
+        }
+
         User user = userRepository.findByEmail(email).orElse(null);
         if (user == null) {
             return ApiResponse.error("User not found");
@@ -156,14 +160,7 @@ public class AuthService {
         }
 
         String otp = generateOtp();
-        OtpVerification otpVerification = new OtpVerification(
-            email, 
-            otp, 
-            LocalDateTime.now(ZoneId.of("Asia/Kolkata")).plusMinutes(10)
-        );
-        
-        otpRepository.deleteByEmail(email);
-        otpRepository.save(otpVerification);
+        otpStore.issue(email, otp);
 
         try {
             emailService.sendOtpEmail(email, otp);
@@ -0,0 +1,192 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Public catalog responses kept as ready-to-send JSON bytes, so browsing gyms costs neither
+ * queries nor serialization.
+ *
+ * Snapshots cover the gym list and, for each active gym, its plans, facilities, facility
+ * plans and detail page. Each is built by the service method the endpoint calls and
+ * serialized once with the application's ObjectMapper. It is stored with a gzip copy and an
+ * ETag derived from the content. A gym's views are rebuilt when a {@link CatalogChangedEvent}
+ * for it commits. Other instances do not see that event, so every snapshot is also rebuilt
+ * after app.catalog-snapshot.ttl-ms.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    // Smaller bodies are not worth the Content-Encoding overhead
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final String GYM_LIST = "gyms";
+
+    public enum View {
+        PLANS, FACILITIES, FACILITY_PLANS, DETAIL
+    }
+
+    private final GymService gymService;
+    private final GymPlanService gymPlanService;
+    private final GymFacilityService gymFacilityService;
+    private final FacilityPlanService facilityPlanService;
+    private final GymDetailService gymDetailService;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final long ttlMs;
+    private final long maxAgeSeconds;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Bumped on every change; a build that overlapped a change is served but not kept
+    private final AtomicLong changes = new AtomicLong();
+
+    public CatalogSnapshotService(GymService gymService,
+                                  GymPlanService gymPlanService,
+                                  GymFacilityService gymFacilityService,
+                                  FacilityPlanService facilityPlanService,
+                                  GymDetailService gymDetailService,
+                                  CatalogCache catalogCache,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.catalog-snapshot.ttl-ms:60000}") long ttlMs,
+                                  @Value("${app.catalog-snapshot.max-age-seconds:30}") long maxAgeSeconds) {
+        this.gymService = gymService;
+        this.gymPlanService = gymPlanService;
+        this.gymFacilityService = gymFacilityService;
+        this.facilityPlanService = facilityPlanService;
+        this.gymDetailService = gymDetailService;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttlMs;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public Snapshot getGymList() {
+        Snapshot current = snapshots.get(GYM_LIST);
+        if (current != null && !current.isOlderThan(ttlMs)) {
+            return current;
+        }
+        long seen = changes.get();
+        Snapshot built = build(gymService.getAllActiveGyms());
+        keepIfUnchanged(GYM_LIST, built, seen);
+        return built;
+    }
+
+    public Snapshot getGymView(Long gymId, View view) {
+        String key = key(gymId, view);
+        Snapshot current = snapshots.get(key);
+        if (current != null && !current.isOlderThan(ttlMs)) {
+            return current;
+        }
+        long seen = changes.get();
+        Snapshot built = build(load(gymId, view));
+        // Only active gyms are kept, so requests for arbitrary ids cannot grow the map
+        if (catalogCache.findGym(gymId).map(Gym::isActive).orElse(false)) {
+            keepIfUnchanged(key, built, seen);
+        } else {
+            snapshots.remove(key);
+        }
+        return built;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        changes.incrementAndGet();
+        // Gym names appear in the facility plan view, so any change rebuilds all of the gym's views
+        if (event.getType() == CatalogChangedEvent.Type.GYM && snapshots.remove(GYM_LIST) != null) {
+            getGymList();
+        }
+        for (View view : View.values()) {
+            if (snapshots.remove(key(event.getGymId(), view)) != null) {
+                getGymView(event.getGymId(), view);
+            }
+        }
+    }
+
+    private Object load(Long gymId, View view) {
+        return switch (view) {
+            case PLANS -> gymPlanService.getPublicGymPlans(gymId);
+            case FACILITIES -> gymFacilityService.getFacilitiesForGymPublic(gymId);
+            case FACILITY_PLANS -> facilityPlanService.getGymFacilityPlansGrouped(gymId);
+            case DETAIL -> gymDetailService.getGymDetail(gymId);
+        };
+    }
+
+    private void keepIfUnchanged(String key, Snapshot snapshot, long seen) {
+        if (changes.get() == seen) {
+            snapshots.put(key, snapshot);
+        }
+    }
+
+    private Snapshot build(Object body) {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+        return new Snapshot(json, gzip != null && gzip.length < json.length ? gzip : null, etag(json),
+                System.currentTimeMillis());
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Weak, because the same tag covers the identity and gzip encodings of the content
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(Long gymId, View view) {
+        return gymId + ":" + view;
+    }
+
+    public static final class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final long builtAt;
+
+        Snapshot(byte[] json, byte[] gzip, String etag, long builtAt) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.builtAt = builtAt;
+        }
+
+        boolean isOlderThan(long ttlMs) {
+            return System.currentTimeMillis() - builtAt >= ttlMs;
+        }
+
+        // Shared between requests; callers write them out and must not modify them
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        public String getEtag() { return etag; }
+    }
+}
@@ -0,0 +1,271 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.repository.*;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Answers, for every check-in path, whether the user may enter now, under which membership
+ * or facility subscription, and whether a session is already open, with a single query.
+ * Door scans arrive in batches and use {@link #batch}, which applies the same rules to
+ * entitlements loaded once for the whole batch.
+ *
+ * Lookup failures (unknown plan, someone else's plan) throw; whether the user is entitled
+ * and whether a session is open are returned. Plan check-ins refuse with
+ * {@link Eligibility#checkInRefusal()}; gym entry keeps its own messages.
+ */
+@Service
+public class CheckInEligibilityResolver {
+
+    public enum Entitlement {
+        MEMBERSHIP, FACILITY_SUBSCRIPTION
+    }
+
+    private final CheckInEligibilityRepository eligibilityRepository;
+    private final MembershipRepository membershipRepository;
+    private final UserFacilitySubscriptionRepository subscriptionRepository;
+    private final GymMembershipSessionRepository membershipSessionRepository;
+    private final FacilitySessionRepository facilitySessionRepository;
+
+    public CheckInEligibilityResolver(CheckInEligibilityRepository eligibilityRepository,
+                                      MembershipRepository membershipRepository,
+                                      UserFacilitySubscriptionRepository subscriptionRepository,
+                                      GymMembershipSessionRepository membershipSessionRepository,
+                                      FacilitySessionRepository facilitySessionRepository) {
+        this.eligibilityRepository = eligibilityRepository;
+        this.membershipRepository = membershipRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.membershipSessionRepository = membershipSessionRepository;
+        this.facilitySessionRepository = facilitySessionRepository;
+    }
+
+    /**
+     * Entry to a gym under whichever plan the user holds there, a membership before a
+     * facility subscription. Reports the open gym session and the open legacy gym visit.
+     */
+    public Eligibility forGym(Long userId, Long gymId, LocalDate today) {
+        CheckInEligibilityRepository.GymEntitlement row = eligibilityRepository.findGymEntitlement(userId, gymId, today);
+        Eligibility eligibility = new Eligibility();
+        eligibility.gymId = gymId;
+        if (row.getMembershipId() != null) {
+            eligibility.entitlement = Entitlement.MEMBERSHIP;
+            eligibility.entitlementId = row.getMembershipId();
+            eligibility.active = true;
+        } else if (row.getFacilitySubscriptionId() != null) {
+            eligibility.entitlement = Entitlement.FACILITY_SUBSCRIPTION;
+            eligibility.entitlementId = row.getFacilitySubscriptionId();
+            eligibility.active = true;
+        }
+        eligibility.userId = userId;
+        eligibility.openSessionId = row.getOpenSessionId();
+        eligibility.openSession = row.getOpenSessionId() != null;
+        eligibility.openVisitId = row.getOpenVisitId();
+        return eligibility;
+    }
+
+    /**
+     * Entry with a specific membership; the open session is the membership's session today.
+     */
+    public Eligibility forMembership(Long userId, Long membershipId, LocalDate today) {
+        CheckInEligibilityRepository.PlanEntitlement row = eligibilityRepository
+                .findMembershipEntitlement(membershipId, today)
+                .orElseThrow(() -> new RuntimeException("Membership not found"));
+        if (!row.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to membership");
+        }
+        return fromPlan(Entitlement.MEMBERSHIP, row, today);
+    }
+
+    /**
+     * Entry with a specific facility subscription; the open session is any session with it
+     * today, since a facility pass allows one visit a day.
+     */
+    public Eligibility forFacilitySubscription(Long userId, Long facilitySubscriptionId, LocalDate today) {
+        CheckInEligibilityRepository.PlanEntitlement row = eligibilityRepository
+                .findFacilitySubscriptionEntitlement(facilitySubscriptionId, today)
+                .orElseThrow(() -> new RuntimeException("Facility subscription not found"));
+        if (!row.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to facility subscription");
+        }
+        return fromPlan(Entitlement.FACILITY_SUBSCRIPTION, row, today);
+    }
+
+    /**
+     * Entitlements and open sessions for a batch of scans over the days from..to, read with
+     * one query per table. The batch is not tied to a user: callers check the plan's gym and
+     * owner themselves.
+     */
+    public Batch batch(Collection<Long> membershipIds, Collection<Long> facilitySubscriptionIds,
+                       LocalDate from, LocalDate to) {
+        Batch batch = new Batch();
+        if (!membershipIds.isEmpty()) {
+            membershipRepository.findAllById(membershipIds)
+                    .forEach(membership -> batch.memberships.put(membership.getId(), membership));
+            membershipSessionRepository.findByMembershipIdInAndStatus(membershipIds, GymMembershipSession.SessionStatus.ACTIVE)
+                    .forEach(session -> batch.openMembershipSessions.merge(session.getMembershipId(), session,
+                            (a, b) -> a.getCheckInTime().isAfter(b.getCheckInTime()) ? a : b));
+        }
+        if (!facilitySubscriptionIds.isEmpty()) {
+            subscriptionRepository.findAllById(facilitySubscriptionIds)
+                    .forEach(subscription -> batch.subscriptions.put(subscription.getId(), subscription));
+            facilitySessionRepository.findByFacilitySubscriptionIdInAndStatus(facilitySubscriptionIds, FacilitySession.SessionStatus.ACTIVE)
+                    .forEach(session -> batch.openFacilitySessions.merge(session.getFacilitySubscriptionId(), session,
+                            (a, b) -> a.getCheckInTime().isAfter(b.getCheckInTime()) ? a : b));
+            facilitySessionRepository.findByFacilitySubscriptionIdInAndVisitDateBetween(facilitySubscriptionIds, from, to)
+                    .forEach(session -> batch.facilityDaysUsed.add(dayKey(session.getFacilitySubscriptionId(), session.getVisitDate())));
+        }
+        return batch;
+    }
+
+    private Eligibility fromPlan(Entitlement entitlement, CheckInEligibilityRepository.PlanEntitlement row,
+                                 LocalDate today) {
+        Eligibility eligibility = new Eligibility();
+        eligibility.entitlement = entitlement;
+        eligibility.entitlementId = row.getId();
+        eligibility.gymId = row.getGymId();
+        eligibility.facilityId = row.getFacilityId();
+        eligibility.facilityPlanId = row.getFacilityPlanId();
+        eligibility.userId = row.getUserId();
+        eligibility.active = entitlement == Entitlement.MEMBERSHIP
+                ? Membership.statusOn(MembershipStatus.valueOf(row.getStatus()), row.getEndDate(), today)
+                        == MembershipStatus.ACTIVE
+                : UserFacilitySubscription.statusOn(FacilitySubscriptionStatus.valueOf(row.getStatus()),
+                        row.getEndDate(), today) == FacilitySubscriptionStatus.ACTIVE;
+        eligibility.openSessionId = row.getTodaySessionId();
+        eligibility.openSession = row.getTodaySessionId() != null;
+        return eligibility;
+    }
+
+    private static String dayKey(Long subscriptionId, LocalDate day) {
+        return subscriptionId + ":" + day;
+    }
+
+    /**
+     * Entitlements loaded by {@link #batch}, kept current as the caller opens and closes
+     * sessions so later scans in the batch see the earlier ones. Sessions opened here may
+     * not have an id yet.
+     */
+    public static final class Batch {
+        private final Map<Long, Membership> memberships = new HashMap<>();
+        private final Map<Long, UserFacilitySubscription> subscriptions = new HashMap<>();
+        private final Map<Long, GymMembershipSession> openMembershipSessions = new HashMap<>();
+        private final Map<Long, FacilitySession> openFacilitySessions = new HashMap<>();
+        private final Set<String> facilityDaysUsed = new HashSet<>();
+
+        private Batch() {
+        }
+
+        // Null for an unknown membership; the open session is one opened on the same day
+        public Eligibility forMembership(Long membershipId, LocalDate day) {
+            Membership membership = memberships.get(membershipId);
+            if (membership == null) {
+                return null;
+            }
+            GymMembershipSession open = openMembershipSessions.get(membershipId);
+            Eligibility eligibility = new Eligibility();
+            eligibility.entitlement = Entitlement.MEMBERSHIP;
+            eligibility.entitlementId = membershipId;
+            eligibility.userId = membership.getUserId();
+            eligibility.gymId = membership.getGymId();
+            eligibility.active = membership.statusOn(day) == MembershipStatus.ACTIVE;
+            eligibility.openSession = open != null && open.getVisitDate().equals(day);
+            eligibility.openSessionId = eligibility.openSession ? open.getId() : null;
+            return eligibility;
+        }
+
+        // Null for an unknown subscription; any session that day counts, open or not
+        public Eligibility forFacilitySubscription(Long facilitySubscriptionId, LocalDate day) {
+            UserFacilitySubscription subscription = subscriptions.get(facilitySubscriptionId);
+            if (subscription == null) {
+                return null;
+            }
+            Eligibility eligibility = new Eligibility();
+            eligibility.entitlement = Entitlement.FACILITY_SUBSCRIPTION;
+            eligibility.entitlementId = facilitySubscriptionId;
+            eligibility.userId = subscription.getUserId();
+            eligibility.gymId = subscription.getGymId();
+            eligibility.facilityId = subscription.getFacilityId();
+            eligibility.facilityPlanId = subscription.getFacilityPlanId();
+            eligibility.active = subscription.statusOn(day) == FacilitySubscriptionStatus.ACTIVE;
+            eligibility.openSession = facilityDaysUsed.contains(dayKey(facilitySubscriptionId, day));
+            return eligibility;
+        }
+
+        public GymMembershipSession openMembershipSession(Long membershipId) {
+            return openMembershipSessions.get(membershipId);
+        }
+
+        public FacilitySession openFacilitySession(Long facilitySubscriptionId) {
+            return openFacilitySessions.get(facilitySubscriptionId);
+        }
+
+        public void checkedIn(GymMembershipSession session) {
+            openMembershipSessions.put(session.getMembershipId(), session);
+        }
+
+        public void checkedIn(FacilitySession session) {
+            openFacilitySessions.put(session.getFacilitySubscriptionId(), session);
+            facilityDaysUsed.add(dayKey(session.getFacilitySubscriptionId(), session.getVisitDate()));
+        }
+
+        public void checkedOut(GymMembershipSession session) {
+            openMembershipSessions.remove(session.getMembershipId(), session);
+        }
+
+        public void checkedOut(FacilitySession session) {
+            openFacilitySessions.remove(session.getFacilitySubscriptionId(), session);
+        }
+    }
+
+    public static final class Eligibility {
+        private Entitlement entitlement;
+        private Long entitlementId;
+        private Long userId;
+        private Long gymId;
+        private Long facilityId;
+        private Long facilityPlanId;
+        private boolean active;
+        private boolean openSession;
+        private Long openSessionId;
+        private Long openVisitId;
+
+        public boolean isEntitled() { return entitlement != null && active; }
+        public boolean hasOpenSession() { return openSession; }
+        public boolean hasOpenVisit() { return openVisitId != null; }
+
+        /**
+         * Why a check-in with this membership or facility subscription is refused, or null if
+         * it may go ahead. Shared by the app check-in and the turnstile.
+         */
+        public String checkInRefusal() {
+            if (entitlement == Entitlement.MEMBERSHIP) {
+                if (!active) {
+                    return "Membership is not active";
+                }
+                return openSession ? "You already have an active session for this membership today" : null;
+            }
+            if (!active) {
+                return "Facility subscription is not active";
+            }
+            return openSession ? "Already accessed this facility today" : null;
+        }
+
+        public Long getMembershipId() { return entitlement == Entitlement.MEMBERSHIP ? entitlementId : null; }
+        public Long getFacilitySubscriptionId() {
+            return entitlement == Entitlement.FACILITY_SUBSCRIPTION ? entitlementId : null;
+        }
+
+        public Entitlement getEntitlement() { return entitlement; }
+        public Long getEntitlementId() { return entitlementId; }
+        public Long getUserId() { return userId; }
+        public Long getGymId() { return gymId; }
+        public Long getFacilityId() { return facilityId; }
+        public Long getFacilityPlanId() { return facilityPlanId; }
+        public boolean isActive() { return active; }
+        public Long getOpenSessionId() { return openSessionId; }
+        public Long getOpenVisitId() { return openVisitId; }
+    }
+}
@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.DigitalCardResponse;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
@@ -15,28 +16,19 @@ public class DigitalCardService {
     private final UserRepository userRepository;
     private final MembershipRepository membershipRepository;
     private final UserFacilitySubscriptionRepository subscriptionRepository;
-    private final GymRepository gymRepository;
-    private final GymFacilityRepository facilityRepository;
-    private final GymPlanRepository planRepository;
-    private final FacilityPlanRepository facilityPlanRepository;
-    private final UserWalletRepository walletRepository;
+    private final CatalogCache catalogCache;
+    private final WalletLedger walletLedger;
 
     public DigitalCardService(UserRepository userRepository,
                              MembershipRepository membershipRepository,
                              UserFacilitySubscriptionRepository subscriptionRepository,
-                             GymRepository gymRepository,
-                             GymFacilityRepository facilityRepository,
-                             GymPlanRepository planRepository,
-                             FacilityPlanRepository facilityPlanRepository,
-                             UserWalletRepository walletRepository) {
+                             CatalogCache catalogCache,
+                             WalletLedger walletLedger) {
         this.userRepository = userRepository;
         this.membershipRepository = membershipRepository;
         this.subscriptionRepository = subscriptionRepository;
-        this.gymRepository = gymRepository;
-        this.facilityRepository = facilityRepository;
-        this.planRepository = planRepository;
-        this.facilityPlanRepository = facilityPlanRepository;
-        this.walletRepository = walletRepository;
+        this.catalogCache = catalogCache;
+        this.walletLedger = walletLedger;
     }
 
     public DigitalCardResponse getDigitalCardData(Long userId) {
@@ -47,9 +39,8 @@ public class DigitalCardService {
         response.setUserName(user.getFullName());
         response.setUserEmail(user.getEmail());
 
-        // Get wallet balance
-        UserWallet wallet = walletRepository.findByUserId(userId).orElse(null);
-        response.setWalletBalance(wallet != null ? wallet.getBalance() : null);
+        // Same balance as the wallet screen, including owner earnings not folded yet
+        response.setWalletBalance(walletLedger.visibleBalance(userId));
 
         // Get active memberships
         List<Membership> activeMemberships = membershipRepository
@@ -83,10 +74,10 @@ public class DigitalCardService {
         dto.setStatus(membership.getStatus().toString());
 
         // Get gym and plan details
-        Gym gym = gymRepository.findById(membership.getGymId()).orElse(null);
+        Gym gym = catalogCache.findGym(membership.getGymId()).orElse(null);
         dto.setGymName(gym != null ? gym.getGymName() : "Unknown Gym");
 
-        GymPlan plan = planRepository.findById(membership.getPlanId()).orElse(null);
+        GymPlan plan = catalogCache.findGymPlan(membership.getPlanId()).orElse(null);
         dto.setPlanName(plan != null ? plan.getPlanName() : "Unknown Plan");
 
         return dto;
@@ -102,13 +93,13 @@ public class DigitalCardService {
         dto.setStatus(subscription.getStatus().toString());
 
         // Get gym, facility and plan details
-        Gym gym = gymRepository.findById(subscription.getGymId()).orElse(null);
+        Gym gym = catalogCache.findGym(subscription.getGymId()).orElse(null);
         dto.setGymName(gym != null ? gym.getGymName() : "Unknown Gym");
 
-        GymFacility facility = facilityRepository.findById(subscription.getFacilityId()).orElse(null);
+        GymFacility facility = catalogCache.findGymFacility(subscription.getFacilityId()).orElse(null);
         dto.setFacilityName(facility != null ? facility.getFacilityName() : "Unknown Facility");
 
-        FacilityPlan plan = facilityPlanRepository.findById(subscription.getFacilityPlanId()).orElse(null);
+        FacilityPlan plan = catalogCache.findFacilityPlan(subscription.getFacilityPlanId()).orElse(null);
         dto.setPlanName(plan != null ? plan.getPlanName() : "Unknown Plan");
 
         return dto;
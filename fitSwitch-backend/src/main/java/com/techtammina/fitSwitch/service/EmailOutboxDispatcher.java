@@ -0,0 +1,188 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.EmailOutbox;
+import com.techtammina.fitSwitch.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends queued email_outbox rows in the background.
+ *
+ * Each run claims a batch of due rows with SELECT ... FOR UPDATE SKIP LOCKED and pushes their
+ * next attempt time forward by a lease, so several instances never send the same row. The batch
+ * is then sent outside any transaction over a single SMTP connection, and each row is marked
+ * sent or rescheduled with exponential backoff. A row whose instance dies mid-send becomes
+ * due again once the lease runs out.
+ *
+ * Rows with an expiry (OTP mail) are never sent late: once expired they are failed, and
+ * their body is cleared then or as soon as they are sent.
+ *
+ * Sent rows and rows that were given up on are both deleted once they are older than
+ * retention-days.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long claimLeaseMs;
+    private final int retentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.mail.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                                 @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                                 @Value("${app.mail.outbox.claim-lease-ms:300000}") long claimLeaseMs,
+                                 @Value("${app.mail.outbox.retention-days:7}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.claimLeaseMs = claimLeaseMs;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.expirePending(
+                EmailOutbox.Status.PENDING, EmailOutbox.Status.FAILED, LocalDateTime.now()));
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(cron = "0 30 2 * * ?") // Daily at 2:30 AM
+    public void purgeFinished() {
+        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(retentionDays);
+        Integer sent = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(EmailOutbox.Status.SENT, cutoffTime));
+        Integer failed = transactionTemplate.execute(status ->
+                outboxRepository.deleteFailedBefore(EmailOutbox.Status.FAILED, cutoffTime));
+        log.info("Purged {} sent and {} failed emails older than {} days", sent, failed, retentionDays);
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(
+                    EmailOutbox.Status.PENDING, now, PageRequest.of(0, batchSize));
+
+            LocalDateTime leaseUntil = now.plusNanos(claimLeaseMs * 1_000_000);
+            for (EmailOutbox email : due) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            // JavaMailSenderImpl delivers the whole array over one SMTP connection
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                for (SimpleMailMessage message : messages) {
+                    failures.put(message, e);
+                }
+            }
+        } catch (MailException e) {
+            for (SimpleMailMessage message : messages) {
+                failures.put(message, e);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        List<EmailOutbox> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox email = batch.get(i);
+            Exception error = failures.get(messages[i]);
+            if (error == null) {
+                sentIds.add(email.getId());
+            } else {
+                reschedule(email, error, now);
+                failed.add(email);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markSent(sentIds, EmailOutbox.Status.SENT, now);
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.saveAll(failed);
+            }
+        });
+    }
+
+    private void reschedule(EmailOutbox email, Exception error, LocalDateTime now) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        email.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(EmailOutbox.Status.FAILED);
+            if (email.getExpiresAt() != null) {
+                email.setBody(EmailOutbox.REDACTED_BODY);
+            }
+            log.error("Giving up on email {} to {} after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), message);
+            return;
+        }
+
+        // 30s, 1m, 2m, 4m ... capped at maxBackoffMs
+        long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(email.getAttempts() - 1, 20));
+        email.setNextAttemptAt(now.plusNanos(backoffMs * 1_000_000));
+        log.warn("Email {} to {} failed (attempt {}), retrying in {} ms: {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), backoffMs, message);
+    }
+
+    private SimpleMailMessage toMessage(EmailOutbox email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+}
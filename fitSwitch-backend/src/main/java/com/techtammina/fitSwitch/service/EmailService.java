@@ -1,32 +1,41 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.entity.EmailOutbox;
+import com.techtammina.fitSwitch.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+/**
+ * Queues outgoing mail in the email_outbox table. Rows are written in the caller's
+ * transaction and sent later by {@link EmailOutboxDispatcher}, so no request thread
+ * waits on SMTP and a rolled-back transaction never sends its mail.
+ *
+ * OTP mail expires with its code: the dispatcher drops it if it is still unsent after
+ * app.otp.ttl-minutes, and clears the code from the row once it is sent or dropped.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
+
+    @Value("${app.otp.ttl-minutes:10}")
+    private long otpTtlMinutes;
 
     public void sendOtpEmail(String toEmail, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("FitSwitch - Email Verification OTP");
-        message.setText("Your OTP for email verification is: " + otp + "\n\nThis OTP will expire in 10 minutes.");
-        
-        mailSender.send(message);
+        EmailOutbox email = new EmailOutbox(toEmail,
+                "FitSwitch - Email Verification OTP",
+                "Your OTP for email verification is: " + otp + "\n\nThis OTP will expire in "
+                        + otpTtlMinutes + (otpTtlMinutes == 1 ? " minute." : " minutes."));
+        email.setExpiresAt(LocalDateTime.now().plusMinutes(otpTtlMinutes));
+        outboxRepository.save(email);
     }
 
     public void sendRefundNotification(String userEmail, String gymName, BigDecimal refundAmount, boolean isImmediate) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(userEmail);
-        message.setSubject("FitSwitch - Refund Notification");
-        
         String messageText;
         if (isImmediate) {
             messageText = String.format(
@@ -45,16 +54,11 @@ public class EmailService {
                 gymName, refundAmount
             );
         }
-        
-        message.setText(messageText);
-        mailSender.send(message);
+
+        enqueue(userEmail, "FitSwitch - Refund Notification", messageText);
     }
 
     public void sendOwnerBalanceNotification(String ownerEmail, String gymName, BigDecimal requiredAmount) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(ownerEmail);
-        message.setSubject("FitSwitch - Wallet Balance Alert");
-        
         String messageText = String.format(
             "A refund request has been approved for your gym: %s\n\n" +
             "Required Refund Amount: ₹%.2f\n" +
@@ -64,8 +68,24 @@ public class EmailService {
             "Login to your FitSwitch account to add funds.",
             gymName, requiredAmount
         );
-        
-        message.setText(messageText);
-        mailSender.send(message);
+
+        enqueue(ownerEmail, "FitSwitch - Wallet Balance Alert", messageText);
+    }
+
+    public void sendMembershipSwitchNotification(String userEmail, String oldGymName, String newGymName,
+                                                 BigDecimal refundAmount, BigDecimal additionalAmount) {
+        String messageText = String.format(
+            "Your membership has been switched from %s to %s.\n\n" +
+            "Refund for unused days: ₹%.2f\n" +
+            "Amount charged for the new plan: ₹%.2f\n\n" +
+            "Thank you for using FitSwitch!",
+            oldGymName, newGymName, refundAmount, additionalAmount
+        );
+
+        enqueue(userEmail, "FitSwitch - Membership Switched", messageText);
+    }
+
+    private void enqueue(String toEmail, String subject, String text) {
+        outboxRepository.save(new EmailOutbox(toEmail, subject, text));
     }
-}
\ No newline at end of file
+}
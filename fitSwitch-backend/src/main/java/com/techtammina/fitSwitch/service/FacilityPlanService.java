@@ -1,17 +1,23 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.FacilityPlanCreateRequest;
 import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
 import com.techtammina.fitSwitch.entity.FacilityPlan;
 import com.techtammina.fitSwitch.entity.Gym;
 import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
 import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
 import com.techtammina.fitSwitch.repository.GymFacilityRepository;
 import com.techtammina.fitSwitch.repository.GymRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class FacilityPlanService {
@@ -19,13 +25,19 @@ public class FacilityPlanService {
     private final FacilityPlanRepository facilityPlanRepository;
     private final GymFacilityRepository gymFacilityRepository;
     private final GymRepository gymRepository;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FacilityPlanService(FacilityPlanRepository facilityPlanRepository,
                               GymFacilityRepository gymFacilityRepository,
-                              GymRepository gymRepository) {
+                              GymRepository gymRepository,
+                              CatalogCache catalogCache,
+                              ApplicationEventPublisher eventPublisher) {
         this.facilityPlanRepository = facilityPlanRepository;
         this.gymFacilityRepository = gymFacilityRepository;
         this.gymRepository = gymRepository;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public FacilityPlanResponse createFacilityPlan(Long ownerId, Long facilityId, FacilityPlanCreateRequest request) {
@@ -54,6 +66,8 @@ public class FacilityPlanService {
         plan.setUpdatedAt(LocalDateTime.now());
 
         FacilityPlan saved = facilityPlanRepository.save(plan);
+        catalogCache.invalidateFacilityPlan(saved.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.FACILITY_PLAN, saved.getGymId(), saved.getId()));
         return mapToResponse(saved, gym, facility);
     }
 
@@ -76,37 +90,30 @@ public class FacilityPlanService {
     }
 
     public List<FacilityPlanResponse> getAllOwnerFacilityPlans(Long ownerId) {
-        // Get all gyms owned by the owner
-        List<Gym> ownerGyms = gymRepository.findByOwnerId(ownerId);
-        
-        return ownerGyms.stream()
-                .flatMap(gym -> {
-                    // Get all facilities for this gym
-                    List<GymFacility> facilities = gymFacilityRepository.findByGymId(gym.getId());
-                    
-                    return facilities.stream()
-                            .flatMap(facility -> {
-                                // Get all plans for this facility
-                                List<FacilityPlan> plans = facilityPlanRepository.findByFacilityId(facility.getId());
-                                return plans.stream().map(plan -> mapToResponse(plan, gym, facility));
-                            });
-                })
-                .toList();
+        // One query for every plan across the owner's gyms, grouped by gym and facility
+        return mapToResponses(facilityPlanRepository.findByOwnerId(ownerId));
     }
 
     public List<FacilityPlanResponse> getGymFacilityPlansGrouped(Long gymId) {
         // Get all facilities for this gym that have active plans
         List<GymFacility> facilities = gymFacilityRepository.findByGymIdAndActiveTrue(gymId);
-        Gym gym = gymRepository.findById(gymId).orElse(null);
-        
+        Gym gym = catalogCache.findGym(gymId).orElse(null);
+        Map<Long, List<FacilityPlan>> plansByFacility = findActivePlansByFacility(gymId);
+
         return facilities.stream()
-                .flatMap(facility -> {
-                    List<FacilityPlan> plans = facilityPlanRepository.findByFacilityIdAndActiveTrue(facility.getId());
-                    return plans.stream().map(plan -> mapToResponse(plan, gym, facility));
-                })
+                .flatMap(facility -> plansByFacility.getOrDefault(facility.getId(), List.of()).stream()
+                        .map(plan -> mapToResponse(plan, gym, facility)))
                 .toList();
     }
 
+    /**
+     * Active plans of every facility at the gym, loaded with one query and keyed by facility id.
+     */
+    Map<Long, List<FacilityPlan>> findActivePlansByFacility(Long gymId) {
+        return facilityPlanRepository.findByGymIdAndActiveTrue(gymId).stream()
+                .collect(Collectors.groupingBy(FacilityPlan::getFacilityId, LinkedHashMap::new, Collectors.toList()));
+    }
+
     public List<FacilityPlanResponse> getPublicFacilityPlans(Long gymId, Long facilityId) {
         // Validate facility belongs to gym
         GymFacility facility = gymFacilityRepository.findById(facilityId)
@@ -124,7 +131,17 @@ public class FacilityPlanService {
                 .toList();
     }
 
-    private FacilityPlanResponse mapToResponse(FacilityPlan plan, Gym gym, GymFacility facility) {
+    List<FacilityPlanResponse> mapToResponses(List<FacilityPlan> plans) {
+        // Resolve gym and facility names for the whole list in one pass
+        Map<Long, Gym> gyms = catalogCache.getGyms(plans.stream().map(FacilityPlan::getGymId).toList());
+        Map<Long, GymFacility> facilities = catalogCache.getGymFacilities(
+                plans.stream().map(FacilityPlan::getFacilityId).toList());
+        return plans.stream()
+                .map(plan -> mapToResponse(plan, gyms.get(plan.getGymId()), facilities.get(plan.getFacilityId())))
+                .toList();
+    }
+
+    FacilityPlanResponse mapToResponse(FacilityPlan plan, Gym gym, GymFacility facility) {
         FacilityPlanResponse response = new FacilityPlanResponse();
         response.setId(plan.getId());
         response.setGymId(plan.getGymId());
@@ -1,16 +1,14 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.ActiveFacilitySessionResponse;
 import com.techtammina.fitSwitch.dto.FacilitySessionResponse;
 import com.techtammina.fitSwitch.entity.FacilitySession;
-import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
-import com.techtammina.fitSwitch.entity.UserFacilitySubscription;
-import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
-import com.techtammina.fitSwitch.repository.GymFacilityRepository;
-import com.techtammina.fitSwitch.repository.GymRepository;
+import com.techtammina.fitSwitch.event.SessionEvent;
 import com.techtammina.fitSwitch.repository.FacilitySessionRepository;
-import com.techtammina.fitSwitch.repository.UserFacilitySubscriptionRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,57 +19,48 @@ import java.util.Optional;
 public class FacilitySessionService {
 
     private final FacilitySessionRepository sessionRepository;
-    private final UserFacilitySubscriptionRepository subscriptionRepository;
-    private final GymRepository gymRepository;
-    private final GymFacilityRepository gymFacilityRepository;
-    private final FacilityPlanRepository facilityPlanRepository;
+    private final CheckInEligibilityResolver eligibilityResolver;
+    private final CatalogCache catalogCache;
+    private final UserVisitStatsService visitStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FacilitySessionService(FacilitySessionRepository sessionRepository,
-                                  UserFacilitySubscriptionRepository subscriptionRepository,
-                                  GymRepository gymRepository,
-                                  GymFacilityRepository gymFacilityRepository,
-                                  FacilityPlanRepository facilityPlanRepository) {
+                                  CheckInEligibilityResolver eligibilityResolver,
+                                  CatalogCache catalogCache,
+                                  UserVisitStatsService visitStatsService,
+                                  ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
-        this.subscriptionRepository = subscriptionRepository;
-        this.gymRepository = gymRepository;
-        this.gymFacilityRepository = gymFacilityRepository;
-        this.facilityPlanRepository = facilityPlanRepository;
+        this.eligibilityResolver = eligibilityResolver;
+        this.catalogCache = catalogCache;
+        this.visitStatsService = visitStatsService;
+        this.eventPublisher = eventPublisher;
     }
 
     public FacilitySessionResponse checkIn(Long userId, Long facilitySubscriptionId) {
-        UserFacilitySubscription subscription = subscriptionRepository.findById(facilitySubscriptionId)
-                .orElseThrow(() -> new RuntimeException("Facility subscription not found"));
-
-        if (!subscription.getUserId().equals(userId)) {
-            throw new RuntimeException("Unauthorized access to facility subscription");
-        }
-
-        if (subscription.getStatus() != FacilitySubscriptionStatus.ACTIVE) {
-            throw new RuntimeException("Facility subscription is not active");
-        }
-
         LocalDate today = LocalDate.now();
-        Optional<FacilitySession> existing = sessionRepository
-                .findFirstByFacilitySubscriptionIdAndVisitDateOrderByCheckInTimeDesc(
-                        facilitySubscriptionId, today);
-        if (existing.isPresent()) {
-            throw new RuntimeException("Already accessed this facility today");
+        CheckInEligibilityResolver.Eligibility eligibility = eligibilityResolver
+                .forFacilitySubscription(userId, facilitySubscriptionId, today);
+        String refusal = eligibility.checkInRefusal();
+        if (refusal != null) {
+            throw new RuntimeException(refusal);
         }
 
         FacilitySession session = new FacilitySession();
         session.setUserId(userId);
-        session.setGymId(subscription.getGymId());
-        session.setFacilityId(subscription.getFacilityId());
-        session.setFacilityPlanId(subscription.getFacilityPlanId());
-        session.setFacilitySubscriptionId(subscription.getId());
+        session.setGymId(eligibility.getGymId());
+        session.setFacilityId(eligibility.getFacilityId());
+        session.setFacilityPlanId(eligibility.getFacilityPlanId());
+        session.setFacilitySubscriptionId(eligibility.getEntitlementId());
         session.setCheckInTime(LocalDateTime.now());
         session.setVisitDate(today);
         session.setStatus(FacilitySession.SessionStatus.ACTIVE);
 
         FacilitySession saved = sessionRepository.save(session);
+        publish(SessionEvent.Kind.CHECKED_IN, saved);
         return mapToResponse(saved, "Check-in successful");
     }
 
+    @Transactional
     public FacilitySessionResponse checkOut(Long userId, Long facilitySubscriptionId) {
         FacilitySession session = sessionRepository
                 .findByUserIdAndFacilitySubscriptionIdAndStatus(
@@ -81,6 +70,8 @@ public class FacilitySessionService {
         session.setCheckOutTime(LocalDateTime.now());
         session.setStatus(FacilitySession.SessionStatus.COMPLETED);
         FacilitySession updated = sessionRepository.save(session);
+        visitStatsService.recordVisit(userId, updated.getGymId(), updated.getVisitDate());
+        publish(SessionEvent.Kind.CHECKED_OUT, updated);
         return mapToResponse(updated, "Check-out successful");
     }
 
@@ -98,15 +89,8 @@ public class FacilitySessionService {
     }
 
     public boolean hasAccessedToday(Long userId, Long facilitySubscriptionId) {
-        UserFacilitySubscription subscription = subscriptionRepository.findById(facilitySubscriptionId)
-                .orElseThrow(() -> new RuntimeException("Facility subscription not found"));
-        if (!subscription.getUserId().equals(userId)) {
-            throw new RuntimeException("Unauthorized access to facility subscription");
-        }
-        LocalDate today = LocalDate.now();
-        return sessionRepository
-                .findFirstByFacilitySubscriptionIdAndVisitDateOrderByCheckInTimeDesc(facilitySubscriptionId, today)
-                .isPresent();
+        return eligibilityResolver.forFacilitySubscription(userId, facilitySubscriptionId, LocalDate.now())
+                .hasOpenSession();
     }
 
     public List<ActiveFacilitySessionResponse> getActiveSessions(Long userId) {
@@ -116,6 +100,12 @@ public class FacilitySessionService {
                 .toList();
     }
 
+    private void publish(SessionEvent.Kind kind, FacilitySession session) {
+        eventPublisher.publishEvent(new SessionEvent(kind, SessionEvent.FACILITY, session.getId(),
+                session.getUserId(), session.getGymId(), session.getFacilityId(),
+                session.getCheckInTime(), session.getVisitDate()));
+    }
+
     private FacilitySessionResponse mapToResponse(FacilitySession session, String message) {
         FacilitySessionResponse response = new FacilitySessionResponse();
         response.setSessionId(session.getId());
@@ -137,11 +127,11 @@ public class FacilitySessionService {
         response.setGymId(session.getGymId());
         response.setCheckInTime(session.getCheckInTime());
 
-        gymRepository.findById(session.getGymId())
+        catalogCache.findGym(session.getGymId())
                 .ifPresent(gym -> response.setGymName(gym.getGymName()));
-        gymFacilityRepository.findById(session.getFacilityId())
+        catalogCache.findGymFacility(session.getFacilityId())
                 .ifPresent(facility -> response.setFacilityName(facility.getFacilityName()));
-        facilityPlanRepository.findById(session.getFacilityPlanId())
+        catalogCache.findFacilityPlan(session.getFacilityPlanId())
                 .ifPresent(plan -> response.setPlanName(plan.getPlanName()));
 
         return response;
@@ -0,0 +1,71 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.dto.GymDetailResponse;
+import com.techtammina.fitSwitch.dto.GymFacilityDetailResponse;
+import com.techtammina.fitSwitch.dto.GymPlanResponse;
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles a gym page with three queries (plans, facilities, facility plans) whatever the
+ * number of facilities; the gym itself comes from the catalog cache. Each part is mapped by
+ * the service that owns it, so the nested objects match the separate public endpoints.
+ */
+@Service
+public class GymDetailService {
+
+    private final GymService gymService;
+    private final GymPlanService gymPlanService;
+    private final GymFacilityService gymFacilityService;
+    private final FacilityPlanService facilityPlanService;
+    private final GymPlanRepository gymPlanRepository;
+    private final GymFacilityRepository gymFacilityRepository;
+    private final CatalogCache catalogCache;
+
+    public GymDetailService(GymService gymService,
+                            GymPlanService gymPlanService,
+                            GymFacilityService gymFacilityService,
+                            FacilityPlanService facilityPlanService,
+                            GymPlanRepository gymPlanRepository,
+                            GymFacilityRepository gymFacilityRepository,
+                            CatalogCache catalogCache) {
+        this.gymService = gymService;
+        this.gymPlanService = gymPlanService;
+        this.gymFacilityService = gymFacilityService;
+        this.facilityPlanService = facilityPlanService;
+        this.gymPlanRepository = gymPlanRepository;
+        this.gymFacilityRepository = gymFacilityRepository;
+        this.catalogCache = catalogCache;
+    }
+
+    public GymDetailResponse getGymDetail(Long gymId) {
+        Gym gym = catalogCache.findGym(gymId)
+                .filter(Gym::isActive)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        List<GymPlanResponse> plans = gymPlanRepository.findByGymIdAndActiveTrue(gymId).stream()
+                .map(gymPlanService::mapToResponse)
+                .toList();
+
+        Map<Long, List<FacilityPlan>> plansByFacility = facilityPlanService.findActivePlansByFacility(gymId);
+        List<GymFacilityDetailResponse> facilities = gymFacilityRepository.findByGymIdAndActiveTrue(gymId).stream()
+                .map(facility -> {
+                    List<FacilityPlan> facilityPlans = plansByFacility.getOrDefault(facility.getId(), List.of());
+                    return new GymFacilityDetailResponse(
+                            gymFacilityService.mapToResponseWithPlans(facility, !facilityPlans.isEmpty()),
+                            facilityPlans.stream()
+                                    .map(plan -> facilityPlanService.mapToResponse(plan, gym, facility))
+                                    .toList());
+                })
+                .toList();
+
+        return new GymDetailResponse(gymService.mapToResponse(gym), plans, facilities);
+    }
+}
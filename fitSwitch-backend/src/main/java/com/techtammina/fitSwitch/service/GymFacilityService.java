@@ -1,16 +1,22 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.GymFacilityCreateRequest;
 import com.techtammina.fitSwitch.dto.GymFacilityResponse;
 import com.techtammina.fitSwitch.dto.GymFacilityUpdateRequest;
+import com.techtammina.fitSwitch.entity.FacilityPlan;
 import com.techtammina.fitSwitch.entity.Gym;
 import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
 import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
 import com.techtammina.fitSwitch.repository.GymFacilityRepository;
 import com.techtammina.fitSwitch.repository.GymRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class GymFacilityService {
@@ -18,11 +24,16 @@ public class GymFacilityService {
     private final GymFacilityRepository facilityRepository;
     private final GymRepository gymRepository;
     private final FacilityPlanRepository facilityPlanRepository;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GymFacilityService(GymFacilityRepository facilityRepository, GymRepository gymRepository, FacilityPlanRepository facilityPlanRepository) {
+    public GymFacilityService(GymFacilityRepository facilityRepository, GymRepository gymRepository, FacilityPlanRepository facilityPlanRepository,
+                              CatalogCache catalogCache, ApplicationEventPublisher eventPublisher) {
         this.facilityRepository = facilityRepository;
         this.gymRepository = gymRepository;
         this.facilityPlanRepository = facilityPlanRepository;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public GymFacilityResponse addFacility(Long ownerId, GymFacilityCreateRequest request) {
@@ -43,6 +54,7 @@ public class GymFacilityService {
         facility.setUpdatedAt(LocalDateTime.now());
 
         GymFacility saved = facilityRepository.save(facility);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM_FACILITY, saved.getGymId(), saved.getId()));
         return mapToResponse(saved);
     }
 
@@ -64,6 +76,8 @@ public class GymFacilityService {
         facility.setUpdatedAt(LocalDateTime.now());
 
         GymFacility updated = facilityRepository.save(facility);
+        catalogCache.invalidateGymFacility(updated.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM_FACILITY, updated.getGymId(), updated.getId()));
         return mapToResponse(updated);
     }
 
@@ -83,13 +97,16 @@ public class GymFacilityService {
     }
 
     public List<GymFacilityResponse> getFacilitiesForGymPublic(Long gymId) {
+        Set<Long> withPlans = facilityPlanRepository.findByGymIdAndActiveTrue(gymId).stream()
+                .map(FacilityPlan::getFacilityId)
+                .collect(Collectors.toSet());
         return facilityRepository.findByGymIdAndActiveTrue(gymId)
                 .stream()
-                .map(this::mapToResponseWithPlans)
+                .map(facility -> mapToResponseWithPlans(facility, withPlans.contains(facility.getId())))
                 .toList();
     }
 
-    private GymFacilityResponse mapToResponse(GymFacility facility) {
+    GymFacilityResponse mapToResponse(GymFacility facility) {
         GymFacilityResponse response = new GymFacilityResponse();
         response.setId(facility.getId());
         response.setGymId(facility.getGymId());
@@ -99,9 +116,8 @@ public class GymFacilityService {
         return response;
     }
 
-    private GymFacilityResponse mapToResponseWithPlans(GymFacility facility) {
+    GymFacilityResponse mapToResponseWithPlans(GymFacility facility, boolean hasPlans) {
         GymFacilityResponse response = mapToResponse(facility);
-        boolean hasPlans = !facilityPlanRepository.findByFacilityIdAndActiveTrue(facility.getId()).isEmpty();
         response.setHasPlans(hasPlans);
         return response;
     }
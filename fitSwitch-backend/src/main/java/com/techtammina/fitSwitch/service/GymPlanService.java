@@ -1,12 +1,15 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.GymPlanCreateRequest;
 import com.techtammina.fitSwitch.dto.GymPlanResponse;
 import com.techtammina.fitSwitch.dto.GymPlanUpdateRequest;
 import com.techtammina.fitSwitch.entity.Gym;
 import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
 import com.techtammina.fitSwitch.repository.GymPlanRepository;
 import com.techtammina.fitSwitch.repository.GymRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -17,10 +20,15 @@ public class GymPlanService {
 
     private final GymPlanRepository planRepository;
     private final GymRepository gymRepository;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GymPlanService(GymPlanRepository planRepository, GymRepository gymRepository) {
+    public GymPlanService(GymPlanRepository planRepository, GymRepository gymRepository, CatalogCache catalogCache,
+                          ApplicationEventPublisher eventPublisher) {
         this.planRepository = planRepository;
         this.gymRepository = gymRepository;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public GymPlanResponse createPlan(Long ownerId, GymPlanCreateRequest request) {
@@ -45,6 +53,7 @@ public class GymPlanService {
         plan.setUpdatedAt(LocalDateTime.now());
 
         GymPlan saved = planRepository.save(plan);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM_PLAN, saved.getGymId(), saved.getId()));
 
         return mapToResponse(saved);
     }
@@ -70,6 +79,8 @@ public class GymPlanService {
         plan.setUpdatedAt(LocalDateTime.now());
 
         GymPlan updated = planRepository.save(plan);
+        catalogCache.invalidateGymPlan(updated.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM_PLAN, updated.getGymId(), updated.getId()));
 
         return mapToResponse(updated);
     }
@@ -110,7 +121,7 @@ public class GymPlanService {
                 .toList();
     }
 
-    private GymPlanResponse mapToResponse(GymPlan plan) {
+    GymPlanResponse mapToResponse(GymPlan plan) {
         GymPlanResponse response = new GymPlanResponse();
         response.setId(plan.getId());
         response.setGymId(plan.getGymId());
@@ -1,23 +1,39 @@
 package com.techtammina.fitSwitch.service;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.cache.GymGeoIndex;
 import com.techtammina.fitSwitch.dto.GymCreateRequest;
 import com.techtammina.fitSwitch.dto.GymResponse;
 import com.techtammina.fitSwitch.dto.GymUpdateRequest;
+import com.techtammina.fitSwitch.dto.NearbyGymResponse;
 import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.event.CatalogChangedEvent;
 import com.techtammina.fitSwitch.repository.GymRepository;
 
 @Service
 public class GymService {
 
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+    private static final int MAX_NEARBY_LIMIT = 100;
+
     private final GymRepository gymRepository;
+    private final CatalogCache catalogCache;
+    private final GymGeoIndex gymGeoIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GymService(GymRepository gymRepository) {
+    public GymService(GymRepository gymRepository, CatalogCache catalogCache, GymGeoIndex gymGeoIndex,
+                      ApplicationEventPublisher eventPublisher) {
         this.gymRepository = gymRepository;
+        this.catalogCache = catalogCache;
+        this.gymGeoIndex = gymGeoIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     public GymResponse createGym(Long ownerId, GymCreateRequest request){
@@ -40,6 +56,7 @@ public class GymService {
                     .build();
 
         Gym saved = gymRepository.save(gym);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM, saved.getId(), saved.getId()));
 
         return mapToResponse(saved);
     }
@@ -69,6 +86,8 @@ public class GymService {
         gym.setUpdatedAt(LocalDateTime.now());
 
         Gym updated = gymRepository.save(gym);
+        catalogCache.invalidateGym(updated.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.GYM, updated.getId(), updated.getId()));
 
         return mapToResponse(updated);
     }
@@ -79,6 +98,22 @@ public class GymService {
         .toList();
     }
 
+    public List<NearbyGymResponse> getNearbyGyms(double latitude, double longitude, double radiusKm, int limit,
+                                                 LocalTime openAt, List<String> facilities) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new RuntimeException("Radius must be between 0 and " + (int) MAX_NEARBY_RADIUS_KM + " km");
+        }
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_NEARBY_LIMIT);
+
+        return gymGeoIndex.findNearby(latitude, longitude, radiusKm, cappedLimit, openAt, facilities).stream()
+                .map(hit -> new NearbyGymResponse(mapToResponse(hit.getGym()),
+                        Math.round(hit.getDistanceKm() * 100) / 100.0))
+                .toList();
+    }
+
     public GymResponse getGymById(Long gymId) {
         Gym gym = gymRepository.findByIdAndActiveTrue(gymId)
                 .orElseThrow(() -> new RuntimeException("Gym not found"));
@@ -93,7 +128,7 @@ public class GymService {
                 .toList();
     }
 
-    private GymResponse mapToResponse(Gym gym) {
+    GymResponse mapToResponse(Gym gym) {
         return GymResponse.builder()
                 .id(gym.getId())
                 .gymName(gym.getGymName())
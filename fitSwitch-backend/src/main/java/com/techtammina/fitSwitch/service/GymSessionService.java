@@ -1,9 +1,13 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.GymSessionResponse;
 import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.event.SessionEvent;
 import com.techtammina.fitSwitch.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,18 +17,21 @@ import java.util.Optional;
 public class GymSessionService {
 
     private final GymSessionRepository gymSessionRepository;
-    private final MembershipRepository membershipRepository;
-    private final UserFacilitySubscriptionRepository facilitySubscriptionRepository;
-    private final GymRepository gymRepository;
+    private final CheckInEligibilityResolver eligibilityResolver;
+    private final CatalogCache catalogCache;
+    private final UserVisitStatsService visitStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GymSessionService(GymSessionRepository gymSessionRepository,
-                           MembershipRepository membershipRepository,
-                           UserFacilitySubscriptionRepository facilitySubscriptionRepository,
-                           GymRepository gymRepository) {
+                           CheckInEligibilityResolver eligibilityResolver,
+                           CatalogCache catalogCache,
+                           UserVisitStatsService visitStatsService,
+                           ApplicationEventPublisher eventPublisher) {
         this.gymSessionRepository = gymSessionRepository;
-        this.membershipRepository = membershipRepository;
-        this.facilitySubscriptionRepository = facilitySubscriptionRepository;
-        this.gymRepository = gymRepository;
+        this.eligibilityResolver = eligibilityResolver;
+        this.catalogCache = catalogCache;
+        this.visitStatsService = visitStatsService;
+        this.eventPublisher = eventPublisher;
     }
 
     public GymSessionResponse checkIn(Long userId, Long gymId) {
@@ -33,55 +40,33 @@ public class GymSessionService {
         }
         
         LocalDate today = LocalDate.now();
-        
-        // Check if user already has an active session today for this gym
-        Optional<GymSession> existingSession = gymSessionRepository
-            .findByUserIdAndGymIdAndVisitDateAndStatus(userId, gymId, today, GymSession.SessionStatus.ACTIVE);
-        
-        if (existingSession.isPresent()) {
+        CheckInEligibilityResolver.Eligibility eligibility = eligibilityResolver.forGym(userId, gymId, today);
+
+        if (eligibility.hasOpenSession()) {
             throw new RuntimeException("You already have an active session for this gym today");
         }
-
-        // Update expired memberships and subscriptions before validation
-        updateExpiredPlans(userId, today);
-
-        // Validate user has active membership or facility subscription
-        Long membershipId = null;
-        Long facilitySubscriptionId = null;
-        
-        // Check for active membership
-        Optional<Membership> activeMembership = membershipRepository
-            .findByUserIdAndGymIdAndStatus(userId, gymId, MembershipStatus.ACTIVE);
-        
-        if (activeMembership.isPresent()) {
-            membershipId = activeMembership.get().getId();
-        } else {
-            // Check for active facility subscription
-            Optional<UserFacilitySubscription> activeFacilitySubscription = facilitySubscriptionRepository
-                .findByUserIdAndGymIdAndStatus(userId, gymId, FacilitySubscriptionStatus.ACTIVE);
-            
-            if (activeFacilitySubscription.isPresent()) {
-                facilitySubscriptionId = activeFacilitySubscription.get().getId();
-            } else {
-                throw new RuntimeException("No active membership or facility subscription found for this gym");
-            }
+        // A membership is used when the user has one, otherwise a facility subscription
+        if (!eligibility.isEntitled()) {
+            throw new RuntimeException("No active membership or facility subscription found for this gym");
         }
 
         // Create new session
         GymSession session = new GymSession();
         session.setUserId(userId);
         session.setGymId(gymId);
-        session.setMembershipId(membershipId);
-        session.setFacilitySubscriptionId(facilitySubscriptionId);
+        session.setMembershipId(eligibility.getMembershipId());
+        session.setFacilitySubscriptionId(eligibility.getFacilitySubscriptionId());
         session.setCheckInTime(LocalDateTime.now());
         session.setVisitDate(today);
         session.setStatus(GymSession.SessionStatus.ACTIVE);
 
         GymSession savedSession = gymSessionRepository.save(session);
+        publish(SessionEvent.Kind.CHECKED_IN, savedSession);
         
         return mapToResponse(savedSession, "Check-in successful");
     }
 
+    @Transactional
     public GymSessionResponse checkOut(Long userId) {
         // Find active session for user
         Optional<GymSession> activeSession = gymSessionRepository
@@ -96,10 +81,17 @@ public class GymSessionService {
         session.setStatus(GymSession.SessionStatus.COMPLETED);
 
         GymSession updatedSession = gymSessionRepository.save(session);
+        visitStatsService.recordVisit(userId, updatedSession.getGymId(), updatedSession.getVisitDate());
+        publish(SessionEvent.Kind.CHECKED_OUT, updatedSession);
         
         return mapToResponse(updatedSession, "Check-out successful");
     }
 
+    private void publish(SessionEvent.Kind kind, GymSession session) {
+        eventPublisher.publishEvent(new SessionEvent(kind, SessionEvent.GYM, session.getId(),
+                session.getUserId(), session.getGymId(), null, session.getCheckInTime(), session.getVisitDate()));
+    }
+
     private GymSessionResponse mapToResponse(GymSession session, String message) {
         GymSessionResponse response = new GymSessionResponse();
         response.setSessionId(session.getId());
@@ -110,23 +102,9 @@ public class GymSessionService {
         response.setMessage(message);
         
         // Get gym name
-        gymRepository.findById(session.getGymId())
+        catalogCache.findGym(session.getGymId())
             .ifPresent(gym -> response.setGymName(gym.getGymName()));
         
         return response;
     }
-
-    private void updateExpiredPlans(Long userId, LocalDate today) {
-        // Update expired memberships
-        java.util.List<Long> expiredMembershipIds = membershipRepository.findExpiredMembershipIds(userId, today);
-        if (!expiredMembershipIds.isEmpty()) {
-            membershipRepository.updateMembershipsToExpired(expiredMembershipIds, MembershipStatus.EXPIRED);
-        }
-        
-        // Update expired facility subscriptions
-        java.util.List<Long> expiredSubscriptionIds = facilitySubscriptionRepository.findExpiredSubscriptionIds(userId, today);
-        if (!expiredSubscriptionIds.isEmpty()) {
-            facilitySubscriptionRepository.updateSubscriptionsToExpired(expiredSubscriptionIds, FacilitySubscriptionStatus.EXPIRED);
-        }
-    }
 }
\ No newline at end of file
@@ -1,11 +1,10 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.CheckInRequest;
 import com.techtammina.fitSwitch.dto.GymVisitResponse;
 import com.techtammina.fitSwitch.entity.*;
-import com.techtammina.fitSwitch.repository.GymRepository;
 import com.techtammina.fitSwitch.repository.GymVisitRepository;
-import com.techtammina.fitSwitch.repository.MembershipRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -15,36 +14,35 @@ import java.time.LocalDateTime;
 public class GymVisitService {
 
     private final GymVisitRepository gymVisitRepository;
-    private final MembershipRepository membershipRepository;
-    private final GymRepository gymRepository;
+    private final CheckInEligibilityResolver eligibilityResolver;
+    private final CatalogCache catalogCache;
 
     public GymVisitService(GymVisitRepository gymVisitRepository,
-                          MembershipRepository membershipRepository,
-                          GymRepository gymRepository) {
+                          CheckInEligibilityResolver eligibilityResolver,
+                          CatalogCache catalogCache) {
         this.gymVisitRepository = gymVisitRepository;
-        this.membershipRepository = membershipRepository;
-        this.gymRepository = gymRepository;
+        this.eligibilityResolver = eligibilityResolver;
+        this.catalogCache = catalogCache;
     }
 
     public GymVisitResponse checkIn(Long userId, CheckInRequest request) {
-        // Validate active membership
-        Membership activeMembership = membershipRepository
-                .findByUserIdAndGymIdAndStatus(userId, request.getGymId(), MembershipStatus.ACTIVE)
-                .orElseThrow(() -> new RuntimeException("No active membership found for this gym"));
-
-        // Check if user already has an active visit today
         LocalDate today = LocalDate.now();
-        gymVisitRepository.findByUserIdAndGymIdAndVisitDateAndStatus(
-                userId, request.getGymId(), today, GymVisitStatus.ACTIVE)
-                .ifPresent(visit -> {
-                    throw new RuntimeException("Already checked in today. Please check out first.");
-                });
+        CheckInEligibilityResolver.Eligibility eligibility = eligibilityResolver
+                .forGym(userId, request.getGymId(), today);
+
+        // Visits are recorded against memberships only
+        if (eligibility.getMembershipId() == null) {
+            throw new RuntimeException("No active membership found for this gym");
+        }
+        if (eligibility.hasOpenVisit()) {
+            throw new RuntimeException("Already checked in today. Please check out first.");
+        }
 
         // Create new visit
         GymVisit visit = new GymVisit();
         visit.setUserId(userId);
         visit.setGymId(request.getGymId());
-        visit.setMembershipId(activeMembership.getId());
+        visit.setMembershipId(eligibility.getMembershipId());
         visit.setCheckInTime(LocalDateTime.now());
         visit.setVisitDate(today);
         visit.setStatus(GymVisitStatus.ACTIVE);
@@ -52,7 +50,7 @@ public class GymVisitService {
         GymVisit savedVisit = gymVisitRepository.save(visit);
         
         // Get gym name for response
-        Gym gym = gymRepository.findById(request.getGymId()).orElse(null);
+        Gym gym = catalogCache.findGym(request.getGymId()).orElse(null);
         
         return mapToResponse(savedVisit, gym);
     }
@@ -70,7 +68,7 @@ public class GymVisitService {
         GymVisit updatedVisit = gymVisitRepository.save(activeVisit);
         
         // Get gym name for response
-        Gym gym = gymRepository.findById(activeVisit.getGymId()).orElse(null);
+        Gym gym = catalogCache.findGym(activeVisit.getGymId()).orElse(null);
         
         return mapToResponse(updatedVisit, gym);
     }
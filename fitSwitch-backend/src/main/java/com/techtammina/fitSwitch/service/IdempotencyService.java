@@ -0,0 +1,210 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.IdempotencyRecord;
+import com.techtammina.fitSwitch.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store behind the Idempotency-Key header. The first request for a (user, key) pair inserts
+ * an IN_PROGRESS row and runs; the unique constraint makes every duplicate fail that insert
+ * and instead wait for the stored response. Duplicates on the same instance wait on a latch,
+ * duplicates on another instance poll the row. Complete and release only apply while the
+ * caller still holds its claim, so an owner that lost its lease cannot overwrite the new one.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlMs;
+    private final long waitTimeoutMs;
+
+    // Requests currently executing on this instance, keyed by userId:key
+    private final ConcurrentHashMap<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              @Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+                              @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.repository = repository;
+        this.ttlMs = ttlMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Claims the key for this request. The returned claim is owned when the caller must run
+     * the request; otherwise it carries the existing record: COMPLETED to replay, a different
+     * request hash to reject, or IN_PROGRESS when the first execution did not finish in time.
+     *
+     * An IN_PROGRESS claim holds its key for waitTimeoutMs. After that its owner is taken to
+     * have died between committing and completing, and the next retry takes the key over.
+     */
+    public Claim claim(Long userId, String key, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            IdempotencyRecord claimed = tryInsert(userId, key, requestHash);
+            if (claimed != null) {
+                return owned(claimed, claimed.getClaimedAt());
+            }
+
+            IdempotencyRecord existing = repository.findByUserIdAndIdempotencyKey(userId, key).orElse(null);
+            if (existing == null) {
+                // The first execution failed and released the key; try to take it over
+                continue;
+            }
+            if (existing.getExpiresAt().isBefore(LocalDateTime.now())) {
+                repository.deleteIfExpired(existing.getId(), LocalDateTime.now());
+                continue;
+            }
+            if (!existing.getRequestHash().equals(requestHash)
+                    || existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return new Claim(existing, null, null);
+            }
+
+            Claim takenOver = takeOverIfLapsed(existing);
+            if (takenOver != null) {
+                return takenOver;
+            }
+            IdempotencyRecord finished = awaitCompletion(userId, key);
+            if (finished != null) {
+                return new Claim(finished, null, null);
+            }
+        }
+        throw new RuntimeException("Could not acquire idempotency key");
+    }
+
+    /**
+     * Stores the response for replay. Does nothing if the claim was taken over meanwhile.
+     */
+    public void complete(Claim claim, int status, String contentType, String body) {
+        try {
+            repository.complete(claim.record.getId(), claim.claimedAt, status, contentType, body);
+        } finally {
+            signal(claim);
+        }
+    }
+
+    /**
+     * Drops the key after a server error so a retry runs the request again.
+     */
+    public void release(Claim claim) {
+        try {
+            repository.release(claim.record.getId(), claim.claimedAt);
+        } finally {
+            signal(claim);
+        }
+    }
+
+    @Scheduled(cron = "0 15 * * * ?") // Hourly
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired idempotency records", deleted);
+    }
+
+    private IdempotencyRecord tryInsert(Long userId, String key, String requestHash) {
+        try {
+            LocalDateTime expiresAt = LocalDateTime.now().plusNanos(ttlMs * 1_000_000);
+            return repository.saveAndFlush(new IdempotencyRecord(userId, key, requestHash, expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private Claim takeOverIfLapsed(IdempotencyRecord record) {
+        if (record.getStatus() != IdempotencyRecord.Status.IN_PROGRESS
+                || record.getClaimedAt().plusNanos(waitTimeoutMs * 1_000_000).isAfter(LocalDateTime.now())) {
+            return null;
+        }
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (repository.takeOver(record.getId(), record.getClaimedAt(), claimedAt) == 0) {
+            return null;
+        }
+        log.warn("Took over idempotency key {} for user {} after its lease lapsed",
+                record.getIdempotencyKey(), record.getUserId());
+        return owned(record, claimedAt);
+    }
+
+    private Claim owned(IdempotencyRecord record, LocalDateTime claimedAt) {
+        CountDownLatch latch = new CountDownLatch(1);
+        inFlight.put(scope(record.getUserId(), record.getIdempotencyKey()), latch);
+        return new Claim(record, claimedAt, latch);
+    }
+
+    /**
+     * Waits for the first execution to finish. Returns the record once it is COMPLETED, the
+     * still IN_PROGRESS record on timeout, or null if the key was released meanwhile.
+     */
+    private IdempotencyRecord awaitCompletion(Long userId, String key) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+
+        CountDownLatch latch = inFlight.get(scope(userId, key));
+        if (latch != null) {
+            try {
+                latch.await(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        while (true) {
+            IdempotencyRecord record = repository.findByUserIdAndIdempotencyKey(userId, key).orElse(null);
+            if (record == null || record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return record;
+            }
+            if (System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted()) {
+                return record;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void signal(Claim claim) {
+        // A request that took the key over has its own latch, which stays in place
+        inFlight.remove(scope(claim.record.getUserId(), claim.record.getIdempotencyKey()), claim.latch);
+        claim.latch.countDown();
+    }
+
+    private static String scope(Long userId, String key) {
+        return userId + ":" + key;
+    }
+
+    /**
+     * Result of {@link #claim}: either ownership of the key, held until complete or release,
+     * or the record another request left behind.
+     */
+    public static final class Claim {
+        private final IdempotencyRecord record;
+        private final LocalDateTime claimedAt;
+        private final CountDownLatch latch;
+
+        private Claim(IdempotencyRecord record, LocalDateTime claimedAt, CountDownLatch latch) {
+            this.record = record;
+            this.claimedAt = claimedAt;
+            this.latch = latch;
+        }
+
+        public boolean isOwned() {
+            return claimedAt != null;
+        }
+
+        public IdempotencyRecord getExisting() {
+            return isOwned() ? null : record;
+        }
+    }
+}
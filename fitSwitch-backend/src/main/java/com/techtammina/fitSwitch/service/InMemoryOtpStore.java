@@ -0,0 +1,130 @@
+package com.techtammina.fitSwitch.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codes held in memory. Every code is also queued by expiry time, and the queue is drained
+ * every few seconds, so expired codes leave as they expire without scanning the map. A
+ * replaced code stays queued until its own expiry but is then dropped without touching the
+ * code that replaced it.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final DelayQueue<Entry> expiries = new DelayQueue<>();
+    private final long ttlNanos;
+    private final int maxAttempts;
+
+    public InMemoryOtpStore(@Value("${app.otp.ttl-minutes:10}") long ttlMinutes,
+                            @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void issue(String email, String otp) {
+        // Registration issues the code before its user row commits; a rollback must not
+        // leave a valid code behind for a user that does not exist
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(email, otp);
+                }
+            });
+        } else {
+            put(email, otp);
+        }
+    }
+
+    private void put(String email, String otp) {
+        Entry entry = new Entry(email, otp, System.nanoTime() + ttlNanos);
+        entries.put(email, entry);
+        expiries.add(entry);
+    }
+
+    @Override
+    public Result verify(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return Result.INVALID;
+        }
+        if (entry.isExpired()) {
+            entries.remove(email, entry);
+            return Result.EXPIRED;
+        }
+        if (entry.attempts.get() >= maxAttempts) {
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        if (!matches(entry.otp, otp)) {
+            if (entry.attempts.incrementAndGet() >= maxAttempts) {
+                entries.remove(email, entry);
+                return Result.TOO_MANY_ATTEMPTS;
+            }
+            return Result.INVALID;
+        }
+        // Only one of two concurrent correct submissions consumes the code
+        return entries.remove(email, entry) ? Result.VERIFIED : Result.INVALID;
+    }
+
+    @Override
+    public void remove(String email) {
+        entries.remove(email);
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.evict-interval-ms:5000}")
+    public void evictExpired() {
+        Entry expired;
+        while ((expired = expiries.poll()) != null) {
+            entries.remove(expired.email, expired);
+        }
+    }
+
+    static boolean matches(String expected, String submitted) {
+        return submitted != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), submitted.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Entry implements Delayed {
+        private final String email;
+        private final String otp;
+        private final long expiresAtNanos;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        Entry(String email, String otp, long expiresAtNanos) {
+            this.email = email;
+            this.otp = otp;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((Entry) other).expiresAtNanos);
+        }
+    }
+}
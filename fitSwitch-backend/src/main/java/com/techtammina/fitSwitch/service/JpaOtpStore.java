@@ -0,0 +1,70 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.OtpVerification;
+import com.techtammina.fitSwitch.repository.OtpVerificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Codes kept in otp_verifications, for deployments with more than one instance. The row is
+ * locked while a code is checked so concurrent attempts are counted one at a time.
+ * OtpCleanupService deletes expired rows.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jpa")
+public class JpaOtpStore implements OtpStore {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final OtpVerificationRepository otpRepository;
+    private final long ttlMinutes;
+    private final int maxAttempts;
+
+    public JpaOtpStore(OtpVerificationRepository otpRepository,
+                       @Value("${app.otp.ttl-minutes:10}") long ttlMinutes,
+                       @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.otpRepository = otpRepository;
+        this.ttlMinutes = ttlMinutes;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    @Transactional
+    public void issue(String email, String otp) {
+        otpRepository.deleteByEmail(email);
+        otpRepository.save(new OtpVerification(email, otp, LocalDateTime.now(ZONE).plusMinutes(ttlMinutes)));
+    }
+
+    @Override
+    @Transactional
+    public Result verify(String email, String otp) {
+        OtpVerification verification = otpRepository.findFirstByEmailAndVerifiedFalseOrderByIdDesc(email)
+                .orElse(null);
+        if (verification == null) {
+            return Result.INVALID;
+        }
+        if (verification.getExpiresAt().isBefore(LocalDateTime.now(ZONE))) {
+            return Result.EXPIRED;
+        }
+        if (verification.getAttempts() >= maxAttempts) {
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        if (!InMemoryOtpStore.matches(verification.getOtp(), otp)) {
+            verification.setAttempts(verification.getAttempts() + 1);
+            return verification.getAttempts() >= maxAttempts ? Result.TOO_MANY_ATTEMPTS : Result.INVALID;
+        }
+        verification.setVerified(true);
+        return Result.VERIFIED;
+    }
+
+    @Override
+    @Transactional
+    public void remove(String email) {
+        otpRepository.deleteByEmail(email);
+    }
+}
@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.MembershipCreateRequest;
 import com.techtammina.fitSwitch.dto.MembershipResponse;
 import com.techtammina.fitSwitch.dto.UserMembershipResponse;
@@ -8,10 +9,10 @@ import com.techtammina.fitSwitch.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MembershipService {
@@ -19,22 +20,25 @@ public class MembershipService {
     private final MembershipRepository membershipRepository;
     private final GymRepository gymRepository;
     private final GymPlanRepository planRepository;
-    private final OwnerEarningRepository ownerEarningRepository;
+    private final OwnerEarningRecorder ownerEarningRecorder;
     private final UserWalletRepository walletRepository;
-    private final WalletTransactionRepository transactionRepository;
+    private final WalletLedger walletLedger;
+    private final CatalogCache catalogCache;
 
     public MembershipService(MembershipRepository membershipRepository, 
                            GymRepository gymRepository, 
                            GymPlanRepository planRepository,
-                           OwnerEarningRepository ownerEarningRepository,
+                           OwnerEarningRecorder ownerEarningRecorder,
                            UserWalletRepository walletRepository,
-                           WalletTransactionRepository transactionRepository) {
+                           WalletLedger walletLedger,
+                           CatalogCache catalogCache) {
         this.membershipRepository = membershipRepository;
         this.gymRepository = gymRepository;
         this.planRepository = planRepository;
-        this.ownerEarningRepository = ownerEarningRepository;
+        this.ownerEarningRecorder = ownerEarningRecorder;
         this.walletRepository = walletRepository;
-        this.transactionRepository = transactionRepository;
+        this.walletLedger = walletLedger;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -60,37 +64,26 @@ public class MembershipService {
             throw new RuntimeException("Plan does not belong to the selected gym");
         }
 
-        // Check wallet balance
-        UserWallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Please add money to your wallet to subscribe"));
-        
-        if (wallet.getBalance().compareTo(plan.getPrice()) < 0) {
-            throw new RuntimeException("Insufficient wallet balance. Please add money to your wallet to subscribe");
-        }
-
         // Check if user already has active membership for this gym
-        membershipRepository.findByUserIdAndGymIdAndStatus(userId, request.getGymId(), MembershipStatus.ACTIVE)
+        membershipRepository.findFirstByUserIdAndGymIdAndStatusAndEndDateGreaterThanEqual(
+                        userId, request.getGymId(), MembershipStatus.ACTIVE, LocalDate.now())
                 .ifPresent(existing -> {
                     throw new RuntimeException("Active membership already exists for this gym");
                 });
 
-        // Deduct money from wallet
-        BigDecimal newBalance = wallet.getBalance().subtract(plan.getPrice());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
-        // TODO: Fix database schema for wallet_transactions.type column length
-        // Create wallet transaction
-        // WalletTransaction transaction = new WalletTransaction();
-        // transaction.setUserId(userId);
-        // transaction.setWalletId(wallet.getId());
-        // transaction.setType(WalletTransaction.TransactionType.SUB);
-        // transaction.setAmount(plan.getPrice().negate());
-        // transaction.setBalanceAfter(newBalance);
-        // transaction.setDescription("Membership subscription: " + plan.getPlanName());
-        // transaction.setGymId(request.getGymId());
-        // transaction.setCreatedAt(LocalDateTime.now());
-        // transactionRepository.save(transaction);
+        WalletLedger.Batch ledger = walletLedger.batch();
+
+        // Deduct money from wallet only if the balance covers the plan price
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setType(WalletTransaction.TransactionType.SUB);
+        transaction.setDescription("Membership subscription: " + plan.getPlanName());
+        transaction.setGymId(request.getGymId());
+        if (ledger.tryDebit(userId, plan.getPrice(), transaction) == null) {
+            if (!walletRepository.existsByUserId(userId)) {
+                throw new RuntimeException("Please add money to your wallet to subscribe");
+            }
+            throw new RuntimeException("Insufficient wallet balance. Please add money to your wallet to subscribe");
+        }
 
         // Create membership
         Membership membership = new Membership();
@@ -114,60 +107,44 @@ public class MembershipService {
         earning.setDescription("Membership purchase: " + plan.getPlanName());
         earning.setMembershipId(saved.getId());
         earning.setCreatedAt(LocalDateTime.now());
-        ownerEarningRepository.save(earning);
+        ownerEarningRecorder.record(earning);
 
         // Credit owner wallet with the membership amount
-        UserWallet ownerWallet = walletRepository.findByUserId(gym.getOwnerId())
-                .orElseGet(() -> new UserWallet(gym.getOwnerId(), BigDecimal.ZERO));
-        ownerWallet.setBalance(ownerWallet.getBalance().add(plan.getPrice()));
-        UserWallet savedOwnerWallet = walletRepository.save(ownerWallet);
-
         WalletTransaction ownerWalletTxn = new WalletTransaction();
-        ownerWalletTxn.setUserId(gym.getOwnerId());
-        ownerWalletTxn.setWalletId(savedOwnerWallet.getId());
         ownerWalletTxn.setType(WalletTransaction.TransactionType.OWNER_EARNING);
-        ownerWalletTxn.setAmount(plan.getPrice());
-        ownerWalletTxn.setBalanceAfter(savedOwnerWallet.getBalance());
         ownerWalletTxn.setDescription("Owner earning: membership purchase");
         ownerWalletTxn.setGymId(request.getGymId());
         ownerWalletTxn.setMembershipId(saved.getId());
-        ownerWalletTxn.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(ownerWalletTxn);
+        ledger.creditOwner(gym.getOwnerId(), plan.getPrice(), ownerWalletTxn);
+
+        // Link the user's payment to the membership it bought
+        transaction.setMembershipId(saved.getId());
+        ledger.flush();
         
         return mapToResponse(saved, gym, plan);
     }
 
     public List<UserMembershipResponse> getUserMemberships(Long userId) {
         List<Membership> memberships = membershipRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        
-        // Auto-expire memberships
-        LocalDate today = LocalDate.now();
-        memberships.forEach(membership -> {
-            if (membership.getStatus() == MembershipStatus.ACTIVE && 
-                membership.getEndDate().isBefore(today)) {
-                membership.setStatus(MembershipStatus.EXPIRED);
-                membershipRepository.save(membership);
-            }
-        });
-        
+
+        Map<Long, Gym> gyms = catalogCache.getGyms(memberships.stream().map(Membership::getGymId).toList());
+        Map<Long, GymPlan> plans = catalogCache.getGymPlans(memberships.stream().map(Membership::getPlanId).toList());
+
         return memberships.stream()
-                .map(membership -> {
-                    Gym gym = gymRepository.findById(membership.getGymId()).orElse(null);
-                    GymPlan plan = planRepository.findById(membership.getPlanId()).orElse(null);
-                    return mapToUserResponse(membership, gym, plan);
-                })
+                .map(membership -> mapToUserResponse(membership,
+                        gyms.get(membership.getGymId()), plans.get(membership.getPlanId())))
                 .toList();
     }
 
     public List<MembershipResponse> getUserMembershipsAdmin(Long userId) {
         List<Membership> memberships = membershipRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        
+
+        Map<Long, Gym> gyms = catalogCache.getGyms(memberships.stream().map(Membership::getGymId).toList());
+        Map<Long, GymPlan> plans = catalogCache.getGymPlans(memberships.stream().map(Membership::getPlanId).toList());
+
         return memberships.stream()
-                .map(membership -> {
-                    Gym gym = gymRepository.findById(membership.getGymId()).orElse(null);
-                    GymPlan plan = planRepository.findById(membership.getPlanId()).orElse(null);
-                    return mapToResponse(membership, gym, plan);
-                })
+                .map(membership -> mapToResponse(membership,
+                        gyms.get(membership.getGymId()), plans.get(membership.getPlanId())))
                 .toList();
     }
 
@@ -178,7 +155,7 @@ public class MembershipService {
         response.setPlanName(plan != null ? plan.getPlanName() : "Unknown Plan");
         response.setStartDate(membership.getStartDate());
         response.setEndDate(membership.getEndDate());
-        response.setStatus(membership.getStatus());
+        response.setStatus(membership.statusOn(LocalDate.now()));
         response.setPrice(plan != null ? plan.getPrice().doubleValue() : null);
         response.setDurationDays(plan != null ? plan.getDurationDays() : null);
         response.setPassType(plan != null ? plan.getPassType() : null);
@@ -194,7 +171,7 @@ public class MembershipService {
         response.setPlanName(plan != null ? plan.getPlanName() : "Unknown Plan");
         response.setStartDate(membership.getStartDate());
         response.setEndDate(membership.getEndDate());
-        response.setStatus(membership.getStatus());
+        response.setStatus(membership.statusOn(LocalDate.now()));
         response.setPrice(plan != null ? plan.getPrice().doubleValue() : null);
         response.setDurationDays(plan != null ? plan.getDurationDays() : null);
         return response;
@@ -1,15 +1,15 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.ActiveMembershipSessionResponse;
 import com.techtammina.fitSwitch.dto.MembershipSessionResponse;
 import com.techtammina.fitSwitch.entity.GymMembershipSession;
-import com.techtammina.fitSwitch.entity.Membership;
-import com.techtammina.fitSwitch.entity.MembershipStatus;
-import com.techtammina.fitSwitch.repository.GymPlanRepository;
-import com.techtammina.fitSwitch.repository.GymRepository;
+import com.techtammina.fitSwitch.event.SessionEvent;
 import com.techtammina.fitSwitch.repository.GymMembershipSessionRepository;
 import com.techtammina.fitSwitch.repository.MembershipRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,50 +21,47 @@ public class MembershipSessionService {
 
     private final GymMembershipSessionRepository sessionRepository;
     private final MembershipRepository membershipRepository;
-    private final GymRepository gymRepository;
-    private final GymPlanRepository gymPlanRepository;
+    private final CheckInEligibilityResolver eligibilityResolver;
+    private final CatalogCache catalogCache;
+    private final UserVisitStatsService visitStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MembershipSessionService(GymMembershipSessionRepository sessionRepository,
                                     MembershipRepository membershipRepository,
-                                    GymRepository gymRepository,
-                                    GymPlanRepository gymPlanRepository) {
+                                    CheckInEligibilityResolver eligibilityResolver,
+                                    CatalogCache catalogCache,
+                                    UserVisitStatsService visitStatsService,
+                                    ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
         this.membershipRepository = membershipRepository;
-        this.gymRepository = gymRepository;
-        this.gymPlanRepository = gymPlanRepository;
+        this.eligibilityResolver = eligibilityResolver;
+        this.catalogCache = catalogCache;
+        this.visitStatsService = visitStatsService;
+        this.eventPublisher = eventPublisher;
     }
 
     public MembershipSessionResponse checkIn(Long userId, Long membershipId) {
-        Membership membership = membershipRepository.findById(membershipId)
-                .orElseThrow(() -> new RuntimeException("Membership not found"));
-
-        if (!membership.getUserId().equals(userId)) {
-            throw new RuntimeException("Unauthorized access to membership");
-        }
-
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new RuntimeException("Membership is not active");
-        }
-
         LocalDate today = LocalDate.now();
-        Optional<GymMembershipSession> existing = sessionRepository
-                .findByMembershipIdAndVisitDateAndStatus(membershipId, today, GymMembershipSession.SessionStatus.ACTIVE);
-        if (existing.isPresent()) {
-            throw new RuntimeException("You already have an active session for this membership today");
+        CheckInEligibilityResolver.Eligibility eligibility = eligibilityResolver.forMembership(userId, membershipId, today);
+        String refusal = eligibility.checkInRefusal();
+        if (refusal != null) {
+            throw new RuntimeException(refusal);
         }
 
         GymMembershipSession session = new GymMembershipSession();
         session.setUserId(userId);
-        session.setGymId(membership.getGymId());
+        session.setGymId(eligibility.getGymId());
         session.setMembershipId(membershipId);
         session.setCheckInTime(LocalDateTime.now());
         session.setVisitDate(today);
         session.setStatus(GymMembershipSession.SessionStatus.ACTIVE);
 
         GymMembershipSession saved = sessionRepository.save(session);
+        publish(SessionEvent.Kind.CHECKED_IN, saved);
         return mapToResponse(saved, "Check-in successful");
     }
 
+    @Transactional
     public MembershipSessionResponse checkOut(Long userId, Long membershipId) {
         GymMembershipSession session = sessionRepository
                 .findByUserIdAndMembershipIdAndStatus(userId, membershipId, GymMembershipSession.SessionStatus.ACTIVE)
@@ -73,6 +70,8 @@ public class MembershipSessionService {
         session.setCheckOutTime(LocalDateTime.now());
         session.setStatus(GymMembershipSession.SessionStatus.COMPLETED);
         GymMembershipSession updated = sessionRepository.save(session);
+        visitStatsService.recordVisit(userId, updated.getGymId(), updated.getVisitDate());
+        publish(SessionEvent.Kind.CHECKED_OUT, updated);
         return mapToResponse(updated, "Check-out successful");
     }
 
@@ -95,6 +94,11 @@ public class MembershipSessionService {
                 .toList();
     }
 
+    private void publish(SessionEvent.Kind kind, GymMembershipSession session) {
+        eventPublisher.publishEvent(new SessionEvent(kind, SessionEvent.MEMBERSHIP, session.getId(),
+                session.getUserId(), session.getGymId(), null, session.getCheckInTime(), session.getVisitDate()));
+    }
+
     private MembershipSessionResponse mapToResponse(GymMembershipSession session, String message) {
         MembershipSessionResponse response = new MembershipSessionResponse();
         response.setSessionId(session.getId());
@@ -114,10 +118,10 @@ public class MembershipSessionService {
         response.setGymId(session.getGymId());
         response.setCheckInTime(session.getCheckInTime());
 
-        gymRepository.findById(session.getGymId())
+        catalogCache.findGym(session.getGymId())
                 .ifPresent(gym -> response.setGymName(gym.getGymName()));
         membershipRepository.findById(session.getMembershipId())
-                .ifPresent(membership -> gymPlanRepository.findById(membership.getPlanId())
+                .ifPresent(membership -> catalogCache.findGymPlan(membership.getPlanId())
                         .ifPresent(plan -> response.setPlanName(plan.getPlanName())));
 
         return response;
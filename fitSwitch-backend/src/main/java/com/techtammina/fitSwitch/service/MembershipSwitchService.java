@@ -18,25 +18,25 @@ public class MembershipSwitchService {
     private final MembershipRepository membershipRepository;
     private final GymRepository gymRepository;
     private final GymPlanRepository planRepository;
-    private final UserWalletRepository walletRepository;
-    private final WalletTransactionRepository transactionRepository;
-    private final OwnerEarningRepository ownerEarningRepository;
+    private final WalletLedger walletLedger;
+    private final OwnerEarningRecorder ownerEarningRecorder;
     private final EmailService emailService;
+    private final UserRepository userRepository;
 
     public MembershipSwitchService(MembershipRepository membershipRepository,
                                  GymRepository gymRepository,
                                  GymPlanRepository planRepository,
-                                 UserWalletRepository walletRepository,
-                                 WalletTransactionRepository transactionRepository,
-                                 OwnerEarningRepository ownerEarningRepository,
-                                 EmailService emailService) {
+                                 WalletLedger walletLedger,
+                                 OwnerEarningRecorder ownerEarningRecorder,
+                                 EmailService emailService,
+                                 UserRepository userRepository) {
         this.membershipRepository = membershipRepository;
         this.gymRepository = gymRepository;
         this.planRepository = planRepository;
-        this.walletRepository = walletRepository;
-        this.transactionRepository = transactionRepository;
-        this.ownerEarningRepository = ownerEarningRepository;
+        this.walletLedger = walletLedger;
+        this.ownerEarningRecorder = ownerEarningRecorder;
         this.emailService = emailService;
+        this.userRepository = userRepository;
     }
 
     @Transactional
@@ -51,7 +51,7 @@ public class MembershipSwitchService {
         }
 
         // Validate current membership is active
-        if (currentMembership.getStatus() != MembershipStatus.ACTIVE) {
+        if (currentMembership.statusOn(LocalDate.now()) != MembershipStatus.ACTIVE) {
             throw new RuntimeException("Current membership is not active");
         }
 
@@ -90,22 +90,21 @@ public class MembershipSwitchService {
         // Calculate refund and usage
         MembershipCalculation calculation = calculateMembershipSwitch(currentMembership, newPlan);
 
-        // Get or create wallet
-        UserWallet wallet = walletRepository.findByUserId(userId)
-                .orElseGet(() -> createWallet(userId));
+        WalletLedger.Batch ledger = walletLedger.batch();
 
         // Process old membership
-        processOldMembership(currentMembership, calculation, wallet);
+        processOldMembership(currentMembership, calculation, ledger);
 
         // Create new membership
         Membership newMembership = createNewMembership(userId, request.getNewGymId(), 
                                                      request.getNewPlanId(), newPlan, calculation);
 
         // Process payment for new membership
-        processNewMembershipPayment(newMembership, newGym, calculation, wallet);
+        processNewMembershipPayment(newMembership, newGym, calculation, ledger);
+        ledger.flush();
 
         // Send email notification
-        sendSwitchNotification(userId, currentMembership, newMembership, calculation);
+        sendSwitchNotification(userId, currentGym, newGym, calculation);
 
         return new ApiResponse(true, "Membership switched successfully");
     }
@@ -152,27 +151,18 @@ public class MembershipSwitchService {
         return calculation;
     }
 
-    private void processOldMembership(Membership currentMembership, MembershipCalculation calculation, UserWallet wallet) {
+    private void processOldMembership(Membership currentMembership, MembershipCalculation calculation, WalletLedger.Batch ledger) {
         // Mark old membership as switched
         currentMembership.setStatus(MembershipStatus.SWITCHED);
         membershipRepository.save(currentMembership);
 
         // Add refund to wallet if any
         if (calculation.getRefundAmount().compareTo(BigDecimal.ZERO) > 0) {
-            wallet.setBalance(wallet.getBalance().add(calculation.getRefundAmount()));
-            walletRepository.save(wallet);
-
-            // Create refund transaction
             WalletTransaction refundTransaction = new WalletTransaction();
-            refundTransaction.setUserId(currentMembership.getUserId());
-            refundTransaction.setWalletId(wallet.getId());
             refundTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_REFUND);
-            refundTransaction.setAmount(calculation.getRefundAmount());
-            refundTransaction.setBalanceAfter(wallet.getBalance());
             refundTransaction.setDescription("Refund from membership switch");
             refundTransaction.setMembershipId(currentMembership.getId());
-            refundTransaction.setCreatedAt(LocalDateTime.now());
-            transactionRepository.save(refundTransaction);
+            ledger.credit(currentMembership.getUserId(), calculation.getRefundAmount(), refundTransaction);
         }
 
         // Record owner earning for used portion
@@ -188,7 +178,7 @@ public class MembershipSwitchService {
                 earning.setDescription("Membership switch - used portion");
                 earning.setMembershipId(currentMembership.getId());
                 earning.setCreatedAt(LocalDateTime.now());
-                ownerEarningRepository.save(earning);
+                ownerEarningRecorder.record(earning);
             }
         }
     }
@@ -206,30 +196,18 @@ public class MembershipSwitchService {
         return membershipRepository.save(newMembership);
     }
 
-    private void processNewMembershipPayment(Membership newMembership, Gym newGym, MembershipCalculation calculation, UserWallet wallet) {
+    private void processNewMembershipPayment(Membership newMembership, Gym newGym, MembershipCalculation calculation, WalletLedger.Batch ledger) {
         // Check if additional payment needed
         if (calculation.getAdditionalAmount().compareTo(BigDecimal.ZERO) > 0) {
-            // Check wallet balance
-            if (wallet.getBalance().compareTo(calculation.getAdditionalAmount()) < 0) {
-                throw new RuntimeException("Insufficient wallet balance for membership switch");
-            }
-
-            // Debit wallet
-            wallet.setBalance(wallet.getBalance().subtract(calculation.getAdditionalAmount()));
-            walletRepository.save(wallet);
-
-            // Create payment transaction
+            // Debit wallet only if the balance covers the difference
             WalletTransaction paymentTransaction = new WalletTransaction();
-            paymentTransaction.setUserId(newMembership.getUserId());
-            paymentTransaction.setWalletId(wallet.getId());
             paymentTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_SWITCH);
-            paymentTransaction.setAmount(calculation.getAdditionalAmount().negate());
-            paymentTransaction.setBalanceAfter(wallet.getBalance());
             paymentTransaction.setDescription("Payment for new membership");
             paymentTransaction.setMembershipId(newMembership.getId());
             paymentTransaction.setGymId(newMembership.getGymId());
-            paymentTransaction.setCreatedAt(LocalDateTime.now());
-            transactionRepository.save(paymentTransaction);
+            if (ledger.tryDebit(newMembership.getUserId(), calculation.getAdditionalAmount(), paymentTransaction) == null) {
+                throw new RuntimeException("Insufficient wallet balance for membership switch");
+            }
         }
 
         // Record owner earning for new membership
@@ -242,17 +220,14 @@ public class MembershipSwitchService {
         earning.setDescription("New membership purchase");
         earning.setMembershipId(newMembership.getId());
         earning.setCreatedAt(LocalDateTime.now());
-        ownerEarningRepository.save(earning);
-    }
-
-    private void sendSwitchNotification(Long userId, Membership oldMembership, Membership newMembership, MembershipCalculation calculation) {
-        // Implementation for email notification
-        // This would integrate with the existing EmailService
+        ownerEarningRecorder.record(earning);
     }
 
-    private UserWallet createWallet(Long userId) {
-        UserWallet wallet = new UserWallet(userId, BigDecimal.ZERO);
-        return walletRepository.save(wallet);
+    private void sendSwitchNotification(Long userId, Gym oldGym, Gym newGym, MembershipCalculation calculation) {
+        // Queued in the outbox within this transaction; sent only if the switch commits
+        userRepository.findById(userId).ifPresent(user ->
+                emailService.sendMembershipSwitchNotification(user.getEmail(), oldGym.getGymName(),
+                        newGym.getGymName(), calculation.getRefundAmount(), calculation.getAdditionalAmount()));
     }
 
     // Inner class for calculation results
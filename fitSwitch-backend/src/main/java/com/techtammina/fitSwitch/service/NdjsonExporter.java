@@ -0,0 +1,63 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.dto.CursorPage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a full list as newline-delimited JSON by walking the same keyset pages the
+ * .../page endpoints serve.
+ *
+ * Each page is read in its own short read-only transaction and written out after it
+ * commits, so a slow client holds a pooled connection for one page query at a time rather
+ * than for the whole download. (A MySQL streaming result, fetch size Integer.MIN_VALUE,
+ * would avoid the extra queries but pins the connection until the last row is sent.)
+ */
+@Service
+public class NdjsonExporter {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public NdjsonExporter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> StreamingResponseBody export(PageQuery<T> query) {
+        return out -> {
+            String cursor = null;
+            do {
+                String position = cursor;
+                CursorPage<T> page = readOnlyTransaction.execute(status -> query.fetch(position, CursorPage.MAX_SIZE));
+                write(out, page);
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+    }
+
+    private <T> void write(OutputStream out, CursorPage<T> page) throws IOException {
+        for (T row : page.getItems()) {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * One keyset page after the given cursor (null for the first page).
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        CursorPage<T> fetch(String cursor, int size);
+    }
+}
@@ -0,0 +1,190 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.cache.OccupancyRegistry;
+import com.techtammina.fitSwitch.dto.GymOccupancyResponse;
+import com.techtammina.fitSwitch.dto.OccupancyDeltaResponse;
+import com.techtammina.fitSwitch.dto.OccupantResponse;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.event.SessionEvent;
+import com.techtammina.fitSwitch.repository.FacilitySessionRepository;
+import com.techtammina.fitSwitch.repository.GymMembershipSessionRepository;
+import com.techtammina.fitSwitch.repository.GymSessionRepository;
+import com.techtammina.fitSwitch.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the {@link OccupancyRegistry} in step with committed check-ins and check-outs and
+ * pushes every change to the owners watching that gym over server-sent events.
+ *
+ * The registry is loaded from the open sessions before the web server starts. Pushes go
+ * through a single thread so each stream sees changes in order and a slow client never
+ * delays a check-in request.
+ */
+@Service
+public class OccupancyService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyService.class);
+
+    private final OccupancyRegistry registry;
+    private final GymMembershipSessionRepository membershipSessionRepository;
+    private final FacilitySessionRepository facilitySessionRepository;
+    private final GymSessionRepository gymSessionRepository;
+    private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final long streamTimeoutMs;
+
+    private final Map<Long, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final ExecutorService pusher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("occupancy-push").daemon().factory());
+
+    public OccupancyService(OccupancyRegistry registry,
+                            GymMembershipSessionRepository membershipSessionRepository,
+                            FacilitySessionRepository facilitySessionRepository,
+                            GymSessionRepository gymSessionRepository,
+                            UserRepository userRepository,
+                            CatalogCache catalogCache,
+                            @Value("${app.occupancy.stream-timeout-ms:1800000}") long streamTimeoutMs) {
+        this.registry = registry;
+        this.membershipSessionRepository = membershipSessionRepository;
+        this.facilitySessionRepository = facilitySessionRepository;
+        this.gymSessionRepository = gymSessionRepository;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.streamTimeoutMs = streamTimeoutMs;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<OccupantResponse> occupants = new ArrayList<>();
+        occupants.addAll(membershipSessionRepository.findActiveOccupants());
+        occupants.addAll(facilitySessionRepository.findActiveOccupants());
+        occupants.addAll(gymSessionRepository.findActiveOccupants());
+        registry.load(occupants);
+        log.info("Loaded {} open sessions into the occupancy registry", occupants.size());
+    }
+
+    public GymOccupancyResponse getOccupancy(Long ownerId, Long gymId) {
+        verifyGymOwner(ownerId, gymId);
+        return registry.get(gymId);
+    }
+
+    /**
+     * Opens a stream that starts with the current occupancy ("snapshot") and then carries one
+     * "CHECK_IN" or "CHECK_OUT" event per change.
+     */
+    public SseEmitter subscribe(Long ownerId, Long gymId) {
+        verifyGymOwner(ownerId, gymId);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Set<SseEmitter> gymStreams = streams.computeIfAbsent(gymId, id -> new CopyOnWriteArraySet<>());
+        gymStreams.add(emitter);
+        emitter.onCompletion(() -> gymStreams.remove(emitter));
+        emitter.onTimeout(() -> gymStreams.remove(emitter));
+        emitter.onError(e -> gymStreams.remove(emitter));
+
+        // Queued behind pending deltas, so the snapshot is never older than what follows it
+        pusher.execute(() -> send(gymStreams, emitter, "snapshot", registry.get(gymId)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSession(SessionEvent event) {
+        OccupancyDeltaResponse delta;
+        if (event.getKind() == SessionEvent.Kind.CHECKED_IN) {
+            delta = registry.checkIn(toOccupant(event));
+        } else {
+            delta = registry.checkOut(event.getGymId(), event.getSessionType(), event.getSessionId());
+        }
+        if (delta != null) {
+            push(delta);
+        }
+    }
+
+    // Sessions nobody checked out stay open in the database but are not in the gym any more
+    @Scheduled(cron = "${app.occupancy.sweep-cron:0 5 0 * * ?}")
+    public void dropStaleSessions() {
+        List<OccupancyDeltaResponse> deltas = registry.dropVisitsBefore(LocalDate.now());
+        deltas.forEach(this::push);
+        if (!deltas.isEmpty()) {
+            log.info("Dropped {} sessions from previous days from the occupancy registry", deltas.size());
+        }
+    }
+
+    // Keeps idle streams open through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${app.occupancy.heartbeat-ms:30000}")
+    public void heartbeat() {
+        pusher.execute(() -> streams.values().forEach(gymStreams -> {
+            for (SseEmitter emitter : gymStreams) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    gymStreams.remove(emitter);
+                }
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pusher.shutdownNow();
+        streams.values().forEach(gymStreams -> gymStreams.forEach(SseEmitter::complete));
+    }
+
+    private void push(OccupancyDeltaResponse delta) {
+        Set<SseEmitter> gymStreams = streams.get(delta.getGymId());
+        if (gymStreams == null || gymStreams.isEmpty()) {
+            return;
+        }
+        pusher.execute(() -> {
+            for (SseEmitter emitter : gymStreams) {
+                send(gymStreams, emitter, delta.getType(), delta);
+            }
+        });
+    }
+
+    private void send(Set<SseEmitter> gymStreams, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            gymStreams.remove(emitter);
+        }
+    }
+
+    private OccupantResponse toOccupant(SessionEvent event) {
+        OccupantResponse occupant = new OccupantResponse(event.getSessionType(), event.getSessionId(),
+                event.getGymId(), event.getUserId(), null, event.getCheckInTime(), event.getVisitDate());
+        userRepository.findById(event.getUserId()).ifPresent(user -> occupant.setUserName(user.getFullName()));
+        catalogCache.findGymFacility(event.getFacilityId())
+                .ifPresent(facility -> occupant.setFacilityName(facility.getFacilityName()));
+        return occupant;
+    }
+
+    private void verifyGymOwner(Long ownerId, Long gymId) {
+        Gym gym = catalogCache.findGym(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        if (!gym.getOwnerId().equals(ownerId)) {
+            throw new RuntimeException("Access denied: Not your gym");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.techtammina.fitSwitch.service;
 
 import com.techtammina.fitSwitch.repository.OtpVerificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,15 +11,17 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 
 @Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jpa")
 public class OtpCleanupService {
 
     @Autowired
     private OtpVerificationRepository otpRepository;
 
-    @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
+    // Codes live for minutes, so sweep often enough that the table stays small all day
+    @Scheduled(fixedDelayString = "${app.otp.cleanup-interval-ms:600000}")
     @Transactional
     public void deleteExpiredOtps() {
         LocalDateTime cutoffTime = LocalDateTime.now(ZoneId.of("Asia/Kolkata"));
         otpRepository.deleteExpiredOtps(cutoffTime);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.utils.EmailKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many OTP emails one address and one client IP can trigger per window. Counts are
+ * kept per instance whichever OTP store is used; they only need to slow down abuse.
+ */
+@Service
+public class OtpSendLimiter {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final int perEmail;
+    private final int perIp;
+    private final long windowMs;
+
+    public OtpSendLimiter(@Value("${app.otp.send-limit.per-email:5}") int perEmail,
+                          @Value("${app.otp.send-limit.per-ip:20}") int perIp,
+                          @Value("${app.otp.send-limit.window-minutes:15}") long windowMinutes) {
+        this.perEmail = perEmail;
+        this.perIp = perIp;
+        this.windowMs = TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    /**
+     * Counts one send for the email and the IP and returns false if either is over its limit.
+     * A null IP is only limited by email. Emails are keyed the way RateLimitFilter keys them.
+     */
+    public boolean tryAcquire(String email, String ip) {
+        long now = System.currentTimeMillis();
+        boolean emailAllowed = count("email:" + EmailKeys.normalize(email), now) <= perEmail;
+        boolean ipAllowed = ip == null || count("ip:" + ip, now) <= perIp;
+        return emailAllowed && ipAllowed;
+    }
+
+    private int count(String key, long now) {
+        Window window = windows.compute(key, (k, current) ->
+                current == null || current.endsAt <= now ? new Window(now + windowMs, 1) : current.increment());
+        return window.count;
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.evict-interval-ms:5000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(window -> window.endsAt <= now);
+    }
+
+    private static final class Window {
+        private final long endsAt;
+        private final int count;
+
+        Window(long endsAt, int count) {
+            this.endsAt = endsAt;
+            this.count = count;
+        }
+
+        Window increment() {
+            return new Window(endsAt, count + 1);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.techtammina.fitSwitch.service;
+
+/**
+ * Pending email verification codes, at most one per email. Selected with app.otp.store:
+ * "memory" keeps codes on this instance only, "jpa" keeps them in otp_verifications so any
+ * instance can verify a code another one sent.
+ */
+public interface OtpStore {
+
+    enum Result {
+        VERIFIED, INVALID, EXPIRED, TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * Stores a new code for the email, replacing any code sent before. Called inside a
+     * transaction, the code only becomes valid once that transaction commits.
+     */
+    void issue(String email, String otp);
+
+    /**
+     * Checks a submitted code. A matching code is consumed; a wrong one counts as an attempt,
+     * and the code stops being accepted once app.otp.max-attempts is reached.
+     */
+    Result verify(String email, String otp);
+
+    void remove(String email);
+}
@@ -0,0 +1,64 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.repository.OwnerWalletCreditRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Periodically folds pending owner credits into owner wallets. Each owner is folded in its
+ * own short transaction, so one busy owner never holds locks for the others.
+ *
+ * A run takes up to owners-per-run owners in id order and the next run carries on after the
+ * last of them, starting over once it reaches the end. Owners that keep credits pending (more
+ * than one fold batch, or a failing fold) therefore cannot hold back those behind them.
+ */
+@Service
+public class OwnerCreditFolder {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerCreditFolder.class);
+
+    private final OwnerWalletCreditRepository creditRepository;
+    private final WalletLedger walletLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final int ownersPerRun;
+
+    // Last owner handled; runs are scheduled with a fixed delay, so they never overlap
+    private volatile long afterOwnerId = 0;
+
+    public OwnerCreditFolder(OwnerWalletCreditRepository creditRepository,
+                             WalletLedger walletLedger,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.wallet.owner-credit.owners-per-run:200}") int ownersPerRun) {
+        this.creditRepository = creditRepository;
+        this.walletLedger = walletLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ownersPerRun = ownersPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${app.wallet.owner-credit.fold-interval-ms:5000}")
+    public void foldPendingCredits() {
+        List<Long> ownerIds = creditRepository.findOwnersWithPendingCredits(afterOwnerId, PageRequest.of(0, ownersPerRun));
+        afterOwnerId = ownerIds.size() < ownersPerRun ? 0 : ownerIds.get(ownerIds.size() - 1);
+        for (Long ownerId : ownerIds) {
+            try {
+                Integer folded = transactionTemplate.execute(status -> {
+                    WalletLedger.Batch ledger = walletLedger.batch();
+                    int count = ledger.foldPendingCredits(ownerId);
+                    ledger.flush();
+                    return count;
+                });
+                log.debug("Folded {} pending credits for owner {}", folded, ownerId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to fold pending credits for owner {}: {}", ownerId, e.getMessage());
+            }
+        }
+    }
+}
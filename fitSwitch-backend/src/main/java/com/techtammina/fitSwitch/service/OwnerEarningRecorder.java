@@ -0,0 +1,90 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.OwnerEarning;
+import com.techtammina.fitSwitch.repository.OwnerEarningRepository;
+import com.techtammina.fitSwitch.repository.OwnerEarningRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * The only place owner earnings are written. Each earning is added to its
+ * (owner, gym, day, type) rollup bucket in the same transaction, so the rollups never
+ * disagree with owner_earnings after a commit.
+ *
+ * Reconciling recomputes buckets from owner_earnings: the last few days nightly, or
+ * everything when started with app.earnings.rollup.rebuild-on-startup=true.
+ */
+@Service
+public class OwnerEarningRecorder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerEarningRecorder.class);
+    private static final LocalDate BEGINNING = LocalDate.of(1970, 1, 1);
+
+    private final OwnerEarningRepository earningRepository;
+    private final OwnerEarningRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int reconcileDays;
+
+    public OwnerEarningRecorder(OwnerEarningRepository earningRepository,
+                                OwnerEarningRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.earnings.rollup.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                                @Value("${app.earnings.rollup.reconcile-days:2}") int reconcileDays) {
+        this.earningRepository = earningRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.reconcileDays = reconcileDays;
+    }
+
+    @Transactional
+    public OwnerEarning record(OwnerEarning earning) {
+        // Earning first, then its bucket: the same lock order as reconcileFrom
+        OwnerEarning saved = earningRepository.save(earning);
+        rollupRepository.add(saved.getOwnerId(), saved.getGymId(), saved.getCreatedAt().toLocalDate(),
+                saved.getType().name(), saved.getAmount());
+        return saved;
+    }
+
+    /**
+     * Recomputes every bucket from the given day onwards in one transaction. It share-locks
+     * the earnings it rebuilds from before it touches a bucket, the same order record()
+     * takes its locks in, so the two cannot deadlock. An earning recorded meanwhile either
+     * commits first, and is read by the rebuild, or waits for the reconcile to commit and is
+     * then added on top of the rebuilt bucket.
+     */
+    public int reconcileFrom(LocalDate from) {
+        Integer buckets = transactionTemplate.execute(status -> {
+            rollupRepository.lockEarningsFrom(from.atStartOfDay());
+            rollupRepository.deleteFrom(from);
+            return rollupRepository.rebuildFrom(from.atStartOfDay());
+        });
+        return buckets != null ? buckets : 0;
+    }
+
+    @Scheduled(cron = "${app.earnings.rollup.reconcile-cron:0 45 3 * * ?}")
+    public void reconcileRecent() {
+        LocalDate from = LocalDate.now().minusDays(reconcileDays);
+        int buckets = reconcileFrom(from);
+        log.info("Reconciled earning rollups from {}: {} buckets", from, buckets);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup) {
+            int buckets = reconcileFrom(BEGINNING);
+            log.info("Rebuilt earning rollups: {} buckets", buckets);
+        }
+    }
+}
@@ -1,40 +1,58 @@
 package com.techtammina.fitSwitch.service;
 
-import com.techtammina.fitSwitch.dto.ApiResponse;
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.dto.CursorPage;
+import com.techtammina.fitSwitch.dto.EarningsBreakdownResponse;
+import com.techtammina.fitSwitch.dto.EarningsBucketResponse;
+import com.techtammina.fitSwitch.dto.OwnerEarningResponse;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
+import com.techtammina.fitSwitch.utils.PageCursor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OwnerEarningsService {
 
+    private static final int DEFAULT_SERIES_DAYS = 30;
+
     private final OwnerEarningRepository ownerEarningRepository;
+    private final OwnerEarningRollupRepository rollupRepository;
     private final GymRepository gymRepository;
     private final GymFacilityRepository facilityRepository;
     private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final NdjsonExporter ndjsonExporter;
 
     public OwnerEarningsService(OwnerEarningRepository ownerEarningRepository,
+                              OwnerEarningRollupRepository rollupRepository,
                               GymRepository gymRepository,
                               GymFacilityRepository facilityRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              CatalogCache catalogCache,
+                              NdjsonExporter ndjsonExporter) {
         this.ownerEarningRepository = ownerEarningRepository;
+        this.rollupRepository = rollupRepository;
         this.gymRepository = gymRepository;
         this.facilityRepository = facilityRepository;
         this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     public List<OwnerEarningResponse> getOwnerEarnings(Long ownerId) {
         List<OwnerEarning> earnings = ownerEarningRepository.findByOwnerIdOrderByCreatedAtDesc(ownerId);
-        
-        return earnings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(earnings);
     }
 
     public List<OwnerEarningResponse> getGymEarnings(Long ownerId, Long gymId) {
@@ -47,29 +65,132 @@ public class OwnerEarningsService {
         }
 
         List<OwnerEarning> earnings = ownerEarningRepository.findByGymIdOrderByCreatedAtDesc(gymId);
-        
-        return earnings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(earnings);
+    }
+
+    public CursorPage<OwnerEarningResponse> getOwnerEarningsPage(Long ownerId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<OwnerEarning> rows = ownerEarningRepository.findPageByOwnerId(
+                ownerId, position.dateTimeKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(mapToResponses(rows), size, row -> PageCursor.encode(row.getCreatedAt(), row.getId()));
+    }
+
+    public CursorPage<OwnerEarningResponse> getGymEarningsPage(Long ownerId, Long gymId, String cursor, int size) {
+        verifyGymOwner(ownerId, gymId);
+        return gymEarningsPage(gymId, cursor, size);
+    }
+
+    public StreamingResponseBody exportOwnerEarnings(Long ownerId) {
+        return ndjsonExporter.export((cursor, size) -> getOwnerEarningsPage(ownerId, cursor, size));
+    }
+
+    public StreamingResponseBody exportGymEarnings(Long ownerId, Long gymId) {
+        verifyGymOwner(ownerId, gymId);
+        return ndjsonExporter.export((cursor, size) -> gymEarningsPage(gymId, cursor, size));
+    }
+
+    private CursorPage<OwnerEarningResponse> gymEarningsPage(Long gymId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<OwnerEarning> rows = ownerEarningRepository.findPageByGymId(
+                gymId, position.dateTimeKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(mapToResponses(rows), size, row -> PageCursor.encode(row.getCreatedAt(), row.getId()));
     }
 
     public BigDecimal getTotalEarnings(Long ownerId) {
-        return ownerEarningRepository.getTotalEarningsByOwnerId(ownerId);
+        return rollupRepository.sumByOwnerId(ownerId);
     }
 
     public BigDecimal getGymTotalEarnings(Long ownerId, Long gymId) {
-        // Verify gym belongs to owner
+        verifyGymOwner(ownerId, gymId);
+        return rollupRepository.sumByGymId(gymId);
+    }
+
+    /**
+     * Earnings per day, week (starting Monday) or month between from and to, inclusive.
+     * Defaults to the last 30 days. Only periods with earnings are returned. A period cut
+     * short by from is labelled with from rather than the Monday or 1st before it.
+     */
+    public List<EarningsBucketResponse> getEarningsSeries(Long ownerId, Long gymId, LocalDate from,
+                                                          LocalDate to, String period) {
+        SeriesPeriod seriesPeriod = SeriesPeriod.parse(period);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_SERIES_DAYS - 1);
+        checkRange(ownerId, gymId, start, end);
+
+        List<EarningsBucketResponse> days = gymId != null
+                ? rollupRepository.findGymDailySeries(gymId, start, end)
+                : rollupRepository.findDailySeries(ownerId, start, end);
+        if (seriesPeriod == SeriesPeriod.DAY) {
+            return days;
+        }
+
+        // Days arrive in date order, so each period's days are adjacent
+        List<EarningsBucketResponse> buckets = new ArrayList<>();
+        EarningsBucketResponse current = null;
+        for (EarningsBucketResponse day : days) {
+            LocalDate periodStart = seriesPeriod.startOf(day.getPeriodStart());
+            if (periodStart.isBefore(start)) {
+                periodStart = start;
+            }
+            if (current == null || !current.getPeriodStart().equals(periodStart)) {
+                current = new EarningsBucketResponse(periodStart, BigDecimal.ZERO, 0L);
+                buckets.add(current);
+            }
+            current.setTotalAmount(current.getTotalAmount().add(day.getTotalAmount()));
+            current.setEarningCount(current.getEarningCount() + day.getEarningCount());
+        }
+        return buckets;
+    }
+
+    public List<EarningsBreakdownResponse> getEarningsBreakdown(Long ownerId, Long gymId, LocalDate from,
+                                                                LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_SERIES_DAYS - 1);
+        checkRange(ownerId, gymId, start, end);
+        return gymId != null
+                ? rollupRepository.findGymTypeBreakdown(gymId, start, end)
+                : rollupRepository.findTypeBreakdown(ownerId, start, end);
+    }
+
+    private void checkRange(Long ownerId, Long gymId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        if (gymId != null) {
+            verifyGymOwner(ownerId, gymId);
+        }
+    }
+
+    private void verifyGymOwner(Long ownerId, Long gymId) {
         Gym gym = gymRepository.findById(gymId)
                 .orElseThrow(() -> new RuntimeException("Gym not found"));
-        
+
         if (!gym.getOwnerId().equals(ownerId)) {
             throw new RuntimeException("Access denied: Not your gym");
         }
+    }
+
+    private List<OwnerEarningResponse> mapToResponses(List<OwnerEarning> earnings) {
+        // Resolve gym, facility and user names for the whole list in one pass
+        Map<Long, Gym> gyms = catalogCache.getGyms(
+                earnings.stream().map(OwnerEarning::getGymId).toList());
+        Map<Long, GymFacility> facilities = catalogCache.getGymFacilities(
+                earnings.stream().map(OwnerEarning::getFacilityId).toList());
+        List<Long> userIds = earnings.stream()
+                .map(OwnerEarning::getUserId)
+                .filter(id -> id != null)
+                .distinct()
+                .toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
 
-        return ownerEarningRepository.getTotalEarningsByGymId(gymId);
+        return earnings.stream()
+                .map(earning -> mapToResponse(earning, gyms, facilities, users))
+                .collect(Collectors.toList());
     }
 
-    private OwnerEarningResponse mapToResponse(OwnerEarning earning) {
+    private OwnerEarningResponse mapToResponse(OwnerEarning earning, Map<Long, Gym> gyms,
+                                               Map<Long, GymFacility> facilities, Map<Long, User> users) {
         OwnerEarningResponse response = new OwnerEarningResponse();
         response.setId(earning.getId());
         response.setType(earning.getType());
@@ -78,60 +199,46 @@ public class OwnerEarningsService {
         response.setCreatedAt(earning.getCreatedAt());
 
         // Add gym name
-        if (earning.getGymId() != null) {
-            gymRepository.findById(earning.getGymId())
-                    .ifPresent(gym -> response.setGymName(gym.getGymName()));
+        Gym gym = gyms.get(earning.getGymId());
+        if (gym != null) {
+            response.setGymName(gym.getGymName());
         }
 
         // Add facility name
-        if (earning.getFacilityId() != null) {
-            facilityRepository.findById(earning.getFacilityId())
-                    .ifPresent(facility -> response.setFacilityName(facility.getFacilityName()));
+        GymFacility facility = facilities.get(earning.getFacilityId());
+        if (facility != null) {
+            response.setFacilityName(facility.getFacilityName());
         }
 
         // Add user name
-        if (earning.getUserId() != null) {
-            userRepository.findById(earning.getUserId())
-                    .ifPresent(user -> response.setUserName(user.getFullName()));
+        User user = users.get(earning.getUserId());
+        if (user != null) {
+            response.setUserName(user.getFullName());
         }
 
         return response;
     }
 
-    // DTO class for response
-    public static class OwnerEarningResponse {
-        private Long id;
-        private OwnerEarning.EarningType type;
-        private BigDecimal amount;
-        private String description;
-        private String gymName;
-        private String facilityName;
-        private String userName;
-        private LocalDateTime createdAt;
-
-        // Getters and Setters
-        public Long getId() { return id; }
-        public void setId(Long id) { this.id = id; }
-
-        public OwnerEarning.EarningType getType() { return type; }
-        public void setType(OwnerEarning.EarningType type) { this.type = type; }
-
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
-
-        public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-
-        public String getGymName() { return gymName; }
-        public void setGymName(String gymName) { this.gymName = gymName; }
-
-        public String getFacilityName() { return facilityName; }
-        public void setFacilityName(String facilityName) { this.facilityName = facilityName; }
-
-        public String getUserName() { return userName; }
-        public void setUserName(String userName) { this.userName = userName; }
+    private enum SeriesPeriod {
+        DAY, WEEK, MONTH;
+
+        static SeriesPeriod parse(String value) {
+            if (value == null || value.isBlank()) {
+                return DAY;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid period: use day, week or month");
+            }
+        }
 
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        LocalDate startOf(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
     }
-}
\ No newline at end of file
+}
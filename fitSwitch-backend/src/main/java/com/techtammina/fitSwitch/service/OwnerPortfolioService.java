@@ -0,0 +1,91 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.dto.CursorPage;
+import com.techtammina.fitSwitch.dto.FacilityPlanResponse;
+import com.techtammina.fitSwitch.dto.GymEarningsTotalResponse;
+import com.techtammina.fitSwitch.dto.GymFacilityResponse;
+import com.techtammina.fitSwitch.dto.GymPlanResponse;
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.OwnerEarningRollupRepository;
+import com.techtammina.fitSwitch.utils.PageCursor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog and earnings across every gym an owner has. Each page is one query that selects
+ * the owner's gyms as a subquery, plus at most one batched lookup per referenced entity type
+ * through the catalog cache, so the cost does not grow with the number of gyms or facilities.
+ */
+@Service
+public class OwnerPortfolioService {
+
+    private final GymPlanRepository gymPlanRepository;
+    private final GymFacilityRepository gymFacilityRepository;
+    private final FacilityPlanRepository facilityPlanRepository;
+    private final OwnerEarningRollupRepository rollupRepository;
+    private final GymPlanService gymPlanService;
+    private final GymFacilityService gymFacilityService;
+    private final FacilityPlanService facilityPlanService;
+    private final CatalogCache catalogCache;
+
+    public OwnerPortfolioService(GymPlanRepository gymPlanRepository,
+                                 GymFacilityRepository gymFacilityRepository,
+                                 FacilityPlanRepository facilityPlanRepository,
+                                 OwnerEarningRollupRepository rollupRepository,
+                                 GymPlanService gymPlanService,
+                                 GymFacilityService gymFacilityService,
+                                 FacilityPlanService facilityPlanService,
+                                 CatalogCache catalogCache) {
+        this.gymPlanRepository = gymPlanRepository;
+        this.gymFacilityRepository = gymFacilityRepository;
+        this.facilityPlanRepository = facilityPlanRepository;
+        this.rollupRepository = rollupRepository;
+        this.gymPlanService = gymPlanService;
+        this.gymFacilityService = gymFacilityService;
+        this.facilityPlanService = facilityPlanService;
+        this.catalogCache = catalogCache;
+    }
+
+    public CursorPage<GymPlanResponse> getGymPlans(Long ownerId, String cursor, int size) {
+        List<GymPlan> rows = gymPlanRepository.findPageByOwnerId(
+                ownerId, PageCursor.decode(cursor).getId(), CursorPage.limit(size));
+        List<GymPlanResponse> plans = rows.stream().map(gymPlanService::mapToResponse).toList();
+        return CursorPage.of(plans, size, plan -> PageCursor.encode(plan.getId()));
+    }
+
+    public CursorPage<GymFacilityResponse> getFacilities(Long ownerId, String cursor, int size) {
+        List<GymFacility> rows = gymFacilityRepository.findPageByOwnerId(
+                ownerId, PageCursor.decode(cursor).getId(), CursorPage.limit(size));
+        List<GymFacilityResponse> facilities = rows.stream().map(gymFacilityService::mapToResponse).toList();
+        return CursorPage.of(facilities, size, facility -> PageCursor.encode(facility.getId()));
+    }
+
+    public CursorPage<FacilityPlanResponse> getFacilityPlans(Long ownerId, String cursor, int size) {
+        List<FacilityPlan> rows = facilityPlanRepository.findPageByOwnerId(
+                ownerId, PageCursor.decode(cursor).getId(), CursorPage.limit(size));
+        return CursorPage.of(facilityPlanService.mapToResponses(rows), size, plan -> PageCursor.encode(plan.getId()));
+    }
+
+    /**
+     * Earnings totals per gym from the daily rollups. Gyms without earnings are not listed.
+     */
+    public CursorPage<GymEarningsTotalResponse> getEarningsTotals(Long ownerId, String cursor, int size) {
+        List<GymEarningsTotalResponse> rows = rollupRepository.findGymTotalsPage(
+                ownerId, PageCursor.decode(cursor).getId(), CursorPage.limit(size));
+        Map<Long, Gym> gyms = catalogCache.getGyms(rows.stream().map(GymEarningsTotalResponse::getGymId).toList());
+        for (GymEarningsTotalResponse row : rows) {
+            Gym gym = gyms.get(row.getGymId());
+            row.setGymName(gym != null ? gym.getGymName() : "Unknown Gym");
+        }
+        return CursorPage.of(rows, size, row -> PageCursor.encode(row.getGymId()));
+    }
+}
@@ -1,15 +1,24 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.*;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class OwnerStatsService {
@@ -22,6 +31,18 @@ public class OwnerStatsService {
     private final GymFacilityRepository gymFacilityRepository;
     private final FacilityPlanRepository facilityPlanRepository;
     private final GymPlanRepository gymPlanRepository;
+    private final CatalogCache catalogCache;
+    private final UserVisitStatsRepository visitStatsRepository;
+    private final UserVisitStatsService visitStatsService;
+
+    private static final int MAX_GYM_USERS_PAGE_SIZE = 500;
+
+    // Sort keys exposed to clients mapped to expressions of the gym users query
+    private static final Map<String, String> GYM_USER_SORTS = Map.of(
+            "userName", "u.fullName",
+            "email", "u.email",
+            "totalVisits", "COALESCE(s.totalVisits, 0)"
+    );
 
     public OwnerStatsService(GymMembershipSessionRepository gymSessionRepository,
                            MembershipRepository membershipRepository,
@@ -30,7 +51,10 @@ public class OwnerStatsService {
                            UserRepository userRepository,
                            GymFacilityRepository gymFacilityRepository,
                            FacilityPlanRepository facilityPlanRepository,
-                           GymPlanRepository gymPlanRepository) {
+                           GymPlanRepository gymPlanRepository,
+                           CatalogCache catalogCache,
+                           UserVisitStatsRepository visitStatsRepository,
+                           UserVisitStatsService visitStatsService) {
         this.gymSessionRepository = gymSessionRepository;
         this.membershipRepository = membershipRepository;
         this.facilitySubscriptionRepository = facilitySubscriptionRepository;
@@ -39,9 +63,17 @@ public class OwnerStatsService {
         this.gymFacilityRepository = gymFacilityRepository;
         this.facilityPlanRepository = facilityPlanRepository;
         this.gymPlanRepository = gymPlanRepository;
+        this.catalogCache = catalogCache;
+        this.visitStatsRepository = visitStatsRepository;
+        this.visitStatsService = visitStatsService;
     }
 
-    public List<GymUserResponse> getGymUsers(Long ownerId, Long gymId) {
+    /**
+     * Without a size every user of the gym is returned in one list, as the owner dashboard
+     * expects; with a size the list is paged and capped at MAX_GYM_USERS_PAGE_SIZE.
+     */
+    public Page<GymUserResponse> getGymUsers(Long ownerId, Long gymId, int page, Integer size,
+                                             String sortBy, String direction) {
         // Verify gym belongs to owner
         Gym gym = gymRepository.findById(gymId)
                 .orElseThrow(() -> new RuntimeException("Gym not found"));
@@ -50,40 +82,25 @@ public class OwnerStatsService {
             throw new RuntimeException("Access denied: Not your gym");
         }
 
-        List<Long> userIds = gymSessionRepository.findDistinctUserIdsByGymId(gymId);
-        List<GymUserResponse> gymUsers = new ArrayList<>();
-
-        for (Long userId : userIds) {
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                GymUserResponse response = new GymUserResponse();
-                response.setUserId(userId);
-                response.setUserName(user.getFullName());
-                response.setEmail(user.getEmail());
-
-                // Check membership status
-                Optional<Membership> activeMembership = membershipRepository
-                    .findByUserIdAndGymIdAndStatus(userId, gymId, MembershipStatus.ACTIVE);
-                response.setMembershipStatus(activeMembership.isPresent() ? "ACTIVE" : "NONE");
-
-                // Check facility subscription status
-                Optional<UserFacilitySubscription> activeFacilitySubscription = facilitySubscriptionRepository
-                    .findByUserIdAndGymIdAndStatus(userId, gymId, FacilitySubscriptionStatus.ACTIVE);
-                response.setFacilitySubscriptionStatus(activeFacilitySubscription.isPresent() ? "ACTIVE" : "NONE");
-
-                // Get visit stats
-                int totalVisits = gymSessionRepository.countCompletedSessionsByUserAndGym(userId, gymId);
-                response.setTotalVisits(totalVisits);
-
-                Optional<LocalDate> lastVisitDate = gymSessionRepository.findLastVisitDateByUserId(userId);
-                response.setLastVisitDate(lastVisitDate.orElse(null));
+        String sortExpression = GYM_USER_SORTS.get(sortBy);
+        if (sortExpression == null) {
+            throw new RuntimeException("Unsupported sort field: " + sortBy);
+        }
 
-                gymUsers.add(response);
-            }
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Tie-break on user id so pages stay stable between requests
+        Sort sort = JpaSort.unsafe(sortDirection, sortExpression).and(JpaSort.unsafe(Sort.Direction.ASC, "u.id"));
+        if (size == null) {
+            List<GymUserResponse> gymUsers = visitStatsRepository.findGymUsers(gymId, LocalDate.now(), Pageable.unpaged(sort));
+            return new PageImpl<>(gymUsers);
         }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_GYM_USERS_PAGE_SIZE), sort);
+
+        // One query for the page plus one count over the gym's users
+        List<GymUserResponse> gymUsers = visitStatsRepository.findGymUsers(gymId, LocalDate.now(), pageable);
+        long total = visitStatsRepository.countGymUsers(gymId);
 
-        return gymUsers;
+        return new PageImpl<>(gymUsers, pageable, total);
     }
 
     public OwnerUserStatsResponse getUserStats(Long ownerId, Long gymId, Long userId) {
@@ -108,7 +125,7 @@ public class OwnerStatsService {
         List<OwnerUserStatsResponse.UserMembershipDto> membershipDtos = new ArrayList<>();
         for (Membership membership : memberships) {
             OwnerUserStatsResponse.UserMembershipDto dto = new OwnerUserStatsResponse.UserMembershipDto();
-            gymPlanRepository.findById(membership.getPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
+            catalogCache.findGymPlan(membership.getPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
             dto.setPurchaseDate(membership.getStartDate());
             dto.setExpiryDate(membership.getEndDate());
             dto.setStatus(membership.getStatus().toString());
@@ -121,8 +138,8 @@ public class OwnerStatsService {
         List<OwnerUserStatsResponse.UserFacilitySubscriptionDto> facilityDtos = new ArrayList<>();
         for (UserFacilitySubscription subscription : facilitySubscriptions) {
             OwnerUserStatsResponse.UserFacilitySubscriptionDto dto = new OwnerUserStatsResponse.UserFacilitySubscriptionDto();
-            gymFacilityRepository.findById(subscription.getFacilityId()).ifPresent(facility -> dto.setFacilityName(facility.getFacilityName()));
-            facilityPlanRepository.findById(subscription.getFacilityPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
+            catalogCache.findGymFacility(subscription.getFacilityId()).ifPresent(facility -> dto.setFacilityName(facility.getFacilityName()));
+            catalogCache.findFacilityPlan(subscription.getFacilityPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
             dto.setPurchaseDate(subscription.getStartDate());
             dto.setExpiryDate(subscription.getEndDate());
             dto.setStatus(subscription.getStatus().toString());
@@ -131,8 +148,8 @@ public class OwnerStatsService {
         response.setFacilitySubscriptions(facilityDtos);
 
         // Get visit stats
-        int totalVisits = gymSessionRepository.countCompletedSessionsByUserAndGym(userId, gymId);
-        response.setTotalVisitCount(totalVisits);
+        UserVisitStats visitStats = visitStatsService.getForGym(userId, gymId);
+        response.setTotalVisitCount((int) visitStats.getTotalVisits());
 
         // Get latest session info
         List<GymMembershipSession> latestSessions = gymSessionRepository.findLatestSessionsByUserAndGym(userId, gymId);
@@ -155,6 +172,8 @@ public class OwnerStatsService {
         }
 
         List<Membership> memberships = membershipRepository.findByGymIdAndPlanId(gymId, planId);
+        Map<Long, UserVisitStats> visitStats = visitStatsService.getForGym(gymId,
+                memberships.stream().map(Membership::getUserId).collect(Collectors.toSet()));
         List<PlanUserResponse> planUsers = new ArrayList<>();
 
         for (Membership membership : memberships) {
@@ -171,11 +190,9 @@ public class OwnerStatsService {
                 response.setPlanType("MEMBERSHIP");
 
                 // Get visit stats
-                int totalVisits = gymSessionRepository.countCompletedSessionsByUserAndGym(user.getId(), gymId);
-                response.setTotalVisits(totalVisits);
-
-                Optional<LocalDate> lastVisitDate = gymSessionRepository.findLastVisitDateByUserId(user.getId());
-                response.setLastVisitDate(lastVisitDate.orElse(null));
+                UserVisitStats userVisits = visitStats.get(user.getId());
+                response.setTotalVisits((int) userVisits.getTotalVisits());
+                response.setLastVisitDate(userVisits.getLastVisitDate());
 
                 // Get latest session info
                 List<GymMembershipSession> latestSessions = gymSessionRepository.findLatestSessionsByUserAndGym(user.getId(), gymId);
@@ -203,6 +220,8 @@ public class OwnerStatsService {
         }
 
         List<UserFacilitySubscription> subscriptions = facilitySubscriptionRepository.findByFacilityIdAndFacilityPlanId(facilityId, planId);
+        Map<Long, UserVisitStats> visitStats = visitStatsService.getForGym(facility.getGymId(),
+                subscriptions.stream().map(UserFacilitySubscription::getUserId).collect(Collectors.toSet()));
         List<PlanUserResponse> planUsers = new ArrayList<>();
 
         for (UserFacilitySubscription subscription : subscriptions) {
@@ -219,11 +238,9 @@ public class OwnerStatsService {
                 response.setPlanType("FACILITY");
 
                 // Get visit stats for the gym
-                int totalVisits = gymSessionRepository.countCompletedSessionsByUserAndGym(user.getId(), facility.getGymId());
-                response.setTotalVisits(totalVisits);
-
-                Optional<LocalDate> lastVisitDate = gymSessionRepository.findLastVisitDateByUserId(user.getId());
-                response.setLastVisitDate(lastVisitDate.orElse(null));
+                UserVisitStats userVisits = visitStats.get(user.getId());
+                response.setTotalVisits((int) userVisits.getTotalVisits());
+                response.setLastVisitDate(userVisits.getLastVisitDate());
 
                 // Get latest session info
                 List<GymMembershipSession> latestSessions = gymSessionRepository.findLatestSessionsByUserAndGym(user.getId(), facility.getGymId());
@@ -261,17 +278,15 @@ public class OwnerStatsService {
             throw new RuntimeException("Access denied: Not your gym");
         }
 
-        // Update expired memberships and subscriptions
-        updateExpiredPlans(gymId);
-        
+        LocalDate today = LocalDate.now();
         List<OwnerGymMemberResponse> allMembers = new ArrayList<>();
         
         // Get active gym members
-        List<OwnerGymMemberResponse> gymMembers = membershipRepository.findActiveGymMembers(gymId);
+        List<OwnerGymMemberResponse> gymMembers = membershipRepository.findActiveGymMembers(gymId, today);
         allMembers.addAll(gymMembers);
         
         // Get active facility subscribers (who might not have gym memberships)
-        List<OwnerGymMemberResponse> facilitySubscribers = facilitySubscriptionRepository.findActiveFacilitySubscribers(gymId);
+        List<OwnerGymMemberResponse> facilitySubscribers = facilitySubscriptionRepository.findActiveFacilitySubscribers(gymId, today);
         
         // Add facility subscribers who don't already have gym memberships
         for (OwnerGymMemberResponse facilitySubscriber : facilitySubscribers) {
@@ -307,6 +322,8 @@ public class OwnerStatsService {
         // Get expiring facility subscriptions
         List<UserFacilitySubscription> expiringSubscriptions = facilitySubscriptionRepository
                 .findByGymIdAndStatusAndEndDateBetween(gymId, FacilitySubscriptionStatus.ACTIVE, today, sevenDaysFromNow);
+        Map<Long, UserVisitStats> visitStats = visitStatsService.getForGym(gymId,
+                expiringSubscriptions.stream().map(UserFacilitySubscription::getUserId).collect(Collectors.toSet()));
         
         for (UserFacilitySubscription subscription : expiringSubscriptions) {
             Optional<User> userOpt = userRepository.findById(subscription.getUserId());
@@ -328,12 +345,11 @@ public class OwnerStatsService {
                     response.setPlanType("FACILITY");
                     
                     // Get plan name
-                    facilityPlanRepository.findById(subscription.getFacilityPlanId())
+                    catalogCache.findFacilityPlan(subscription.getFacilityPlanId())
                             .ifPresent(plan -> response.setPlanName(plan.getPlanName()));
                     
                     // Get last visit date
-                    Optional<LocalDate> lastVisitDate = gymSessionRepository.findLastVisitDateByUserId(user.getId());
-                    response.setLastVisitDate(lastVisitDate.orElse(null));
+                    response.setLastVisitDate(visitStats.get(user.getId()).getLastVisitDate());
                     
                     expiringMembers.add(response);
                 }
@@ -342,20 +358,4 @@ public class OwnerStatsService {
         
         return expiringMembers;
     }
-
-    private void updateExpiredPlans(Long gymId) {
-        LocalDate today = LocalDate.now();
-        
-        // Update expired memberships
-        List<Long> expiredMembershipIds = membershipRepository.findExpiredMembershipIdsByGym(gymId, today);
-        if (!expiredMembershipIds.isEmpty()) {
-            membershipRepository.updateMembershipsToExpired(expiredMembershipIds, MembershipStatus.EXPIRED);
-        }
-        
-        // Update expired facility subscriptions
-        List<Long> expiredSubscriptionIds = facilitySubscriptionRepository.findExpiredSubscriptionIdsByGym(gymId, today);
-        if (!expiredSubscriptionIds.isEmpty()) {
-            facilitySubscriptionRepository.updateSubscriptionsToExpired(expiredSubscriptionIds, FacilitySubscriptionStatus.EXPIRED);
-        }
-    }
-}
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
+import com.techtammina.fitSwitch.entity.MembershipStatus;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.repository.UserFacilitySubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Marks memberships and facility subscriptions past their end date as EXPIRED.
+ *
+ * Rows are walked by id in fixed-size batches and each batch is expired with one UPDATE in
+ * its own short transaction, so the job never holds locks on more than one batch. Request
+ * paths compare endDate themselves and do not rely on this job having run.
+ */
+@Service
+public class PlanExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanExpiryJob.class);
+
+    private final MembershipRepository membershipRepository;
+    private final UserFacilitySubscriptionRepository subscriptionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public PlanExpiryJob(MembershipRepository membershipRepository,
+                         UserFacilitySubscriptionRepository subscriptionRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.plan-expiry.batch-size:500}") int batchSize) {
+        this.membershipRepository = membershipRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.plan-expiry.interval-ms:600000}",
+               initialDelayString = "${app.plan-expiry.initial-delay-ms:60000}")
+    public void expirePlans() {
+        LocalDate today = LocalDate.now();
+        int memberships = expireMemberships(today);
+        int subscriptions = expireSubscriptions(today);
+        if (memberships > 0 || subscriptions > 0) {
+            log.info("Expired {} memberships and {} facility subscriptions", memberships, subscriptions);
+        }
+    }
+
+    private int expireMemberships(LocalDate today) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int expired = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = membershipRepository.findExpiredIdsAfter(today, afterId, batch);
+            if (ids.isEmpty()) {
+                return expired;
+            }
+            Integer updated = transactionTemplate.execute(status ->
+                    membershipRepository.expireDue(ids, today, MembershipStatus.EXPIRED));
+            expired += updated != null ? updated : 0;
+            if (ids.size() < batchSize) {
+                return expired;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private int expireSubscriptions(LocalDate today) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int expired = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = subscriptionRepository.findExpiredIdsAfter(today, afterId, batch);
+            if (ids.isEmpty()) {
+                return expired;
+            }
+            Integer updated = transactionTemplate.execute(status ->
+                    subscriptionRepository.expireDue(ids, today, FacilitySubscriptionStatus.EXPIRED));
+            expired += updated != null ? updated : 0;
+            if (ids.size() < batchSize) {
+                return expired;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+}
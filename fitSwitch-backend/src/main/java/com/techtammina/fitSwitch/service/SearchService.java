@@ -0,0 +1,103 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogSearchIndex;
+import com.techtammina.fitSwitch.dto.GymSearchPageResponse;
+import com.techtammina.fitSwitch.dto.GymSearchResultResponse;
+import com.techtammina.fitSwitch.dto.SearchSuggestionResponse;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.enums.PassType;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class SearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final CatalogSearchIndex searchIndex;
+
+    public SearchService(CatalogSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public GymSearchPageResponse searchGyms(String query, String city, String passType, String facility,
+                                            BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
+        if (page < 0) {
+            throw new RuntimeException("Page must not be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new RuntimeException("minPrice must not be greater than maxPrice");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        List<CatalogSearchIndex.Match> matches = searchIndex.search(query, city, parsePassType(passType), facility,
+                minPrice, maxPrice);
+        int from = (int) Math.min((long) page * pageSize, matches.size());
+        int to = Math.min(from + pageSize, matches.size());
+        List<GymSearchResultResponse> items = matches.subList(from, to).stream()
+                .map(this::mapToResponse)
+                .toList();
+        return new GymSearchPageResponse(items, matches.size(), page, pageSize, facets(matches));
+    }
+
+    public List<SearchSuggestionResponse> suggest(String query, int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return searchIndex.suggest(query, cappedLimit).stream()
+                .map(s -> new SearchSuggestionResponse(s.getText(), s.getType(), s.getGymId()))
+                .toList();
+    }
+
+    private PassType parsePassType(String passType) {
+        if (passType == null || passType.isBlank()) {
+            return null;
+        }
+        try {
+            return PassType.valueOf(passType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid pass type: " + passType);
+        }
+    }
+
+    private Map<String, Map<String, Integer>> facets(List<CatalogSearchIndex.Match> matches) {
+        Map<String, Integer> cities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Integer> passTypes = new TreeMap<>();
+        Map<String, Integer> facilities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (CatalogSearchIndex.Match match : matches) {
+            CatalogSearchIndex.IndexedGym gym = match.getGym();
+            if (gym.getGym().getCity() != null) {
+                cities.merge(gym.getGym().getCity().trim(), 1, Integer::sum);
+            }
+            gym.getPassTypes().forEach(type -> passTypes.merge(type.name(), 1, Integer::sum));
+            gym.getFacilityNames().forEach(name -> facilities.merge(name, 1, Integer::sum));
+        }
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("city", cities);
+        facets.put("passType", passTypes);
+        facets.put("facility", facilities);
+        return facets;
+    }
+
+    private GymSearchResultResponse mapToResponse(CatalogSearchIndex.Match match) {
+        CatalogSearchIndex.IndexedGym indexed = match.getGym();
+        Gym gym = indexed.getGym();
+        GymSearchResultResponse response = new GymSearchResultResponse();
+        response.setGymId(gym.getId());
+        response.setGymName(gym.getGymName());
+        response.setCity(gym.getCity());
+        response.setState(gym.getState());
+        response.setPincode(gym.getPincode());
+        response.setOpenTime(gym.getOpenTime());
+        response.setCloseTime(gym.getCloseTime());
+        response.setMinPrice(indexed.getMinPrice());
+        response.setPassTypes(indexed.getPassTypes().stream().map(Enum::name).sorted().toList());
+        response.setFacilities(indexed.getFacilityNames());
+        response.setScore(Math.round(match.getScore() * 100) / 100.0);
+        return response;
+    }
+}
@@ -0,0 +1,356 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.cache.CatalogCache;
+import com.techtammina.fitSwitch.dto.TurnstileBatchRequest;
+import com.techtammina.fitSwitch.dto.TurnstileBatchResponse;
+import com.techtammina.fitSwitch.dto.TurnstileEventRequest;
+import com.techtammina.fitSwitch.dto.TurnstileEventResult;
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.event.SessionEvent;
+import com.techtammina.fitSwitch.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies batches of door scans as membership and facility session check-ins and
+ * check-outs.
+ *
+ * A batch is one transaction. Event ids are claimed first, so a replayed event (a device
+ * resending after a timeout, or two batches racing) is reported as a duplicate with its
+ * first outcome instead of being applied twice. The claimed scans are then replayed in scan
+ * order against a CheckInEligibilityResolver batch, which loads entitlements and open
+ * sessions with one query per table and applies the same rules as the app check-in, and the
+ * resulting sessions are written with JDBC batches. Each scan gets its own result; a
+ * rejected scan does not fail the batch.
+ */
+@Service
+public class TurnstileService {
+
+    private static final Logger log = LoggerFactory.getLogger(TurnstileService.class);
+    private static final long MAX_CLOCK_SKEW_MINUTES = 5;
+
+    private final TurnstileEventRepository eventRepository;
+    private final TurnstileJdbcRepository jdbcRepository;
+    private final CheckInEligibilityResolver eligibilityResolver;
+    private final CatalogCache catalogCache;
+    private final UserVisitStatsService visitStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxBatchSize;
+    private final int retentionDays;
+
+    public TurnstileService(TurnstileEventRepository eventRepository,
+                            TurnstileJdbcRepository jdbcRepository,
+                            CheckInEligibilityResolver eligibilityResolver,
+                            CatalogCache catalogCache,
+                            UserVisitStatsService visitStatsService,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.turnstile.max-batch-size:1000}") int maxBatchSize,
+                            @Value("${app.turnstile.retention-days:7}") int retentionDays) {
+        this.eventRepository = eventRepository;
+        this.jdbcRepository = jdbcRepository;
+        this.eligibilityResolver = eligibilityResolver;
+        this.catalogCache = catalogCache;
+        this.visitStatsService = visitStatsService;
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = maxBatchSize;
+        this.retentionDays = retentionDays;
+    }
+
+    @Transactional
+    public TurnstileBatchResponse ingest(Long ownerId, Long gymId, TurnstileBatchRequest request) {
+        verifyGymOwner(ownerId, gymId);
+        List<TurnstileEventRequest> events = request.getEvents();
+        if (events.size() > maxBatchSize) {
+            throw new RuntimeException("A batch can hold at most " + maxBatchSize + " events");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Scan> firstByEventId = new LinkedHashMap<>();
+        for (TurnstileEventRequest event : events) {
+            firstByEventId.computeIfAbsent(event.getEventId(), id -> new Scan(gymId, event, now));
+        }
+        jdbcRepository.claimEvents(gymId, firstByEventId.values().stream().map(scan -> scan.record).toList());
+
+        // Rows still PENDING are the ones inserted above; the rest were recorded by earlier batches.
+        // A plain read could miss a claim committed after this transaction's first SELECT (say,
+        // a catalog cache miss in verifyGymOwner) and leave the event unanswered.
+        Map<String, TurnstileEvent> stored = eventRepository.findClaimsForShare(gymId, firstByEventId.keySet())
+                .stream()
+                .collect(Collectors.toMap(TurnstileEvent::getEventId, Function.identity()));
+        List<Scan> claimed = new ArrayList<>();
+        for (Scan scan : firstByEventId.values()) {
+            TurnstileEvent existing = stored.get(scan.record.getEventId());
+            if (existing != null && existing.getOutcome() == TurnstileEvent.Outcome.PENDING) {
+                claimed.add(scan);
+            } else if (existing != null) {
+                scan.duplicateOf = existing;
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            apply(gymId, claimed, now);
+        }
+        return toResponse(events, firstByEventId);
+    }
+
+    @Scheduled(cron = "0 30 * * * ?") // Hourly
+    public void purgeOldEvents() {
+        int deleted = eventRepository.deleteReceivedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} turnstile events", deleted);
+        }
+    }
+
+    private void apply(Long gymId, List<Scan> scans, LocalDateTime now) {
+        scans.sort(Comparator.comparing(scan -> scan.request.getScannedAt()));
+        CheckInEligibilityResolver.Batch batch = load(scans);
+        List<GymMembershipSession> newMembershipSessions = new ArrayList<>();
+        List<FacilitySession> newFacilitySessions = new ArrayList<>();
+
+        for (Scan scan : scans) {
+            String rejection = validate(scan, now);
+            if (rejection == null) {
+                rejection = scan.request.getMembershipId() != null
+                        ? applyMembershipScan(gymId, scan, batch, newMembershipSessions)
+                        : applyFacilityScan(gymId, scan, batch, newFacilitySessions);
+            }
+            if (rejection != null) {
+                scan.record.setOutcome(TurnstileEvent.Outcome.REJECTED);
+                scan.record.setMessage(rejection);
+            } else {
+                scan.record.setOutcome(TurnstileEvent.Outcome.APPLIED);
+            }
+        }
+
+        // New sessions go in as one batch per table; check-outs of existing sessions are flushed by Hibernate
+        jdbcRepository.insertMembershipSessions(newMembershipSessions);
+        jdbcRepository.insertFacilitySessions(newFacilitySessions);
+        for (Scan scan : scans) {
+            if (scan.membershipSession != null) {
+                scan.record.setSessionId(scan.membershipSession.getId());
+            } else if (scan.facilitySession != null) {
+                scan.record.setSessionId(scan.facilitySession.getId());
+            }
+        }
+        jdbcRepository.recordOutcomes(gymId, scans.stream().map(scan -> scan.record).toList());
+
+        for (Scan scan : scans) {
+            if (scan.record.getOutcome() == TurnstileEvent.Outcome.APPLIED) {
+                publish(scan);
+                if (scan.record.getAction() == TurnstileEvent.Action.CHECKED_OUT) {
+                    LocalDate visitDate = scan.membershipSession != null
+                            ? scan.membershipSession.getVisitDate() : scan.facilitySession.getVisitDate();
+                    Long userId = scan.membershipSession != null
+                            ? scan.membershipSession.getUserId() : scan.facilitySession.getUserId();
+                    visitStatsService.recordVisit(userId, gymId, visitDate);
+                }
+            }
+        }
+    }
+
+    private CheckInEligibilityResolver.Batch load(List<Scan> scans) {
+        Set<Long> membershipIds = new HashSet<>();
+        Set<Long> subscriptionIds = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (Scan scan : scans) {
+            if (scan.request.getMembershipId() != null) {
+                membershipIds.add(scan.request.getMembershipId());
+            }
+            if (scan.request.getFacilitySubscriptionId() != null) {
+                subscriptionIds.add(scan.request.getFacilitySubscriptionId());
+            }
+            LocalDate day = scan.request.getScannedAt().toLocalDate();
+            from = day.isBefore(from) ? day : from;
+            to = day.isAfter(to) ? day : to;
+        }
+        return eligibilityResolver.batch(membershipIds, subscriptionIds, from, to);
+    }
+
+    private String validate(Scan scan, LocalDateTime now) {
+        TurnstileEventRequest request = scan.request;
+        if ((request.getMembershipId() == null) == (request.getFacilitySubscriptionId() == null)) {
+            return "Exactly one of membershipId and facilitySubscriptionId is required";
+        }
+        if (request.getScannedAt().isAfter(now.plusMinutes(MAX_CLOCK_SKEW_MINUTES))) {
+            return "Scan time is in the future";
+        }
+        if (!"IN".equalsIgnoreCase(request.getDirection()) && !"OUT".equalsIgnoreCase(request.getDirection())) {
+            return "Direction must be IN or OUT";
+        }
+        return null;
+    }
+
+    private String applyMembershipScan(Long gymId, Scan scan, CheckInEligibilityResolver.Batch batch,
+                                       List<GymMembershipSession> newSessions) {
+        Long membershipId = scan.request.getMembershipId();
+        LocalDateTime scannedAt = scan.request.getScannedAt();
+        LocalDate day = scannedAt.toLocalDate();
+
+        if ("OUT".equalsIgnoreCase(scan.request.getDirection())) {
+            GymMembershipSession open = batch.openMembershipSession(membershipId);
+            if (open == null || !open.getGymId().equals(gymId)) {
+                return "No active session found for this membership";
+            }
+            if (scannedAt.isBefore(open.getCheckInTime())) {
+                return "Exit scan is earlier than the check-in";
+            }
+            open.setCheckOutTime(scannedAt);
+            open.setStatus(GymMembershipSession.SessionStatus.COMPLETED);
+            batch.checkedOut(open);
+            scan.membershipSession = open;
+            scan.record.setAction(TurnstileEvent.Action.CHECKED_OUT);
+            return null;
+        }
+
+        CheckInEligibilityResolver.Eligibility eligibility = batch.forMembership(membershipId, day);
+        if (eligibility == null || !eligibility.getGymId().equals(gymId)) {
+            return "Membership is not valid at this gym";
+        }
+        String refusal = eligibility.checkInRefusal();
+        if (refusal != null) {
+            return refusal;
+        }
+
+        GymMembershipSession session = new GymMembershipSession();
+        session.setUserId(eligibility.getUserId());
+        session.setGymId(gymId);
+        session.setMembershipId(membershipId);
+        session.setCheckInTime(scannedAt);
+        session.setVisitDate(day);
+        session.setStatus(GymMembershipSession.SessionStatus.ACTIVE);
+        newSessions.add(session);
+        batch.checkedIn(session);
+        scan.membershipSession = session;
+        scan.record.setAction(TurnstileEvent.Action.CHECKED_IN);
+        return null;
+    }
+
+    private String applyFacilityScan(Long gymId, Scan scan, CheckInEligibilityResolver.Batch batch,
+                                     List<FacilitySession> newSessions) {
+        Long subscriptionId = scan.request.getFacilitySubscriptionId();
+        LocalDateTime scannedAt = scan.request.getScannedAt();
+        LocalDate day = scannedAt.toLocalDate();
+
+        if ("OUT".equalsIgnoreCase(scan.request.getDirection())) {
+            FacilitySession open = batch.openFacilitySession(subscriptionId);
+            if (open == null || !open.getGymId().equals(gymId)) {
+                return "No active session found for this facility subscription";
+            }
+            if (scannedAt.isBefore(open.getCheckInTime())) {
+                return "Exit scan is earlier than the check-in";
+            }
+            open.setCheckOutTime(scannedAt);
+            open.setStatus(FacilitySession.SessionStatus.COMPLETED);
+            batch.checkedOut(open);
+            scan.facilitySession = open;
+            scan.record.setAction(TurnstileEvent.Action.CHECKED_OUT);
+            return null;
+        }
+
+        CheckInEligibilityResolver.Eligibility eligibility = batch.forFacilitySubscription(subscriptionId, day);
+        if (eligibility == null || !eligibility.getGymId().equals(gymId)) {
+            return "Facility subscription is not valid at this gym";
+        }
+        String refusal = eligibility.checkInRefusal();
+        if (refusal != null) {
+            return refusal;
+        }
+
+        FacilitySession session = new FacilitySession();
+        session.setUserId(eligibility.getUserId());
+        session.setGymId(gymId);
+        session.setFacilityId(eligibility.getFacilityId());
+        session.setFacilityPlanId(eligibility.getFacilityPlanId());
+        session.setFacilitySubscriptionId(subscriptionId);
+        session.setCheckInTime(scannedAt);
+        session.setVisitDate(day);
+        session.setStatus(FacilitySession.SessionStatus.ACTIVE);
+        newSessions.add(session);
+        batch.checkedIn(session);
+        scan.facilitySession = session;
+        scan.record.setAction(TurnstileEvent.Action.CHECKED_IN);
+        return null;
+    }
+
+    private void publish(Scan scan) {
+        SessionEvent.Kind kind = scan.record.getAction() == TurnstileEvent.Action.CHECKED_IN
+                ? SessionEvent.Kind.CHECKED_IN : SessionEvent.Kind.CHECKED_OUT;
+        if (scan.membershipSession != null) {
+            GymMembershipSession session = scan.membershipSession;
+            eventPublisher.publishEvent(new SessionEvent(kind, SessionEvent.MEMBERSHIP, session.getId(),
+                    session.getUserId(), session.getGymId(), null, session.getCheckInTime(), session.getVisitDate()));
+        } else {
+            FacilitySession session = scan.facilitySession;
+            eventPublisher.publishEvent(new SessionEvent(kind, SessionEvent.FACILITY, session.getId(),
+                    session.getUserId(), session.getGymId(), session.getFacilityId(),
+                    session.getCheckInTime(), session.getVisitDate()));
+        }
+    }
+
+    private TurnstileBatchResponse toResponse(List<TurnstileEventRequest> events, Map<String, Scan> firstByEventId) {
+        List<TurnstileEventResult> results = new ArrayList<>(events.size());
+        Set<String> answered = new HashSet<>();
+        int applied = 0;
+        int rejected = 0;
+        int duplicates = 0;
+        for (TurnstileEventRequest event : events) {
+            Scan scan = firstByEventId.get(event.getEventId());
+            boolean repeated = !answered.add(event.getEventId());
+            TurnstileEvent record = scan.duplicateOf != null ? scan.duplicateOf : scan.record;
+            String action = record.getAction() != null ? record.getAction().name() : null;
+            if (repeated || scan.duplicateOf != null) {
+                duplicates++;
+                results.add(new TurnstileEventResult(event.getEventId(), "DUPLICATE", action,
+                        record.getSessionId(), record.getMessage()));
+            } else {
+                if (record.getOutcome() == TurnstileEvent.Outcome.APPLIED) {
+                    applied++;
+                } else {
+                    rejected++;
+                }
+                results.add(new TurnstileEventResult(event.getEventId(), record.getOutcome().name(), action,
+                        record.getSessionId(), record.getMessage()));
+            }
+        }
+        return new TurnstileBatchResponse(applied, rejected, duplicates, results);
+    }
+
+    private void verifyGymOwner(Long ownerId, Long gymId) {
+        Gym gym = catalogCache.findGym(gymId)
+                .orElseThrow(() -> new RuntimeException("Gym not found"));
+
+        if (!gym.getOwnerId().equals(ownerId)) {
+            throw new RuntimeException("Access denied: Not your gym");
+        }
+    }
+
+    private static final class Scan {
+        private final TurnstileEventRequest request;
+        private final TurnstileEvent record;
+        private TurnstileEvent duplicateOf;
+        private GymMembershipSession membershipSession;
+        private FacilitySession facilitySession;
+
+        Scan(Long gymId, TurnstileEventRequest request, LocalDateTime receivedAt) {
+            this.request = request;
+            this.record = new TurnstileEvent();
+            record.setGymId(gymId);
+            record.setEventId(request.getEventId());
+            record.setScannedAt(request.getScannedAt());
+            record.setOutcome(TurnstileEvent.Outcome.PENDING);
+            record.setReceivedAt(receivedAt);
+        }
+    }
+}
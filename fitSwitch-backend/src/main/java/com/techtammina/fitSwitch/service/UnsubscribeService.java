@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.*;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
@@ -8,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -21,10 +23,10 @@ public class UnsubscribeService {
     private final GymRepository gymRepository;
     private final GymPlanRepository gymPlanRepository;
     private final UserRepository userRepository;
-    private final UserWalletRepository walletRepository;
-    private final WalletTransactionRepository transactionRepository;
-    private final OwnerEarningRepository ownerEarningRepository;
+    private final WalletLedger walletLedger;
+    private final OwnerEarningRecorder ownerEarningRecorder;
     private final EmailService emailService;
+    private final CatalogCache catalogCache;
 
     private static final BigDecimal USER_REFUND_RATE = new BigDecimal("0.40");
     private static final BigDecimal OWNER_SHARE_RATE = new BigDecimal("0.60");
@@ -34,19 +36,19 @@ public class UnsubscribeService {
                             GymRepository gymRepository,
                             GymPlanRepository gymPlanRepository,
                             UserRepository userRepository,
-                            UserWalletRepository walletRepository,
-                            WalletTransactionRepository transactionRepository,
-                            OwnerEarningRepository ownerEarningRepository,
-                            EmailService emailService) {
+                            WalletLedger walletLedger,
+                            OwnerEarningRecorder ownerEarningRecorder,
+                            EmailService emailService,
+                            CatalogCache catalogCache) {
         this.unsubscribeRequestRepository = unsubscribeRequestRepository;
         this.membershipRepository = membershipRepository;
         this.gymRepository = gymRepository;
         this.gymPlanRepository = gymPlanRepository;
         this.userRepository = userRepository;
-        this.walletRepository = walletRepository;
-        this.transactionRepository = transactionRepository;
-        this.ownerEarningRepository = ownerEarningRepository;
+        this.walletLedger = walletLedger;
+        this.ownerEarningRecorder = ownerEarningRecorder;
         this.emailService = emailService;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -61,7 +63,7 @@ public class UnsubscribeService {
         }
 
         // Check if membership is active
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
+        if (membership.statusOn(LocalDate.now()) != MembershipStatus.ACTIVE) {
             throw new RuntimeException("Only active memberships can be unsubscribed");
         }
 
@@ -110,7 +112,7 @@ public class UnsubscribeService {
             throw new RuntimeException("Unauthorized access to membership");
         }
 
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
+        if (membership.statusOn(LocalDate.now()) != MembershipStatus.ACTIVE) {
             throw new RuntimeException("Only active memberships can be calculated for refund");
         }
 
@@ -194,17 +196,17 @@ public class UnsubscribeService {
             throw new RuntimeException("No refund applicable");
         }
 
-        UserWallet ownerWallet = walletRepository.findByUserId(request.getOwnerId())
-                .orElseGet(() -> createWallet(request.getOwnerId()));
+        WalletLedger.Batch ledger = walletLedger.batch();
 
-        if (ownerWallet.getBalance().compareTo(request.getRefundAmount()) < 0) {
-            processDelayedRefund(request, ownerWallet);
+        if (!processImmediateRefund(request, ledger)) {
+            processDelayedRefund(request, ledger);
+            ledger.flush();
             request.setStatus(UnsubscribeRequest.RequestStatus.REFUNDED);
             unsubscribeRequestRepository.save(request);
             return new ApiResponse(true, "Refund initiated. Owner wallet balance insufficient; user credited and owner will settle within 2-4 business days.");
         }
 
-        processImmediateRefund(request, ownerWallet);
+        ledger.flush();
         request.setStatus(UnsubscribeRequest.RequestStatus.REFUNDED);
         unsubscribeRequestRepository.save(request);
         return new ApiResponse(true, "Refund processed successfully.");
@@ -297,34 +299,31 @@ public class UnsubscribeService {
             return "No refund applicable.";
         }
 
-        UserWallet ownerWallet = walletRepository.findByUserId(request.getOwnerId())
-                .orElseGet(() -> createWallet(request.getOwnerId()));
-
-        if (ownerWallet.getBalance().compareTo(request.getRefundAmount()) < 0) {
+        WalletLedger.Batch ledger = walletLedger.batch();
+        if (!processImmediateRefund(request, ledger)) {
             throw new RuntimeException("Insufficient wallet balance. Please add funds to process refund.");
         }
-
-        processImmediateRefund(request, ownerWallet);
+        ledger.flush();
         return "Refund processed successfully.";
     }
 
-    private void processImmediateRefund(UnsubscribeRequest request, UserWallet ownerWallet) {
-        // Debit owner wallet
-        ownerWallet.setBalance(ownerWallet.getBalance().subtract(request.getRefundAmount()));
-        walletRepository.save(ownerWallet);
+    /**
+     * Debits the owner and credits the user in full. Returns false, leaving both wallets
+     * untouched, when the owner's balance does not cover the refund.
+     */
+    private boolean processImmediateRefund(UnsubscribeRequest request, WalletLedger.Batch ledger) {
+        // Earnings still waiting to be folded count towards the owner's balance, all of them
+        ledger.foldAllPendingCredits(request.getOwnerId());
 
-        // Create owner debit transaction
+        // Debit owner wallet only if the balance covers the refund
         WalletTransaction ownerTransaction = new WalletTransaction();
-        ownerTransaction.setUserId(request.getOwnerId());
-        ownerTransaction.setWalletId(ownerWallet.getId());
         ownerTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_REFUND);
-        ownerTransaction.setAmount(request.getRefundAmount().negate());
-        ownerTransaction.setBalanceAfter(ownerWallet.getBalance());
         ownerTransaction.setDescription("Membership refund debit");
         ownerTransaction.setMembershipId(request.getMembershipId());
         ownerTransaction.setGymId(request.getGymId());
-        ownerTransaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(ownerTransaction);
+        if (ledger.tryDebit(request.getOwnerId(), request.getRefundAmount(), ownerTransaction) == null) {
+            return false;
+        }
 
         // Record owner earning refund (negative)
         OwnerEarning refundEarning = new OwnerEarning();
@@ -336,50 +335,29 @@ public class UnsubscribeService {
         refundEarning.setDescription("Membership refund debit");
         refundEarning.setMembershipId(request.getMembershipId());
         refundEarning.setCreatedAt(LocalDateTime.now());
-        ownerEarningRepository.save(refundEarning);
-
-        // Get or create user wallet
-        UserWallet userWallet = walletRepository.findByUserId(request.getUserId())
-                .orElseGet(() -> createWallet(request.getUserId()));
+        ownerEarningRecorder.record(refundEarning);
 
         // Credit user wallet
-        userWallet.setBalance(userWallet.getBalance().add(request.getRefundAmount()));
-        walletRepository.save(userWallet);
-
-        // Create user credit transaction
         WalletTransaction userTransaction = new WalletTransaction();
-        userTransaction.setUserId(request.getUserId());
-        userTransaction.setWalletId(userWallet.getId());
         userTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_REFUND);
-        userTransaction.setAmount(request.getRefundAmount());
-        userTransaction.setBalanceAfter(userWallet.getBalance());
         userTransaction.setDescription("Membership unsubscribe refund");
         userTransaction.setMembershipId(request.getMembershipId());
         userTransaction.setGymId(request.getGymId());
-        userTransaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(userTransaction);
+        ledger.credit(request.getUserId(), request.getRefundAmount(), userTransaction);
 
         // Send email notification to user
         sendRefundNotificationToUser(request, true);
+        return true;
     }
 
-    private void processDelayedRefund(UnsubscribeRequest request, UserWallet ownerWallet) {
+    private void processDelayedRefund(UnsubscribeRequest request, WalletLedger.Batch ledger) {
         // Update owner wallet to negative balance
-        ownerWallet.setBalance(ownerWallet.getBalance().subtract(request.getRefundAmount()));
-        walletRepository.save(ownerWallet);
-
-        // Create owner debit transaction
         WalletTransaction ownerTransaction = new WalletTransaction();
-        ownerTransaction.setUserId(request.getOwnerId());
-        ownerTransaction.setWalletId(ownerWallet.getId());
         ownerTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_REFUND);
-        ownerTransaction.setAmount(request.getRefundAmount().negate());
-        ownerTransaction.setBalanceAfter(ownerWallet.getBalance());
         ownerTransaction.setDescription("Membership refund debit - insufficient balance");
         ownerTransaction.setMembershipId(request.getMembershipId());
         ownerTransaction.setGymId(request.getGymId());
-        ownerTransaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(ownerTransaction);
+        ledger.forceDebit(request.getOwnerId(), request.getRefundAmount(), ownerTransaction);
 
         // Record owner earning refund (negative)
         OwnerEarning refundEarning = new OwnerEarning();
@@ -391,28 +369,15 @@ public class UnsubscribeService {
         refundEarning.setDescription("Membership refund debit - insufficient balance");
         refundEarning.setMembershipId(request.getMembershipId());
         refundEarning.setCreatedAt(LocalDateTime.now());
-        ownerEarningRepository.save(refundEarning);
-
-        // Get or create user wallet and credit immediately
-        UserWallet userWallet = walletRepository.findByUserId(request.getUserId())
-                .orElseGet(() -> createWallet(request.getUserId()));
+        ownerEarningRecorder.record(refundEarning);
 
         // Credit user wallet immediately
-        userWallet.setBalance(userWallet.getBalance().add(request.getRefundAmount()));
-        walletRepository.save(userWallet);
-
-        // Create user credit transaction
         WalletTransaction userTransaction = new WalletTransaction();
-        userTransaction.setUserId(request.getUserId());
-        userTransaction.setWalletId(userWallet.getId());
         userTransaction.setType(WalletTransaction.TransactionType.MEMBERSHIP_REFUND);
-        userTransaction.setAmount(request.getRefundAmount());
-        userTransaction.setBalanceAfter(userWallet.getBalance());
         userTransaction.setDescription("Membership refund - owner will settle within 2-4 days");
         userTransaction.setMembershipId(request.getMembershipId());
         userTransaction.setGymId(request.getGymId());
-        userTransaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(userTransaction);
+        ledger.credit(request.getUserId(), request.getRefundAmount(), userTransaction);
         
         // Send notifications
         sendRefundNotificationToUser(request, false);
@@ -422,7 +387,7 @@ public class UnsubscribeService {
     private void sendRefundNotificationToUser(UnsubscribeRequest request, boolean isImmediate) {
         try {
             userRepository.findById(request.getUserId()).ifPresent(user -> {
-                gymRepository.findById(request.getGymId()).ifPresent(gym -> {
+                catalogCache.findGym(request.getGymId()).ifPresent(gym -> {
                     emailService.sendRefundNotification(
                         user.getEmail(),
                         gym.getGymName(),
@@ -440,7 +405,7 @@ public class UnsubscribeService {
     private void sendBalanceNotificationToOwner(UnsubscribeRequest request) {
         try {
             userRepository.findById(request.getOwnerId()).ifPresent(owner -> {
-                gymRepository.findById(request.getGymId()).ifPresent(gym -> {
+                catalogCache.findGym(request.getGymId()).ifPresent(gym -> {
                     emailService.sendOwnerBalanceNotification(
                         owner.getEmail(),
                         gym.getGymName(),
@@ -454,11 +419,6 @@ public class UnsubscribeService {
         }
     }
 
-    private UserWallet createWallet(Long userId) {
-        UserWallet wallet = new UserWallet(userId, BigDecimal.ZERO);
-        return walletRepository.save(wallet);
-    }
-
     private UnsubscribeRequestResponse mapToResponse(UnsubscribeRequest request) {
         UnsubscribeRequestResponse response = new UnsubscribeRequestResponse();
         response.setId(request.getId());
@@ -492,13 +452,13 @@ public class UnsubscribeService {
         });
 
         // Add gym details
-        gymRepository.findById(request.getGymId()).ifPresent(gym -> {
+        catalogCache.findGym(request.getGymId()).ifPresent(gym -> {
             response.setGymName(gym.getGymName());
         });
 
         // Add plan details
         membershipRepository.findById(request.getMembershipId()).ifPresent(membership -> {
-            gymPlanRepository.findById(membership.getPlanId()).ifPresent(plan -> {
+            catalogCache.findGymPlan(membership.getPlanId()).ifPresent(plan -> {
                 response.setPlanName(plan.getPlanName());
             });
         });
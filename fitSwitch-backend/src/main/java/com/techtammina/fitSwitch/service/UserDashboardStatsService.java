@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.UserDashboardStatsResponse;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
@@ -9,48 +10,38 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class UserDashboardStatsService {
 
-    private final GymMembershipSessionRepository gymSessionRepository;
+    private final UserVisitStatsService visitStatsService;
     private final MembershipRepository membershipRepository;
     private final UserFacilitySubscriptionRepository facilitySubscriptionRepository;
-    private final GymRepository gymRepository;
-    private final GymFacilityRepository gymFacilityRepository;
-    private final FacilityPlanRepository facilityPlanRepository;
-    private final GymPlanRepository gymPlanRepository;
+    private final CatalogCache catalogCache;
     private final UserWalletRepository walletRepository;
 
-    public UserDashboardStatsService(GymMembershipSessionRepository gymSessionRepository,
+    public UserDashboardStatsService(UserVisitStatsService visitStatsService,
                                    MembershipRepository membershipRepository,
                                    UserFacilitySubscriptionRepository facilitySubscriptionRepository,
-                                   GymRepository gymRepository,
-                                   GymFacilityRepository gymFacilityRepository,
-                                   FacilityPlanRepository facilityPlanRepository,
-                                   GymPlanRepository gymPlanRepository,
+                                   CatalogCache catalogCache,
                                    UserWalletRepository walletRepository) {
-        this.gymSessionRepository = gymSessionRepository;
+        this.visitStatsService = visitStatsService;
         this.membershipRepository = membershipRepository;
         this.facilitySubscriptionRepository = facilitySubscriptionRepository;
-        this.gymRepository = gymRepository;
-        this.gymFacilityRepository = gymFacilityRepository;
-        this.facilityPlanRepository = facilityPlanRepository;
-        this.gymPlanRepository = gymPlanRepository;
+        this.catalogCache = catalogCache;
         this.walletRepository = walletRepository;
     }
 
     public UserDashboardStatsResponse getUserDashboardStats(Long userId) {
         UserDashboardStatsResponse response = new UserDashboardStatsResponse();
 
-        // Total visit days
-        int totalVisitDays = gymSessionRepository.countCompletedVisitDaysByUserId(userId);
-        response.setTotalVisitDays(totalVisitDays);
+        LocalDate today = LocalDate.now();
 
-        // Last visit date
-        Optional<LocalDate> lastVisitDate = gymSessionRepository.findLastVisitDateByUserId(userId);
-        response.setLastVisitDate(lastVisitDate.orElse(null));
+        // Visit days, last visit and streak across all gyms
+        UserVisitStats visitStats = visitStatsService.getOverall(userId);
+        response.setTotalVisitDays((int) visitStats.getVisitDays());
+        response.setLastVisitDate(visitStats.getLastVisitDate());
+        response.setCurrentStreak(visitStats.streakOn(today));
 
         // Wallet balance
         BigDecimal walletBalance = walletRepository.findByUserId(userId)
@@ -62,9 +53,12 @@ public class UserDashboardStatsService {
         List<Membership> activeMemberships = membershipRepository.findByUserIdAndStatus(userId, MembershipStatus.ACTIVE);
         List<UserDashboardStatsResponse.ActiveMembershipDto> activeMembershipDtos = new ArrayList<>();
         for (Membership membership : activeMemberships) {
+            if (membership.statusOn(today) != MembershipStatus.ACTIVE) {
+                continue;
+            }
             UserDashboardStatsResponse.ActiveMembershipDto dto = new UserDashboardStatsResponse.ActiveMembershipDto();
-            gymRepository.findById(membership.getGymId()).ifPresent(gym -> dto.setGymName(gym.getGymName()));
-            gymPlanRepository.findById(membership.getPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
+            catalogCache.findGym(membership.getGymId()).ifPresent(gym -> dto.setGymName(gym.getGymName()));
+            catalogCache.findGymPlan(membership.getPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
             dto.setEndDate(membership.getEndDate());
             activeMembershipDtos.add(dto);
         }
@@ -75,10 +69,13 @@ public class UserDashboardStatsService {
             .findByUserIdAndStatus(userId, FacilitySubscriptionStatus.ACTIVE);
         List<UserDashboardStatsResponse.ActiveFacilitySubscriptionDto> activeFacilityDtos = new ArrayList<>();
         for (UserFacilitySubscription subscription : activeFacilitySubscriptions) {
+            if (subscription.statusOn(today) != FacilitySubscriptionStatus.ACTIVE) {
+                continue;
+            }
             UserDashboardStatsResponse.ActiveFacilitySubscriptionDto dto = new UserDashboardStatsResponse.ActiveFacilitySubscriptionDto();
-            gymRepository.findById(subscription.getGymId()).ifPresent(gym -> dto.setGymName(gym.getGymName()));
-            gymFacilityRepository.findById(subscription.getFacilityId()).ifPresent(facility -> dto.setFacilityName(facility.getFacilityName()));
-            facilityPlanRepository.findById(subscription.getFacilityPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
+            catalogCache.findGym(subscription.getGymId()).ifPresent(gym -> dto.setGymName(gym.getGymName()));
+            catalogCache.findGymFacility(subscription.getFacilityId()).ifPresent(facility -> dto.setFacilityName(facility.getFacilityName()));
+            catalogCache.findFacilityPlan(subscription.getFacilityPlanId()).ifPresent(plan -> dto.setPlanName(plan.getPlanName()));
             dto.setEndDate(subscription.getEndDate());
             activeFacilityDtos.add(dto);
         }
@@ -1,5 +1,6 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.FacilitySubscribeRequest;
 import com.techtammina.fitSwitch.dto.UserFacilitySubscriptionResponse;
 import com.techtammina.fitSwitch.entity.*;
@@ -7,10 +8,10 @@ import com.techtammina.fitSwitch.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class UserFacilitySubscriptionService {
@@ -20,20 +21,23 @@ public class UserFacilitySubscriptionService {
     private final GymFacilityRepository gymFacilityRepository;
     private final GymRepository gymRepository;
     private final UserWalletRepository walletRepository;
-    private final WalletTransactionRepository transactionRepository;
+    private final WalletLedger walletLedger;
+    private final CatalogCache catalogCache;
 
     public UserFacilitySubscriptionService(UserFacilitySubscriptionRepository subscriptionRepository,
                                           FacilityPlanRepository facilityPlanRepository,
                                           GymFacilityRepository gymFacilityRepository,
                                           GymRepository gymRepository,
                                           UserWalletRepository walletRepository,
-                                          WalletTransactionRepository transactionRepository) {
+                                          WalletLedger walletLedger,
+                                          CatalogCache catalogCache) {
         this.subscriptionRepository = subscriptionRepository;
         this.facilityPlanRepository = facilityPlanRepository;
         this.gymFacilityRepository = gymFacilityRepository;
         this.gymRepository = gymRepository;
         this.walletRepository = walletRepository;
-        this.transactionRepository = transactionRepository;
+        this.walletLedger = walletLedger;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -46,38 +50,27 @@ public class UserFacilitySubscriptionService {
             throw new RuntimeException("Facility plan is not active");
         }
 
-        // Check wallet balance
-        UserWallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Please add money to your wallet to subscribe"));
-        
-        if (wallet.getBalance().compareTo(plan.getPrice()) < 0) {
-            throw new RuntimeException("Insufficient wallet balance. Please add money to your wallet to subscribe");
-        }
-
         // Check if user already has active subscription for this facility
-        subscriptionRepository.findByUserIdAndFacilityIdAndStatus(
-                userId, plan.getFacilityId(), FacilitySubscriptionStatus.ACTIVE)
+        subscriptionRepository.findFirstByUserIdAndFacilityIdAndStatusAndEndDateGreaterThanEqual(
+                userId, plan.getFacilityId(), FacilitySubscriptionStatus.ACTIVE, LocalDate.now())
                 .ifPresent(existing -> {
                     throw new RuntimeException("Active facility subscription already exists");
                 });
 
-        // Deduct money from wallet
-        BigDecimal newBalance = wallet.getBalance().subtract(plan.getPrice());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        WalletLedger.Batch ledger = walletLedger.batch();
 
-        // Create wallet transaction
+        // Deduct money from wallet only if the balance covers the plan price
         WalletTransaction transaction = new WalletTransaction();
-        transaction.setUserId(userId);
-        transaction.setWalletId(wallet.getId());
         transaction.setType(WalletTransaction.TransactionType.SUB);
-        transaction.setAmount(plan.getPrice().negate());
-        transaction.setBalanceAfter(newBalance);
         transaction.setDescription("Facility plan subscription: " + plan.getPlanName());
         transaction.setFacilityId(plan.getFacilityId());
         transaction.setGymId(plan.getGymId());
-        transaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(transaction);
+        if (ledger.tryDebit(userId, plan.getPrice(), transaction) == null) {
+            if (!walletRepository.existsByUserId(userId)) {
+                throw new RuntimeException("Please add money to your wallet to subscribe");
+            }
+            throw new RuntimeException("Insufficient wallet balance. Please add money to your wallet to subscribe");
+        }
 
         // Create subscription
         UserFacilitySubscription subscription = new UserFacilitySubscription();
@@ -95,27 +88,18 @@ public class UserFacilitySubscriptionService {
         // Credit owner wallet with facility plan purchase
         Gym gymForOwner = gymRepository.findById(plan.getGymId()).orElse(null);
         if (gymForOwner != null) {
-            UserWallet ownerWallet = walletRepository.findByUserId(gymForOwner.getOwnerId())
-                    .orElseGet(() -> createWallet(gymForOwner.getOwnerId()));
-            ownerWallet.setBalance(ownerWallet.getBalance().add(plan.getPrice()));
-            UserWallet savedOwnerWallet = walletRepository.save(ownerWallet);
-
             WalletTransaction ownerWalletTxn = new WalletTransaction();
-            ownerWalletTxn.setUserId(gymForOwner.getOwnerId());
-            ownerWalletTxn.setWalletId(savedOwnerWallet.getId());
             ownerWalletTxn.setType(WalletTransaction.TransactionType.OWNER_EARNING);
-            ownerWalletTxn.setAmount(plan.getPrice());
-            ownerWalletTxn.setBalanceAfter(savedOwnerWallet.getBalance());
             ownerWalletTxn.setDescription("Owner earning: facility plan purchase");
             ownerWalletTxn.setGymId(plan.getGymId());
             ownerWalletTxn.setFacilityId(plan.getFacilityId());
-            ownerWalletTxn.setCreatedAt(LocalDateTime.now());
-            transactionRepository.save(ownerWalletTxn);
+            ledger.creditOwner(gymForOwner.getOwnerId(), plan.getPrice(), ownerWalletTxn);
         }
+        ledger.flush();
 
         // Get related entities for response
-        Gym gym = gymRepository.findById(plan.getGymId()).orElse(null);
-        GymFacility facility = gymFacilityRepository.findById(plan.getFacilityId()).orElse(null);
+        Gym gym = catalogCache.findGym(plan.getGymId()).orElse(null);
+        GymFacility facility = catalogCache.findGymFacility(plan.getFacilityId()).orElse(null);
 
         return mapToResponse(saved, gym, facility, plan);
     }
@@ -123,23 +107,18 @@ public class UserFacilitySubscriptionService {
     public List<UserFacilitySubscriptionResponse> getUserFacilitySubscriptions(Long userId) {
         List<UserFacilitySubscription> subscriptions = subscriptionRepository.findByUserIdOrderByCreatedAtDesc(userId);
 
-        // Auto-expire subscriptions
-        LocalDate today = LocalDate.now();
-        subscriptions.forEach(subscription -> {
-            if (subscription.getStatus() == FacilitySubscriptionStatus.ACTIVE &&
-                subscription.getEndDate().isBefore(today)) {
-                subscription.setStatus(FacilitySubscriptionStatus.EXPIRED);
-                subscriptionRepository.save(subscription);
-            }
-        });
+        Map<Long, FacilityPlan> plans = catalogCache.getFacilityPlans(
+                subscriptions.stream().map(UserFacilitySubscription::getFacilityPlanId).toList());
+        Map<Long, Gym> gyms = catalogCache.getGyms(
+                subscriptions.stream().map(UserFacilitySubscription::getGymId).toList());
+        Map<Long, GymFacility> facilities = catalogCache.getGymFacilities(
+                subscriptions.stream().map(UserFacilitySubscription::getFacilityId).toList());
 
         return subscriptions.stream()
-                .map(subscription -> {
-                    FacilityPlan plan = facilityPlanRepository.findById(subscription.getFacilityPlanId()).orElse(null);
-                    Gym gym = gymRepository.findById(subscription.getGymId()).orElse(null);
-                    GymFacility facility = gymFacilityRepository.findById(subscription.getFacilityId()).orElse(null);
-                    return mapToResponse(subscription, gym, facility, plan);
-                })
+                .map(subscription -> mapToResponse(subscription,
+                        gyms.get(subscription.getGymId()),
+                        facilities.get(subscription.getFacilityId()),
+                        plans.get(subscription.getFacilityPlanId())))
                 .toList();
     }
 
@@ -152,14 +131,9 @@ public class UserFacilitySubscriptionService {
         response.setPlanName(plan != null ? plan.getPlanName() : "Unknown Plan");
         response.setStartDate(subscription.getStartDate());
         response.setEndDate(subscription.getEndDate());
-        response.setStatus(subscription.getStatus());
+        response.setStatus(subscription.statusOn(LocalDate.now()));
         response.setPrice(plan != null ? plan.getPrice() : null);
         response.setDurationDays(plan != null ? plan.getDurationDays() : null);
         return response;
     }
-
-    private UserWallet createWallet(Long userId) {
-        UserWallet wallet = new UserWallet(userId, BigDecimal.ZERO);
-        return walletRepository.save(wallet);
-    }
 }
@@ -1,19 +1,19 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.dto.CursorPage;
 import com.techtammina.fitSwitch.dto.UserMembershipHistoryResponse;
 import com.techtammina.fitSwitch.dto.UserFacilityHistoryResponse;
 import com.techtammina.fitSwitch.dto.UserSessionHistoryResponse;
 import com.techtammina.fitSwitch.dto.FacilitySessionHistoryResponse;
-import com.techtammina.fitSwitch.entity.MembershipStatus;
-import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
 import com.techtammina.fitSwitch.repository.MembershipRepository;
 import com.techtammina.fitSwitch.repository.UserFacilitySubscriptionRepository;
 import com.techtammina.fitSwitch.repository.GymMembershipSessionRepository;
 import com.techtammina.fitSwitch.repository.FacilitySessionRepository;
+import com.techtammina.fitSwitch.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -31,17 +31,14 @@ public class UserHistoryService {
     @Autowired
     private FacilitySessionRepository facilitySessionRepository;
 
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
     public List<UserMembershipHistoryResponse> getMembershipHistory(Long userId) {
-        // Update expired memberships before fetching
-        updateExpiredMemberships(userId);
-        
         return membershipRepository.findMembershipHistoryByUserId(userId);
     }
 
     public List<UserFacilityHistoryResponse> getFacilityHistory(Long userId) {
-        // Update expired facility subscriptions before fetching
-        updateExpiredFacilitySubscriptions(userId);
-        
         return facilitySubscriptionRepository.findFacilityHistoryByUserId(userId);
     }
 
@@ -53,19 +50,47 @@ public class UserHistoryService {
         return facilitySessionRepository.findFacilitySessionHistoryByUserId(userId);
     }
 
-    private void updateExpiredMemberships(Long userId) {
-        LocalDate today = LocalDate.now();
-        List<Long> expiredIds = membershipRepository.findExpiredMembershipIds(userId, today);
-        if (!expiredIds.isEmpty()) {
-            membershipRepository.updateMembershipsToExpired(expiredIds, MembershipStatus.EXPIRED);
-        }
+    public CursorPage<UserMembershipHistoryResponse> getMembershipHistoryPage(Long userId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<UserMembershipHistoryResponse> rows = membershipRepository.findMembershipHistoryPage(
+                userId, position.dateTimeKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(rows, size, row -> PageCursor.encode(row.getCreatedAt(), row.getId()));
+    }
+
+    public CursorPage<UserFacilityHistoryResponse> getFacilityHistoryPage(Long userId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<UserFacilityHistoryResponse> rows = facilitySubscriptionRepository.findFacilityHistoryPage(
+                userId, position.dateTimeKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(rows, size, row -> PageCursor.encode(row.getCreatedAt(), row.getId()));
+    }
+
+    public CursorPage<UserSessionHistoryResponse> getSessionHistoryPage(Long userId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<UserSessionHistoryResponse> rows = gymSessionRepository.findSessionHistoryPage(
+                userId, position.dateKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(rows, size, row -> PageCursor.encode(row.getVisitDate(), row.getId()));
+    }
+
+    public CursorPage<FacilitySessionHistoryResponse> getFacilitySessionHistoryPage(Long userId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<FacilitySessionHistoryResponse> rows = facilitySessionRepository.findFacilitySessionHistoryPage(
+                userId, position.dateKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(rows, size, row -> PageCursor.encode(row.getVisitDate(), row.getId()));
+    }
+
+    public StreamingResponseBody exportMembershipHistory(Long userId) {
+        return ndjsonExporter.export((cursor, size) -> getMembershipHistoryPage(userId, cursor, size));
+    }
+
+    public StreamingResponseBody exportFacilityHistory(Long userId) {
+        return ndjsonExporter.export((cursor, size) -> getFacilityHistoryPage(userId, cursor, size));
+    }
+
+    public StreamingResponseBody exportSessionHistory(Long userId) {
+        return ndjsonExporter.export((cursor, size) -> getSessionHistoryPage(userId, cursor, size));
     }
 
-    private void updateExpiredFacilitySubscriptions(Long userId) {
-        LocalDate today = LocalDate.now();
-        List<Long> expiredIds = facilitySubscriptionRepository.findExpiredSubscriptionIds(userId, today);
-        if (!expiredIds.isEmpty()) {
-            facilitySubscriptionRepository.updateSubscriptionsToExpired(expiredIds, FacilitySubscriptionStatus.EXPIRED);
-        }
+    public StreamingResponseBody exportFacilitySessionHistory(Long userId) {
+        return ndjsonExporter.export((cursor, size) -> getFacilitySessionHistoryPage(userId, cursor, size));
     }
 }
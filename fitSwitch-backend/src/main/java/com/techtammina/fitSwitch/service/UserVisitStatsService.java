@@ -0,0 +1,187 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.UserVisitStats;
+import com.techtammina.fitSwitch.repository.UserRepository;
+import com.techtammina.fitSwitch.repository.UserVisitStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps user_visit_stats in step with completed sessions of every kind (membership, facility
+ * and legacy gym sessions) so dashboards read one row per user instead of scanning sessions.
+ *
+ * Every write for a user first locks the user's {@link UserVisitStats#ALL_GYMS} row, which
+ * serialises check-outs and rebuilds of the same user. A backfill from the session tables
+ * runs on startup only when app.visit-stats.backfill-on-startup=true.
+ */
+@Service
+public class UserVisitStatsService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserVisitStatsService.class);
+
+    private final UserVisitStatsRepository statsRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int batchSize;
+
+    public UserVisitStatsService(UserVisitStatsRepository statsRepository,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.visit-stats.backfill-on-startup:false}") boolean backfillOnStartup,
+                                 @Value("${app.visit-stats.backfill-batch-size:500}") int batchSize) {
+        this.statsRepository = statsRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Counts a session that has just been completed. Must run in the check-out transaction.
+     */
+    @Transactional
+    public void recordVisit(Long userId, Long gymId, LocalDate visitDate) {
+        UserVisitStats overall = lock(userId, UserVisitStats.ALL_GYMS);
+        if (overall.getLastVisitDate() != null && visitDate.isBefore(overall.getLastVisitDate())) {
+            // A session from an earlier day closed late; streaks can only be recomputed
+            rebuildLocked(userId);
+            return;
+        }
+        UserVisitStats gym = lock(userId, gymId);
+        overall.addVisit(visitDate);
+        gym.addVisit(visitDate);
+    }
+
+    public UserVisitStats getOverall(Long userId) {
+        return statsRepository.findByUserIdAndGymId(userId, UserVisitStats.ALL_GYMS)
+                .orElseGet(() -> new UserVisitStats(userId, UserVisitStats.ALL_GYMS));
+    }
+
+    public UserVisitStats getForGym(Long userId, Long gymId) {
+        return statsRepository.findByUserIdAndGymId(userId, gymId)
+                .orElseGet(() -> new UserVisitStats(userId, gymId));
+    }
+
+    /**
+     * Stats at one gym for each of the given users; users without visits get an empty row.
+     */
+    public Map<Long, UserVisitStats> getForGym(Long gymId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, UserVisitStats> stats = statsRepository.findByGymIdAndUserIdIn(gymId, userIds).stream()
+                .collect(Collectors.toMap(UserVisitStats::getUserId, Function.identity()));
+        for (Long userId : userIds) {
+            stats.computeIfAbsent(userId, id -> new UserVisitStats(id, gymId));
+        }
+        return stats;
+    }
+
+    public void rebuildUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lock(userId, UserVisitStats.ALL_GYMS);
+            rebuildLocked(userId);
+        });
+    }
+
+    public int backfill() {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int users = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = userRepository.findIdsAfter(afterId, batch);
+            for (Long userId : ids) {
+                rebuildUser(userId);
+            }
+            users += ids.size();
+            if (ids.size() < batchSize) {
+                return users;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (backfillOnStartup) {
+            int users = backfill();
+            log.info("Backfilled visit stats for {} users", users);
+        }
+    }
+
+    private UserVisitStats lock(Long userId, Long gymId) {
+        statsRepository.insertIfAbsent(userId, gymId);
+        return statsRepository.findForUpdate(userId, gymId)
+                .orElseThrow(() -> new IllegalStateException("Visit stats row missing after insert"));
+    }
+
+    // Recomputes all of the user's rows; the caller holds the lock on the user's ALL_GYMS row.
+    // Rows are updated in place rather than bulk deleted, so the caller's persistence context
+    // (a check-out or a turnstile batch) keeps every entity it is still working on.
+    private void rebuildLocked(Long userId) {
+        Map<Long, NavigableMap<LocalDate, Long>> byGym = new TreeMap<>();
+        List<UserVisitStatsRepository.VisitDay> days = new ArrayList<>();
+        days.addAll(statsRepository.findMembershipVisitDays(userId));
+        days.addAll(statsRepository.findFacilityVisitDays(userId));
+        days.addAll(statsRepository.findGymSessionVisitDays(userId));
+        for (UserVisitStatsRepository.VisitDay day : days) {
+            byGym.computeIfAbsent(day.getGymId(), id -> new TreeMap<>())
+                    .merge(day.getVisitDate(), day.getVisits(), Long::sum);
+            byGym.computeIfAbsent(UserVisitStats.ALL_GYMS, id -> new TreeMap<>())
+                    .merge(day.getVisitDate(), day.getVisits(), Long::sum);
+        }
+
+        List<UserVisitStats> stale = new ArrayList<>();
+        for (UserVisitStats row : statsRepository.findByUserId(userId)) {
+            NavigableMap<LocalDate, Long> visits = byGym.remove(row.getGymId());
+            if (visits == null) {
+                stale.add(row);
+            } else {
+                summarize(row, visits);
+            }
+        }
+        statsRepository.deleteAll(stale);
+        List<UserVisitStats> added = new ArrayList<>();
+        byGym.forEach((gymId, visits) -> added.add(summarize(new UserVisitStats(userId, gymId), visits)));
+        statsRepository.saveAll(added);
+    }
+
+    private UserVisitStats summarize(UserVisitStats stats, NavigableMap<LocalDate, Long> visitsByDay) {
+        stats.setTotalVisits(visitsByDay.values().stream().mapToLong(Long::longValue).sum());
+        stats.setVisitDays(visitsByDay.size());
+        stats.setFirstVisitDate(visitsByDay.firstKey());
+        stats.setLastVisitDate(visitsByDay.lastKey());
+
+        int streak = 0;
+        LocalDate expected = visitsByDay.lastKey();
+        for (LocalDate day : visitsByDay.descendingKeySet()) {
+            if (!day.equals(expected)) {
+                break;
+            }
+            streak++;
+            expected = day.minusDays(1);
+        }
+        stats.setCurrentStreak(streak);
+        return stats;
+    }
+}
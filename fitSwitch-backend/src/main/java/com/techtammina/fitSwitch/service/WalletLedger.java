@@ -0,0 +1,234 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.OwnerWalletCredit;
+import com.techtammina.fitSwitch.entity.WalletTransaction;
+import com.techtammina.fitSwitch.repository.OwnerWalletCreditRepository;
+import com.techtammina.fitSwitch.repository.UserWalletRepository;
+import com.techtammina.fitSwitch.repository.WalletTransactionJdbcRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The only component allowed to change a wallet balance.
+ *
+ * Every change is a single conditional UPDATE (balance = balance - ? WHERE balance >= ?), so
+ * concurrent top-ups and debits serialize on the row lock inside MySQL instead of racing
+ * through read-modify-write in Java. The matching WalletTransaction rows are collected in a
+ * {@link Batch} and written with one batched INSERT when the batch is flushed.
+ *
+ * Gym owners are credited by many buyers at once, so owner credits are appended to
+ * owner_wallet_credits instead and folded into the wallet later. The owner's visible
+ * balance is the wallet balance plus those pending credits; see {@link #visibleBalance}.
+ */
+@Service
+public class WalletLedger {
+
+    private static final int FOLD_BATCH_SIZE = 500;
+
+    private final UserWalletRepository walletRepository;
+    private final WalletTransactionJdbcRepository transactionJdbcRepository;
+    private final OwnerWalletCreditRepository creditRepository;
+
+    public WalletLedger(UserWalletRepository walletRepository,
+                        WalletTransactionJdbcRepository transactionJdbcRepository,
+                        OwnerWalletCreditRepository creditRepository) {
+        this.walletRepository = walletRepository;
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.creditRepository = creditRepository;
+    }
+
+    /**
+     * Starts a set of postings. Must be called inside a transaction so the balance updates
+     * and their transaction rows commit or roll back together.
+     */
+    public Batch batch() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Wallet postings require an active transaction");
+        }
+        return new Batch();
+    }
+
+    /**
+     * Creates a zero-balance wallet unless one exists. Safe to call concurrently.
+     */
+    public void openWallet(Long userId) {
+        walletRepository.insertIfAbsent(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Owner credits recorded by purchases that have not been folded into the wallet yet.
+     */
+    public BigDecimal pendingCredits(Long ownerId) {
+        return creditRepository.sumPendingByOwnerId(ownerId);
+    }
+
+    /**
+     * The balance shown to the user: the wallet row plus credits not folded into it yet, read
+     * in one statement so a concurrent fold is counted exactly once. Null when the user has
+     * no wallet.
+     */
+    public BigDecimal visibleBalance(Long userId) {
+        return walletRepository.findVisibleBalanceByUserId(userId).orElse(null);
+    }
+
+    public final class Batch {
+
+        private final List<WalletTransaction> entries = new ArrayList<>();
+
+        private Batch() {}
+
+        /**
+         * Adds the amount to the user's wallet, creating the wallet if needed.
+         */
+        public WalletTransaction credit(Long userId, BigDecimal amount, WalletTransaction entry) {
+            LocalDateTime now = LocalDateTime.now();
+            applyCredit(userId, amount, now);
+            return append(userId, amount, entry, now);
+        }
+
+        /**
+         * Records a credit to a gym owner without touching the owner's wallet row, so
+         * concurrent purchases never contend on it. The wallet transaction is written,
+         * with its real balanceAfter, when the credit is folded.
+         */
+        public void creditOwner(Long ownerId, BigDecimal amount, WalletTransaction entry) {
+            OwnerWalletCredit credit = new OwnerWalletCredit();
+            credit.setOwnerId(ownerId);
+            credit.setType(entry.getType());
+            credit.setAmount(amount);
+            credit.setDescription(entry.getDescription());
+            credit.setGymId(entry.getGymId());
+            credit.setFacilityId(entry.getFacilityId());
+            credit.setMembershipId(entry.getMembershipId());
+            credit.setCreatedAt(LocalDateTime.now());
+            creditRepository.save(credit);
+        }
+
+        /**
+         * Moves up to FOLD_BATCH_SIZE of the owner's pending credits into the wallet with one
+         * balance update and one wallet transaction per credit. Credits another fold has
+         * locked are skipped. Returns the number of credits folded.
+         */
+        public int foldPendingCredits(Long ownerId) {
+            return fold(ownerId, creditRepository.findPendingForUpdate(ownerId, PageRequest.of(0, FOLD_BATCH_SIZE)));
+        }
+
+        /**
+         * Moves every pending credit of the owner into the wallet, waiting for a concurrent
+         * fold to commit rather than skipping its credits. Once this returns, the wallet row
+         * holds the owner's full balance, so a following {@link #tryDebit} checks against it.
+         */
+        public int foldAllPendingCredits(Long ownerId) {
+            int total = 0;
+            int folded;
+            do {
+                folded = fold(ownerId, creditRepository.findPendingForUpdateWaiting(
+                        ownerId, PageRequest.of(0, FOLD_BATCH_SIZE)));
+                total += folded;
+            } while (folded == FOLD_BATCH_SIZE);
+            return total;
+        }
+
+        private int fold(Long ownerId, List<OwnerWalletCredit> credits) {
+            if (credits.isEmpty()) {
+                return 0;
+            }
+
+            BigDecimal total = credits.stream()
+                    .map(OwnerWalletCredit::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            LocalDateTime now = LocalDateTime.now();
+            applyCredit(ownerId, total, now);
+
+            UserWalletRepository.BalanceView wallet = walletRepository.findBalanceByUserId(ownerId)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found"));
+
+            // Replay the credits in purchase order so each row carries its running balance
+            BigDecimal running = wallet.getBalance().subtract(total);
+            for (OwnerWalletCredit credit : credits) {
+                running = running.add(credit.getAmount());
+
+                WalletTransaction entry = new WalletTransaction();
+                entry.setUserId(ownerId);
+                entry.setWalletId(wallet.getId());
+                entry.setType(credit.getType());
+                entry.setAmount(credit.getAmount());
+                entry.setBalanceAfter(running);
+                entry.setDescription(credit.getDescription());
+                entry.setGymId(credit.getGymId());
+                entry.setFacilityId(credit.getFacilityId());
+                entry.setMembershipId(credit.getMembershipId());
+                // Stamped with the fold time, not the purchase time, so the row sorts after
+                // any (createdAt, id) cursor a client already holds for this wallet
+                entry.setCreatedAt(now);
+                entries.add(entry);
+            }
+
+            creditRepository.deleteByIdIn(credits.stream().map(OwnerWalletCredit::getId).toList());
+            return credits.size();
+        }
+
+        /**
+         * Takes the amount from the user's wallet only if the balance covers it.
+         * Returns null, without changing anything, when the wallet is missing or too low.
+         */
+        public WalletTransaction tryDebit(Long userId, BigDecimal amount, WalletTransaction entry) {
+            LocalDateTime now = LocalDateTime.now();
+            if (walletRepository.debitIfSufficient(userId, amount, now) == 0) {
+                return null;
+            }
+            return append(userId, amount.negate(), entry, now);
+        }
+
+        /**
+         * Takes the amount even if the balance goes negative. Used for refunds an owner
+         * must settle later.
+         */
+        public WalletTransaction forceDebit(Long userId, BigDecimal amount, WalletTransaction entry) {
+            LocalDateTime now = LocalDateTime.now();
+            if (walletRepository.debit(userId, amount, now) == 0) {
+                walletRepository.insertIfAbsent(userId, now);
+                walletRepository.debit(userId, amount, now);
+            }
+            return append(userId, amount.negate(), entry, now);
+        }
+
+        /**
+         * Writes the collected transaction rows. Ids are assigned once this returns.
+         */
+        public List<WalletTransaction> flush() {
+            List<WalletTransaction> saved = List.copyOf(entries);
+            transactionJdbcRepository.insertAll(saved);
+            entries.clear();
+            return saved;
+        }
+
+        private void applyCredit(Long userId, BigDecimal amount, LocalDateTime now) {
+            if (walletRepository.credit(userId, amount, now) == 0) {
+                walletRepository.insertIfAbsent(userId, now);
+                walletRepository.credit(userId, amount, now);
+            }
+        }
+
+        private WalletTransaction append(Long userId, BigDecimal signedAmount,
+                                         WalletTransaction entry, LocalDateTime now) {
+            // The row is still locked by our update, so this reads exactly the balance we produced
+            UserWalletRepository.BalanceView wallet = walletRepository.findBalanceByUserId(userId)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found"));
+
+            entry.setUserId(userId);
+            entry.setWalletId(wallet.getId());
+            entry.setAmount(signedAmount);
+            entry.setBalanceAfter(wallet.getBalance());
+            entry.setCreatedAt(now);
+            entries.add(entry);
+            return entry;
+        }
+    }
+}
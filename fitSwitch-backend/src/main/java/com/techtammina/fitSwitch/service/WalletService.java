@@ -1,37 +1,50 @@
 package com.techtammina.fitSwitch.service;
 
+import com.techtammina.fitSwitch.cache.CatalogCache;
 import com.techtammina.fitSwitch.dto.*;
 import com.techtammina.fitSwitch.entity.*;
 import com.techtammina.fitSwitch.repository.*;
+import com.techtammina.fitSwitch.utils.PageCursor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class WalletService {
 
     private final UserWalletRepository walletRepository;
     private final WalletTransactionRepository transactionRepository;
-    private final OwnerEarningRepository ownerEarningRepository;
+    private final WalletLedger walletLedger;
+    private final OwnerEarningRecorder ownerEarningRecorder;
     private final GymRepository gymRepository;
     private final GymFacilityRepository facilityRepository;
     private final EmailService emailService;
+    private final CatalogCache catalogCache;
+    private final NdjsonExporter ndjsonExporter;
 
     public WalletService(UserWalletRepository walletRepository,
                         WalletTransactionRepository transactionRepository,
-                        OwnerEarningRepository ownerEarningRepository,
+                        WalletLedger walletLedger,
+                        OwnerEarningRecorder ownerEarningRecorder,
                         GymRepository gymRepository,
                         GymFacilityRepository facilityRepository,
-                        EmailService emailService) {
+                        EmailService emailService,
+                        CatalogCache catalogCache,
+                        NdjsonExporter ndjsonExporter) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
-        this.ownerEarningRepository = ownerEarningRepository;
+        this.walletLedger = walletLedger;
+        this.ownerEarningRecorder = ownerEarningRecorder;
         this.gymRepository = gymRepository;
         this.facilityRepository = facilityRepository;
         this.emailService = emailService;
+        this.catalogCache = catalogCache;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     public WalletResponse getOrCreateWallet(Long userId) {
@@ -41,41 +54,28 @@ public class WalletService {
     }
 
     private UserWallet createWallet(Long userId) {
-        UserWallet wallet = new UserWallet(userId, BigDecimal.ZERO);
-        return walletRepository.save(wallet);
+        walletLedger.openWallet(userId);
+        return walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
     }
 
     @Transactional
     public WalletResponse addMoney(Long userId, AddMoneyRequest request) {
-        UserWallet wallet = walletRepository.findByUserId(userId)
-                .orElseGet(() -> createWallet(userId));
+        WalletLedger.Batch ledger = walletLedger.batch();
 
-        BigDecimal oldBalance = wallet.getBalance();
-        BigDecimal newBalance = oldBalance.add(request.getAmount());
-        wallet.setBalance(newBalance);
-        
-        UserWallet savedWallet = walletRepository.save(wallet);
-
-        // Create transaction record
         WalletTransaction transaction = new WalletTransaction();
-        transaction.setUserId(userId);
-        transaction.setWalletId(savedWallet.getId());
         transaction.setType(WalletTransaction.TransactionType.ADD_MONEY);
-        transaction.setAmount(request.getAmount());
-        transaction.setBalanceAfter(newBalance);
         transaction.setDescription("Money added to wallet");
-        transaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(transaction);
+        ledger.credit(userId, request.getAmount(), transaction);
+        ledger.flush();
 
-        return mapToWalletResponse(savedWallet);
+        UserWallet wallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        return mapToWalletResponse(wallet);
     }
 
     @Transactional
     public ApiResponse useFacility(Long userId, FacilityUsageRequest request) {
-        // Get user wallet
-        UserWallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
         // Get gym and facility details
         Gym gym = gymRepository.findById(request.getGymId())
                 .orElseThrow(() -> new RuntimeException("Gym not found"));
@@ -91,28 +91,29 @@ public class WalletService {
         // Calculate facility usage cost (assuming 10% of monthly plan cost for single use)
         BigDecimal usageCost = calculateFacilityUsageCost(request.getGymId());
 
-        // Check wallet balance
-        if (wallet.getBalance().compareTo(usageCost) < 0) {
-            throw new RuntimeException("Insufficient wallet balance");
-        }
-
-        // Debit wallet
-        BigDecimal newBalance = wallet.getBalance().subtract(usageCost);
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        WalletLedger.Batch ledger = walletLedger.batch();
 
-        // Create wallet transaction
+        // Debit wallet only if the balance covers the cost
         WalletTransaction transaction = new WalletTransaction();
-        transaction.setUserId(userId);
-        transaction.setWalletId(wallet.getId());
         transaction.setType(WalletTransaction.TransactionType.FACILITY_USAGE);
-        transaction.setAmount(usageCost.negate()); // Negative for debit
-        transaction.setBalanceAfter(newBalance);
         transaction.setDescription("Facility usage: " + facility.getFacilityName() + " at " + gym.getGymName());
         transaction.setGymId(request.getGymId());
         transaction.setFacilityId(request.getFacilityId());
-        transaction.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(transaction);
+        if (ledger.tryDebit(userId, usageCost, transaction) == null) {
+            if (!walletRepository.existsByUserId(userId)) {
+                throw new RuntimeException("Wallet not found");
+            }
+            throw new RuntimeException("Insufficient wallet balance");
+        }
+
+        // Credit owner wallet with facility usage earning
+        WalletTransaction ownerWalletTxn = new WalletTransaction();
+        ownerWalletTxn.setType(WalletTransaction.TransactionType.OWNER_EARNING);
+        ownerWalletTxn.setDescription("Owner earning: facility usage");
+        ownerWalletTxn.setGymId(request.getGymId());
+        ownerWalletTxn.setFacilityId(request.getFacilityId());
+        ledger.creditOwner(gym.getOwnerId(), usageCost, ownerWalletTxn);
+        ledger.flush();
 
         // Credit gym owner
         OwnerEarning earning = new OwnerEarning();
@@ -125,25 +126,7 @@ public class WalletService {
         earning.setFacilityId(request.getFacilityId());
         earning.setTransactionId(transaction.getId());
         earning.setCreatedAt(LocalDateTime.now());
-        ownerEarningRepository.save(earning);
-
-        // Credit owner wallet with facility usage earning
-        UserWallet ownerWallet = walletRepository.findByUserId(gym.getOwnerId())
-                .orElseGet(() -> createWallet(gym.getOwnerId()));
-        ownerWallet.setBalance(ownerWallet.getBalance().add(usageCost));
-        UserWallet savedOwnerWallet = walletRepository.save(ownerWallet);
-
-        WalletTransaction ownerWalletTxn = new WalletTransaction();
-        ownerWalletTxn.setUserId(gym.getOwnerId());
-        ownerWalletTxn.setWalletId(savedOwnerWallet.getId());
-        ownerWalletTxn.setType(WalletTransaction.TransactionType.OWNER_EARNING);
-        ownerWalletTxn.setAmount(usageCost);
-        ownerWalletTxn.setBalanceAfter(savedOwnerWallet.getBalance());
-        ownerWalletTxn.setDescription("Owner earning: facility usage");
-        ownerWalletTxn.setGymId(request.getGymId());
-        ownerWalletTxn.setFacilityId(request.getFacilityId());
-        ownerWalletTxn.setCreatedAt(LocalDateTime.now());
-        transactionRepository.save(ownerWalletTxn);
+        ownerEarningRecorder.record(earning);
 
         return new ApiResponse(true, "Facility access granted successfully");
     }
@@ -155,14 +138,36 @@ public class WalletService {
     }
 
     public List<WalletTransactionResponse> getTransactionHistory(Long userId) {
-        List<WalletTransaction> transactions = transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        
+        return mapToTransactionResponses(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    public CursorPage<WalletTransactionResponse> getTransactionHistoryPage(Long userId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<WalletTransaction> rows = transactionRepository.findPageByUserId(
+                userId, position.dateTimeKey(), position.getId(), CursorPage.limit(size));
+        return CursorPage.of(mapToTransactionResponses(rows), size,
+                row -> PageCursor.encode(row.getCreatedAt(), row.getId()));
+    }
+
+    public StreamingResponseBody exportTransactionHistory(Long userId) {
+        return ndjsonExporter.export((cursor, size) -> getTransactionHistoryPage(userId, cursor, size));
+    }
+
+    private List<WalletTransactionResponse> mapToTransactionResponses(List<WalletTransaction> transactions) {
+        // Resolve gym and facility names for the whole list in one pass
+        Map<Long, Gym> gyms = catalogCache.getGyms(
+                transactions.stream().map(WalletTransaction::getGymId).toList());
+        Map<Long, GymFacility> facilities = catalogCache.getGymFacilities(
+                transactions.stream().map(WalletTransaction::getFacilityId).toList());
+
         return transactions.stream()
-                .map(this::mapToTransactionResponse)
+                .map(transaction -> mapToTransactionResponse(transaction, gyms, facilities))
                 .toList();
     }
 
-    private WalletTransactionResponse mapToTransactionResponse(WalletTransaction transaction) {
+    private WalletTransactionResponse mapToTransactionResponse(WalletTransaction transaction,
+                                                               Map<Long, Gym> gyms,
+                                                               Map<Long, GymFacility> facilities) {
         WalletTransactionResponse response = new WalletTransactionResponse();
         response.setId(transaction.getId());
         response.setType(transaction.getType());
@@ -172,14 +177,14 @@ public class WalletService {
         response.setCreatedAt(transaction.getCreatedAt());
 
         // Add gym and facility names if available
-        if (transaction.getGymId() != null) {
-            gymRepository.findById(transaction.getGymId())
-                    .ifPresent(gym -> response.setGymName(gym.getGymName()));
+        Gym gym = gyms.get(transaction.getGymId());
+        if (gym != null) {
+            response.setGymName(gym.getGymName());
         }
-        
-        if (transaction.getFacilityId() != null) {
-            facilityRepository.findById(transaction.getFacilityId())
-                    .ifPresent(facility -> response.setFacilityName(facility.getFacilityName()));
+
+        GymFacility facility = facilities.get(transaction.getFacilityId());
+        if (facility != null) {
+            response.setFacilityName(facility.getFacilityName());
         }
 
         return response;
@@ -189,7 +194,8 @@ public class WalletService {
         WalletResponse response = new WalletResponse();
         response.setId(wallet.getId());
         response.setUserId(wallet.getUserId());
-        response.setBalance(wallet.getBalance());
+        // Owner earnings not yet folded into the wallet row are part of the visible balance
+        response.setBalance(walletLedger.visibleBalance(wallet.getUserId()));
         response.setCreatedAt(wallet.getCreatedAt());
         response.setUpdatedAt(wallet.getUpdatedAt());
         return response;
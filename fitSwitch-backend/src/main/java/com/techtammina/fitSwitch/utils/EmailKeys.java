@@ -0,0 +1,21 @@
+package com.techtammina.fitSwitch.utils;
+
+import java.util.Locale;
+
+/**
+ * The form of an email address used to key per-address limits, so the rate limit filter and
+ * the OTP send limiter count "Member@Example.com " and "member@example.com" together.
+ */
+public final class EmailKeys {
+
+    private EmailKeys() {
+    }
+
+    // Null for a missing or blank address
+    public static String normalize(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
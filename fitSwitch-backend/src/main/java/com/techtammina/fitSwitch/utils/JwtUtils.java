@@ -2,13 +2,16 @@ package com.techtammina.fitSwitch.utils;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import com.techtammina.fitSwitch.cache.ExpiringCache;
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
 import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
 import com.techtammina.fitSwitch.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -18,40 +21,114 @@ import java.util.Date;
 @Component
 public class JwtUtils {
     
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    // Reached for every bad token, including from RateLimitFilter, so failures log at debug
+    private static final Logger log = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwt.expiration-ms}")
-    private int jwtExpirationMs;
-    
-    @Autowired
-    private UserRepository userRepository;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
+    private final int jwtExpirationMs;
+    private final UserRepository userRepository;
+
+    // Key and parser are immutable and thread-safe, so both are built once
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // Claims of recently verified tokens, kept until the token expires (bounded by the cache TTL)
+    private final ExpiringCache<String, Claims> verifiedTokens;
+
+    public JwtUtils(@Value("${app.jwt.secret}") String jwtSecret,
+                    @Value("${app.jwt.expiration-ms}") int jwtExpirationMs,
+                    @Value("${app.jwt.verified-cache.max-size:10000}") int verifiedCacheSize,
+                    @Value("${app.jwt.verified-cache.ttl-ms:300000}") long verifiedCacheTtlMs,
+                    UserRepository userRepository) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.userRepository = userRepository;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = new ExpiringCache<>("jwt.verified", verifiedCacheSize, verifiedCacheTtlMs);
+    }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        AuthenticatedUser userPrincipal = (AuthenticatedUser) authentication.getPrincipal();
+        return generateTokenFromUsername(userPrincipal.getUsername(), userPrincipal.getId(),
+                userPrincipal.getRole(), userPrincipal.getTokenVersion());
     }
 
-    public String generateTokenFromUsername(String username) {
+    public String generateTokenFromUsername(String username, Long userId, Role role, int tokenVersion) {
         return Jwts.builder()
                 .setSubject(username)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLE, role.name())
+                .claim(CLAIM_TOKEN_VERSION, tokenVersion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims, or null when the token is invalid or expired.
+     * A token seen recently is answered from the cache without repeating the HMAC check.
+     */
+    public Claims parseAndValidate(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
+
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            if (remainingMs > 0) {
+                verifiedTokens.put(token, claims, remainingMs);
+            }
+            return claims;
+        } catch (MalformedJwtException e) {
+            log.debug("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.debug("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.debug("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.debug("JWT signature is invalid: {}", e.getMessage());
+        }
+        return null;
+    }
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = parseAndValidate(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    /**
+     * Builds the principal from the token claims, or returns null for tokens issued before
+     * the claims were added so the caller can fall back to loading the user.
+     */
+    public AuthenticatedUser getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || role == null || tokenVersion == null) {
+            return null;
+        }
+        // Only enabled users can log in, so a signed token implies an enabled account
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), null,
+                Role.valueOf(role), true, tokenVersion.intValue());
     }
     
     public Long getUserIdFromRequest(HttpServletRequest request) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
         String email = auth.getName();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -64,22 +141,6 @@ public class JwtUtils {
     }
 
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
-        } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
-        }
-        return false;
-    }
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return parseAndValidate(authToken) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.techtammina.fitSwitch.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a newest-first list ordered by (sort key, id). Clients only see the opaque
+ * token produced by {@link #encode}; a missing token means the first page, which is
+ * represented by a position after every real row so the same keyset query serves all pages.
+ */
+public final class PageCursor {
+
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final String key;
+    private final long id;
+
+    private PageCursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String encode(Object key, Long id) {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor for lists ordered by id alone, newest first.
+     */
+    public static String encode(Long id) {
+        return encode("", id);
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return new PageCursor(null, Long.MAX_VALUE);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime dateTimeKey() {
+        try {
+            return key == null ? END_OF_TIME : LocalDateTime.parse(key);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public LocalDate dateKey() {
+        try {
+            return key == null ? END_OF_TIME.toLocalDate() : LocalDate.parse(key);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,5 @@
+-- Catalog lists read per gym by the public gym pages and the owner portfolio.
+
+CREATE INDEX idx_gym_plans_gym_active ON gym_plans (gym_id, active);
+CREATE INDEX idx_gym_facilities_gym_active ON gym_facilities (gym_id, active);
+CREATE INDEX idx_facility_plans_gym_active ON facility_plans (gym_id, active);
@@ -0,0 +1,2 @@
+-- Owner portfolio queries select an owner's gyms, alone or as a subquery for their catalog.
+CREATE INDEX idx_gym_owner ON gym (owner_id);
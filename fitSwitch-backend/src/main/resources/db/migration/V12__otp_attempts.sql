@@ -0,0 +1,6 @@
+-- Failed attempts per code, so the JPA OTP store can stop accepting guesses.
+ALTER TABLE otp_verifications ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+-- Lookup by email on send and verify; expiry sweep by OtpCleanupService
+CREATE INDEX idx_otp_verifications_email ON otp_verifications (email);
+CREATE INDEX idx_otp_verifications_expires ON otp_verifications (expires_at);
@@ -0,0 +1,61 @@
+-- Tables and columns added after the baseline. Databases baselined at V1 never ran V1, and
+-- were previously completed by ddl-auto=update; now that Hibernate only validates, they get
+-- these from here. IF NOT EXISTS keeps the script safe where update already created them.
+
+-- JWT revocation: bumped to invalidate every token issued before the change
+SET @add_token_version = IF(
+    (SELECT COUNT(*) FROM information_schema.columns
+     WHERE table_schema = DATABASE() AND table_name = 'users' AND column_name = 'token_version') = 0,
+    'ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0',
+    'DO 0');
+PREPARE add_token_version FROM @add_token_version;
+EXECUTE add_token_version;
+DEALLOCATE PREPARE add_token_version;
+
+-- Mail queued in the sender's transaction, sent by EmailOutboxDispatcher
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_status_next_attempt (status, next_attempt_at)
+) ENGINE=InnoDB;
+
+-- Owner credits appended per purchase and folded into the wallet by OwnerCreditFolder
+CREATE TABLE IF NOT EXISTS owner_wallet_credits (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    description VARCHAR(500),
+    gym_id BIGINT,
+    facility_id BIGINT,
+    membership_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_owner_wallet_credits_owner (owner_id, id)
+) ENGINE=InnoDB;
+
+-- Stored responses for Idempotency-Key requests
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    response_status INTEGER,
+    response_content_type VARCHAR(255),
+    response_body TEXT,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_user_key UNIQUE (user_id, idempotency_key),
+    INDEX idx_idempotency_expires_at (expires_at)
+) ENGINE=InnoDB;
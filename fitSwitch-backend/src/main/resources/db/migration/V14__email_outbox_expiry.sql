@@ -0,0 +1,3 @@
+-- Deadline for mail that is worthless afterwards (OTP codes). The body of such a row is
+-- cleared once it is sent or the deadline passes, so codes do not stay readable here.
+ALTER TABLE email_outbox ADD COLUMN expires_at DATETIME(6);
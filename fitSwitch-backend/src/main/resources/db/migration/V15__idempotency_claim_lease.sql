@@ -0,0 +1,5 @@
+-- When the current owner claimed the key. An IN_PROGRESS claim older than the wait timeout
+-- is taken to belong to a request that died, and the next retry takes the key over.
+ALTER TABLE idempotency_records ADD COLUMN claimed_at DATETIME(6);
+UPDATE idempotency_records SET claimed_at = created_at;
+ALTER TABLE idempotency_records MODIFY claimed_at DATETIME(6) NOT NULL;
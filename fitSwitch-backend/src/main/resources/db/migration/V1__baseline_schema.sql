@@ -0,0 +1,223 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version, so this script only runs on empty ones.
+-- Enum columns are VARCHAR so new enum constants never need a column change.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    full_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    mobile VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(50),
+    enabled BIT NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_mobile UNIQUE (mobile)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS otp_verifications (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    otp VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    verified BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id BIGINT NOT NULL,
+    gym_name VARCHAR(255) NOT NULL,
+    address VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    state VARCHAR(255) NOT NULL,
+    pincode VARCHAR(255) NOT NULL,
+    contact_number VARCHAR(255) NOT NULL,
+    latitude FLOAT(53) NOT NULL,
+    longitude FLOAT(53) NOT NULL,
+    open_time VARCHAR(255),
+    close_time VARCHAR(255),
+    active BIT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym_plans (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    gym_id BIGINT NOT NULL,
+    plan_name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    duration_days INTEGER NOT NULL,
+    duration_months INTEGER NOT NULL,
+    price DECIMAL(38,2) NOT NULL,
+    pass_type VARCHAR(50) NOT NULL,
+    active BIT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym_facilities (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    gym_id BIGINT NOT NULL,
+    facility_name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    active BIT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS facility_plans (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    gym_id BIGINT NOT NULL,
+    facility_id BIGINT NOT NULL,
+    plan_name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    duration_days INTEGER NOT NULL,
+    price DECIMAL(38,2) NOT NULL,
+    active BIT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS memberships (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    plan_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_facility_subscriptions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    facility_id BIGINT NOT NULL,
+    facility_plan_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym_membership_sessions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    membership_id BIGINT NOT NULL,
+    check_in_time DATETIME(6) NOT NULL,
+    check_out_time DATETIME(6),
+    visit_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS facility_sessions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    facility_id BIGINT NOT NULL,
+    facility_plan_id BIGINT NOT NULL,
+    facility_subscription_id BIGINT NOT NULL,
+    check_in_time DATETIME(6) NOT NULL,
+    check_out_time DATETIME(6),
+    visit_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym_sessions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    membership_id BIGINT,
+    facility_subscription_id BIGINT,
+    check_in_time DATETIME(6) NOT NULL,
+    check_out_time DATETIME(6),
+    visit_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gym_visits (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    membership_id BIGINT NOT NULL,
+    check_in_time DATETIME(6) NOT NULL,
+    check_out_time DATETIME(6),
+    visit_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_wallets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    balance DECIMAL(10,2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_wallets_user_id UNIQUE (user_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS wallet_transactions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    wallet_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    balance_after DECIMAL(10,2) NOT NULL,
+    description VARCHAR(500),
+    gym_id BIGINT,
+    facility_id BIGINT,
+    membership_id BIGINT,
+    session_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS owner_earnings (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    description VARCHAR(500),
+    membership_id BIGINT,
+    facility_id BIGINT,
+    session_id BIGINT,
+    transaction_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS unsubscribe_requests (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    membership_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    request_date DATETIME(6) NOT NULL,
+    approval_date DATETIME(6),
+    refund_amount DECIMAL(10,2) NOT NULL,
+    remaining_amount DECIMAL(10,2) NOT NULL,
+    owner_share DECIMAL(10,2) NOT NULL,
+    used_months INTEGER NOT NULL,
+    total_months INTEGER NOT NULL,
+    reason VARCHAR(500),
+    owner_notes VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
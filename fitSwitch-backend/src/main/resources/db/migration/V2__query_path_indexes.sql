@@ -0,0 +1,37 @@
+-- Composite indexes for the hot repository queries. Column order follows the queries:
+-- equality columns first, then the range or ORDER BY column.
+
+-- MembershipRepository: findByUserIdAndGymIdAndStatus, findByUserIdAndGymId
+CREATE INDEX idx_memberships_user_gym_status ON memberships (user_id, gym_id, status);
+-- MembershipRepository: findByUserIdAndStatus, findExpiredMembershipIds
+CREATE INDEX idx_memberships_user_status_end ON memberships (user_id, status, end_date);
+-- MembershipRepository: findByUserIdOrderByCreatedAtDesc, findMembershipHistoryByUserId
+CREATE INDEX idx_memberships_user_created ON memberships (user_id, created_at);
+-- MembershipRepository: findActiveGymMembers, findExpiringSoonMembers, findExpiredMembershipIdsByGym
+CREATE INDEX idx_memberships_gym_status_end ON memberships (gym_id, status, end_date);
+
+-- GymMembershipSessionRepository: findTodayVisitsByGymId
+CREATE INDEX idx_gym_membership_sessions_gym_visit ON gym_membership_sessions (gym_id, visit_date, check_in_time);
+-- GymMembershipSessionRepository: findByMembershipIdAndVisitDateAndStatus, findByMembershipIdAndStatus
+CREATE INDEX idx_gym_membership_sessions_membership_visit ON gym_membership_sessions (membership_id, visit_date, status);
+-- GymMembershipSessionRepository: countCompletedVisitDaysByUserId, findLastVisitDateByUserId
+CREATE INDEX idx_gym_membership_sessions_user_status_visit ON gym_membership_sessions (user_id, status, visit_date);
+-- GymMembershipSessionRepository: countCompletedSessionsByUserAndGym, last-visit subqueries
+CREATE INDEX idx_gym_membership_sessions_user_gym_status ON gym_membership_sessions (user_id, gym_id, status);
+
+-- UserFacilitySubscriptionRepository: findByUserIdAndFacilityIdAndStatus
+CREATE INDEX idx_user_facility_subscriptions_user_facility_status ON user_facility_subscriptions (user_id, facility_id, status);
+-- UserFacilitySubscriptionRepository: findByUserIdAndStatus, findExpiredSubscriptionIds
+CREATE INDEX idx_user_facility_subscriptions_user_status_end ON user_facility_subscriptions (user_id, status, end_date);
+-- UserFacilitySubscriptionRepository: findByUserIdOrderByCreatedAtDesc, findFacilityHistoryByUserId
+CREATE INDEX idx_user_facility_subscriptions_user_created ON user_facility_subscriptions (user_id, created_at);
+-- UserFacilitySubscriptionRepository: findActiveFacilitySubscribers, findByGymIdAndStatusAndEndDateBetween
+CREATE INDEX idx_user_facility_subscriptions_gym_status_end ON user_facility_subscriptions (gym_id, status, end_date);
+
+-- WalletTransactionRepository: findByUserIdOrderByCreatedAtDesc, findByWalletIdOrderByCreatedAtDesc
+CREATE INDEX idx_wallet_transactions_user_created ON wallet_transactions (user_id, created_at);
+CREATE INDEX idx_wallet_transactions_wallet_created ON wallet_transactions (wallet_id, created_at);
+
+-- OwnerEarningRepository: findByOwnerIdOrderByCreatedAtDesc, findByGymIdOrderByCreatedAtDesc and totals
+CREATE INDEX idx_owner_earnings_owner_created ON owner_earnings (owner_id, created_at);
+CREATE INDEX idx_owner_earnings_gym_created ON owner_earnings (gym_id, created_at);
@@ -0,0 +1,3 @@
+-- Hibernate created this column as a MySQL ENUM of the constants that existed at the time,
+-- so later constants such as SUB could not be stored. A VARCHAR accepts every constant.
+ALTER TABLE wallet_transactions MODIFY COLUMN type VARCHAR(50) NOT NULL;
@@ -0,0 +1,4 @@
+-- Lets the plan expiry job find ACTIVE rows past their end date without scanning each table.
+
+CREATE INDEX idx_memberships_status_end ON memberships (status, end_date);
+CREATE INDEX idx_user_facility_subscriptions_status_end ON user_facility_subscriptions (status, end_date);
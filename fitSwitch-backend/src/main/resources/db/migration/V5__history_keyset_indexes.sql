@@ -0,0 +1,5 @@
+-- Keyset pagination of a user's session history orders by (visit_date, id).
+-- InnoDB appends the primary key to every secondary index, so id does not need listing.
+
+CREATE INDEX idx_gym_membership_sessions_user_visit ON gym_membership_sessions (user_id, visit_date);
+CREATE INDEX idx_facility_sessions_user_visit ON facility_sessions (user_id, visit_date);
@@ -0,0 +1,20 @@
+-- Owner earnings pre-aggregated per (owner, gym, day, type). Kept in step by
+-- OwnerEarningRecorder; dashboards read buckets instead of summing owner_earnings.
+
+CREATE TABLE IF NOT EXISTS owner_earning_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    earning_date DATE NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(12,2) NOT NULL,
+    earning_count BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_owner_earning_rollups_bucket UNIQUE (owner_id, gym_id, earning_date, type),
+    INDEX idx_owner_earning_rollups_gym_date (gym_id, earning_date)
+) ENGINE=InnoDB;
+
+INSERT INTO owner_earning_rollups (owner_id, gym_id, earning_date, type, total_amount, earning_count)
+SELECT owner_id, gym_id, DATE(created_at), type, SUM(amount), COUNT(*)
+FROM owner_earnings
+GROUP BY owner_id, gym_id, DATE(created_at), type;
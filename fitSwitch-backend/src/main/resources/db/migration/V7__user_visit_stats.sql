@@ -0,0 +1,17 @@
+-- Completed visits per (user, gym); gym_id 0 holds the user's totals across all gyms.
+-- Filled by UserVisitStatsService, which backfills from the session tables on the first
+-- start after this migration (streaks are easier to derive in code than in SQL).
+
+CREATE TABLE IF NOT EXISTS user_visit_stats (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    gym_id BIGINT NOT NULL,
+    total_visits BIGINT NOT NULL,
+    visit_days BIGINT NOT NULL,
+    first_visit_date DATE,
+    last_visit_date DATE,
+    current_streak INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_visit_stats_user_gym UNIQUE (user_id, gym_id),
+    INDEX idx_user_visit_stats_gym_visits (gym_id, total_visits)
+) ENGINE=InnoDB;
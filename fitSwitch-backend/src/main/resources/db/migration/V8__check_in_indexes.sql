@@ -0,0 +1,12 @@
+-- Point lookups made by CheckInEligibilityResolver on every check-in.
+
+-- Open session or visit for (user, gym) today
+CREATE INDEX idx_gym_sessions_user_gym_visit ON gym_sessions (user_id, gym_id, visit_date, status);
+CREATE INDEX idx_gym_visits_user_gym_visit ON gym_visits (user_id, gym_id, visit_date, status);
+-- Check-out finds the user's single active session
+CREATE INDEX idx_gym_sessions_user_status ON gym_sessions (user_id, status);
+CREATE INDEX idx_gym_visits_user_status ON gym_visits (user_id, status);
+-- Whether a facility subscription was used today
+CREATE INDEX idx_facility_sessions_subscription_visit ON facility_sessions (facility_subscription_id, visit_date);
+-- Active facility subscription at a gym, when the user has no membership there
+CREATE INDEX idx_user_facility_subscriptions_user_gym_status ON user_facility_subscriptions (user_id, gym_id, status, end_date);
@@ -0,0 +1,17 @@
+-- Scan events received from door hardware, one row per (gym, device event id). A replayed
+-- event hits the unique key and gets the stored outcome back instead of being applied again.
+
+CREATE TABLE IF NOT EXISTS turnstile_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    gym_id BIGINT NOT NULL,
+    event_id VARCHAR(100) NOT NULL,
+    scanned_at DATETIME(6) NOT NULL,
+    outcome VARCHAR(20) NOT NULL,
+    action VARCHAR(20),
+    session_id BIGINT,
+    message VARCHAR(255),
+    received_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_turnstile_events_gym_event UNIQUE (gym_id, event_id),
+    INDEX idx_turnstile_events_received (received_at)
+) ENGINE=InnoDB;
@@ -1,10 +1,9 @@
 package com.techtammina.fitSwitch;
 
+import com.techtammina.fitSwitch.support.DatabaseTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class FitSwitchBackendApplicationTests {
+class FitSwitchBackendApplicationTests extends DatabaseTest {
 
 	@Test
 	void contextLoads() {
@@ -0,0 +1,107 @@
+package com.techtammina.fitSwitch.benchmark;
+
+import com.techtammina.fitSwitch.cache.GymGeoIndex;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A 5 km "gyms near me" lookup in central Hyderabad against the grid index, and the same
+ * lookup as a haversine scan over every active gym (what a query without the index has to
+ * do). Gyms are spread across India with a denser cluster in a few metros.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="GymGeoIndex"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GymGeoIndexBenchmark {
+
+    private static final double LAT = 17.385;
+    private static final double LNG = 78.4867;
+    private static final double RADIUS_KM = 5;
+    private static final int LIMIT = 20;
+
+    private static final double[][] METROS = {
+            {17.385, 78.4867}, {19.076, 72.8777}, {12.9716, 77.5946}, {28.7041, 77.1025}, {13.0827, 80.2707}};
+
+    @Param({"2000", "20000"})
+    public int gyms;
+
+    private GymGeoIndex index;
+    private List<Gym> catalog;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        catalog = new ArrayList<>();
+        for (long id = 1; id <= gyms; id++) {
+            double latitude;
+            double longitude;
+            if (id % 2 == 0) {
+                double[] metro = METROS[(int) (id / 2 % METROS.length)];
+                latitude = metro[0] + random.nextGaussian() * 0.15;
+                longitude = metro[1] + random.nextGaussian() * 0.15;
+            } else {
+                latitude = 8 + random.nextDouble() * 27;
+                longitude = 68 + random.nextDouble() * 29;
+            }
+            Gym gym = new Gym();
+            gym.setId(id);
+            gym.setLatitude(latitude);
+            gym.setLongitude(longitude);
+            gym.setOpenTime("05:00");
+            gym.setCloseTime("23:00");
+            gym.setActive(true);
+            catalog.add(gym);
+        }
+
+        GymRepository gymRepository = mock(GymRepository.class);
+        GymFacilityRepository facilityRepository = mock(GymFacilityRepository.class);
+        when(gymRepository.findByActiveTrue()).thenReturn(catalog);
+        when(facilityRepository.findByActiveTrue()).thenReturn(List.of());
+        index = new GymGeoIndex(gymRepository, facilityRepository);
+        index.afterSingletonsInstantiated();
+    }
+
+    @Benchmark
+    public List<GymGeoIndex.Hit> gridIndex() {
+        return index.findNearby(LAT, LNG, RADIUS_KM, LIMIT, null, null);
+    }
+
+    @Benchmark
+    public List<Gym> fullScan() {
+        List<Gym> hits = new ArrayList<>();
+        for (Gym gym : catalog) {
+            if (distanceKm(LAT, LNG, gym.getLatitude(), gym.getLongitude()) <= RADIUS_KM) {
+                hits.add(gym);
+            }
+        }
+        hits.sort(Comparator.comparingDouble(gym -> distanceKm(LAT, LNG, gym.getLatitude(), gym.getLongitude())));
+        return hits.size() > LIMIT ? hits.subList(0, LIMIT) : hits;
+    }
+
+    private static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6371.0088 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.techtammina.fitSwitch.benchmark;
+
+import com.techtammina.fitSwitch.cache.TokenRevocationCache;
+import com.techtammina.fitSwitch.config.JwtAuthenticationFilter;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.utils.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of JwtAuthenticationFilter per request for a token seen before (answered from the
+ * verified-token cache) and for one that has to be verified again (cache TTL of zero).
+ * Neither path touches the database: the principal comes from the token claims.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtFilterChain"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterChainBenchmark {
+
+    private static final String SECRET = "fitSwitchSecretKeyForJWTTokenGenerationAndValidation2024";
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter verifyingFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtUtils cachedJwt = new JwtUtils(SECRET, 86_400_000, 10_000, 300_000, null);
+        JwtUtils verifyingJwt = new JwtUtils(SECRET, 86_400_000, 10_000, 0, null);
+        token = cachedJwt.generateTokenFromUsername("member@example.com", 42L, Role.USER, 0);
+        cachedFilter = filter(cachedJwt);
+        verifyingFilter = filter(verifyingJwt);
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtils jwtUtils) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenRevocationCache", new TokenRevocationCache(null, false, 30_000, 10));
+        return filter;
+    }
+
+    @Benchmark
+    public Object cachedToken() throws Exception {
+        return run(cachedFilter);
+    }
+
+    @Benchmark
+    public Object verifiedToken() throws Exception {
+        return run(verifyingFilter);
+    }
+
+    private Object run(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallet/balance");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
@@ -0,0 +1,203 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.techtammina.fitSwitch.support.QueryCountAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each test builds its own cache with the real repositories, so sizes, TTLs and meters start
+ * from zero.
+ */
+class CatalogCacheTest extends DatabaseTest {
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private GymPlanRepository gymPlanRepository;
+
+    @Autowired
+    private GymFacilityRepository gymFacilityRepository;
+
+    @Autowired
+    private FacilityPlanRepository facilityPlanRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+    }
+
+    @Test
+    void secondLookupIsAHitAndRunsNoQuery() {
+        CatalogCache cache = cache(100, 60_000);
+        Gym gym = testData.gym(owner.getId());
+
+        Gym loaded = assertStatementCount(1, () -> cache.findGym(gym.getId()).orElseThrow());
+        Gym cached = assertStatementCount(0, () -> cache.findGym(gym.getId()).orElseThrow());
+
+        assertSame(loaded, cached);
+        assertEquals(gym.getGymName(), cached.getGymName());
+        assertEquals(1.0, gets("catalog.gyms", "miss"));
+        assertEquals(1.0, gets("catalog.gyms", "hit"));
+    }
+
+    @Test
+    void batchLookupLoadsOnlyTheMissingIdsInOneQuery() {
+        CatalogCache cache = cache(100, 60_000);
+        Gym first = testData.gym(owner.getId());
+        Gym second = testData.gym(owner.getId());
+        Gym third = testData.gym(owner.getId());
+        cache.findGym(first.getId());
+
+        Map<Long, Gym> gyms = assertStatementCount(1,
+                () -> cache.getGyms(List.of(first.getId(), second.getId(), third.getId(), Long.MAX_VALUE)));
+
+        assertEquals(3, gyms.size());
+        assertEquals(third.getGymName(), gyms.get(third.getId()).getGymName());
+        assertEquals(1.0, gets("catalog.gyms", "hit"));
+        // Unknown ids are not cached, so they are looked up again next time
+        assertStatementCount(1, () -> cache.getGyms(List.of(first.getId(), Long.MAX_VALUE)));
+    }
+
+    @Test
+    void cachedValuesAreCopiesNotTheLoadingTransactionsEntities() {
+        CatalogCache cache = cache(100, 60_000);
+        Gym gym = testData.gym(owner.getId());
+        GymPlan plan = testData.gymPlan(gym.getId(), "999.00");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Gym managed = gymRepository.findById(gym.getId()).orElseThrow();
+            Gym cached = cache.findGym(gym.getId()).orElseThrow();
+            GymPlan cachedPlan = cache.getGymPlans(List.of(plan.getId())).get(plan.getId());
+
+            assertNotSame(managed, cached);
+            assertFalse(entityManager.contains(cached));
+            assertFalse(entityManager.contains(cachedPlan));
+            assertNull(cachedPlan.getGym());
+            // An edit in this transaction does not leak to other readers of the cache
+            managed.setGymName("Unsaved edit");
+            assertEquals(gym.getGymName(), cached.getGymName());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(gym.getGymName(), cache.findGym(gym.getId()).orElseThrow().getGymName());
+        assertEquals(0, plan.getPrice().compareTo(cache.findGymPlan(plan.getId()).orElseThrow().getPrice()));
+    }
+
+    @Test
+    void invalidateDropsTheEntrySoTheNextLookupSeesTheWrite() {
+        CatalogCache cache = cache(100, 60_000);
+        Gym gym = testData.gym(owner.getId());
+        cache.findGym(gym.getId());
+
+        Gym stored = gymRepository.findById(gym.getId()).orElseThrow();
+        stored.setGymName("Renamed Gym");
+        gymRepository.save(stored);
+        assertEquals(gym.getGymName(), cache.findGym(gym.getId()).orElseThrow().getGymName());
+        cache.invalidateGym(gym.getId());
+
+        assertEquals("Renamed Gym", cache.findGym(gym.getId()).orElseThrow().getGymName());
+    }
+
+    @Test
+    void entryRecachedByAnotherReaderBeforeCommitIsEvictedOnCommit() {
+        CatalogCache cache = cache(100, 60_000);
+        Gym gym = testData.gym(owner.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE gym SET gym_name = ? WHERE id = ?", "Renamed Gym", gym.getId());
+            cache.invalidateGym(gym.getId());
+            // Outside this transaction the old name is still the committed one
+            Gym seenElsewhere = CompletableFuture.supplyAsync(() -> cache.findGym(gym.getId()).orElseThrow())
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            assertEquals(gym.getGymName(), seenElsewhere.getGymName());
+        });
+
+        assertEquals("Renamed Gym", cache.findGym(gym.getId()).orElseThrow().getGymName());
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        CatalogCache cache = cache(100, 50);
+        Gym gym = testData.gym(owner.getId());
+        cache.findGym(gym.getId());
+
+        Thread.sleep(80);
+
+        assertStatementCount(1, () -> cache.findGym(gym.getId()));
+        assertEquals(2.0, gets("catalog.gyms", "miss"));
+        assertEquals(1.0, evictions("catalog.gyms"));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedAtMaxSize() {
+        CatalogCache cache = cache(2, 60_000);
+        Gym first = testData.gym(owner.getId());
+        Gym second = testData.gym(owner.getId());
+        Gym third = testData.gym(owner.getId());
+        cache.findGym(first.getId());
+        cache.findGym(second.getId());
+        // Touch the first gym so the second is the least recently used
+        cache.findGym(first.getId());
+
+        cache.findGym(third.getId());
+
+        assertEquals(2.0, size("catalog.gyms"));
+        assertEquals(1.0, evictions("catalog.gyms"));
+        assertStatementCount(0, () -> cache.findGym(first.getId()));
+        assertStatementCount(1, () -> cache.findGym(second.getId()));
+    }
+
+    private CatalogCache cache(int maxSize, long ttlMs) {
+        return new CatalogCache(gymRepository, gymPlanRepository, gymFacilityRepository, facilityPlanRepository,
+                meterRegistry, maxSize, ttlMs);
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private double evictions(String cache) {
+        return meterRegistry.get("cache.evictions").tag("cache", cache).functionCounter().count();
+    }
+
+    private double size(String cache) {
+        return meterRegistry.get("cache.size").tag("cache", cache).gauge().value();
+    }
+}
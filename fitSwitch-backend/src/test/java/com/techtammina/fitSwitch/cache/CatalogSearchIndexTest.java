@@ -0,0 +1,152 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.enums.PassType;
+import com.techtammina.fitSwitch.repository.FacilityPlanRepository;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSearchIndexTest {
+
+    private final GymRepository gymRepository = mock(GymRepository.class);
+    private final GymFacilityRepository facilityRepository = mock(GymFacilityRepository.class);
+    private final GymPlanRepository gymPlanRepository = mock(GymPlanRepository.class);
+    private final FacilityPlanRepository facilityPlanRepository = mock(FacilityPlanRepository.class);
+    private final CatalogSearchIndex index = new CatalogSearchIndex(gymRepository, facilityRepository,
+            gymPlanRepository, facilityPlanRepository);
+
+    private final Gym ironTemple = gym(1L, "Iron Temple", "Hyderabad");
+    private final Gym templeFitness = gym(2L, "Temple Fitness", "Bengaluru");
+    private final Gym goldGym = gym(3L, "Gold Gym", "Hyderabad");
+
+    @BeforeEach
+    void setUp() {
+        GymFacility pool = facility(31L, goldGym, "Pool", "Olympic swimming lanes");
+        when(gymRepository.findByActiveTrue()).thenReturn(List.of(ironTemple, templeFitness, goldGym));
+        when(facilityRepository.findByActiveTrue()).thenReturn(List.of(
+                facility(11L, ironTemple, "Swimming Pool", null),
+                facility(21L, templeFitness, "Yoga Studio", null),
+                pool));
+        when(gymPlanRepository.findByActiveTrue()).thenReturn(List.of(
+                plan(ironTemple, "Monthly", "1500.00", PassType.REGULAR),
+                plan(templeFitness, "Hybrid Pass", "3000.00", PassType.HYBRID)));
+        when(facilityPlanRepository.findByActiveTrue()).thenReturn(List.of(facilityPlan(pool, "Pool Pass", "800.00")));
+        index.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void everyWordMustMatchAndTheLastMayBeAPrefix() {
+        assertEquals(List.of(1L), ids(index.search("iron tem", null, null, null, null, null)));
+        assertEquals(List.of(1L, 2L), ids(index.search("TEMPLE", null, null, null, null, null)));
+        assertEquals(List.of(), ids(index.search("iron gold", null, null, null, null, null)));
+    }
+
+    @Test
+    void strongerFieldsRankFirst() {
+        // A facility name outweighs a facility description
+        assertEquals(List.of(1L, 3L), ids(index.search("swimming", null, null, null, null, null)));
+        // The whole word outweighs the same word matched as a prefix
+        List<CatalogSearchIndex.Match> yoga = index.search("yoga", null, null, null, null, null);
+        List<CatalogSearchIndex.Match> yo = index.search("yo", null, null, null, null, null);
+        assertTrue(yoga.get(0).getScore() > yo.get(0).getScore());
+    }
+
+    @Test
+    void blankQueryListsEveryGymByName() {
+        assertEquals(List.of(3L, 1L, 2L), ids(index.search(" ", null, null, null, null, null)));
+    }
+
+    @Test
+    void appliesFilters() {
+        assertEquals(List.of(3L, 1L), ids(index.search(null, "hyderabad", null, null, null, null)));
+        assertEquals(List.of(2L), ids(index.search(null, null, PassType.HYBRID, null, null, null)));
+        assertEquals(List.of(3L), ids(index.search(null, null, null, "pool", null, null)));
+        // Facility plan prices count too
+        assertEquals(List.of(3L, 1L), ids(index.search(null, null, null, null, null, new BigDecimal("1500"))));
+        assertEquals(List.of(1L), ids(index.search(null, null, null, null, new BigDecimal("1000"), new BigDecimal("2000"))));
+    }
+
+    @Test
+    void suggestsGymsBeforeCitiesFacilitiesAndPlans() {
+        List<CatalogSearchIndex.Suggestion> temple = index.suggest("tem", 10);
+        assertEquals(List.of("Iron Temple", "Temple Fitness"), temple.stream().map(CatalogSearchIndex.Suggestion::getText).toList());
+        assertEquals(1L, temple.get(0).getGymId());
+
+        List<CatalogSearchIndex.Suggestion> pool = index.suggest("poo", 10);
+        assertEquals(List.of("Pool", "Swimming Pool", "Pool Pass"), pool.stream().map(CatalogSearchIndex.Suggestion::getText).toList());
+        assertEquals(CatalogSearchIndex.SUGGEST_PLAN, pool.get(2).getType());
+
+        assertEquals(CatalogSearchIndex.SUGGEST_CITY, index.suggest("hyd", 10).get(0).getType());
+        assertEquals(1, index.suggest("tem", 1).size());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void refreshDropsDeactivatedGyms() {
+        ironTemple.setActive(false);
+        when(gymRepository.findById(1L)).thenReturn(Optional.of(ironTemple));
+
+        index.refresh(1L);
+
+        assertEquals(List.of(2L), ids(index.search("temple", null, null, null, null, null)));
+        assertEquals(List.of("Temple Fitness"), index.suggest("tem", 10).stream()
+                .map(CatalogSearchIndex.Suggestion::getText).toList());
+        assertEquals(List.of(3L), ids(index.search("swimming", null, null, null, null, null)));
+    }
+
+    private static List<Long> ids(List<CatalogSearchIndex.Match> matches) {
+        return matches.stream().map(match -> match.getGym().getGym().getId()).toList();
+    }
+
+    private static Gym gym(Long id, String name, String city) {
+        Gym gym = new Gym();
+        gym.setId(id);
+        gym.setGymName(name);
+        gym.setCity(city);
+        gym.setState("Telangana");
+        gym.setActive(true);
+        return gym;
+    }
+
+    private static GymFacility facility(Long id, Gym gym, String name, String description) {
+        GymFacility facility = new GymFacility();
+        facility.setId(id);
+        facility.setGymId(gym.getId());
+        facility.setFacilityName(name);
+        facility.setDescription(description);
+        facility.setActive(true);
+        return facility;
+    }
+
+    private static GymPlan plan(Gym gym, String name, String price, PassType passType) {
+        GymPlan plan = new GymPlan();
+        plan.setGymId(gym.getId());
+        plan.setPlanName(name);
+        plan.setPrice(new BigDecimal(price));
+        plan.setPassType(passType);
+        return plan;
+    }
+
+    private static FacilityPlan facilityPlan(GymFacility facility, String name, String price) {
+        FacilityPlan plan = new FacilityPlan();
+        plan.setGymId(facility.getGymId());
+        plan.setFacilityId(facility.getId());
+        plan.setPlanName(name);
+        plan.setPrice(new BigDecimal(price));
+        return plan;
+    }
+}
@@ -0,0 +1,117 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GymGeoIndexTest {
+
+    private final GymRepository gymRepository = mock(GymRepository.class);
+    private final GymFacilityRepository facilityRepository = mock(GymFacilityRepository.class);
+    private final GymGeoIndex index = new GymGeoIndex(gymRepository, facilityRepository);
+
+    // Around Hyderabad: Banjara Hills, Jubilee Hills (about 3 km away) and Gachibowli (about 10 km)
+    private final Gym banjara = gym(1L, 17.4156, 78.4347, "06:00", "22:00");
+    private final Gym jubilee = gym(2L, 17.4326, 78.4071, "05:00", "01:00");
+    private final Gym gachibowli = gym(3L, 17.4401, 78.3489, "6 AM", "11 PM");
+    // createGym stores 0,0 when no location was given
+    private final Gym unlocated = gym(4L, 0, 0, "06:00", "22:00");
+
+    @BeforeEach
+    void setUp() {
+        when(gymRepository.findByActiveTrue()).thenReturn(List.of(banjara, jubilee, gachibowli, unlocated));
+        when(facilityRepository.findByActiveTrue()).thenReturn(List.of(
+                facility(banjara, "Swimming Pool"), facility(banjara, "Steam Room"), facility(jubilee, "Pool")));
+        index.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void returnsGymsInsideTheRadiusNearestFirst() {
+        List<GymGeoIndex.Hit> hits = index.findNearby(17.4156, 78.4347, 5, 20, null, null);
+
+        assertEquals(List.of(1L, 2L), ids(hits));
+        assertEquals(0, hits.get(0).getDistanceKm(), 0.001);
+        assertEquals(3.5, hits.get(1).getDistanceKm(), 0.5);
+        assertEquals(List.of(1L, 2L, 3L), ids(index.findNearby(17.4156, 78.4347, 15, 20, null, null)));
+        assertEquals(List.of(1L), ids(index.findNearby(17.4156, 78.4347, 15, 1, null, null)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void filtersOnOpeningHoursIncludingPastMidnight() {
+        assertEquals(List.of(2L), ids(index.findNearby(17.4156, 78.4347, 15, 20, LocalTime.of(0, 30), null)));
+        assertEquals(List.of(2L), ids(index.findNearby(17.4156, 78.4347, 15, 20, LocalTime.of(5, 30), null)));
+        // "6 AM" to "11 PM" is understood as well as 24-hour times
+        assertEquals(List.of(1L, 2L, 3L), ids(index.findNearby(17.4156, 78.4347, 15, 20, LocalTime.of(21, 0), null)));
+    }
+
+    @Test
+    void facilityTermsMustAllMatchSomeFacility() {
+        assertEquals(List.of(1L, 2L), ids(index.findNearby(17.4156, 78.4347, 15, 20, null, List.of("pool"))));
+        assertEquals(List.of(1L), ids(index.findNearby(17.4156, 78.4347, 15, 20, null, List.of(" Pool ", "steam"))));
+        assertEquals(List.of(), ids(index.findNearby(17.4156, 78.4347, 15, 20, null, List.of("sauna"))));
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        Gym east = gym(10L, -16.5, 179.98, "06:00", "22:00");
+        Gym west = gym(11L, -16.5, -179.98, "06:00", "22:00");
+        when(gymRepository.findById(10L)).thenReturn(Optional.of(east));
+        when(gymRepository.findById(11L)).thenReturn(Optional.of(west));
+        index.refresh(10L);
+        index.refresh(11L);
+
+        assertEquals(List.of(11L, 10L), ids(index.findNearby(-16.5, -179.99, 10, 20, null, null)));
+    }
+
+    @Test
+    void refreshMovesAndRemovesGyms() {
+        Gym moved = gym(2L, 17.4410, 78.3500, "05:00", "01:00");
+        when(gymRepository.findById(2L)).thenReturn(Optional.of(moved));
+        when(facilityRepository.findByGymIdAndActiveTrue(2L)).thenReturn(List.of());
+        index.refresh(2L);
+        assertEquals(List.of(1L), ids(index.findNearby(17.4156, 78.4347, 5, 20, null, null)));
+        assertEquals(List.of(3L, 2L), ids(index.findNearby(17.4401, 78.3489, 1, 20, null, null)));
+
+        gachibowli.setActive(false);
+        when(gymRepository.findById(3L)).thenReturn(Optional.of(gachibowli));
+        index.refresh(3L);
+        assertEquals(List.of(2L), ids(index.findNearby(17.4401, 78.3489, 1, 20, null, null)));
+        assertEquals(2, index.size());
+    }
+
+    private static List<Long> ids(List<GymGeoIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.getGym().getId()).toList();
+    }
+
+    private static Gym gym(Long id, double latitude, double longitude, String openTime, String closeTime) {
+        Gym gym = new Gym();
+        gym.setId(id);
+        gym.setGymName("Gym " + id);
+        gym.setLatitude(latitude);
+        gym.setLongitude(longitude);
+        gym.setOpenTime(openTime);
+        gym.setCloseTime(closeTime);
+        gym.setActive(true);
+        return gym;
+    }
+
+    private static GymFacility facility(Gym gym, String name) {
+        GymFacility facility = new GymFacility();
+        facility.setGymId(gym.getId());
+        facility.setFacilityName(name);
+        facility.setActive(true);
+        return facility;
+    }
+}
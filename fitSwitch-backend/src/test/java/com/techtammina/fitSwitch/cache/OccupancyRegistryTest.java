@@ -0,0 +1,79 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.dto.GymOccupancyResponse;
+import com.techtammina.fitSwitch.dto.OccupancyDeltaResponse;
+import com.techtammina.fitSwitch.dto.OccupantResponse;
+import com.techtammina.fitSwitch.event.SessionEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyRegistryTest {
+
+    private static final Long GYM = 7L;
+
+    private final OccupancyRegistry registry = new OccupancyRegistry();
+
+    @Test
+    void countsHeadsNotSessions() {
+        // One member in the gym on a membership session and a facility session at once
+        registry.checkIn(occupant(SessionEvent.MEMBERSHIP, 1L, 100L, LocalDate.now()));
+        OccupancyDeltaResponse second = registry.checkIn(occupant(SessionEvent.FACILITY, 2L, 100L, LocalDate.now()));
+        registry.checkIn(occupant(SessionEvent.MEMBERSHIP, 3L, 200L, LocalDate.now()));
+
+        assertEquals(OccupancyRegistry.CHECK_IN, second.getType());
+        assertEquals(1, second.getHeadcount());
+        GymOccupancyResponse snapshot = registry.get(GYM);
+        assertEquals(2, snapshot.getHeadcount());
+        assertEquals(3, snapshot.getOccupants().size());
+
+        OccupancyDeltaResponse out = registry.checkOut(GYM, SessionEvent.FACILITY, 2L);
+        assertEquals(OccupancyRegistry.CHECK_OUT, out.getType());
+        assertEquals(2, out.getHeadcount());
+        assertEquals(1, registry.checkOut(GYM, SessionEvent.MEMBERSHIP, 1L).getHeadcount());
+    }
+
+    @Test
+    void repeatedEventsProduceNoDelta() {
+        OccupantResponse occupant = occupant(SessionEvent.GYM, 5L, 100L, LocalDate.now());
+        assertNotNull(registry.checkIn(occupant));
+        assertNull(registry.checkIn(occupant));
+        assertNotNull(registry.checkOut(GYM, SessionEvent.GYM, 5L));
+        assertNull(registry.checkOut(GYM, SessionEvent.GYM, 5L));
+        assertNull(registry.checkOut(99L, SessionEvent.GYM, 5L));
+        assertEquals(0, registry.get(GYM).getHeadcount());
+    }
+
+    @Test
+    void snapshotsAreNotChangedByLaterCheckIns() {
+        registry.checkIn(occupant(SessionEvent.MEMBERSHIP, 1L, 100L, LocalDate.now()));
+        GymOccupancyResponse before = registry.get(GYM);
+
+        registry.checkIn(occupant(SessionEvent.MEMBERSHIP, 2L, 200L, LocalDate.now()));
+
+        assertEquals(1, before.getHeadcount());
+        assertEquals(1, before.getOccupants().size());
+        assertThrows(UnsupportedOperationException.class, () -> before.getOccupants().clear());
+    }
+
+    @Test
+    void dropsSessionsLeftOpenOnEarlierDays() {
+        registry.load(List.of(
+                occupant(SessionEvent.MEMBERSHIP, 1L, 100L, LocalDate.now().minusDays(1)),
+                occupant(SessionEvent.MEMBERSHIP, 2L, 200L, LocalDate.now())));
+
+        List<OccupancyDeltaResponse> dropped = registry.dropVisitsBefore(LocalDate.now());
+
+        assertEquals(1, dropped.size());
+        assertEquals(100L, dropped.get(0).getOccupant().getUserId());
+        assertEquals(1, registry.get(GYM).getHeadcount());
+    }
+
+    private static OccupantResponse occupant(String type, Long sessionId, Long userId, LocalDate visitDate) {
+        return new OccupantResponse(type, sessionId, GYM, userId, "Member " + userId,
+                visitDate.atTime(6, 0), visitDate);
+    }
+}
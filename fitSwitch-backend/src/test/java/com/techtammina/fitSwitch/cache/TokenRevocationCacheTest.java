@@ -0,0 +1,101 @@
+package com.techtammina.fitSwitch.cache;
+
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.UserRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import com.techtammina.fitSwitch.support.QueryCountAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TokenRevocationCacheTest extends DatabaseTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationCache tokenRevocationCache;
+
+    @Test
+    void passwordRoleAndDisableChangesBumpTheTokenVersion() {
+        User user = testData.user(Role.USER);
+        int issued = user.getTokenVersion();
+
+        user.setPassword("not-a-real-hash");
+        user.setEnabled(true);
+        user.setRole(Role.USER);
+        assertEquals(issued, user.getTokenVersion());
+
+        user.setPassword("another-hash");
+        user.setRole(Role.OWNER);
+        user.setEnabled(false);
+        assertEquals(issued + 3, user.getTokenVersion());
+    }
+
+    @Test
+    void tokenIssuedBeforeAPasswordChangeIsRevoked() {
+        User user = testData.user(Role.USER);
+        AuthenticatedUser oldToken = AuthenticatedUser.from(user);
+        TokenRevocationCache cache = new TokenRevocationCache(userRepository, true, 60_000, 100);
+        assertFalse(cache.isRevoked(oldToken));
+
+        user.setPassword("changed-hash");
+        userRepository.save(user);
+
+        // Still cached until the TTL runs out or the entry is evicted
+        assertFalse(cache.isRevoked(oldToken));
+        cache.evict(user.getId());
+        assertTrue(cache.isRevoked(oldToken));
+        assertFalse(cache.isRevoked(AuthenticatedUser.from(user)));
+    }
+
+    @Test
+    void disabledOrDeletedUsersAreRevoked() {
+        User user = testData.user(Role.USER);
+        AuthenticatedUser token = AuthenticatedUser.from(user);
+        TokenRevocationCache cache = new TokenRevocationCache(userRepository, true, 0, 100);
+
+        user.setEnabled(false);
+        user.setTokenVersion(token.getTokenVersion());
+        userRepository.save(user);
+        assertTrue(cache.isRevoked(token));
+
+        userRepository.delete(user);
+        assertTrue(cache.isRevoked(token));
+    }
+
+    @Test
+    void stateIsReadOncePerTtlAndNotAtAllWhenDisabled() {
+        User user = testData.user(Role.USER);
+        AuthenticatedUser token = AuthenticatedUser.from(user);
+        TokenRevocationCache cache = new TokenRevocationCache(userRepository, true, 60_000, 100);
+        TokenRevocationCache off = new TokenRevocationCache(userRepository, false, 60_000, 100);
+
+        QueryCountAssertions.assertStatementCount(1, () -> cache.isRevoked(token));
+        QueryCountAssertions.assertStatementCount(0, () -> cache.isRevoked(token));
+
+        user.setEnabled(false);
+        userRepository.save(user);
+        QueryCountAssertions.assertStatementCount(0, () -> assertFalse(off.isRevoked(token)));
+    }
+
+    @Test
+    void disabledUserLosesAccessEvenWithAVerifiedCachedToken() throws Exception {
+        User user = testData.user(Role.USER);
+        String bearer = testData.bearer(user);
+        mockMvc.perform(get("/api/wallet/balance").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        user.setEnabled(false);
+        userRepository.save(user);
+        tokenRevocationCache.evict(user.getId());
+
+        mockMvc.perform(get("/api/wallet/balance").header("Authorization", bearer))
+                .andExpect(status().is4xxClientError());
+    }
+}
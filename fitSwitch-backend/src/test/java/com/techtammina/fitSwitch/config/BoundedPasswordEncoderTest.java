@@ -0,0 +1,89 @@
+package com.techtammina.fitSwitch.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void aBurstOfHashesRunsAtMostTheConfiguredNumberAtOnce() throws Exception {
+        SlowEncoder slow = new SlowEncoder();
+        PasswordEncoder encoder = new BoundedPasswordEncoder(slow, 2);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 40; i++) {
+                String password = "secret-" + i;
+                results.add(executor.submit(() -> encoder.matches(password, encoder.encode(password))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(80, slow.calls.get());
+        assertEquals(2, slow.maxConcurrent.get());
+    }
+
+    @Test
+    void aFailingHashReleasesItsPermit() {
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new FailingEncoder(), 1);
+
+        assertThrows(IllegalStateException.class, () -> encoder.encode("first"));
+        // With the permit leaked this would block forever
+        assertThrows(IllegalStateException.class, () -> encoder.matches("second", "hash"));
+    }
+
+    // Stands in for BCrypt: holds its thread for a while and records how many run together
+    private static final class SlowEncoder implements PasswordEncoder {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hash();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            hash();
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void hash() {
+            calls.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class FailingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new IllegalStateException("hash failed");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            throw new IllegalStateException("hash failed");
+        }
+    }
+}
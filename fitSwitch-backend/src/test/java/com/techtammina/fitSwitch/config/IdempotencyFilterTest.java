@@ -0,0 +1,217 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.entity.IdempotencyRecord;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.IdempotencyRecordRepository;
+import com.techtammina.fitSwitch.repository.UserWalletRepository;
+import com.techtammina.fitSwitch.repository.WalletTransactionRepository;
+import com.techtammina.fitSwitch.service.IdempotencyService;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The test profile sets app.idempotency.wait-timeout-ms to 1s, which is also the lease an
+ * IN_PROGRESS claim holds its key for.
+ */
+class IdempotencyFilterTest extends DatabaseTest {
+
+    private static final String ADD_MONEY = "/api/wallet/add-money";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private UserWalletRepository walletRepository;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    private User user;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user(Role.USER);
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void completedKeyIsReplayedWithoutRunningTheRequestAgain() throws Exception {
+        String first = addMoney(key, amount("25.00"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        String replayed = addMoney(key, amount("25.00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, replayed);
+        assertEquals(new BigDecimal("25.00"), balance());
+        assertEquals(1, transactionRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+    }
+
+    @Test
+    void clientErrorsAreKeptAndReplayedToo() throws Exception {
+        addMoney(key, amount("0")).andExpect(status().isBadRequest());
+
+        addMoney(key, amount("0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+        assertEquals(IdempotencyRecord.Status.COMPLETED, record().getStatus());
+    }
+
+    @Test
+    void sameKeyWithADifferentBodyIsRejected() throws Exception {
+        addMoney(key, amount("25.00")).andExpect(status().isOk());
+
+        addMoney(key, amount("40.00"))
+                .andExpect(status().isUnprocessableContent())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different request"));
+        assertEquals(new BigDecimal("25.00"), balance());
+    }
+
+    @Test
+    void duplicateGets409WhileTheFirstRequestIsInFlight() throws Exception {
+        IdempotencyService.Claim inFlight = claimAsAnotherRequest(amount("25.00"));
+        assertTrue(inFlight.isOwned());
+
+        addMoney(key, amount("25.00"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+
+        assertFalse(walletRepository.findBalanceByUserId(user.getId()).isPresent());
+        idempotencyService.release(inFlight);
+    }
+
+    @Test
+    void claimLeftBehindByADeadRequestIsTakenOverOnceItsLeaseLapses() throws Exception {
+        // Committed its work but never completed the key, e.g. the process died in between
+        IdempotencyService.Claim abandoned = claimAsAnotherRequest(amount("25.00"));
+        Thread.sleep(1100);
+
+        addMoney(key, amount("25.00"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // The late owner can no longer overwrite or drop the new owner's response
+        idempotencyService.release(abandoned);
+        idempotencyService.complete(abandoned, 500, null, null);
+        IdempotencyRecord record = record();
+        assertEquals(IdempotencyRecord.Status.COMPLETED, record.getStatus());
+        assertEquals(200, record.getResponseStatus());
+    }
+
+    @Test
+    void serverErrorReleasesTheKeySoARetryRunsAgain() throws Exception {
+        String missingGym = "{\"gymId\":" + Long.MAX_VALUE + ",\"facilityId\":1}";
+        mockMvc.perform(post("/api/wallet/use-facility")
+                        .header("Authorization", testData.bearer(user))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(missingGym))
+                .andExpect(status().isInternalServerError());
+
+        assertTrue(recordRepository.findByUserIdAndIdempotencyKey(user.getId(), key).isEmpty());
+        mockMvc.perform(post("/api/wallet/use-facility")
+                        .header("Authorization", testData.bearer(user))
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(missingGym))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void concurrentRequestsWithOneKeyRunTheHandlerOnce() throws Exception {
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        try {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return addMoney(key, amount("25.00")).andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+            for (Future<MockHttpServletResponse> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(responses.stream().allMatch(response -> response.getStatus() == 200));
+        assertEquals(1, responses.stream()
+                .filter(response -> response.getHeader(IdempotencyFilter.REPLAYED_HEADER) == null)
+                .count());
+        assertEquals(new BigDecimal("25.00"), balance());
+        assertEquals(1, transactionRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+    }
+
+    @Test
+    void oversizedBodyIsRejectedBeforeTheKeyIsClaimed() throws Exception {
+        String oversized = "{\"amount\":25,\"note\":\"" + "x".repeat(IdempotencyFilter.MAX_BODY) + "\"}";
+
+        addMoney(key, oversized).andExpect(status().isContentTooLarge());
+
+        assertTrue(recordRepository.findByUserIdAndIdempotencyKey(user.getId(), key).isEmpty());
+    }
+
+    private ResultActions addMoney(String idempotencyKey, String body) throws Exception {
+        return mockMvc.perform(post(ADD_MONEY)
+                .header("Authorization", testData.bearer(user))
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private IdempotencyService.Claim claimAsAnotherRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ADD_MONEY);
+        String hash = IdempotencyFilter.hash(request, body.getBytes(StandardCharsets.UTF_8));
+        return idempotencyService.claim(user.getId(), key, hash);
+    }
+
+    private IdempotencyRecord record() {
+        return recordRepository.findByUserIdAndIdempotencyKey(user.getId(), key).orElseThrow();
+    }
+
+    private BigDecimal balance() {
+        return walletRepository.findBalanceByUserId(user.getId()).orElseThrow().getBalance();
+    }
+
+    private static String amount(String amount) {
+        return "{\"amount\":" + amount + "}";
+    }
+}
@@ -0,0 +1,62 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import com.techtammina.fitSwitch.support.QueryCountAssertions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class QueryBudgetFilterTest extends DatabaseTest {
+
+    private static final String ROUTE = "/owner/gyms/{gymId}/users";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    private User owner;
+    private Gym gym;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+        gym = testData.gym(owner.getId());
+    }
+
+    @Test
+    void countsStatementsPerRequestAndRecordsThemAgainstTheRoute() throws Exception {
+        DistributionSummary statements = meterRegistry.summary("http.server.requests.sql.statements", "uri", ROUTE);
+        long requestsBefore = statements.count();
+        double statementsBefore = statements.totalAmount();
+
+        MvcResult result = mockMvc.perform(get(ROUTE, gym.getId()).header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        QueryCountAssertions.assertStatementCount(result, 2);
+        assertEquals(requestsBefore + 1, statements.count());
+        assertEquals(statementsBefore + 2, statements.totalAmount());
+    }
+
+    @Test
+    void pinsStatementsIssuedOutsideARequest() {
+        QueryCountAssertions.assertStatementCount(1, () -> gymRepository.findById(gym.getId()));
+        QueryCountAssertions.assertStatementCountAtMost(2, () -> gymRepository.findByOwnerId(owner.getId()));
+        assertThrows(AssertionError.class,
+                () -> QueryCountAssertions.assertStatementCount(0, () -> gymRepository.findById(gym.getId())));
+    }
+}
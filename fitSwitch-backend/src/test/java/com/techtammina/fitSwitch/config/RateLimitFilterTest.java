@@ -0,0 +1,220 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.utils.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the filter on its own, with a route keyed by email only so each request's bucket
+ * depends on what the filter read from the body.
+ */
+class RateLimitFilterTest {
+
+    private static final String LOGIN = "/auth/login";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> forwardedBodies = new ArrayList<>();
+    private final FilterChain recordingChain = (request, response) -> forwardedBodies.add(body(request));
+
+    @Test
+    void chunkedLoginBodiesAreStillLimitedPerEmail() throws Exception {
+        RateLimitFilter filter = filter(2, false);
+
+        assertEquals(200, run(filter, chunked(login("Member@Example.com"))).getStatus());
+        assertEquals(200, run(filter, chunked(login("member@example.com"))).getStatus());
+        MockHttpServletResponse limited = run(filter, chunked(login(" member@example.com ")));
+
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.rate_limited",
+                "uri", LOGIN, "reason", "EMAIL").count());
+        // Another account is not affected
+        assertEquals(200, run(filter, chunked(login("other@example.com"))).getStatus());
+    }
+
+    @Test
+    void controllerStillReadsTheBodyTheFilterInspected() throws Exception {
+        RateLimitFilter filter = filter(5, false);
+        String body = login("member@example.com");
+
+        run(filter, chunked(body));
+        run(filter, withLength(body));
+
+        assertEquals(List.of(body, body), forwardedBodies);
+    }
+
+    @Test
+    void oversizedBodiesAreRejectedWhateverTheirDeclaredLength() throws Exception {
+        RateLimitFilter filter = filter(5, false);
+        String oversized = "{\"email\":\"member@example.com\",\"password\":\""
+                + "x".repeat(RateLimitFilter.MAX_INSPECTED_BODY) + "\"}";
+
+        MockHttpServletResponse chunked = run(filter, chunked(oversized));
+        MockHttpServletResponse declared = run(filter, withLength(oversized));
+
+        assertEquals(413, chunked.getStatus());
+        assertEquals(413, declared.getStatus());
+        assertNull(chunked.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(forwardedBodies.isEmpty());
+        assertEquals(2.0, meterRegistry.counter("http.server.requests.rate_limited",
+                "uri", LOGIN, "reason", "BODY_TOO_LARGE").count());
+    }
+
+    @Test
+    void bodyOfExactlyTheLimitIsInspected() throws Exception {
+        RateLimitFilter filter = filter(1, false);
+        String prefix = "{\"email\":\"member@example.com\",\"password\":\"";
+        String body = prefix + "x".repeat(RateLimitFilter.MAX_INSPECTED_BODY - prefix.length() - 2) + "\"}";
+        assertEquals(RateLimitFilter.MAX_INSPECTED_BODY, body.length());
+
+        assertEquals(200, run(filter, chunked(body)).getStatus());
+        assertEquals(429, run(filter, chunked(body)).getStatus());
+    }
+
+    @Test
+    void expensiveRoutesGet503WhenEverySlotIsTaken() throws Exception {
+        RateLimitFilter filter = filter(10, true);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        // The outer request holds the only slot while a second one arrives
+        FilterChain holdingChain = (request, response) ->
+                nested.set(run(filter, withLength(login("other@example.com")), recordingChain));
+
+        MockHttpServletResponse outer = run(filter, withLength(login("member@example.com")), holdingChain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        // The slot is released afterwards
+        assertEquals(200, run(filter, withLength(login("member@example.com"))).getStatus());
+    }
+
+    @Test
+    void requestRejectedForItsEmailTakesNoTokenFromItsIp() throws Exception {
+        RateLimitFilter filter = filter(2, false, RateLimitProperties.KeyType.IP, RateLimitProperties.KeyType.EMAIL);
+
+        assertEquals(200, run(filter, from("10.0.0.1", withLength(login("member@example.com")))).getStatus());
+        assertEquals(200, run(filter, from("10.0.0.2", withLength(login("member@example.com")))).getStatus());
+        assertEquals(429, run(filter, from("10.0.0.1", withLength(login("member@example.com")))).getStatus());
+
+        // 10.0.0.1 has used one of its two tokens, so another account can still log in from it
+        assertEquals(200, run(filter, from("10.0.0.1", withLength(login("other@example.com")))).getStatus());
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.rate_limited",
+                "uri", LOGIN, "reason", "EMAIL").count());
+    }
+
+    @Test
+    void policiesThatNeverRefillAreRejectedAtStartup() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(PropertiesConfig.class)
+                .withPropertyValues("app.rate-limit.routes[/auth/login].refill-per-minute=0")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+        new ApplicationContextRunner()
+                .withUserConfiguration(PropertiesConfig.class)
+                .withPropertyValues("app.rate-limit.routes[/auth/login].capacity=-1")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+        new ApplicationContextRunner()
+                .withUserConfiguration(PropertiesConfig.class)
+                .withPropertyValues("app.rate-limit.routes[/auth/login].refill-per-minute=5")
+                .run(context -> assertEquals(5, context.getBean(RateLimitProperties.class)
+                        .getRoutes().get(LOGIN).getRefillPerMinute()));
+    }
+
+    @EnableConfigurationProperties(RateLimitProperties.class)
+    static class PropertiesConfig {
+    }
+
+    private RateLimitFilter filter(int capacity, boolean expensive) {
+        return filter(capacity, expensive, RateLimitProperties.KeyType.EMAIL);
+    }
+
+    private RateLimitFilter filter(int capacity, boolean expensive, RateLimitProperties.KeyType... keys) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setKeys(List.of(keys));
+        policy.setCapacity(capacity);
+        policy.setRefillPerMinute(1);
+        policy.setExpensive(expensive);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setExpensiveConcurrency(1);
+        properties.setExpensiveWaitMs(0);
+        properties.getRoutes().put(LOGIN, policy);
+        JwtUtils jwtUtils = new JwtUtils("fitSwitchSecretKeyForJWTTokenGenerationAndValidation2024",
+                86_400_000, 10, 0, null);
+        return new RateLimitFilter(properties, jwtUtils, JsonMapper.builder().build(), meterRegistry);
+    }
+
+    private MockHttpServletResponse run(RateLimitFilter filter, MockHttpServletRequest request) {
+        return run(filter, request, recordingChain);
+    }
+
+    private static MockHttpServletResponse run(RateLimitFilter filter, MockHttpServletRequest request,
+                                               FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest from(String ip, MockHttpServletRequest request) {
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    private static String login(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+    }
+
+    private static MockHttpServletRequest withLength(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    // Transfer-Encoding: chunked, so the container reports no Content-Length
+    private static MockHttpServletRequest chunked(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String body(ServletRequest request) {
+        try {
+            return StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.techtammina.fitSwitch.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstOfCapacityThenReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(3, 6);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+        long waitNanos = bucket.tryConsume();
+
+        // 6 a minute is one token every 10 seconds
+        assertTrue(waitNanos > TimeUnit.SECONDS.toNanos(9), "wait was " + waitNanos);
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(10), "wait was " + waitNanos);
+    }
+
+    @Test
+    void waitNanosLooksWithoutTakingAndRefundGivesATokenBack() {
+        TokenBucket bucket = new TokenBucket(1, 6);
+
+        assertEquals(0, bucket.waitNanos());
+        assertEquals(0, bucket.waitNanos());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.waitNanos() > 0);
+
+        bucket.refund();
+        assertEquals(0, bucket.waitNanos());
+        // Never above capacity
+        bucket.refund();
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void refillsFromTheTimeElapsed() throws Exception {
+        // One token a millisecond
+        TokenBucket bucket = new TokenBucket(1, 60_000);
+        assertEquals(0, bucket.tryConsume());
+
+        Thread.sleep(5);
+
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void isFullOnlyWhileNoTokenIsMissing() throws Exception {
+        TokenBucket slow = new TokenBucket(2, 1);
+        assertTrue(slow.isFull());
+        slow.tryConsume();
+        assertFalse(slow.isFull());
+
+        TokenBucket fast = new TokenBucket(2, 60_000);
+        fast.tryConsume();
+        Thread.sleep(5);
+        assertTrue(fast.isFull());
+    }
+
+    @Test
+    void concurrentConsumersNeverTakeMoreThanCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 1);
+        Thread[] threads = new Thread[8];
+        int[] taken = new int[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (bucket.tryConsume() == 0) {
+                        taken[index]++;
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (int count : taken) {
+            total += count;
+        }
+        assertEquals(100, total);
+    }
+}
@@ -0,0 +1,68 @@
+package com.techtammina.fitSwitch.config;
+
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Runs the application with spring.threads.virtual.enabled=true (its own context, since the
+ * default is off) and checks that background work lands on virtual threads and that the
+ * request path holds up under many concurrent virtual-thread callers.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadModeTest extends DatabaseTest {
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Test
+    void asyncTasksAndScheduledJobsRunOnVirtualThreads() throws Exception {
+        Future<Boolean> async = taskExecutor.submit(() -> Thread.currentThread().isVirtual());
+        assertTrue(async.get(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> scheduled = new CompletableFuture<>();
+        taskScheduler.schedule(() -> scheduled.complete(Thread.currentThread().isVirtual()), Instant.now());
+        assertTrue(scheduled.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void manyConcurrentRequestsOnVirtualThreadsAllComplete() throws Exception {
+        User member = testData.user(Role.USER);
+        String bearer = testData.bearer(member);
+        testData.gym(testData.user(Role.OWNER).getId());
+
+        // Far more callers than carrier threads, all going through the JWT and catalog caches
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 300; i++) {
+                statuses.add(executor.submit(() -> mockMvc.perform(get("/gyms").header("Authorization", bearer))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(200, status.get(60, TimeUnit.SECONDS));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.dto.GymPlanCreateRequest;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.service.GymPlanService;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class CatalogSnapshotControllerTest extends DatabaseTest {
+
+    @Autowired
+    private GymPlanService gymPlanService;
+
+    private User owner;
+    private Gym gym;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+        gym = testData.gym(owner.getId());
+        bearer = testData.bearer(testData.user(Role.USER));
+    }
+
+    @Test
+    void answersARepeatedRequestWithNotModified() throws Exception {
+        testData.gymPlan(gym.getId(), "1200.00");
+
+        MockHttpServletResponse first = plans(null, null);
+        assertEquals(200, first.getStatus());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals("max-age=30, public", first.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertTrue(first.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue(first.getContentAsString().contains("1200"));
+
+        MockHttpServletResponse cached = plans(etag, null);
+        assertEquals(304, cached.getStatus());
+        assertEquals(0, cached.getContentAsByteArray().length);
+        assertEquals(etag, cached.getHeader(HttpHeaders.ETAG));
+
+        // A weak validator and a list of validators match too
+        assertEquals(304, plans("W/" + etag, null).getStatus());
+        assertEquals(304, plans("\"stale\", " + etag, null).getStatus());
+        assertEquals(200, plans("\"stale\"", null).getStatus());
+    }
+
+    @Test
+    void aCommittedPlanChangeRebuildsTheSnapshot() throws Exception {
+        testData.gymPlan(gym.getId(), "1200.00");
+        String before = plans(null, null).getHeader(HttpHeaders.ETAG);
+
+        GymPlanCreateRequest request = new GymPlanCreateRequest();
+        request.setGymId(gym.getId());
+        request.setPlanName("Quarterly");
+        request.setPrice(new BigDecimal("3300.00"));
+        request.setDurationDays(90);
+        request.setDurationMonths(3);
+        gymPlanService.createPlan(owner.getId(), request);
+
+        MockHttpServletResponse after = plans(before, null);
+        assertEquals(200, after.getStatus());
+        assertNotEquals(before, after.getHeader(HttpHeaders.ETAG));
+        assertTrue(after.getContentAsString().contains("Quarterly"));
+    }
+
+    @Test
+    void sendsTheGzipCopyOnlyToClientsThatAcceptIt() throws Exception {
+        // Enough plans to pass the size below which bodies are not compressed
+        for (int i = 0; i < 20; i++) {
+            testData.gymPlan(gym.getId(), (1000 + i) + ".00");
+        }
+
+        MockHttpServletResponse plain = plans(null, null);
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] json = plain.getContentAsByteArray();
+        assertTrue(json.length >= 1024);
+
+        MockHttpServletResponse gzipped = plans(null, "br, gzip;q=0.8");
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(plain.getHeader(HttpHeaders.ETAG), gzipped.getHeader(HttpHeaders.ETAG));
+        byte[] compressed = gzipped.getContentAsByteArray();
+        assertTrue(compressed.length < json.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+
+        assertNull(plans(null, "gzip;q=0").getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(plans(null, "identity").getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void smallBodiesAreNeverCompressed() throws Exception {
+        testData.gymPlan(gym.getId(), "1200.00");
+
+        assertNull(plans(null, "gzip").getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private MockHttpServletResponse plans(String ifNoneMatch, String acceptEncoding) throws Exception {
+        var request = get("/gyms/{gymId}/plans", gym.getId()).header("Authorization", bearer);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
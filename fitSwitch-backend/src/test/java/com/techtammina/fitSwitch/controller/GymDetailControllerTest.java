@@ -0,0 +1,132 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.GymFacilityRepository;
+import com.techtammina.fitSwitch.repository.GymPlanRepository;
+import com.techtammina.fitSwitch.repository.GymRepository;
+import com.techtammina.fitSwitch.service.GymDetailService;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static com.techtammina.fitSwitch.support.QueryCountAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GymDetailControllerTest extends DatabaseTest {
+
+    @Autowired
+    private GymDetailService gymDetailService;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private GymPlanRepository gymPlanRepository;
+
+    @Autowired
+    private GymFacilityRepository gymFacilityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Gym gym;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        gym = testData.gym(testData.user(Role.OWNER).getId());
+        bearer = testData.bearer(testData.user(Role.USER));
+    }
+
+    @Test
+    void detailHoldsTheActivePlansAndFacilitiesWithTheirPlans() throws Exception {
+        testData.gymPlan(gym.getId(), "1200.00");
+        GymPlan retired = testData.gymPlan(gym.getId(), "999.00");
+        retired.setActive(false);
+        gymPlanRepository.save(retired);
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        FacilityPlan poolPass = testData.facilityPlan(gym.getId(), pool.getId(), "400.00");
+        GymFacility sauna = testData.facility(gym.getId(), "Sauna");
+        GymFacility closed = testData.facility(gym.getId(), "Squash Court");
+        closed.setActive(false);
+        gymFacilityRepository.save(closed);
+
+        JsonNode detail = read("/gyms/{gymId}/detail");
+
+        assertEquals(gym.getId(), detail.get("gym").get("id").asLong());
+        assertEquals(1, detail.get("plans").size());
+        assertEquals(1200.0, detail.get("plans").get(0).get("price").asDouble());
+
+        JsonNode facilities = detail.get("facilities");
+        assertEquals(2, facilities.size());
+        JsonNode poolNode = facility(facilities, pool.getId());
+        assertTrue(poolNode.get("facility").get("hasPlans").asBoolean());
+        assertEquals(1, poolNode.get("plans").size());
+        assertEquals(poolPass.getId(), poolNode.get("plans").get(0).get("id").asLong());
+        assertEquals(gym.getGymName(), poolNode.get("plans").get(0).get("gymName").asString());
+        JsonNode saunaNode = facility(facilities, sauna.getId());
+        assertFalse(saunaNode.get("facility").get("hasPlans").asBoolean());
+        assertEquals(0, saunaNode.get("plans").size());
+    }
+
+    @Test
+    void nestedObjectsMatchTheSeparatePublicEndpoints() throws Exception {
+        testData.gymPlan(gym.getId(), "1200.00");
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        testData.facilityPlan(gym.getId(), pool.getId(), "400.00");
+
+        JsonNode detail = read("/gyms/{gymId}/detail");
+
+        assertEquals(read("/gyms/{gymId}/plans"), detail.get("plans"));
+        assertEquals(read("/gyms/{gymId}/facilities").get(0), detail.get("facilities").get(0).get("facility"));
+    }
+
+    @Test
+    void buildsInThreeStatementsWhateverTheNumberOfFacilities() {
+        testData.gymPlan(gym.getId(), "1200.00");
+        for (int i = 0; i < 10; i++) {
+            GymFacility facility = testData.facility(gym.getId(), "Facility " + i);
+            testData.facilityPlan(gym.getId(), facility.getId(), "400.00");
+            testData.facilityPlan(gym.getId(), facility.getId(), "650.00");
+        }
+        // The gym row comes from the catalog cache once it is warm
+        gymDetailService.getGymDetail(gym.getId());
+
+        assertEquals(10, assertStatementCount(3, () -> gymDetailService.getGymDetail(gym.getId()))
+                .getFacilities().size());
+    }
+
+    @Test
+    void inactiveGymsHaveNoDetailPage() throws Exception {
+        // Not looked up yet, so the catalog cache has no stale active copy
+        gym.setActive(false);
+        gymRepository.save(gym);
+
+        mockMvc.perform(get("/gyms/{gymId}/detail", gym.getId()).header("Authorization", bearer))
+                .andExpect(status().is5xxServerError())
+                .andExpect(jsonPath("$.message").value("Gym not found"));
+    }
+
+    private JsonNode read(String path) throws Exception {
+        byte[] body = mockMvc.perform(get(path, gym.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(body);
+    }
+
+    private static JsonNode facility(JsonNode facilities, Long facilityId) {
+        for (JsonNode node : facilities) {
+            if (node.get("facility").get("id").asLong() == facilityId) {
+                return node;
+            }
+        }
+        throw new AssertionError("No facility " + facilityId + " in " + facilities);
+    }
+}
@@ -0,0 +1,116 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.service.FacilityPlanService;
+import com.techtammina.fitSwitch.service.OwnerEarningRecorder;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.techtammina.fitSwitch.support.QueryCountAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * An owner with 50 gyms of 10 facilities each. Every portfolio page, and the full facility
+ * plan list, must cost the same few statements whatever the size of the portfolio.
+ */
+class OwnerPortfolioControllerTest extends DatabaseTest {
+
+    private static final int GYMS = 50;
+    private static final int FACILITIES_PER_GYM = 10;
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private FacilityPlanService facilityPlanService;
+
+    @Autowired
+    private OwnerEarningRecorder earningRecorder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+        bearer = testData.bearer(owner);
+        User member = testData.user(Role.USER);
+        for (int g = 0; g < GYMS; g++) {
+            Gym gym = testData.gym(owner.getId());
+            testData.gymPlan(gym.getId(), "1200.00");
+            testData.gymPlan(gym.getId(), "3300.00");
+            for (int f = 0; f < FACILITIES_PER_GYM; f++) {
+                GymFacility facility = testData.facility(gym.getId(), "Facility " + f);
+                testData.facilityPlan(gym.getId(), facility.getId(), "400.00");
+            }
+            earningRecorder.record(earning(member, gym));
+        }
+    }
+
+    @Test
+    void everyPortfolioPageIsAFixedNumberOfStatements() throws Exception {
+        // Cold catalog cache: the page query plus one batched load each for gym and facility names
+        assertEquals(GYMS * FACILITIES_PER_GYM, walk("/owner/portfolio/facility-plans", 3));
+        // Names now come from the cache
+        assertEquals(GYMS * FACILITIES_PER_GYM, walk("/owner/portfolio/facility-plans", 1));
+        assertEquals(GYMS * FACILITIES_PER_GYM, walk("/owner/portfolio/facilities", 1));
+        assertEquals(GYMS * 2, walk("/owner/portfolio/plans", 1));
+        assertEquals(GYMS, walk("/owner/portfolio/earnings", 1));
+    }
+
+    @Test
+    void allFacilityPlansLoadWithOneQueryAndTwoNameLookups() {
+        assertEquals(GYMS * FACILITIES_PER_GYM,
+                assertStatementCount(3, () -> facilityPlanService.getAllOwnerFacilityPlans(owner.getId())).size());
+        assertEquals(GYMS * FACILITIES_PER_GYM,
+                assertStatementCount(1, () -> facilityPlanService.getAllOwnerFacilityPlans(owner.getId())).size());
+    }
+
+    // Follows nextCursor to the end, pinning the statement count of every page; returns the item count
+    private int walk(String path, long statementsPerPage) throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            var request = get(path).param("size", String.valueOf(PAGE_SIZE)).header("Authorization", bearer);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            assertStatementCount(result, statementsPerPage);
+
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+            for (JsonNode item : page.get("items")) {
+                JsonNode id = item.has("id") ? item.get("id") : item.get("gymId");
+                assertTrue(seen.add(id.asLong()), "Repeated item " + id + " in " + path);
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+        } while (cursor != null);
+        return seen.size();
+    }
+
+    private OwnerEarning earning(User member, Gym gym) {
+        OwnerEarning earning = new OwnerEarning();
+        earning.setOwnerId(owner.getId());
+        earning.setGymId(gym.getId());
+        earning.setUserId(member.getId());
+        earning.setType(OwnerEarning.EarningType.MEMBERSHIP_PURCHASE);
+        earning.setAmount(new BigDecimal("100.00"));
+        earning.setDescription("Portfolio test");
+        earning.setCreatedAt(LocalDateTime.now());
+        return earning;
+    }
+}
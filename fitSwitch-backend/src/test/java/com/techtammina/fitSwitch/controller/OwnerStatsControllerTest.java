@@ -0,0 +1,128 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.entity.FacilityPlan;
+import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymFacility;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.entity.Membership;
+import com.techtammina.fitSwitch.entity.MembershipStatus;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.entity.UserVisitStats;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.repository.UserVisitStatsRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import com.techtammina.fitSwitch.support.QueryCountAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OwnerStatsControllerTest extends DatabaseTest {
+
+    @Autowired
+    private UserVisitStatsRepository visitStatsRepository;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    private User owner;
+    private Gym gym;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+        gym = testData.gym(owner.getId());
+        GymPlan plan = testData.gymPlan(gym.getId(), "999.00");
+        for (int i = 0; i < 12; i++) {
+            User member = testData.user(Role.USER, "Member " + (char) ('A' + i));
+            testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+            UserVisitStats stats = new UserVisitStats(member.getId(), gym.getId());
+            stats.addVisit(LocalDate.now().minusDays(i));
+            visitStatsRepository.save(stats);
+        }
+        // Signed up but never checked in, so no visit stats row
+        User newMember = testData.user(Role.USER, "Member M");
+        testData.membership(newMember.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        FacilityPlan poolPlan = testData.facilityPlan(gym.getId(), pool.getId(), "499.00");
+        User swimmer = testData.user(Role.USER, "Member N");
+        testData.facilitySubscription(swimmer.getId(), poolPlan, FacilitySubscriptionStatus.ACTIVE);
+    }
+
+    @Test
+    void gymUsersAreUnpagedByDefaultAndUseTwoStatements() throws Exception {
+        MvcResult result = mockMvc.perform(get("/owner/gyms/{gymId}/users", gym.getId())
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "14"))
+                .andExpect(jsonPath("$", hasSize(14)))
+                .andExpect(jsonPath("$[0].userName").value("Member A"))
+                .andReturn();
+
+        // Ownership check and the aggregate query, however many members the gym has
+        QueryCountAssertions.assertStatementCount(result, 2);
+    }
+
+    @Test
+    void gymUsersArePagedWhenASizeIsGiven() throws Exception {
+        MvcResult result = mockMvc.perform(get("/owner/gyms/{gymId}/users", gym.getId())
+                        .param("page", "1")
+                        .param("size", "5")
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "14"))
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].userName").value("Member F"))
+                .andReturn();
+
+        // The page plus its count query
+        QueryCountAssertions.assertStatementCount(result, 3);
+    }
+
+    @Test
+    void gymUsersIncludeMembersWithoutVisits() throws Exception {
+        mockMvc.perform(get("/owner/gyms/{gymId}/users", gym.getId())
+                        .param("sort", "totalVisits")
+                        .param("direction", "asc")
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(14)))
+                .andExpect(jsonPath("$[0].userName").value("Member M"))
+                .andExpect(jsonPath("$[0].membershipStatus").value("ACTIVE"))
+                .andExpect(jsonPath("$[0].totalVisits").value(0))
+                .andExpect(jsonPath("$[0].lastVisitDate").doesNotExist())
+                .andExpect(jsonPath("$[1].userName").value("Member N"))
+                .andExpect(jsonPath("$[1].membershipStatus").value("NONE"))
+                .andExpect(jsonPath("$[1].facilitySubscriptionStatus").value("ACTIVE"))
+                .andExpect(jsonPath("$[2].totalVisits").value(1));
+    }
+
+    @Test
+    void planPastItsEndDateIsNotActiveBeforeTheExpiryJobRuns() throws Exception {
+        User lapsed = testData.user(Role.USER, "Member O");
+        Membership membership = testData.membership(lapsed.getId(), gym.getId(),
+                testData.gymPlan(gym.getId(), "999.00").getId(), MembershipStatus.ACTIVE);
+        membership.setEndDate(LocalDate.now().minusDays(1));
+        membershipRepository.save(membership);
+
+        mockMvc.perform(get("/owner/gyms/{gymId}/users", gym.getId())
+                        .param("sort", "userName")
+                        .param("direction", "desc")
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userName").value("Member O"))
+                .andExpect(jsonPath("$[0].membershipStatus").value("NONE"))
+                .andExpect(jsonPath("$[1].membershipStatus").value("NONE"))
+                .andExpect(jsonPath("$[2].membershipStatus").value("ACTIVE"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.techtammina.fitSwitch.controller;
+
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.entity.WalletTransaction;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.service.WalletLedger;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WalletControllerTest extends DatabaseTest {
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void walletAndDigitalCardShowTheSameBalanceIncludingUnfoldedEarnings() throws Exception {
+        User owner = testData.user(Role.OWNER);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            batch.credit(owner.getId(), new BigDecimal("50.00"), entry(WalletTransaction.TransactionType.ADD_MONEY));
+            batch.creditOwner(owner.getId(), new BigDecimal("30.00"), entry(WalletTransaction.TransactionType.OWNER_EARNING));
+            batch.flush();
+        });
+
+        mockMvc.perform(get("/api/wallet/balance").header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(80.00));
+        mockMvc.perform(get("/api/digital-card/data").header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.walletBalance").value(80.00));
+    }
+
+    @Test
+    void exportWalksEveryKeysetPageNewestFirst() throws Exception {
+        User user = testData.user(Role.USER);
+        // More rows than two export pages
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            for (int i = 0; i < 450; i++) {
+                batch.credit(user.getId(), BigDecimal.ONE, entry(WalletTransaction.TransactionType.ADD_MONEY));
+            }
+            batch.flush();
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/wallet/transactions/export")
+                        .header("Authorization", testData.bearer(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(450, lines.size());
+        assertEquals(450, lines.stream().distinct().count());
+        // Running balance counts down from the newest credit to the first one
+        assertEquals(new BigDecimal("450.00"), balanceAfter(lines.get(0)));
+        assertEquals(new BigDecimal("201.00"), balanceAfter(lines.get(249)));
+        assertEquals(new BigDecimal("1.00"), balanceAfter(lines.get(449)));
+    }
+
+    private static BigDecimal balanceAfter(String line) {
+        return new BigDecimal(line.replaceAll(".*\"balanceAfter\":([0-9.]+).*", "$1"));
+    }
+
+    private static WalletTransaction entry(WalletTransaction.TransactionType type) {
+        WalletTransaction entry = new WalletTransaction();
+        entry.setType(type);
+        entry.setDescription("Wallet controller test");
+        return entry;
+    }
+}
@@ -0,0 +1,266 @@
+package com.techtammina.fitSwitch.repository;
+
+import com.techtammina.fitSwitch.config.QueryMetricsContext;
+import com.techtammina.fitSwitch.config.SchemaIndexVerifier;
+import com.techtammina.fitSwitch.entity.EmailOutbox;
+import com.techtammina.fitSwitch.entity.FacilitySubscriptionStatus;
+import com.techtammina.fitSwitch.entity.GymSession;
+import com.techtammina.fitSwitch.entity.MembershipStatus;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Runs each hot repository method, takes the SQL Hibernate generated for it from
+ * {@link QueryMetricsContext}, and EXPLAINs that SQL with the same bind values to check the
+ * optimizer picks the index added for it. A migration that gets the column order wrong, or a
+ * query rewritten so it no longer filters on the leading column, fails here.
+ *
+ * Bind values are listed in placeholder order; a named parameter used twice binds twice.
+ * On near-empty tables the optimizer picks indexes more or less at random, so the tables the
+ * plans depend on are first given a production-like spread of rows under negative user and
+ * gym ids, which no other test uses, and analyzed. The queries bind those ids.
+ */
+class QueryPlanTest extends DatabaseTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 1);
+    private static final LocalDateTime TIME = DAY.atStartOfDay();
+    private static final long USER = -1;
+    private static final long GYM = -2;
+    private static final int USERS = 20;
+    private static final int GYMS = 10;
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchemaIndexVerifier schemaIndexVerifier;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private GymMembershipSessionRepository membershipSessionRepository;
+
+    @Autowired
+    private FacilitySessionRepository facilitySessionRepository;
+
+    @Autowired
+    private UserFacilitySubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Autowired
+    private OwnerEarningRepository earningRepository;
+
+    @Autowired
+    private OwnerEarningRollupRepository rollupRepository;
+
+    @Autowired
+    private UserVisitStatsRepository visitStatsRepository;
+
+    @Autowired
+    private OwnerWalletCreditRepository creditRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private GymPlanRepository gymPlanRepository;
+
+    @Autowired
+    private FacilityPlanRepository facilityPlanRepository;
+
+    @Autowired
+    private GymRepository gymRepository;
+
+    @Autowired
+    private OtpVerificationRepository otpRepository;
+
+    @TestFactory
+    Stream<DynamicTest> hotQueryUsesItsIndex() {
+        seedOnce();
+        return Stream.of(
+            uses("idx_memberships_user_gym_status",
+                    () -> membershipRepository.findFirstByUserIdAndGymIdAndStatusAndEndDateGreaterThanEqual(
+                            USER, GYM, MembershipStatus.ACTIVE, DAY),
+                    USER, GYM, "ACTIVE", DAY, 1),
+            uses("idx_memberships_gym_status_end",
+                    () -> membershipRepository.findExpiringSoonMembers(GYM, DAY, DAY.plusDays(7)),
+                    GYM, GYM, DAY, DAY.plusDays(7)),
+            uses("idx_memberships_status_end",
+                    () -> membershipRepository.findExpiredIdsAfter(DAY, 0L, PageRequest.of(0, 500)),
+                    DAY, 0L, 500),
+            uses("idx_gym_membership_sessions_gym_visit",
+                    () -> membershipSessionRepository.findTodayVisitsByGymId(GYM, DAY),
+                    GYM, DAY),
+            uses("idx_gym_membership_sessions_user_visit",
+                    () -> membershipSessionRepository.findSessionHistoryPage(USER, DAY, 9L, PageRequest.of(0, 20)),
+                    USER, DAY, DAY, 9L, 20),
+            uses("idx_facility_sessions_subscription_visit",
+                    () -> facilitySessionRepository.findFirstByFacilitySubscriptionIdAndVisitDateOrderByCheckInTimeDesc(3L, DAY),
+                    3L, DAY, 1),
+            uses("idx_user_facility_subscriptions_user_gym_status",
+                    () -> subscriptionRepository.findFirstByUserIdAndGymIdAndStatusAndEndDateGreaterThanEqual(
+                            USER, GYM, FacilitySubscriptionStatus.ACTIVE, DAY),
+                    USER, GYM, "ACTIVE", DAY, 1),
+            uses("idx_user_facility_subscriptions_gym_status_end",
+                    () -> subscriptionRepository.findByGymIdAndStatusAndEndDateBetween(
+                            GYM, FacilitySubscriptionStatus.ACTIVE, DAY, DAY.plusDays(7)),
+                    GYM, "ACTIVE", DAY, DAY.plusDays(7)),
+            uses("idx_user_facility_subscriptions_status_end",
+                    () -> subscriptionRepository.findExpiredIdsAfter(DAY, 0L, PageRequest.of(0, 500)),
+                    DAY, 0L, 500),
+            uses("idx_gym_sessions_user_gym_visit",
+                    () -> gymSessionRepository.findByUserIdAndGymIdAndVisitDateAndStatus(
+                            USER, GYM, DAY, GymSession.SessionStatus.ACTIVE),
+                    USER, GYM, DAY, "ACTIVE"),
+            uses("idx_wallet_transactions_user_created",
+                    () -> walletTransactionRepository.findPageByUserId(USER, TIME, 9L, PageRequest.of(0, 20)),
+                    USER, TIME, TIME, 9L, 20),
+            uses("idx_owner_earnings_owner_created",
+                    () -> earningRepository.findPageByOwnerId(USER, TIME, 9L, PageRequest.of(0, 20)),
+                    USER, TIME, TIME, 9L, 20),
+            uses("idx_owner_earning_rollups_gym_date",
+                    () -> rollupRepository.sumByGymId(GYM),
+                    GYM),
+            uses("idx_owner_earning_rollups_gym_date",
+                    () -> rollupRepository.findGymDailySeries(GYM, DAY, DAY.plusDays(30)),
+                    GYM, DAY, DAY.plusDays(30)),
+            uses("idx_owner_earning_rollups_gym_date",
+                    () -> rollupRepository.findGymTypeBreakdown(GYM, DAY, DAY.plusDays(30)),
+                    GYM, DAY, DAY.plusDays(30)),
+            uses("idx_user_visit_stats_gym_visits",
+                    () -> visitStatsRepository.findByGymIdAndUserIdIn(GYM, List.of(USER, -3L)),
+                    GYM, USER, -3L),
+            uses("idx_owner_wallet_credits_owner",
+                    () -> creditRepository.findPendingForUpdate(USER, PageRequest.of(0, 500)),
+                    USER, 500),
+            uses("idx_email_outbox_status_next_attempt",
+                    () -> outboxRepository.findDueForUpdate(EmailOutbox.Status.PENDING, TIME, PageRequest.of(0, 50)),
+                    "PENDING", TIME, 50),
+            uses("idx_gym_plans_gym_active",
+                    () -> gymPlanRepository.findByGymIdAndActiveTrue(GYM),
+                    GYM),
+            uses("idx_facility_plans_gym_active",
+                    () -> facilityPlanRepository.findByGymIdAndActiveTrue(GYM),
+                    GYM),
+            uses("idx_gym_owner",
+                    () -> gymRepository.findByOwnerId(USER),
+                    USER),
+            uses("idx_otp_verifications_email",
+                    () -> otpRepository.findFirstByEmailAndVerifiedFalseOrderByIdDesc("a@b.c"),
+                    "a@b.c", 1)
+        );
+    }
+
+    @Test
+    void startupCheckDetectsAMissingIndex() {
+        jdbcTemplate.execute("DROP INDEX idx_gym_owner ON gym");
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> schemaIndexVerifier.run(null));
+            assertTrue(error.getMessage().contains("gym.idx_gym_owner"), error.getMessage());
+        } finally {
+            jdbcTemplate.execute("CREATE INDEX idx_gym_owner ON gym (owner_id)");
+        }
+        schemaIndexVerifier.run(null);
+    }
+
+    private void seedOnce() {
+        if (seeded) {
+            return;
+        }
+        // Inactive, so they stay out of the catalog; joins need a gym table of realistic size
+        List<Object[]> gyms = new ArrayList<>();
+        for (long gym = 1; gym <= 100; gym++) {
+            gyms.add(new Object[]{-gym, -(gym % USERS + 1), "Seed gym " + gym});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO gym (id, owner_id, gym_name, address, city, state, pincode, " +
+                "contact_number, latitude, longitude, active) VALUES (?, ?, ?, '-', '-', '-', '-', '-', 0, 0, 0)", gyms);
+
+        List<Object[]> memberships = new ArrayList<>();
+        List<Object[]> subscriptions = new ArrayList<>();
+        List<Object[]> sessions = new ArrayList<>();
+        List<Object[]> outbox = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (long user = 1; user <= USERS; user++) {
+            for (long gym = 1; gym <= GYMS; gym++) {
+                // Mostly lapsed plans, one current plan per gym; none left ACTIVE past its end
+                for (int i = 0; i < 3; i++) {
+                    LocalDate end = i == 0 ? DAY.plusYears(2) : DAY.minusMonths(2L * i + gym);
+                    String status = i == 0 ? "ACTIVE" : "EXPIRED";
+                    memberships.add(new Object[]{-user, -gym, -1L, end.minusMonths(1), end, status, now});
+                    subscriptions.add(new Object[]{-user, -gym, -(gym * 10 + i), -1L, end.minusMonths(1), end, status, now});
+                }
+            }
+            for (int day = 0; day < 30; day++) {
+                LocalDateTime checkIn = TIME.minusDays(day).plusHours(7);
+                sessions.add(new Object[]{-user, -(day % GYMS + 1), -1L, checkIn, checkIn.plusHours(1),
+                        checkIn.toLocalDate(), "COMPLETED"});
+                outbox.add(new Object[]{"plan-" + user + "-" + day + "@fitswitch.test", "Seed", "-", "SENT", 1,
+                        TIME, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO memberships (user_id, gym_id, plan_id, start_date, end_date, status, " +
+                "created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", memberships);
+        jdbcTemplate.batchUpdate("INSERT INTO user_facility_subscriptions (user_id, gym_id, facility_id, " +
+                "facility_plan_id, start_date, end_date, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", subscriptions);
+        jdbcTemplate.batchUpdate("INSERT INTO gym_membership_sessions (user_id, gym_id, membership_id, " +
+                "check_in_time, check_out_time, visit_date, status) VALUES (?, ?, ?, ?, ?, ?, ?)", sessions);
+        jdbcTemplate.batchUpdate("INSERT INTO email_outbox (recipient, subject, body, status, attempts, " +
+                "next_attempt_at, created_at, sent_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", outbox);
+        jdbcTemplate.queryForList("ANALYZE TABLE gym, memberships, user_facility_subscriptions, gym_membership_sessions, email_outbox");
+        seeded = true;
+    }
+
+    private DynamicTest uses(String index, Runnable repositoryCall, Object... bindValues) {
+        return dynamicTest(index, () -> {
+            String sql = generatedSql(repositoryCall);
+            assertEquals(bindValues.length, sql.chars().filter(c -> c == '?').count(),
+                    () -> "Bind values do not match the placeholders of " + sql);
+
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, bindValues);
+            boolean chosen = plan.stream().anyMatch(row -> index.equals(row.get("key")));
+            assertTrue(chosen, () -> index + " is not used by " + sql + "; plan was " + plan);
+        });
+    }
+
+    // Locking reads need a transaction, so every call runs in one
+    private String generatedSql(Runnable repositoryCall) {
+        QueryMetricsContext context = QueryMetricsContext.begin();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> repositoryCall.run());
+        } finally {
+            QueryMetricsContext.end();
+        }
+        assertEquals(1, context.getStatements().size(), () -> "Expected one statement, got " + context.getStatements());
+        return context.getStatements().get(0);
+    }
+}
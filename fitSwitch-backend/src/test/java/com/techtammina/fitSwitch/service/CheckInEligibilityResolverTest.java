@@ -0,0 +1,131 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static com.techtammina.fitSwitch.support.QueryCountAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckInEligibilityResolverTest extends DatabaseTest {
+
+    @Autowired
+    private CheckInEligibilityResolver resolver;
+
+    @Autowired
+    private MembershipSessionService membershipSessionService;
+
+    @Autowired
+    private FacilitySessionService facilitySessionService;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private Gym gym;
+    private GymPlan plan;
+    private FacilityPlan poolPlan;
+    private User member;
+
+    @BeforeEach
+    void setUp() {
+        User owner = testData.user(Role.OWNER);
+        gym = testData.gym(owner.getId());
+        plan = testData.gymPlan(gym.getId(), "1200.00");
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        poolPlan = testData.facilityPlan(gym.getId(), pool.getId(), "400.00");
+        member = testData.user(Role.USER);
+    }
+
+    @Test
+    void gymEntryPrefersAMembershipOverAFacilitySubscription() {
+        UserFacilitySubscription subscription = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.ACTIVE);
+        CheckInEligibilityResolver.Eligibility facilityOnly = assertStatementCount(1,
+                () -> resolver.forGym(member.getId(), gym.getId(), today));
+        assertTrue(facilityOnly.isEntitled());
+        assertEquals(subscription.getId(), facilityOnly.getFacilitySubscriptionId());
+
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        CheckInEligibilityResolver.Eligibility both = resolver.forGym(member.getId(), gym.getId(), today);
+        assertEquals(CheckInEligibilityResolver.Entitlement.MEMBERSHIP, both.getEntitlement());
+        assertEquals(membership.getId(), both.getMembershipId());
+        assertFalse(both.hasOpenSession());
+
+        gymSessionService.checkIn(member.getId(), gym.getId());
+        assertTrue(resolver.forGym(member.getId(), gym.getId(), today).hasOpenSession());
+        // Another gym knows nothing of this member
+        assertFalse(resolver.forGym(member.getId(), gym.getId() + 1_000_000, today).isEntitled());
+    }
+
+    @Test
+    void membershipPastItsEndDateIsNotEntitledBeforeTheExpiryJobRuns() {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        membership.setEndDate(today.minusDays(1));
+        membershipRepository.save(membership);
+
+        assertFalse(resolver.forGym(member.getId(), gym.getId(), today).isEntitled());
+        CheckInEligibilityResolver.Eligibility eligibility = resolver.forMembership(member.getId(), membership.getId(), today);
+        assertFalse(eligibility.isEntitled());
+        assertEquals(gym.getId(), eligibility.getGymId());
+    }
+
+    @Test
+    void membershipCheckInIsOneOpenSessionADay() {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        CheckInEligibilityResolver.Eligibility before = assertStatementCount(1,
+                () -> resolver.forMembership(member.getId(), membership.getId(), today));
+        assertTrue(before.isEntitled());
+        assertFalse(before.hasOpenSession());
+
+        membershipSessionService.checkIn(member.getId(), membership.getId());
+        assertTrue(resolver.forMembership(member.getId(), membership.getId(), today).hasOpenSession());
+        RuntimeException again = assertThrows(RuntimeException.class,
+                () -> membershipSessionService.checkIn(member.getId(), membership.getId()));
+        assertEquals("You already have an active session for this membership today", again.getMessage());
+
+        // Checking out frees the membership for another visit the same day
+        membershipSessionService.checkOut(member.getId(), membership.getId());
+        assertFalse(resolver.forMembership(member.getId(), membership.getId(), today).hasOpenSession());
+    }
+
+    @Test
+    void facilityPassIsOneVisitADayEvenAfterCheckOut() {
+        UserFacilitySubscription subscription = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.ACTIVE);
+
+        facilitySessionService.checkIn(member.getId(), subscription.getId());
+        facilitySessionService.checkOut(member.getId(), subscription.getId());
+
+        CheckInEligibilityResolver.Eligibility eligibility = resolver.forFacilitySubscription(member.getId(),
+                subscription.getId(), today);
+        assertTrue(eligibility.isEntitled());
+        assertTrue(eligibility.hasOpenSession());
+        assertEquals(poolPlan.getFacilityId(), eligibility.getFacilityId());
+        RuntimeException again = assertThrows(RuntimeException.class,
+                () -> facilitySessionService.checkIn(member.getId(), subscription.getId()));
+        assertEquals("Already accessed this facility today", again.getMessage());
+    }
+
+    @Test
+    void plansOfOtherUsersAndUnknownPlansAreRefused() {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        User stranger = testData.user(Role.USER);
+
+        assertEquals("Unauthorized access to membership", assertThrows(RuntimeException.class,
+                () -> resolver.forMembership(stranger.getId(), membership.getId(), today)).getMessage());
+        assertEquals("Membership not found", assertThrows(RuntimeException.class,
+                () -> resolver.forMembership(member.getId(), Long.MAX_VALUE, today)).getMessage());
+        assertEquals("Facility subscription not found", assertThrows(RuntimeException.class,
+                () -> resolver.forFacilitySubscription(member.getId(), Long.MAX_VALUE, today)).getMessage());
+    }
+}
@@ -0,0 +1,214 @@
+package com.techtammina.fitSwitch.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.techtammina.fitSwitch.entity.EmailOutbox;
+import com.techtammina.fitSwitch.repository.EmailOutboxRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailOutboxDispatcherTest extends DatabaseTest {
+
+    // The test profile points spring.mail at localhost:3025
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void sendsMailOnlyAfterTheEnqueuingTransactionCommits() throws Exception {
+        String committed = recipient();
+        String rolledBack = recipient();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status ->
+                emailService.sendRefundNotification(committed, "Iron Temple", new BigDecimal("450.00"), true));
+        tx.executeWithoutResult(status -> {
+            emailService.sendRefundNotification(rolledBack, "Iron Temple", new BigDecimal("450.00"), true);
+            status.setRollbackOnly();
+        });
+
+        dispatcher.dispatch();
+
+        List<MimeMessage> delivered = deliveredTo(committed);
+        assertEquals(1, delivered.size());
+        assertEquals("FitSwitch - Refund Notification", delivered.get(0).getSubject());
+        assertTrue(deliveredTo(rolledBack).isEmpty());
+        assertTrue(outboxFor(rolledBack).isEmpty());
+
+        EmailOutbox row = outboxFor(committed).get(0);
+        assertEquals(EmailOutbox.Status.SENT, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertNotNull(row.getSentAt());
+    }
+
+    @Test
+    void reschedulesWithBackoffWhileSmtpIsDownAndSendsOnRetry() throws Exception {
+        String to = recipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.sendOwnerBalanceNotification(to, "Iron Temple", new BigDecimal("900.00")));
+
+        greenMail.stop();
+        LocalDateTime beforeFailure = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        EmailOutbox failed = outboxFor(to).get(0);
+        assertEquals(EmailOutbox.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        // First retry waits app.mail.outbox.initial-backoff-ms (30s)
+        assertTrue(failed.getNextAttemptAt().isAfter(beforeFailure.plusSeconds(29)));
+        assertTrue(failed.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(31)));
+
+        // Not due yet: another run leaves it alone
+        greenMail.start();
+        dispatcher.dispatch();
+        assertTrue(deliveredTo(to).isEmpty());
+        assertEquals(1, outboxFor(to).get(0).getAttempts());
+
+        // Once the backoff has passed the retry goes out
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(failed);
+        dispatcher.dispatch();
+
+        assertEquals(1, deliveredTo(to).size());
+        EmailOutbox sent = outboxFor(to).get(0);
+        assertEquals(EmailOutbox.Status.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+        assertNull(sent.getLastError());
+    }
+
+    @Test
+    void otpMailKeepsItsCodeOnlyUntilItIsSent() throws Exception {
+        String to = recipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.sendOtpEmail(to, "482913"));
+
+        EmailOutbox queued = outboxFor(to).get(0);
+        assertNotNull(queued.getExpiresAt());
+        assertTrue(queued.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(9)));
+
+        dispatcher.dispatch();
+
+        MimeMessage delivered = deliveredTo(to).get(0);
+        assertTrue(delivered.getContent().toString().contains("482913"));
+        // app.otp.ttl-minutes is 10 outside tests too
+        assertTrue(delivered.getContent().toString().contains("expire in 10 minutes"));
+        EmailOutbox sent = outboxFor(to).get(0);
+        assertEquals(EmailOutbox.Status.SENT, sent.getStatus());
+        assertEquals(EmailOutbox.REDACTED_BODY, sent.getBody());
+    }
+
+    @Test
+    void expiredOtpMailIsDroppedUnsent() throws Exception {
+        String to = recipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.sendOtpEmail(to, "771204"));
+        // Stuck behind an SMTP outage until the code has expired
+        EmailOutbox queued = outboxFor(to).get(0);
+        queued.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(queued);
+
+        dispatcher.dispatch();
+
+        assertTrue(deliveredTo(to).isEmpty());
+        EmailOutbox dropped = outboxFor(to).get(0);
+        assertEquals(EmailOutbox.Status.FAILED, dropped.getStatus());
+        assertEquals(EmailOutbox.REDACTED_BODY, dropped.getBody());
+        assertEquals(0, dropped.getAttempts());
+    }
+
+    @Test
+    void otherMailKeepsItsBody() throws Exception {
+        String to = recipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.sendOwnerBalanceNotification(to, "Iron Temple", new BigDecimal("900.00")));
+
+        dispatcher.dispatch();
+
+        EmailOutbox sent = outboxFor(to).get(0);
+        assertEquals(EmailOutbox.Status.SENT, sent.getStatus());
+        assertNull(sent.getExpiresAt());
+        assertTrue(sent.getBody().contains("Iron Temple"));
+    }
+
+    @Test
+    void purgeDeletesSentAndGivenUpRowsPastRetentionOnly() {
+        // The test profile keeps the default retention of 7 days
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        LocalDateTime recent = LocalDateTime.now().minusDays(1);
+        EmailOutbox oldSent = queued(EmailOutbox.Status.SENT, old);
+        EmailOutbox recentSent = queued(EmailOutbox.Status.SENT, recent);
+        EmailOutbox oldFailed = queued(EmailOutbox.Status.FAILED, old);
+        EmailOutbox recentFailed = queued(EmailOutbox.Status.FAILED, recent);
+        // Still to be sent however long it has waited
+        EmailOutbox oldPending = queued(EmailOutbox.Status.PENDING, old);
+
+        dispatcher.purgeFinished();
+
+        assertFalse(outboxRepository.existsById(oldSent.getId()));
+        assertFalse(outboxRepository.existsById(oldFailed.getId()));
+        assertTrue(outboxRepository.existsById(recentSent.getId()));
+        assertTrue(outboxRepository.existsById(recentFailed.getId()));
+        assertTrue(outboxRepository.existsById(oldPending.getId()));
+        outboxRepository.delete(oldPending);
+    }
+
+    // A row last touched at the given time: sent then, or given up on or due then
+    private EmailOutbox queued(EmailOutbox.Status status, LocalDateTime at) {
+        EmailOutbox email = new EmailOutbox(recipient(), "Purge test", "Body");
+        email.setStatus(status);
+        email.setCreatedAt(at.minusMinutes(5));
+        email.setNextAttemptAt(at);
+        if (status == EmailOutbox.Status.SENT) {
+            email.setSentAt(at);
+        }
+        return outboxRepository.save(email);
+    }
+
+    private static String recipient() {
+        return UUID.randomUUID() + "@test.fitswitch";
+    }
+
+    private List<EmailOutbox> outboxFor(String recipient) {
+        return outboxRepository.findAll().stream()
+                .filter(email -> email.getRecipient().equals(recipient))
+                .toList();
+    }
+
+    private static List<MimeMessage> deliveredTo(String recipient) {
+        return Arrays.stream(greenMail.getReceivedMessages())
+                .filter(message -> {
+                    try {
+                        return recipient.equals(message.getRecipients(Message.RecipientType.TO)[0].toString());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,137 @@
+package com.techtammina.fitSwitch.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOtpStoreTest {
+
+    private static final String EMAIL = "member@test.fitswitch";
+
+    @Test
+    void aCorrectCodeVerifiesOnce() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        store.issue(EMAIL, "123456");
+
+        assertEquals(OtpStore.Result.VERIFIED, store.verify(EMAIL, "123456"));
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void aNewCodeReplacesTheOldOne() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        store.issue(EMAIL, "123456");
+        store.issue(EMAIL, "654321");
+
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+        assertEquals(OtpStore.Result.VERIFIED, store.verify(EMAIL, "654321"));
+    }
+
+    @Test
+    void wrongGuessesUseUpTheCode() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 3);
+        store.issue(EMAIL, "123456");
+
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "000000"));
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, null));
+        assertEquals(OtpStore.Result.TOO_MANY_ATTEMPTS, store.verify(EMAIL, "111111"));
+        // Gone for good, even with the right code
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void expiredCodesAreRefusedAndEvicted() {
+        InMemoryOtpStore expiring = new InMemoryOtpStore(0, 5);
+        expiring.issue(EMAIL, "123456");
+        assertEquals(OtpStore.Result.EXPIRED, expiring.verify(EMAIL, "123456"));
+        assertEquals(OtpStore.Result.INVALID, expiring.verify(EMAIL, "123456"));
+
+        expiring.issue(EMAIL, "123456");
+        expiring.evictExpired();
+        assertEquals(OtpStore.Result.INVALID, expiring.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void evictingAnOldCodeKeepsTheCodeThatReplacedIt() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        store.issue(EMAIL, "123456");
+        store.issue(EMAIL, "654321");
+        store.evictExpired();
+
+        assertEquals(OtpStore.Result.VERIFIED, store.verify(EMAIL, "654321"));
+    }
+
+    @Test
+    void removeDropsThePendingCode() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        store.issue(EMAIL, "123456");
+        store.remove(EMAIL);
+
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void codeIssuedInATransactionIsValidOnlyAfterItCommits() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.issue(EMAIL, "123456");
+            assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(OtpStore.Result.VERIFIED, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void codeIssuedInARolledBackTransactionIsNeverValid() {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.issue(EMAIL, "123456");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(OtpStore.Result.INVALID, store.verify(EMAIL, "123456"));
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentCorrectSubmissionsVerifies() throws Exception {
+        InMemoryOtpStore store = new InMemoryOtpStore(10, 5);
+        store.issue(EMAIL, "123456");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OtpStore.Result>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.verify(EMAIL, "123456");
+                }));
+            }
+            start.countDown();
+            int verified = 0;
+            for (Future<OtpStore.Result> result : results) {
+                if (result.get(10, TimeUnit.SECONDS) == OtpStore.Result.VERIFIED) {
+                    verified++;
+                }
+            }
+            assertEquals(1, verified);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.repository.OtpVerificationRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The same cases as InMemoryOtpStoreTest against otp_verifications. The store is built here
+ * rather than injected, since the test profile uses the in-memory one, so each call runs in
+ * its own transaction as it would through the service proxy.
+ */
+class JpaOtpStoreTest extends DatabaseTest {
+
+    @Autowired
+    private OtpVerificationRepository otpRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Rows outlive a test, so every test uses its own address
+    private final String email = "member-" + UUID.randomUUID() + "@test.fitswitch";
+
+    @Test
+    void aCorrectCodeVerifiesOnce() {
+        Store store = store(10, 5);
+        store.issue("123456");
+
+        assertEquals(OtpStore.Result.VERIFIED, store.verify("123456"));
+        assertEquals(OtpStore.Result.INVALID, store.verify("123456"));
+    }
+
+    @Test
+    void aNewCodeReplacesTheOldOne() {
+        Store store = store(10, 5);
+        store.issue("123456");
+        store.issue("654321");
+
+        assertEquals(OtpStore.Result.INVALID, store.verify("123456"));
+        assertEquals(OtpStore.Result.VERIFIED, store.verify("654321"));
+    }
+
+    @Test
+    void wrongGuessesUseUpTheCode() {
+        Store store = store(10, 3);
+        store.issue("123456");
+
+        assertEquals(OtpStore.Result.INVALID, store.verify("000000"));
+        assertEquals(OtpStore.Result.INVALID, store.verify(null));
+        assertEquals(OtpStore.Result.TOO_MANY_ATTEMPTS, store.verify("111111"));
+        // Still refused with the right code; the attempts were saved with the row
+        assertEquals(OtpStore.Result.TOO_MANY_ATTEMPTS, store.verify("123456"));
+    }
+
+    @Test
+    void expiredCodesAreRefusedAndDeletedByTheCleanup() {
+        Store expiring = store(0, 5);
+        expiring.issue("123456");
+        assertEquals(OtpStore.Result.EXPIRED, expiring.verify("123456"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                otpRepository.deleteExpiredOtps(LocalDateTime.now(ZoneId.of("Asia/Kolkata"))));
+        assertEquals(OtpStore.Result.INVALID, expiring.verify("123456"));
+    }
+
+    @Test
+    void removeDropsThePendingCode() {
+        Store store = store(10, 5);
+        store.issue("123456");
+        store.remove();
+
+        assertEquals(OtpStore.Result.INVALID, store.verify("123456"));
+    }
+
+    @Test
+    void codeIssuedInARolledBackTransactionIsNeverValid() {
+        Store store = store(10, 5);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.jpa.issue(email, "123456");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(OtpStore.Result.INVALID, store.verify("123456"));
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentCorrectSubmissionsVerifies() throws Exception {
+        Store store = store(10, 5);
+        store.issue("123456");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OtpStore.Result>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.verify("123456");
+                }));
+            }
+            start.countDown();
+            int verified = 0;
+            for (Future<OtpStore.Result> result : results) {
+                if (result.get(10, TimeUnit.SECONDS) == OtpStore.Result.VERIFIED) {
+                    verified++;
+                }
+            }
+            assertEquals(1, verified);
+        }
+    }
+
+    private Store store(long ttlMinutes, int maxAttempts) {
+        return new Store(new JpaOtpStore(otpRepository, ttlMinutes, maxAttempts));
+    }
+
+    private final class Store {
+        private final JpaOtpStore jpa;
+        private final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Store(JpaOtpStore jpa) {
+            this.jpa = jpa;
+        }
+
+        void issue(String otp) {
+            transaction.executeWithoutResult(status -> jpa.issue(email, otp));
+        }
+
+        OtpStore.Result verify(String otp) {
+            return transaction.execute(status -> jpa.verify(email, otp));
+        }
+
+        void remove() {
+            transaction.executeWithoutResult(status -> jpa.remove(email));
+        }
+    }
+}
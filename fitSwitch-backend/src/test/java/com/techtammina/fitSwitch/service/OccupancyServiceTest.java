@@ -0,0 +1,101 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.event.SessionEvent;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OccupancyServiceTest extends DatabaseTest {
+
+    // Session ids no real session uses, so events from other tests never collide
+    private static final AtomicLong SESSION_IDS = new AtomicLong(9_000_000_000L);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void onlyCommittedCheckInsReachTheRegistry() throws Exception {
+        User owner = testData.user(Role.OWNER);
+        Gym gym = testData.gym(owner.getId());
+        User committed = testData.user(Role.USER, "Committed Member");
+        User rolledBack = testData.user(Role.USER, "Rolled Back Member");
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> eventPublisher.publishEvent(checkIn(gym, committed)));
+        tx.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(checkIn(gym, rolledBack));
+            status.setRollbackOnly();
+        });
+
+        mockMvc.perform(get("/owner/gyms/{gymId}/occupancy", gym.getId())
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headcount").value(1))
+                .andExpect(jsonPath("$.occupants[0].userName").value("Committed Member"));
+    }
+
+    @Test
+    void streamStartsWithASnapshotAndThenPushesDeltas() throws Exception {
+        User owner = testData.user(Role.OWNER);
+        Gym gym = testData.gym(owner.getId());
+        User member = testData.user(Role.USER, "Early Riser");
+
+        MvcResult stream = mockMvc.perform(get("/owner/gyms/{gymId}/occupancy/stream", gym.getId())
+                        .header("Authorization", testData.bearer(owner)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = stream.getResponse();
+        awaitEvent(response, "snapshot", "\"headcount\":0");
+
+        SessionEvent checkIn = checkIn(gym, member);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> eventPublisher.publishEvent(checkIn));
+        awaitEvent(response, "CHECK_IN", "\"userName\":\"Early Riser\"");
+
+        eventPublisher.publishEvent(new SessionEvent(SessionEvent.Kind.CHECKED_OUT, checkIn.getSessionType(),
+                checkIn.getSessionId(), member.getId(), gym.getId(), null, checkIn.getCheckInTime(),
+                checkIn.getVisitDate()));
+        awaitEvent(response, "CHECK_OUT", "\"headcount\":0");
+    }
+
+    private static SessionEvent checkIn(Gym gym, User member) {
+        return new SessionEvent(SessionEvent.Kind.CHECKED_IN, SessionEvent.MEMBERSHIP,
+                SESSION_IDS.incrementAndGet(), member.getId(), gym.getId(), null, LocalDateTime.now(), LocalDate.now());
+    }
+
+    // Events are pushed from the service's own thread, and an event's name and data can land
+    // in separate writes, so wait until the data after the event name shows up
+    private static void awaitEvent(MockHttpServletResponse response, String event, String data) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!dataAfter(response.getContentAsString(), "event:" + event).contains(data)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("No " + event + " with " + data + " in stream: " + response.getContentAsString());
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static String dataAfter(String content, String marker) {
+        int at = content.lastIndexOf(marker);
+        return at < 0 ? "" : content.substring(at);
+    }
+}
@@ -0,0 +1,58 @@
+package com.techtammina.fitSwitch.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpSendLimiterTest {
+
+    @Test
+    void capsSendsPerEmail() {
+        OtpSendLimiter limiter = new OtpSendLimiter(3, 100, 15);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a@test.fitswitch", "10.0.0." + i));
+        }
+        assertFalse(limiter.tryAcquire("a@test.fitswitch", "10.0.0.9"));
+        assertTrue(limiter.tryAcquire("b@test.fitswitch", "10.0.0.9"));
+    }
+
+    @Test
+    void countsAnEmailTheWayTheRateLimitFilterKeysIt() {
+        OtpSendLimiter limiter = new OtpSendLimiter(2, 100, 15);
+
+        assertTrue(limiter.tryAcquire("Member@Example.com", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire(" member@example.com ", "10.0.0.2"));
+        assertFalse(limiter.tryAcquire("MEMBER@EXAMPLE.COM", "10.0.0.3"));
+    }
+
+    @Test
+    void capsSendsPerIpAcrossEmails() {
+        OtpSendLimiter limiter = new OtpSendLimiter(100, 2, 15);
+
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("b@test.fitswitch", "10.0.0.1"));
+        assertFalse(limiter.tryAcquire("c@test.fitswitch", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("c@test.fitswitch", "10.0.0.2"));
+    }
+
+    @Test
+    void withoutAnIpOnlyTheEmailIsLimited() {
+        OtpSendLimiter limiter = new OtpSendLimiter(2, 1, 15);
+
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", null));
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", null));
+        assertFalse(limiter.tryAcquire("a@test.fitswitch", null));
+    }
+
+    @Test
+    void countsStartOverOnceTheWindowEnds() {
+        // A zero-minute window has ended by the next call
+        OtpSendLimiter limiter = new OtpSendLimiter(1, 1, 0);
+
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", "10.0.0.1"));
+        limiter.evictExpired();
+        assertTrue(limiter.tryAcquire("a@test.fitswitch", "10.0.0.1"));
+    }
+}
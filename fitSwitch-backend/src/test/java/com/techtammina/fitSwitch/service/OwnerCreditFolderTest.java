@@ -0,0 +1,122 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.OwnerWalletCredit;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.entity.WalletTransaction;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.OwnerWalletCreditRepository;
+import com.techtammina.fitSwitch.repository.WalletTransactionRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OwnerCreditFolderTest extends DatabaseTest {
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private OwnerWalletCreditRepository creditRepository;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ownersBeyondOneRunAreReachedOnLaterRuns() {
+        // More credits than one fold batch, so this owner still has credits pending after a run
+        User busyOwner = testData.user(Role.OWNER);
+        List<OwnerWalletCredit> credits = new ArrayList<>();
+        for (int i = 0; i < 520; i++) {
+            credits.add(credit(busyOwner, "1.00", LocalDateTime.now()));
+        }
+        creditRepository.saveAll(credits);
+        User owner = testData.user(Role.OWNER);
+        creditRepository.save(credit(owner, "40.00", LocalDateTime.now()));
+
+        // One owner per run, with every run starting over at the lowest owner id, would fold
+        // the busy owner twice before reaching the other one
+        OwnerCreditFolder folder = new OwnerCreditFolder(creditRepository, walletLedger, transactionManager, 1);
+        int ownersPending = creditRepository.findOwnersWithPendingCredits(0L, PageRequest.of(0, 10_000)).size();
+        for (int run = 0; run < ownersPending && walletLedger.pendingCredits(owner.getId()).signum() > 0; run++) {
+            folder.foldPendingCredits();
+        }
+
+        assertEquals(0, walletLedger.pendingCredits(owner.getId()).signum());
+        assertEquals(new BigDecimal("20.00"), walletLedger.pendingCredits(busyOwner.getId()));
+    }
+
+    @Test
+    void foldedTransactionsAreStampedWithTheFoldTime() {
+        User owner = testData.user(Role.OWNER);
+        LocalDateTime purchasedAt = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        creditRepository.save(credit(owner, "25.00", purchasedAt));
+        LocalDateTime foldStarted = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        new OwnerCreditFolder(creditRepository, walletLedger, transactionManager, 10_000).foldPendingCredits();
+
+        List<WalletTransaction> folded = transactionRepository.findByUserIdOrderByCreatedAtDesc(owner.getId());
+        assertEquals(1, folded.size());
+        assertFalse(folded.get(0).getCreatedAt().isBefore(foldStarted));
+    }
+
+    @Test
+    void foldedTransactionsAreWrittenWithOneInsert() {
+        User owner = testData.user(Role.OWNER);
+        walletLedger.openWallet(owner.getId());
+        List<OwnerWalletCredit> credits = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            credits.add(credit(owner, "1.00", LocalDateTime.now()));
+        }
+        creditRepository.saveAll(credits);
+
+        // Counted by the server on this transaction's connection, so a batch the driver sent as
+        // 120 separate INSERTs would show up here even though JDBC reports it as one call
+        List<WalletTransaction> written = new TransactionTemplate(transactionManager).execute(status -> {
+            WalletLedger.Batch ledger = walletLedger.batch();
+            assertEquals(120, ledger.foldPendingCredits(owner.getId()));
+            long insertsBefore = insertCount();
+            List<WalletTransaction> flushed = ledger.flush();
+            assertEquals(1, insertCount() - insertsBefore);
+            return flushed;
+        });
+
+        assertEquals(120, written.stream().map(WalletTransaction::getId).distinct().count());
+        List<WalletTransaction> stored = transactionRepository.findByUserIdOrderByCreatedAtDesc(owner.getId());
+        assertEquals(120, stored.size());
+        assertEquals(new BigDecimal("120.00"), stored.stream()
+                .map(WalletTransaction::getBalanceAfter).max(BigDecimal::compareTo).orElseThrow());
+    }
+
+    private long insertCount() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "SHOW SESSION STATUS LIKE 'Com_insert'", (rs, row) -> rs.getString("Value")));
+    }
+
+    private static OwnerWalletCredit credit(User owner, String amount, LocalDateTime createdAt) {
+        OwnerWalletCredit credit = new OwnerWalletCredit();
+        credit.setOwnerId(owner.getId());
+        credit.setType(WalletTransaction.TransactionType.OWNER_EARNING);
+        credit.setAmount(new BigDecimal(amount));
+        credit.setDescription("Membership purchase");
+        credit.setCreatedAt(createdAt);
+        return credit;
+    }
+}
@@ -0,0 +1,156 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.repository.UserFacilitySubscriptionRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanExpiryJobTest extends DatabaseTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private UserFacilitySubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PlanExpiryJob job;
+    private User member;
+    private Gym gym;
+    private GymPlan plan;
+    private FacilityPlan poolPlan;
+
+    @BeforeEach
+    void setUp() {
+        // A batch smaller than the rows below, so the job has to walk several batches
+        job = new PlanExpiryJob(membershipRepository, subscriptionRepository, transactionManager, 2);
+        User owner = testData.user(Role.OWNER);
+        member = testData.user(Role.USER);
+        gym = testData.gym(owner.getId());
+        plan = testData.gymPlan(gym.getId(), "999.00");
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        poolPlan = testData.facilityPlan(gym.getId(), pool.getId(), "400.00");
+    }
+
+    @Test
+    void plansPastTheirEndDateAreExpiredAcrossBatches() {
+        List<Membership> lapsed = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            lapsed.add(membership(TODAY.minusDays(i)));
+        }
+        UserFacilitySubscription lapsedPass = subscription(TODAY.minusDays(1));
+        UserFacilitySubscription anotherLapsedPass = subscription(TODAY.minusDays(3));
+
+        job.expirePlans();
+
+        for (Membership membership : lapsed) {
+            assertEquals(MembershipStatus.EXPIRED, reload(membership).getStatus());
+        }
+        assertEquals(FacilitySubscriptionStatus.EXPIRED, reload(lapsedPass).getStatus());
+        assertEquals(FacilitySubscriptionStatus.EXPIRED, reload(anotherLapsedPass).getStatus());
+        assertTrue(membershipRepository.findExpiredIdsAfter(TODAY, 0L, PageRequest.of(0, 1)).isEmpty());
+        assertTrue(subscriptionRepository.findExpiredIdsAfter(TODAY, 0L, PageRequest.of(0, 1)).isEmpty());
+    }
+
+    @Test
+    void plansEndingTodayOrLaterAndOtherStatusesAreLeftAlone() {
+        Membership endsToday = membership(TODAY);
+        Membership endsTomorrow = membership(TODAY.plusDays(1));
+        Membership switched = membership(TODAY.minusDays(2));
+        switched.setStatus(MembershipStatus.SWITCHED);
+        membershipRepository.save(switched);
+        UserFacilitySubscription passEndsToday = subscription(TODAY);
+
+        job.expirePlans();
+
+        assertEquals(MembershipStatus.ACTIVE, reload(endsToday).getStatus());
+        assertEquals(MembershipStatus.ACTIVE, reload(endsTomorrow).getStatus());
+        assertEquals(MembershipStatus.SWITCHED, reload(switched).getStatus());
+        assertEquals(FacilitySubscriptionStatus.ACTIVE, reload(passEndsToday).getStatus());
+    }
+
+    @Test
+    void rerunningTheJobChangesNothing() {
+        Membership lapsed = membership(TODAY.minusDays(1));
+        Membership current = membership(TODAY.plusDays(10));
+        job.expirePlans();
+
+        // Nothing is left for a second run to pick up, and it does not touch what was done
+        assertTrue(membershipRepository.findExpiredIdsAfter(TODAY, 0L, PageRequest.of(0, 1)).isEmpty());
+        job.expirePlans();
+
+        assertEquals(MembershipStatus.EXPIRED, reload(lapsed).getStatus());
+        assertEquals(MembershipStatus.ACTIVE, reload(current).getStatus());
+    }
+
+    @Test
+    void statusOnTreatsTheEndDateAsTheLastActiveDay() {
+        Membership membership = new Membership();
+        membership.setStatus(MembershipStatus.ACTIVE);
+        membership.setEndDate(TODAY);
+        assertEquals(MembershipStatus.ACTIVE, membership.statusOn(TODAY));
+        assertEquals(MembershipStatus.ACTIVE, membership.statusOn(TODAY.minusDays(1)));
+        assertEquals(MembershipStatus.EXPIRED, membership.statusOn(TODAY.plusDays(1)));
+
+        UserFacilitySubscription subscription = new UserFacilitySubscription();
+        subscription.setStatus(FacilitySubscriptionStatus.ACTIVE);
+        subscription.setEndDate(TODAY);
+        assertEquals(FacilitySubscriptionStatus.ACTIVE, subscription.statusOn(TODAY));
+        assertEquals(FacilitySubscriptionStatus.ACTIVE, subscription.statusOn(TODAY.minusDays(1)));
+        assertEquals(FacilitySubscriptionStatus.EXPIRED, subscription.statusOn(TODAY.plusDays(1)));
+    }
+
+    @Test
+    void statusOnOnlyExpiresActivePlans() {
+        LocalDate yesterday = TODAY.minusDays(1);
+        assertEquals(MembershipStatus.EXPIRED,
+                Membership.statusOn(MembershipStatus.ACTIVE, yesterday, TODAY));
+        assertEquals(MembershipStatus.SWITCHED,
+                Membership.statusOn(MembershipStatus.SWITCHED, yesterday, TODAY));
+        assertEquals(MembershipStatus.ACTIVE,
+                Membership.statusOn(MembershipStatus.ACTIVE, TODAY.plusDays(1), TODAY));
+        assertEquals(FacilitySubscriptionStatus.EXPIRED,
+                UserFacilitySubscription.statusOn(FacilitySubscriptionStatus.ACTIVE, yesterday, TODAY));
+        assertEquals(FacilitySubscriptionStatus.ACTIVE,
+                UserFacilitySubscription.statusOn(FacilitySubscriptionStatus.ACTIVE, TODAY.plusDays(1), TODAY));
+    }
+
+    private Membership membership(LocalDate endDate) {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        membership.setStartDate(endDate.minusDays(30));
+        membership.setEndDate(endDate);
+        return membershipRepository.save(membership);
+    }
+
+    private UserFacilitySubscription subscription(LocalDate endDate) {
+        UserFacilitySubscription subscription = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.ACTIVE);
+        subscription.setStartDate(endDate.minusDays(30));
+        subscription.setEndDate(endDate);
+        return subscriptionRepository.save(subscription);
+    }
+
+    private Membership reload(Membership membership) {
+        return membershipRepository.findById(membership.getId()).orElseThrow();
+    }
+
+    private UserFacilitySubscription reload(UserFacilitySubscription subscription) {
+        return subscriptionRepository.findById(subscription.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,242 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.dto.TurnstileBatchRequest;
+import com.techtammina.fitSwitch.dto.TurnstileBatchResponse;
+import com.techtammina.fitSwitch.dto.TurnstileEventRequest;
+import com.techtammina.fitSwitch.dto.TurnstileEventResult;
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnstileServiceTest extends DatabaseTest {
+
+    @Autowired
+    private TurnstileService turnstileService;
+
+    @Autowired
+    private MembershipSessionService membershipSessionService;
+
+    @Autowired
+    private FacilitySessionService facilitySessionService;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Early today, so every scan is in the past and on the same day as an app check-in
+    private final LocalDateTime opening = LocalDate.now().atStartOfDay();
+    private User owner;
+    private Gym gym;
+    private GymPlan plan;
+    private FacilityPlan poolPlan;
+    private User member;
+
+    @BeforeEach
+    void setUp() {
+        owner = testData.user(Role.OWNER);
+        gym = testData.gym(owner.getId());
+        plan = testData.gymPlan(gym.getId(), "1200.00");
+        GymFacility pool = testData.facility(gym.getId(), "Pool");
+        poolPlan = testData.facilityPlan(gym.getId(), pool.getId(), "400.00");
+        member = testData.user(Role.USER);
+    }
+
+    @Test
+    void appliesABatchInScanOrderWithTheAppCheckInRules() {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        UserFacilitySubscription pass = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.ACTIVE);
+
+        // Sent out of order: the batch is replayed by scan time
+        TurnstileBatchResponse response = ingest(
+                membershipScan("m-out", "OUT", membership, 3),
+                membershipScan("m-in", "IN", membership, 1),
+                membershipScan("m-in-again", "IN", membership, 2),
+                membershipScan("m-return", "IN", membership, 4),
+                facilityScan("f-in", "IN", pass, 5),
+                facilityScan("f-out", "OUT", pass, 6),
+                facilityScan("f-return", "IN", pass, 7));
+
+        assertEquals(5, response.getApplied());
+        assertEquals(2, response.getRejected());
+        assertResult(response, "m-in", "APPLIED", "CHECKED_IN", null);
+        assertResult(response, "m-in-again", "REJECTED", null,
+                "You already have an active session for this membership today");
+        assertResult(response, "m-out", "APPLIED", "CHECKED_OUT", null);
+        assertResult(response, "m-return", "APPLIED", "CHECKED_IN", null);
+        assertResult(response, "f-in", "APPLIED", "CHECKED_IN", null);
+        assertResult(response, "f-out", "APPLIED", "CHECKED_OUT", null);
+        assertResult(response, "f-return", "REJECTED", null, "Already accessed this facility today");
+        assertNotNull(result(response, "m-in").getSessionId());
+        assertEquals(result(response, "m-in").getSessionId(), result(response, "m-out").getSessionId());
+
+        // The app sees the sessions the doors opened
+        RuntimeException again = assertThrows(RuntimeException.class,
+                () -> membershipSessionService.checkIn(member.getId(), membership.getId()));
+        assertEquals("You already have an active session for this membership today", again.getMessage());
+        RuntimeException pool = assertThrows(RuntimeException.class,
+                () -> facilitySessionService.checkIn(member.getId(), pass.getId()));
+        assertEquals("Already accessed this facility today", pool.getMessage());
+
+        // A device resending the batch gets the first outcomes back
+        TurnstileBatchResponse replay = ingest(membershipScan("m-in", "IN", membership, 1));
+        assertEquals(1, replay.getDuplicates());
+        assertEquals("CHECKED_IN", replay.getResults().get(0).getAction());
+    }
+
+    @Test
+    void doorsRefuseWhatTheAppRefuses() {
+        Membership expired = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        expired.setEndDate(LocalDate.now().minusDays(1));
+        membershipRepository.save(expired);
+        Membership checkedInByApp = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        membershipSessionService.checkIn(member.getId(), checkedInByApp.getId());
+        UserFacilitySubscription lapsed = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.EXPIRED);
+        Gym otherGym = testData.gym(testData.user(Role.OWNER).getId());
+        Membership elsewhere = testData.membership(member.getId(), otherGym.getId(),
+                testData.gymPlan(otherGym.getId(), "900.00").getId(), MembershipStatus.ACTIVE);
+
+        TurnstileBatchResponse response = ingest(
+                membershipScan("expired", "IN", expired, 1),
+                membershipScan("open", "IN", checkedInByApp, 2),
+                facilityScan("lapsed", "IN", lapsed, 3),
+                membershipScan("elsewhere", "IN", elsewhere, 4),
+                membershipScan("no-session", "OUT", expired, 5));
+
+        assertEquals(0, response.getApplied());
+        assertResult(response, "expired", "REJECTED", null, "Membership is not active");
+        assertResult(response, "open", "REJECTED", null,
+                "You already have an active session for this membership today");
+        assertResult(response, "lapsed", "REJECTED", null, "Facility subscription is not active");
+        assertResult(response, "elsewhere", "REJECTED", null, "Membership is not valid at this gym");
+        assertResult(response, "no-session", "REJECTED", null, "No active session found for this membership");
+    }
+
+    @Test
+    void batchCommittedAfterTheSnapshotIsReportedAsADuplicate() throws Exception {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        TurnstileEventRequest scan = membershipScan("late", "IN", membership, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TurnstileBatchResponse late = new TransactionTemplate(transactionManager).execute(status -> {
+                // The first read fixes this transaction's snapshot, as a catalog cache miss would
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM turnstile_events WHERE gym_id = ?",
+                        Long.class, gym.getId());
+                try {
+                    TurnstileBatchResponse first = executor.submit(() -> ingest(scan)).get(30, TimeUnit.SECONDS);
+                    assertEquals(1, first.getApplied());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return ingest(scan);
+            });
+
+            assertEquals(1, late.getDuplicates());
+            assertEquals(0, late.getRejected());
+            assertResult(late, "late", "DUPLICATE", "CHECKED_IN", null);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentDuplicateBatchesApplyEachEventOnce() throws Exception {
+        Membership membership = testData.membership(member.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+        UserFacilitySubscription pass = testData.facilitySubscription(member.getId(), poolPlan,
+                FacilitySubscriptionStatus.ACTIVE);
+        int devices = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(devices);
+        CountDownLatch start = new CountDownLatch(1);
+        List<TurnstileBatchResponse> responses = new ArrayList<>();
+        try {
+            List<Future<TurnstileBatchResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < devices; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return ingest(membershipScan("race-m", "IN", membership, 1), facilityScan("race-f", "IN", pass, 2));
+                }));
+            }
+            start.countDown();
+            for (Future<TurnstileBatchResponse> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, responses.stream().mapToInt(TurnstileBatchResponse::getApplied).sum());
+        assertEquals(0, responses.stream().mapToInt(TurnstileBatchResponse::getRejected).sum());
+        assertEquals(2 * (devices - 1), responses.stream().mapToInt(TurnstileBatchResponse::getDuplicates).sum());
+        for (TurnstileBatchResponse response : responses) {
+            assertEquals("CHECKED_IN", result(response, "race-m").getAction());
+            assertEquals("CHECKED_IN", result(response, "race-f").getAction());
+        }
+    }
+
+    private TurnstileBatchResponse ingest(TurnstileEventRequest... events) {
+        TurnstileBatchRequest request = new TurnstileBatchRequest();
+        request.setEvents(new ArrayList<>(List.of(events)));
+        return turnstileService.ingest(owner.getId(), gym.getId(), request);
+    }
+
+    private TurnstileEventRequest membershipScan(String eventId, String direction, Membership membership, int second) {
+        TurnstileEventRequest event = scan(eventId, direction, second);
+        event.setMembershipId(membership.getId());
+        return event;
+    }
+
+    private TurnstileEventRequest facilityScan(String eventId, String direction, UserFacilitySubscription pass,
+                                               int second) {
+        TurnstileEventRequest event = scan(eventId, direction, second);
+        event.setFacilitySubscriptionId(pass.getId());
+        return event;
+    }
+
+    private TurnstileEventRequest scan(String eventId, String direction, int second) {
+        TurnstileEventRequest event = new TurnstileEventRequest();
+        event.setEventId(eventId);
+        event.setDirection(direction);
+        event.setScannedAt(opening.plusSeconds(second));
+        return event;
+    }
+
+    private static TurnstileEventResult result(TurnstileBatchResponse response, String eventId) {
+        return response.getResults().stream()
+                .filter(result -> result.getEventId().equals(eventId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void assertResult(TurnstileBatchResponse response, String eventId, String outcome,
+                                     String action, String message) {
+        TurnstileEventResult result = result(response, eventId);
+        assertEquals(outcome, result.getOutcome(), eventId);
+        assertEquals(action, result.getAction(), eventId);
+        assertEquals(message, result.getMessage(), eventId);
+    }
+}
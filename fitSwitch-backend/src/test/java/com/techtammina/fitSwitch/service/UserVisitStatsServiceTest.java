@@ -0,0 +1,168 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.Gym;
+import com.techtammina.fitSwitch.entity.GymMembershipSession;
+import com.techtammina.fitSwitch.entity.GymPlan;
+import com.techtammina.fitSwitch.entity.Membership;
+import com.techtammina.fitSwitch.entity.MembershipStatus;
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.entity.UserVisitStats;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.GymMembershipSessionRepository;
+import com.techtammina.fitSwitch.repository.MembershipRepository;
+import com.techtammina.fitSwitch.repository.UserVisitStatsRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserVisitStatsServiceTest extends DatabaseTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private UserVisitStatsService visitStatsService;
+
+    @Autowired
+    private UserVisitStatsRepository statsRepository;
+
+    @Autowired
+    private GymMembershipSessionRepository sessionRepository;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Gym gym;
+    private Gym otherGym;
+    private Membership membership;
+
+    @BeforeEach
+    void setUp() {
+        User owner = testData.user(Role.OWNER);
+        user = testData.user(Role.USER);
+        gym = testData.gym(owner.getId());
+        otherGym = testData.gym(owner.getId());
+        GymPlan plan = testData.gymPlan(gym.getId(), "999.00");
+        membership = testData.membership(user.getId(), gym.getId(), plan.getId(), MembershipStatus.ACTIVE);
+    }
+
+    @Test
+    void inOrderVisitsAreCountedIncrementally() {
+        visit(gym, TODAY.minusDays(2));
+        visit(gym, TODAY.minusDays(1));
+        visit(gym, TODAY.minusDays(1));
+
+        UserVisitStats atGym = visitStatsService.getForGym(user.getId(), gym.getId());
+        assertEquals(3, atGym.getTotalVisits());
+        assertEquals(2, atGym.getVisitDays());
+        assertEquals(TODAY.minusDays(2), atGym.getFirstVisitDate());
+        assertEquals(TODAY.minusDays(1), atGym.getLastVisitDate());
+        assertEquals(2, atGym.getCurrentStreak());
+        assertEquals(2, atGym.streakOn(TODAY));
+        assertEquals(0, atGym.streakOn(TODAY.plusDays(1)));
+
+        // A gap restarts the streak
+        visit(gym, TODAY.plusDays(1));
+        assertEquals(1, visitStatsService.getForGym(user.getId(), gym.getId()).getCurrentStreak());
+    }
+
+    @Test
+    void allGymsRowCountsDistinctDaysAcrossGyms() {
+        visit(gym, TODAY.minusDays(1));
+        visit(otherGym, TODAY.minusDays(1));
+        visit(otherGym, TODAY);
+
+        UserVisitStats overall = visitStatsService.getOverall(user.getId());
+        assertEquals(UserVisitStats.ALL_GYMS, overall.getGymId());
+        assertEquals(3, overall.getTotalVisits());
+        assertEquals(2, overall.getVisitDays());
+        assertEquals(2, overall.getCurrentStreak());
+        assertEquals(1, visitStatsService.getForGym(user.getId(), gym.getId()).getTotalVisits());
+        assertEquals(2, visitStatsService.getForGym(user.getId(), otherGym.getId()).getVisitDays());
+    }
+
+    @Test
+    void outOfOrderVisitRebuildsFromTheSessionsWithoutDetachingTheCallersEntities() {
+        visit(gym, TODAY.minusDays(3));
+        visit(gym, TODAY.minusDays(1));
+        assertEquals(1, visitStatsService.getOverall(user.getId()).getCurrentStreak());
+
+        boolean stillManaged = new TransactionTemplate(transactionManager).execute(status -> {
+            // A check-out the caller is still in the middle of
+            Membership inUse = membershipRepository.findById(membership.getId()).orElseThrow();
+            completedSession(gym, TODAY.minusDays(2));
+            visitStatsService.recordVisit(user.getId(), gym.getId(), TODAY.minusDays(2));
+            return entityManager.contains(inUse);
+        });
+
+        assertTrue(stillManaged);
+        UserVisitStats overall = visitStatsService.getOverall(user.getId());
+        assertEquals(3, overall.getTotalVisits());
+        assertEquals(3, overall.getVisitDays());
+        assertEquals(3, overall.getCurrentStreak());
+        assertEquals(TODAY.minusDays(3), overall.getFirstVisitDate());
+        assertEquals(2, statsRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void rebuildDropsRowsForGymsWithoutCompletedSessions() {
+        visit(gym, TODAY.minusDays(1));
+        // Counted incrementally but its session is gone, e.g. removed by support
+        visitStatsService.recordVisit(user.getId(), otherGym.getId(), TODAY);
+
+        visitStatsService.rebuildUser(user.getId());
+
+        assertTrue(statsRepository.findByUserIdAndGymId(user.getId(), otherGym.getId()).isEmpty());
+        assertEquals(1, visitStatsService.getOverall(user.getId()).getTotalVisits());
+    }
+
+    @Test
+    void backfillBuildsStatsFromExistingSessionsOnlyWhenAskedTo() throws Exception {
+        completedSession(gym, TODAY.minusDays(1));
+        completedSession(gym, TODAY);
+
+        // app.visit-stats.backfill-on-startup is false, so startup leaves the table alone
+        visitStatsService.run(null);
+        assertTrue(statsRepository.findByUserId(user.getId()).isEmpty());
+
+        assertTrue(visitStatsService.backfill() > 0);
+        UserVisitStats atGym = visitStatsService.getForGym(user.getId(), gym.getId());
+        assertEquals(2, atGym.getTotalVisits());
+        assertEquals(2, atGym.getCurrentStreak());
+        assertEquals(2, visitStatsService.getOverall(user.getId()).getTotalVisits());
+    }
+
+    // A checked-out session and the stats update the check-out makes with it
+    private void visit(Gym at, LocalDate day) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            completedSession(at, day);
+            visitStatsService.recordVisit(user.getId(), at.getId(), day);
+        });
+    }
+
+    private void completedSession(Gym at, LocalDate day) {
+        GymMembershipSession session = new GymMembershipSession();
+        session.setUserId(user.getId());
+        session.setGymId(at.getId());
+        session.setMembershipId(membership.getId());
+        session.setVisitDate(day);
+        session.setCheckInTime(day.atTime(7, 0));
+        session.setCheckOutTime(day.atTime(8, 0));
+        session.setStatus(GymMembershipSession.SessionStatus.COMPLETED);
+        sessionRepository.save(session);
+    }
+}
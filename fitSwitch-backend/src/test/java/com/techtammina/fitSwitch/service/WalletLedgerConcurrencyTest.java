@@ -0,0 +1,244 @@
+package com.techtammina.fitSwitch.service;
+
+import com.techtammina.fitSwitch.entity.User;
+import com.techtammina.fitSwitch.entity.WalletTransaction;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.OwnerWalletCreditRepository;
+import com.techtammina.fitSwitch.repository.UserWalletRepository;
+import com.techtammina.fitSwitch.repository.WalletTransactionRepository;
+import com.techtammina.fitSwitch.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one wallet from many threads at once, each posting in its own transaction, and
+ * checks that no update is lost and no balance goes negative.
+ */
+class WalletLedgerConcurrencyTest extends DatabaseTest {
+
+    // Below the Hikari pool size so every thread holds a connection at the same time
+    private static final int THREADS = 12;
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private UserWalletRepository walletRepository;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private OwnerWalletCreditRepository creditRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDebitsNeverOverdrawTheWallet() throws Exception {
+        User user = testData.user(Role.USER);
+        inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            batch.credit(user.getId(), new BigDecimal("100.00"), entry(WalletTransaction.TransactionType.ADD_MONEY));
+            batch.flush();
+            return null;
+        });
+
+        List<Boolean> results = runConcurrently(50, i -> inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            boolean debited = batch.tryDebit(user.getId(), new BigDecimal("3.00"),
+                    entry(WalletTransaction.TransactionType.FACILITY_USAGE)) != null;
+            batch.flush();
+            return debited;
+        }));
+
+        long succeeded = results.stream().filter(Boolean::booleanValue).count();
+        assertEquals(33, succeeded);
+        assertEquals(new BigDecimal("1.00"), balance(user));
+
+        List<WalletTransaction> debits = transactions(user, WalletTransaction.TransactionType.FACILITY_USAGE);
+        assertEquals(33, debits.size());
+        // Each debit saw the balance its own update produced: 97, 94, ... 1, each exactly once
+        assertEquals(33, debits.stream().map(WalletTransaction::getBalanceAfter).distinct().count());
+        assertTrue(debits.stream().allMatch(t -> t.getBalanceAfter().signum() >= 0));
+    }
+
+    @Test
+    void concurrentCreditsAndDebitsLoseNoUpdates() throws Exception {
+        User user = testData.user(Role.USER);
+        walletLedger.openWallet(user.getId());
+
+        List<Boolean> results = runConcurrently(120, i -> inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            boolean applied;
+            if (i % 2 == 0) {
+                batch.credit(user.getId(), new BigDecimal("10.00"), entry(WalletTransaction.TransactionType.ADD_MONEY));
+                applied = true;
+            } else {
+                applied = batch.tryDebit(user.getId(), new BigDecimal("7.00"),
+                        entry(WalletTransaction.TransactionType.FACILITY_USAGE)) != null;
+            }
+            batch.flush();
+            return applied;
+        }));
+
+        long debits = 0;
+        for (int i = 1; i < results.size(); i += 2) {
+            if (results.get(i)) {
+                debits++;
+            }
+        }
+        BigDecimal expected = new BigDecimal("600.00").subtract(new BigDecimal("7.00").multiply(BigDecimal.valueOf(debits)));
+        assertEquals(expected, balance(user));
+        assertEquals(60, transactions(user, WalletTransaction.TransactionType.ADD_MONEY).size());
+        assertEquals(debits, transactions(user, WalletTransaction.TransactionType.FACILITY_USAGE).size());
+    }
+
+    @Test
+    void concurrentOwnerCreditsAreAllFoldedIntoTheWallet() throws Exception {
+        User owner = testData.user(Role.OWNER);
+
+        runConcurrently(80, i -> inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            batch.creditOwner(owner.getId(), new BigDecimal("12.50"), entry(WalletTransaction.TransactionType.OWNER_EARNING));
+            return true;
+        }));
+
+        assertEquals(new BigDecimal("1000.00"), walletLedger.pendingCredits(owner.getId()));
+
+        int folded = inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            int count = batch.foldPendingCredits(owner.getId());
+            batch.flush();
+            return count;
+        });
+
+        assertEquals(80, folded);
+        assertEquals(new BigDecimal("1000.00"), balance(owner));
+        assertEquals(0, walletLedger.pendingCredits(owner.getId()).signum());
+        List<WalletTransaction> earnings = transactions(owner, WalletTransaction.TransactionType.OWNER_EARNING);
+        assertEquals(80, earnings.size());
+        assertEquals(new BigDecimal("1000.00"), earnings.stream()
+                .map(WalletTransaction::getBalanceAfter).max(BigDecimal::compareTo).orElseThrow());
+    }
+
+    @Test
+    void refundFoldWaitsForAConcurrentFoldAndCountsEveryCredit() throws Exception {
+        User owner = testData.user(Role.OWNER);
+        // More credits than one fold batch
+        inTransaction(() -> {
+            WalletLedger.Batch batch = walletLedger.batch();
+            for (int i = 0; i < 520; i++) {
+                batch.creditOwner(owner.getId(), new BigDecimal("1.00"), entry(WalletTransaction.TransactionType.OWNER_EARNING));
+            }
+            return null;
+        });
+
+        // A fold elsewhere has claimed the first 500 credits but not updated the wallet yet
+        CountDownLatch folderHoldsLocks = new CountDownLatch(1);
+        CountDownLatch releaseFolder = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> folder = executor.submit(() -> inTransaction(() -> {
+                int claimed = creditRepository.findPendingForUpdate(owner.getId(), PageRequest.of(0, 500)).size();
+                folderHoldsLocks.countDown();
+                releaseFolder.await();
+                return claimed;
+            }));
+            assertTrue(folderHoldsLocks.await(30, TimeUnit.SECONDS));
+
+            // A refund needing more than the 20 credits the folder left unlocked
+            Future<Boolean> refund = executor.submit(() -> inTransaction(() -> {
+                WalletLedger.Batch batch = walletLedger.batch();
+                batch.foldAllPendingCredits(owner.getId());
+                boolean debited = batch.tryDebit(owner.getId(), new BigDecimal("510.00"),
+                        entry(WalletTransaction.TransactionType.MEMBERSHIP_REFUND)) != null;
+                batch.flush();
+                return debited;
+            }));
+
+            Thread.sleep(500);
+            assertFalse(refund.isDone(), "Refund should wait for the concurrent fold, not skip its credits");
+            releaseFolder.countDown();
+
+            assertEquals(500, folder.get(30, TimeUnit.SECONDS));
+            assertTrue(refund.get(30, TimeUnit.SECONDS));
+        } finally {
+            releaseFolder.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(new BigDecimal("10.00"), balance(owner));
+        assertEquals(0, walletLedger.pendingCredits(owner.getId()).signum());
+    }
+
+    private <T> T inTransaction(Callable<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private <T> List<T> runConcurrently(int tasks, IndexedTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BigDecimal balance(User user) {
+        return walletRepository.findBalanceByUserId(user.getId()).orElseThrow().getBalance();
+    }
+
+    private List<WalletTransaction> transactions(User user, WalletTransaction.TransactionType type) {
+        return transactionRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .filter(t -> t.getType() == type)
+                .toList();
+    }
+
+    private static WalletTransaction entry(WalletTransaction.TransactionType type) {
+        WalletTransaction entry = new WalletTransaction();
+        entry.setType(type);
+        entry.setDescription("Concurrency test");
+        return entry;
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask<T> {
+        T run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,63 @@
+package com.techtammina.fitSwitch.support;
+
+import com.techtammina.fitSwitch.config.QueryBudgetFilter;
+import com.techtammina.fitSwitch.config.QueryMetricsContext;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the number of SQL statements a piece of code issues, so a controller or service test
+ * fails as soon as someone reintroduces a per-row lookup.
+ *
+ * <pre>
+ * MvcResult result = mockMvc.perform(get("/owner/gyms/1/users")).andReturn();
+ * QueryCountAssertions.assertStatementCount(result, 3);
+ *
+ * QueryCountAssertions.assertStatementCount(1, () -> walletService.getTransactionHistory(userId));
+ * </pre>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {}
+
+    public static <T> T assertStatementCount(long expected, Supplier<T> action) {
+        QueryMetricsContext context = QueryMetricsContext.begin();
+        try {
+            T result = action.get();
+            assertEquals(expected, context.getStatementCount(), "Unexpected number of SQL statements");
+            return result;
+        } finally {
+            QueryMetricsContext.end();
+        }
+    }
+
+    public static void assertStatementCount(long expected, Runnable action) {
+        assertStatementCount(expected, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static void assertStatementCountAtMost(long max, Runnable action) {
+        QueryMetricsContext context = QueryMetricsContext.begin();
+        try {
+            action.run();
+            assertTrue(context.getStatementCount() <= max,
+                    "Expected at most " + max + " SQL statements but got " + context.getStatementCount());
+        } finally {
+            QueryMetricsContext.end();
+        }
+    }
+
+    /** Asserts against the header written by {@link QueryBudgetFilter} for a MockMvc request. */
+    public static void assertStatementCount(MvcResult result, long expected) {
+        String header = result.getResponse().getHeader(QueryBudgetFilter.QUERY_COUNT_HEADER);
+        assertNotNull(header, "Response has no " + QueryBudgetFilter.QUERY_COUNT_HEADER + " header");
+        assertEquals(expected, Long.parseLong(header), "Unexpected number of SQL statements");
+    }
+}
@@ -0,0 +1,152 @@
+package com.techtammina.fitSwitch.support;
+
+import com.techtammina.fitSwitch.cache.TokenRevocationCache;
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.entity.*;
+import com.techtammina.fitSwitch.enums.Role;
+import com.techtammina.fitSwitch.repository.*;
+import com.techtammina.fitSwitch.utils.JwtUtils;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Persists fixture rows for database-backed tests. Every user gets a fresh email and mobile,
+ * so tests sharing the schema never collide.
+ */
+@TestComponent
+public class TestData {
+
+    private final UserRepository userRepository;
+    private final GymRepository gymRepository;
+    private final GymPlanRepository gymPlanRepository;
+    private final GymFacilityRepository gymFacilityRepository;
+    private final FacilityPlanRepository facilityPlanRepository;
+    private final MembershipRepository membershipRepository;
+    private final UserFacilitySubscriptionRepository facilitySubscriptionRepository;
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationCache tokenRevocationCache;
+
+    public TestData(UserRepository userRepository,
+                    GymRepository gymRepository,
+                    GymPlanRepository gymPlanRepository,
+                    GymFacilityRepository gymFacilityRepository,
+                    FacilityPlanRepository facilityPlanRepository,
+                    MembershipRepository membershipRepository,
+                    UserFacilitySubscriptionRepository facilitySubscriptionRepository,
+                    JwtUtils jwtUtils,
+                    TokenRevocationCache tokenRevocationCache) {
+        this.userRepository = userRepository;
+        this.gymRepository = gymRepository;
+        this.gymPlanRepository = gymPlanRepository;
+        this.gymFacilityRepository = gymFacilityRepository;
+        this.facilityPlanRepository = facilityPlanRepository;
+        this.membershipRepository = membershipRepository;
+        this.facilitySubscriptionRepository = facilitySubscriptionRepository;
+        this.jwtUtils = jwtUtils;
+        this.tokenRevocationCache = tokenRevocationCache;
+    }
+
+    public User user(Role role) {
+        return user(role, "Member");
+    }
+
+    public User user(Role role, String fullName) {
+        String unique = UUID.randomUUID().toString().replace("-", "");
+        User user = new User(fullName, unique + "@test.fitswitch", unique.substring(0, 12),
+                "not-a-real-hash", role, true, LocalDateTime.now());
+        return userRepository.save(user);
+    }
+
+    /**
+     * A bearer token for the user, as issued at login. The user's revocation state is cached
+     * here, as an earlier request within its TTL would have, so statement counts only cover
+     * the request under test.
+     */
+    public String bearer(User user) {
+        tokenRevocationCache.isRevoked(AuthenticatedUser.from(user));
+        return "Bearer " + jwtUtils.generateTokenFromUsername(user.getEmail(), user.getId(),
+                user.getRole(), user.getTokenVersion());
+    }
+
+    public Gym gym(Long ownerId) {
+        Gym gym = new Gym();
+        gym.setOwnerId(ownerId);
+        gym.setGymName("Test Gym " + UUID.randomUUID().toString().substring(0, 8));
+        gym.setAddress("1 Test Street");
+        gym.setCity("Hyderabad");
+        gym.setState("Telangana");
+        gym.setPincode("500001");
+        gym.setContactNumber("9000000000");
+        gym.setLatitude(17.385);
+        gym.setLongitude(78.4867);
+        gym.setOpenTime("05:00");
+        gym.setCloseTime("23:00");
+        gym.setActive(true);
+        gym.setCreatedAt(LocalDateTime.now());
+        gym.setUpdatedAt(LocalDateTime.now());
+        return gymRepository.save(gym);
+    }
+
+    public GymPlan gymPlan(Long gymId, String price) {
+        GymPlan plan = new GymPlan();
+        plan.setGymId(gymId);
+        plan.setPlanName("Monthly");
+        plan.setDurationDays(30);
+        plan.setDurationMonths(1);
+        plan.setPrice(new BigDecimal(price));
+        plan.setCreatedAt(LocalDateTime.now());
+        plan.setUpdatedAt(LocalDateTime.now());
+        return gymPlanRepository.save(plan);
+    }
+
+    public GymFacility facility(Long gymId, String name) {
+        GymFacility facility = new GymFacility();
+        facility.setGymId(gymId);
+        facility.setFacilityName(name);
+        facility.setCreatedAt(LocalDateTime.now());
+        facility.setUpdatedAt(LocalDateTime.now());
+        return gymFacilityRepository.save(facility);
+    }
+
+    public FacilityPlan facilityPlan(Long gymId, Long facilityId, String price) {
+        FacilityPlan plan = new FacilityPlan();
+        plan.setGymId(gymId);
+        plan.setFacilityId(facilityId);
+        plan.setPlanName("Facility Pass");
+        plan.setDurationDays(30);
+        plan.setPrice(new BigDecimal(price));
+        plan.setCreatedAt(LocalDateTime.now());
+        plan.setUpdatedAt(LocalDateTime.now());
+        return facilityPlanRepository.save(plan);
+    }
+
+    public Membership membership(Long userId, Long gymId, Long planId, MembershipStatus status) {
+        Membership membership = new Membership();
+        membership.setUserId(userId);
+        membership.setGymId(gymId);
+        membership.setPlanId(planId);
+        membership.setStartDate(LocalDate.now().minusDays(1));
+        membership.setEndDate(LocalDate.now().plusDays(29));
+        membership.setStatus(status);
+        membership.setCreatedAt(LocalDateTime.now());
+        return membershipRepository.save(membership);
+    }
+
+    public UserFacilitySubscription facilitySubscription(Long userId, FacilityPlan plan,
+                                                         FacilitySubscriptionStatus status) {
+        UserFacilitySubscription subscription = new UserFacilitySubscription();
+        subscription.setUserId(userId);
+        subscription.setGymId(plan.getGymId());
+        subscription.setFacilityId(plan.getFacilityId());
+        subscription.setFacilityPlanId(plan.getId());
+        subscription.setStartDate(LocalDate.now().minusDays(1));
+        subscription.setEndDate(LocalDate.now().plusDays(29));
+        subscription.setStatus(status);
+        subscription.setCreatedAt(LocalDateTime.now());
+        return facilitySubscriptionRepository.save(subscription);
+    }
+}
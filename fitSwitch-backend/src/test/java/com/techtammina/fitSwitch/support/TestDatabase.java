@@ -0,0 +1,65 @@
+package com.techtammina.fitSwitch.support;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * The database behind database-backed tests. By default an embedded MariaDB is started once per
+ * JVM and the Flyway migrations run against an empty schema. Pass -Dtest.db.url (with
+ * -Dtest.db.username and -Dtest.db.password) to run the same tests against a real MySQL instead.
+ */
+public final class TestDatabase {
+
+    private static final String SCHEMA = "fitswitch_test";
+
+    private static String url;
+    private static String username;
+    private static String password;
+    private static String dialect;
+
+    private TestDatabase() {}
+
+    public static void register(DynamicPropertyRegistry registry) {
+        start();
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> username);
+        registry.add("spring.datasource.password", () -> password);
+        if (dialect != null) {
+            registry.add("spring.jpa.database-platform", () -> dialect);
+        }
+    }
+
+    private static synchronized void start() {
+        if (url != null) {
+            return;
+        }
+        String external = System.getProperty("test.db.url");
+        if (external != null && !external.isBlank()) {
+            url = external;
+            username = System.getProperty("test.db.username", "root");
+            password = System.getProperty("test.db.password", "");
+            return;
+        }
+        try {
+            DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+            config.setPort(0);
+            config.setDefaultCharacterSet("utf8mb4");
+            if ("root".equals(System.getProperty("user.name"))) {
+                config.addArg("--user=root");
+            }
+            DB db = DB.newEmbeddedDB(config.build());
+            db.start();
+            db.createDB(SCHEMA);
+            url = config.getURL(SCHEMA).replace("jdbc:mariadb:", "jdbc:mysql:")
+                    + "?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
+            username = "root";
+            password = "";
+            // MariaDB has no FOR UPDATE OF, which the MySQL dialect emits for locking reads
+            dialect = "org.hibernate.dialect.MariaDBDialect";
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Could not start the embedded test database", e);
+        }
+    }
+}
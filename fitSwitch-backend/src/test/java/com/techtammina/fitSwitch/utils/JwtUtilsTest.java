@@ -0,0 +1,88 @@
+package com.techtammina.fitSwitch.utils;
+
+import com.techtammina.fitSwitch.config.AuthenticatedUser;
+import com.techtammina.fitSwitch.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "fitSwitchSecretKeyForJWTTokenGenerationAndValidation2024";
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 86_400_000, 100, 300_000, null);
+
+    @Test
+    void tokenCarriesUserIdRoleAndTokenVersion() {
+        String token = jwtUtils.generateTokenFromUsername("owner@example.com", 42L, Role.OWNER, 3);
+
+        Claims claims = jwtUtils.parseAndValidate(token);
+
+        assertEquals("owner@example.com", claims.getSubject());
+        assertEquals(42L, claims.get(JwtUtils.CLAIM_USER_ID, Number.class).longValue());
+        assertEquals("OWNER", claims.get(JwtUtils.CLAIM_ROLE, String.class));
+        assertEquals(3, claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Number.class).intValue());
+    }
+
+    @Test
+    void principalIsBuiltFromTheClaimsAlone() {
+        String token = jwtUtils.generateTokenFromUsername("owner@example.com", 42L, Role.OWNER, 3);
+
+        AuthenticatedUser principal = jwtUtils.getPrincipalFromClaims(jwtUtils.parseAndValidate(token));
+
+        assertEquals(42L, principal.getId());
+        assertEquals("owner@example.com", principal.getUsername());
+        assertEquals(Role.OWNER, principal.getRole());
+        assertEquals(3, principal.getTokenVersion());
+        assertTrue(principal.isEnabled());
+        assertNull(principal.getPassword());
+        assertEquals(List.of("ROLE_OWNER"), principal.getAuthorities().stream()
+                .map(authority -> authority.getAuthority()).toList());
+    }
+
+    @Test
+    void tokenWithoutTheClaimsHasNoPrincipal() {
+        // Issued before uid/role/tv existed; the filter loads the user instead
+        String legacy = Jwts.builder()
+                .setSubject("member@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        Claims claims = jwtUtils.parseAndValidate(legacy);
+
+        assertNotNull(claims);
+        assertNull(jwtUtils.getPrincipalFromClaims(claims));
+    }
+
+    @Test
+    void verifiedTokensAreAnsweredFromTheCache() {
+        String token = jwtUtils.generateTokenFromUsername("member@example.com", 7L, Role.USER, 0);
+        JwtUtils uncached = new JwtUtils(SECRET, 86_400_000, 100, 0, null);
+
+        assertSame(jwtUtils.parseAndValidate(token), jwtUtils.parseAndValidate(token));
+        assertNotSame(uncached.parseAndValidate(token), uncached.parseAndValidate(token));
+    }
+
+    @Test
+    void invalidTokensAreRejected() {
+        String token = jwtUtils.generateTokenFromUsername("member@example.com", 7L, Role.USER, 0);
+        JwtUtils otherKey = new JwtUtils(SECRET + "-rotated", 86_400_000, 100, 300_000, null);
+        JwtUtils expiring = new JwtUtils(SECRET, -1_000, 100, 300_000, null);
+
+        assertNull(jwtUtils.parseAndValidate(null));
+        assertNull(jwtUtils.parseAndValidate("not-a-token"));
+        assertNull(otherKey.parseAndValidate(token));
+        assertNull(jwtUtils.parseAndValidate(token.substring(0, token.length() - 2) + "xx"));
+        assertNull(expiring.parseAndValidate(
+                expiring.generateTokenFromUsername("member@example.com", 7L, Role.USER, 0)));
+    }
+}
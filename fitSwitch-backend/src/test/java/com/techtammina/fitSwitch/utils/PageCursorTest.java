@@ -0,0 +1,38 @@
+package com.techtammina.fitSwitch.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsDateTimeAndDateKeys() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 6, 30, 15);
+        PageCursor byCreatedAt = PageCursor.decode(PageCursor.encode(createdAt, 42L));
+        assertEquals(createdAt, byCreatedAt.dateTimeKey());
+        assertEquals(42L, byCreatedAt.getId());
+
+        LocalDate visitDate = LocalDate.of(2026, 3, 14);
+        PageCursor byVisitDate = PageCursor.decode(PageCursor.encode(visitDate, 7L));
+        assertEquals(visitDate, byVisitDate.dateKey());
+        assertEquals(7L, byVisitDate.getId());
+    }
+
+    @Test
+    void missingTokenStartsAfterEveryRow() {
+        PageCursor first = PageCursor.decode(null);
+        assertEquals(Long.MAX_VALUE, first.getId());
+        assertTrue(first.dateTimeKey().isAfter(LocalDateTime.now().plusYears(100)));
+        assertTrue(PageCursor.decode(" ").dateKey().isAfter(LocalDate.now().plusYears(100)));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThrows(RuntimeException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(RuntimeException.class, () -> PageCursor.decode(PageCursor.encode("yesterday", 1L)).dateTimeKey());
+    }
+}